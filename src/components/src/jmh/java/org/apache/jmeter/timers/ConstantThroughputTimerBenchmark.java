@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.timers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Delays calculated per millisecond by the shared modes of {@link ConstantThroughputTimer}
+ * when 1000 or 10000 threads share the same schedule: {@code atomic} is the current schedule,
+ * and {@code synchronized} the one of JMeter 5.6, which took a monitor for each sample.
+ */
+@Fork(value = 1, jvmArgsPrepend = {"-Xmx1g", "-Xss256k"})
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConstantThroughputTimerBenchmark {
+    /** 60000 samples per minute */
+    private static final long MILLISEC_PER_REQUEST = 1;
+
+    private final ConstantThroughputTimer.ThroughputInfo atomicInfo = new ConstantThroughputTimer.ThroughputInfo();
+
+    private final SynchronizedThroughputInfo synchronizedInfo = new SynchronizedThroughputInfo();
+
+    /** Schedule of JMeter 5.6 */
+    private static final class SynchronizedThroughputInfo {
+        final Object MUTEX = new Object();
+        long lastScheduledTime = 0;
+
+        long nextDelay(long now, long milliSecPerRequest) {
+            final long calculatedDelay;
+            synchronized (MUTEX) {
+                final long nextRequestTime = lastScheduledTime + milliSecPerRequest;
+                lastScheduledTime = Math.max(now, nextRequestTime);
+                calculatedDelay = lastScheduledTime - now;
+            }
+            return Math.max(calculatedDelay, 0);
+        }
+    }
+
+    @Benchmark
+    @Threads(1000)
+    public long atomic1k() {
+        return atomicInfo.nextDelay(System.currentTimeMillis(), MILLISEC_PER_REQUEST);
+    }
+
+    @Benchmark
+    @Threads(1000)
+    public long synchronized1k() {
+        return synchronizedInfo.nextDelay(System.currentTimeMillis(), MILLISEC_PER_REQUEST);
+    }
+
+    @Benchmark
+    @Threads(10000)
+    public long atomic10k() {
+        return atomicInfo.nextDelay(System.currentTimeMillis(), MILLISEC_PER_REQUEST);
+    }
+
+    @Benchmark
+    @Threads(10000)
+    public long synchronized10k() {
+        return synchronizedInfo.nextDelay(System.currentTimeMillis(), MILLISEC_PER_REQUEST);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConstantThroughputTimerBenchmark.class.getSimpleName())
+                .detectJvmArgs()
+                .build();
+        new Runner(opt).run();
+    }
+}
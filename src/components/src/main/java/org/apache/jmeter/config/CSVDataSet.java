@@ -118,6 +118,9 @@ public class CSVDataSet extends ConfigTestElement
 
     private boolean ignoreFirstLine = false;
 
+    /** Whether the file is read through a memory-mapped index, see {@link FileServer#reserveIndexedFile} */
+    private transient boolean indexed;
+
     private Object readResolve(){
         recycle = true;
         return this;
@@ -168,7 +171,14 @@ public class CSVDataSet extends ConfigTestElement
         JMeterVariables threadVars = context.getVariables();
         String[] lineValues = {};
         try {
-            if (getQuotedData()) {
+            if (indexed) {
+                String line = server.readIndexedLine(alias, recycle);
+                if (line != null) {
+                    lineValues = getQuotedData()
+                            ? CSVSaveService.csvSplitString(line, delim.charAt(0))
+                            : JOrphanUtils.split(line, delim, false);
+                }
+            } else if (getQuotedData()) {
                 lineValues = server.getParsedLine(alias, recycle,
                         firstLineIsNames || ignoreFirstLine, delim.charAt(0));
             } else {
@@ -196,9 +206,13 @@ public class CSVDataSet extends ConfigTestElement
     private void initVars(FileServer server, final JMeterContext context, String delim) {
         String fileName = getFilename().trim();
         setAlias(context, fileName);
+        // Read when the test starts rather than when the class is loaded, so it can be changed between runs
+        boolean useIndex = JMeterUtils.getPropDefault("csvdataset.indexed", false); //$NON-NLS-1$
         final String names = getVariableNames();
         if (StringUtilities.isEmpty(names)) {
-            String header = server.reserveFile(fileName, getFileEncoding(), alias, true);
+            String header = useIndex
+                    ? server.reserveIndexedFile(fileName, getFileEncoding(), alias, true, getQuotedData())
+                    : server.reserveFile(fileName, getFileEncoding(), alias, true);
             try {
                 vars = CSVSaveService.csvSplitString(header, delim.charAt(0));
                 firstLineIsNames = true;
@@ -206,9 +220,14 @@ public class CSVDataSet extends ConfigTestElement
                 throw new IllegalArgumentException("Could not split CSV header line from file:" + fileName,e);
             }
         } else {
-            server.reserveFile(fileName, getFileEncoding(), alias, ignoreFirstLine);
+            if (useIndex) {
+                server.reserveIndexedFile(fileName, getFileEncoding(), alias, ignoreFirstLine, getQuotedData());
+            } else {
+                server.reserveFile(fileName, getFileEncoding(), alias, ignoreFirstLine);
+            }
             vars = JOrphanUtils.split(names, ","); // $NON-NLS-1$
         }
+        indexed = useIndex && server.isIndexed(alias);
         trimVarNames(vars);
     }
 
@@ -18,13 +18,17 @@
 package org.apache.jmeter.extractor;
 
 import java.io.Serializable;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.PatternSyntaxException;
 
 import org.apache.jmeter.processor.PostProcessor;
+import org.apache.jmeter.samplers.ResponseStreamConsumer;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.AbstractScopedTestElement;
 import org.apache.jmeter.testelement.schema.PropertiesAccessor;
@@ -43,7 +47,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unbescape.html.HtmlEscape;
 
-public class RegexExtractor extends AbstractScopedTestElement implements PostProcessor, Serializable {
+public class RegexExtractor extends AbstractScopedTestElement implements PostProcessor, ResponseStreamConsumer, Serializable {
 
     private static final long serialVersionUID = 242L;
 
@@ -74,8 +78,20 @@ public class RegexExtractor extends AbstractScopedTestElement implements PostPro
     private static final boolean USE_JAVA_REGEX = !JMeterUtils.getPropDefault(
             "jmeter.regex.engine", "oro").equalsIgnoreCase("oro");
 
+    /** Number of characters of a streamed body kept to find the matches, see {@link StreamingRegexMatcher} */
+    private static final int STREAMING_WINDOW = JMeterUtils.getPropDefault(
+            "jmeter.regex.streaming_window", 8192);
+
     private transient List<Object> template;
 
+    // Embedded resources downloaded in parallel are streamed at once by several threads.
+    // SampleResult does not override equals, so the results are compared by identity
+    /** Bodies being streamed by the sampler, see {@link ResponseStreamConsumer} */
+    private transient Map<SampleResult, StreamingRegexMatcher<?>> streams = new ConcurrentHashMap<>();
+
+    /** Matches found in the bodies streamed completely */
+    private transient Map<SampleResult, StreamingRegexMatcher<?>> streamedMatches = new ConcurrentHashMap<>();
+
     @Override
     public RegexExtractorSchema getSchema() {
         return RegexExtractorSchema.INSTANCE;
@@ -112,11 +128,90 @@ public class RegexExtractor extends AbstractScopedTestElement implements PostPro
             vars.put(refName, defaultValue);
         }
 
-        if (USE_JAVA_REGEX) {
-            extractWithJavaRegex(previousResult, vars, refName, matchNumber);
-        } else {
-            extractWithOroRegex(previousResult, vars, refName, matchNumber);
+        try {
+            if (USE_JAVA_REGEX) {
+                extractWithJavaRegex(previousResult, vars, refName, matchNumber);
+            } else {
+                extractWithOroRegex(previousResult, vars, refName, matchNumber);
+            }
+        } finally {
+            streams.clear();
+            streamedMatches.clear();
+        }
+    }
+
+    /**
+     * Starts finding the matches in the body of a response while it is read,
+     * so they are found even if the sampler does not store the whole body.
+     * Only the body field is supported, the other fields are matched once the sample is done.
+     * Sub-results are only streamed if the scope of the extractor includes them.
+     */
+    @Override
+    public boolean start(SampleResult result, boolean subResult) {
+        String scope = fetchScope();
+        boolean inScope = isScopeAll(scope) || (subResult ? isScopeChildren(scope) : isScopeParent(scope));
+        if (!useBody() || !inScope) {
+            return false;
+        }
+        String regex = getRegex();
+        int matchNumber = getMatchNumber();
+        try {
+            Charset charset = Charset.forName(result.getDataEncodingWithDefault());
+            StreamingRegexMatcher<?> stream;
+            if (USE_JAVA_REGEX) {
+                stream = StreamingRegexMatcher.forJava(
+                        JMeterUtils.compilePattern(regex), charset, STREAMING_WINDOW, matchNumber);
+            } else {
+                stream = StreamingRegexMatcher.forOro(
+                        JMeterUtils.getPatternCache().getPattern(regex, Perl5Compiler.READ_ONLY_MASK),
+                        charset, STREAMING_WINDOW, matchNumber);
+            }
+            streams.put(result, stream);
+        } catch (MalformedCachePatternException | IllegalArgumentException e) {
+            // The error is reported when the extractor processes the sample
+            log.debug("Could not stream response of {}", result.getSampleLabel(), e);
+            return false;
         }
+        return true;
+    }
+
+    @Override
+    public void consume(SampleResult result, byte[] buffer, int offset, int length) {
+        StreamingRegexMatcher<?> stream = streams.get(result);
+        if (stream != null) {
+            stream.consume(buffer, offset, length);
+        }
+    }
+
+    @Override
+    public void end(SampleResult result) {
+        // A body that could not be read completely is left in streams, so it is matched from the stored data
+        StreamingRegexMatcher<?> stream = streams.remove(result);
+        if (stream != null) {
+            stream.finish();
+            streamedMatches.put(result, stream);
+        }
+    }
+
+    /**
+     * @return the matches found while the body of the result was read, or null if it was not streamed
+     */
+    @SuppressWarnings("unchecked")
+    private <M> List<M> getStreamedMatches(SampleResult result) {
+        StreamingRegexMatcher<?> stream = streamedMatches.get(result);
+        return stream == null ? null : (List<M>) stream.getMatches();
+    }
+
+    private static <M> int addStreamedMatches(int matchNumber, List<? super M> matches, int found,
+            List<M> streamed) {
+        for (M match : streamed) {
+            if (matchNumber > 0 && found == matchNumber) {
+                break;
+            }
+            matches.add(match);
+            found++;
+        }
+        return found;
     }
 
     private void extractWithOroRegex(SampleResult previousResult, JMeterVariables vars, String refName, int matchNumber) {
@@ -269,9 +364,14 @@ public class RegexExtractor extends AbstractScopedTestElement implements PostPro
         } else {
             List<SampleResult> sampleList = getSampleList(result);
             for (SampleResult sr : sampleList) {
-                String inputString = getInputString(sr);
-                found = matchStrings(matchNumber, matcher, pattern, matches, found,
-                        inputString);
+                List<MatchResult> streamed = getStreamedMatches(sr);
+                if (streamed != null) {
+                    found = addStreamedMatches(matchNumber, matches, found, streamed);
+                } else {
+                    String inputString = getInputString(sr);
+                    found = matchStrings(matchNumber, matcher, pattern, matches, found,
+                            inputString);
+                }
                 if (matchNumber > 0 && found == matchNumber){// no need to process further
                     break;
                 }
@@ -300,8 +400,13 @@ public class RegexExtractor extends AbstractScopedTestElement implements PostPro
         } else {
             List<SampleResult> sampleList = getSampleList(result);
             for (SampleResult sr : sampleList) {
-                String inputString = getInputString(sr);
-                found = matchStrings(matchNumber, pattern, matches, found, inputString);
+                List<java.util.regex.MatchResult> streamed = getStreamedMatches(sr);
+                if (streamed != null) {
+                    found = addStreamedMatches(matchNumber, matches, found, streamed);
+                } else {
+                    String inputString = getInputString(sr);
+                    found = matchStrings(matchNumber, pattern, matches, found, inputString);
+                }
                 if (matchNumber > 0 && found == matchNumber) {// no need to process further
                     break;
                 }
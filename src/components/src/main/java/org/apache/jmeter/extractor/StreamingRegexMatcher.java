@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.extractor;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.apache.oro.text.regex.MatchResult;
+import org.apache.oro.text.regex.Pattern;
+import org.apache.oro.text.regex.PatternMatcherInput;
+import org.apache.oro.text.regex.Perl5Matcher;
+
+/**
+ * Finds the matches of a regular expression in a response body while it is read,
+ * keeping only a bounded window of the decoded text.
+ * <p>
+ * A match is only accepted once at least {@code window} characters follow it, so that more text
+ * can not change it. Matches, and the text looked ahead or behind by the expression,
+ * must therefore be shorter than the window.
+ *
+ * @param <M> type of the matches
+ * @since 6.0
+ */
+final class StreamingRegexMatcher<M> {
+
+    private interface Finder<M> {
+        /**
+         * @return the first match starting at or after {@code from}, or null
+         */
+        M find(char[] chars, int from, int length, int offset);
+
+        int start();
+
+        int end();
+    }
+
+    private final Finder<M> finder;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+    private final int window;
+    private final int matchNumber;
+    private final List<M> matches = new ArrayList<>();
+
+    private char[] chars;
+    private int length;
+    /** Where the search starts in {@link #chars} */
+    private int position;
+    /** Number of characters dropped from the start of the text */
+    private int offset;
+    private boolean done;
+
+    private StreamingRegexMatcher(Finder<M> finder, Charset charset, int window, int matchNumber) {
+        this.finder = finder;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.window = Math.max(1, window);
+        this.matchNumber = matchNumber;
+        this.chars = new char[this.window * 2];
+    }
+
+    /**
+     * @param pattern     ORO pattern
+     * @param charset     charset of the body
+     * @param window      number of characters kept to find the matches
+     * @param matchNumber number of matches to find, 0 or less to find them all
+     * @return matcher for the ORO engine
+     */
+    static StreamingRegexMatcher<MatchResult> forOro(Pattern pattern, Charset charset, int window, int matchNumber) {
+        Perl5Matcher matcher = new Perl5Matcher();
+        return new StreamingRegexMatcher<>(new Finder<>() {
+            private MatchResult match;
+
+            @Override
+            public MatchResult find(char[] chars, int from, int length, int offset) {
+                PatternMatcherInput input = new PatternMatcherInput(chars, 0, length);
+                input.setCurrentOffset(from);
+                match = matcher.contains(input, pattern) ? matcher.getMatch() : null;
+                // ORO copies the matched text, so the match does not hold the window
+                return match;
+            }
+
+            @Override
+            public int start() {
+                return match.beginOffset(0);
+            }
+
+            @Override
+            public int end() {
+                return match.endOffset(0);
+            }
+        }, charset, window, matchNumber);
+    }
+
+    /**
+     * @param pattern     Java pattern
+     * @param charset     charset of the body
+     * @param window      number of characters kept to find the matches
+     * @param matchNumber number of matches to find, 0 or less to find them all
+     * @return matcher for the Java engine
+     */
+    static StreamingRegexMatcher<java.util.regex.MatchResult> forJava(
+            java.util.regex.Pattern pattern, Charset charset, int window, int matchNumber) {
+        return new StreamingRegexMatcher<>(new Finder<>() {
+            private final Matcher matcher = pattern.matcher("");
+            private int start;
+            private int end;
+
+            @Override
+            public java.util.regex.MatchResult find(char[] chars, int from, int length, int offset) {
+                matcher.reset(CharBuffer.wrap(chars, 0, length));
+                // Transparent bounds let the look-behinds and \b see the kept characters before the search start
+                matcher.useTransparentBounds(true).useAnchoringBounds(false).region(from, length);
+                if (!matcher.find()) {
+                    return null;
+                }
+                start = matcher.start();
+                end = matcher.end();
+                return new StreamedMatch(matcher, offset);
+            }
+
+            @Override
+            public int start() {
+                return start;
+            }
+
+            @Override
+            public int end() {
+                return end;
+            }
+        }, charset, window, matchNumber);
+    }
+
+    /**
+     * @param buffer  bytes of the body
+     * @param off     offset of the bytes in the buffer
+     * @param len     number of bytes
+     */
+    void consume(byte[] buffer, int off, int len) {
+        while (len > 0 && !done) {
+            int n = Math.min(len, bytes.remaining());
+            bytes.put(buffer, off, n);
+            off += n;
+            len -= n;
+            decode(false);
+        }
+    }
+
+    /**
+     * Finds the matches left once the whole body has been consumed
+     */
+    void finish() {
+        if (!done) {
+            decode(true);
+        }
+        done = true;
+        chars = null;
+    }
+
+    /**
+     * @return the matches found, in the order of the text
+     */
+    List<M> getMatches() {
+        return matches;
+    }
+
+    private void decode(boolean endOfInput) {
+        bytes.flip();
+        int maxLength = length + (int) (bytes.remaining() * (double) decoder.maxCharsPerByte()) + 1;
+        if (maxLength > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(maxLength, chars.length * 2));
+        }
+        CharBuffer out = CharBuffer.wrap(chars, length, chars.length - length);
+        decoder.decode(bytes, out, endOfInput);
+        if (endOfInput) {
+            decoder.flush(out);
+        }
+        length = out.position();
+        bytes.compact();
+        scan(endOfInput);
+    }
+
+    private void scan(boolean endOfInput) {
+        int limit = endOfInput ? length : length - window;
+        int keepFrom = -1;
+        while (position <= length) {
+            M match = finder.find(chars, position, length, offset);
+            if (match == null) {
+                break;
+            }
+            int start = finder.start();
+            int end = finder.end();
+            if (end > limit) {
+                // More text could extend or change the match, so wait for it
+                keepFrom = start;
+                break;
+            }
+            matches.add(match);
+            position = end > start ? end : end + 1;
+            if (matchNumber > 0 && matches.size() == matchNumber) {
+                done = true;
+                return;
+            }
+        }
+        if (keepFrom < 0) {
+            keepFrom = Math.max(position, length - window);
+        }
+        // Keep one more character for the anchors and the look-behinds
+        int drop = Math.max(0, Math.min(keepFrom, length) - 1);
+        if (drop > 0) {
+            System.arraycopy(chars, drop, chars, 0, length - drop);
+            length -= drop;
+            offset += drop;
+        }
+        position = keepFrom - drop;
+    }
+
+    /**
+     * Match of the Java engine which only keeps its groups, not the text it was found in
+     */
+    private static final class StreamedMatch implements java.util.regex.MatchResult {
+        private final String[] groups;
+        private final int[] starts;
+        private final int[] ends;
+
+        StreamedMatch(Matcher matcher, int offset) {
+            int count = matcher.groupCount() + 1;
+            groups = new String[count];
+            starts = new int[count];
+            ends = new int[count];
+            for (int i = 0; i < count; i++) {
+                groups[i] = matcher.group(i);
+                starts[i] = groups[i] == null ? -1 : offset + matcher.start(i);
+                ends[i] = groups[i] == null ? -1 : offset + matcher.end(i);
+            }
+        }
+
+        @Override
+        public int start() {
+            return starts[0];
+        }
+
+        @Override
+        public int start(int group) {
+            return starts[group];
+        }
+
+        @Override
+        public int end() {
+            return ends[0];
+        }
+
+        @Override
+        public int end(int group) {
+            return ends[group];
+        }
+
+        @Override
+        public String group() {
+            return groups[0];
+        }
+
+        @Override
+        public String group(int group) {
+            return groups[group];
+        }
+
+        @Override
+        public int groupCount() {
+            return groups.length - 1;
+        }
+    }
+}
@@ -52,9 +52,39 @@ import org.apiguardian.api.API;
 public class ConstantThroughputTimer extends AbstractTestElement implements Timer, TestBean {
     private static final long serialVersionUID = 4;
 
-    private static class ThroughputInfo{
-        final Object MUTEX = new Object();
-        long lastScheduledTime = 0;
+    /**
+     * Schedule shared by the threads of the test or of a thread group.
+     * All these threads call it for each sample, so the time of the last scheduled sample
+     * is updated with atomic operations instead of a lock.
+     */
+    static final class ThroughputInfo {
+        private final AtomicLong lastScheduledTime = new AtomicLong();
+
+        /**
+         * Schedules a sample {@code milliSecPerRequest} after the last scheduled sample,
+         * or now if that time has already passed.
+         *
+         * @param now                current time in milliseconds
+         * @param milliSecPerRequest time between two samples
+         * @return delay until the scheduled sample, in milliseconds
+         */
+        long nextDelay(long now, long milliSecPerRequest) {
+            while (true) {
+                long last = lastScheduledTime.get();
+                if (last + milliSecPerRequest >= now) {
+                    // The schedule is ahead of now and only grows, so the next slot does not depend on now:
+                    // reserve it with a single atomic addition, which never fails unlike compareAndSet
+                    return Math.max(lastScheduledTime.addAndGet(milliSecPerRequest) - now, 0);
+                }
+                if (lastScheduledTime.compareAndSet(last, now)) {
+                    return 0;
+                }
+            }
+        }
+
+        void reset() {
+            lastScheduledTime.set(0);
+        }
     }
     private static final AtomicLong PREV_TEST_STARTED = new AtomicLong(0L);
 
@@ -251,24 +281,11 @@ public class ConstantThroughputTimer extends AbstractTestElement implements Time
     }
 
     private static long calculateSharedDelay(ThroughputInfo info, long milliSecPerRequest) {
-        final long now = System.currentTimeMillis();
-        final long calculatedDelay;
-
-        //Synchronize on the info object's MUTEX to ensure
-        //Multiple threads don't update the scheduled time simultaneously
-        synchronized (info.MUTEX) {
-            final long nextRequestTime = info.lastScheduledTime + milliSecPerRequest;
-            info.lastScheduledTime = Math.max(now, nextRequestTime);
-            calculatedDelay = info.lastScheduledTime - now;
-        }
-
-        return Math.max(calculatedDelay, 0);
+        return info.nextDelay(System.currentTimeMillis(), milliSecPerRequest);
     }
 
     private void reset() {
-        synchronized (allThreadsInfo.MUTEX) {
-            allThreadsInfo.lastScheduledTime = 0;
-        }
+        allThreadsInfo.reset();
         threadGroupsInfoMap.clear();
         // no need to sync as one per instance
         previousTime = 0;
@@ -21,6 +21,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.jmeter.gui.GUIMenuSortOrder;
 import org.apache.jmeter.gui.TestElementMetadata;
@@ -93,11 +94,7 @@ public class PreciseThroughputTimer extends AbstractTestElement implements Clone
 
     @Override
     public long delay() {
-        double nextEvent;
-        EventProducer events = getEventProducer();
-        synchronized (events) {
-            nextEvent = events.next();
-        }
+        double nextEvent = getEventProducer().next();
         long now = System.currentTimeMillis();
         long testStarted = JMeterContextService.getContext().getThreadGroup().getStartTime();
         long delay = (long) (nextEvent * TimeUnit.SECONDS.toMillis(1) + testStarted - now);
@@ -132,9 +129,33 @@ public class PreciseThroughputTimer extends AbstractTestElement implements Clone
         }
         Long seed = randomSeed == null || randomSeed == 0 ? null : randomSeed;
         return
-                groupEvents.computeIfAbsent(key, x -> new ConstantPoissonProcessGenerator(
+                groupEvents.computeIfAbsent(key, x -> new LockingEventProducer(new ConstantPoissonProcessGenerator(
                         () -> PreciseThroughputTimer.this.getThroughput() / throughputPeriod,
-                        batchSize, batchThreadDelay, this, seed, true));
+                        batchSize, batchThreadDelay, this, seed, true)));
+    }
+
+    /**
+     * Serializes access to an {@link EventProducer} shared by all threads of a Thread Group.
+     * A {@link ReentrantLock} is used instead of a monitor, so virtual threads waiting
+     * for their next event do not pin their carrier thread.
+     */
+    private static final class LockingEventProducer implements EventProducer {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final EventProducer delegate;
+
+        LockingEventProducer(EventProducer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public double next() {
+            lock.lock();
+            try {
+                return delegate.next();
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     /**
@@ -279,6 +279,12 @@ public abstract class SamplerResultTab implements ResultRenderer {
                         .append(JMeterUtils
                                 .getResString("view_results_connect_time")).append(SPACE) //$NON-NLS-1$
                         .append(sampleResult.getConnectTime()).append(NL);
+                if (sampleResult.isTlsHandshake()) {
+                    statsBuff
+                            .append(JMeterUtils
+                                    .getResString("view_results_tls_session_resumed")).append(SPACE) //$NON-NLS-1$
+                            .append(sampleResult.isTlsSessionResumed()).append(NL);
+                }
                 statsBuff
                         .append(JMeterUtils
                                 .getResString("view_results_latency")).append(SPACE) //$NON-NLS-1$
@@ -372,6 +378,11 @@ public abstract class SamplerResultTab implements ResultRenderer {
                 resultModel.addRow(new RowResult(
                         JMeterUtils.getParsedLabel("view_results_connect_time"), //$NON-NLS-1$
                         sampleResult.getConnectTime()));
+                if (sampleResult.isTlsHandshake()) {
+                    resultModel.addRow(new RowResult(
+                            JMeterUtils.getParsedLabel("view_results_tls_session_resumed"), //$NON-NLS-1$
+                            sampleResult.isTlsSessionResumed()));
+                }
                 resultModel.addRow(new RowResult(
                         JMeterUtils.getParsedLabel("view_results_latency"), //$NON-NLS-1$
                         sampleResult.getLatency()));
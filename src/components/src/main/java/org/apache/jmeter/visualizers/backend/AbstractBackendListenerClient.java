@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -100,7 +101,7 @@ public abstract class AbstractBackendListenerClient implements BackendListenerCl
     protected final SamplerMetric getSamplerMetric(String sampleLabel) {
         SamplerMetric samplerMetric = metricsPerSampler.get(sampleLabel);
         if(samplerMetric == null) {
-            samplerMetric = new SamplerMetric();
+            samplerMetric = SamplerMetric.create();
             SamplerMetric oldValue = metricsPerSampler.putIfAbsent(sampleLabel, samplerMetric);
             if(oldValue != null ){
                 samplerMetric = oldValue;
@@ -109,6 +110,21 @@ public abstract class AbstractBackendListenerClient implements BackendListenerCl
         return samplerMetric;
     }
 
+    /**
+     * Indicates whether the metrics returned by {@link #getSamplerMetric(String)} and
+     * {@link #getUserMetrics()} can be updated by several threads without locking,
+     * that is when {@code backend_metrics_window_mode} is {@code histogram}.
+     * Subclasses which only update such metrics in {@link #handleSampleResult(SampleResult, BackendListenerContext)}
+     * can return this value from {@link #handlesSampleResultsOnSamplingThreads()}
+     * to skip the queue of the {@link BackendListener}.
+     *
+     * @return true if metrics can be updated concurrently
+     * @since 6.0
+     */
+    protected static boolean hasLockFreeMetrics() {
+        return SamplerMetric.isLockFree();
+    }
+
     /**
      * @return Map where key is SampleLabel and {@link SamplerMetric} is the metrics of this Sample
      */
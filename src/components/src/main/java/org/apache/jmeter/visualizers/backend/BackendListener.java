@@ -59,6 +59,8 @@ public class BackendListener
         // @GuardedBy("LOCK")
         private int instanceCount; // number of active tests
         private CountDownLatch latch;
+        // results are handled by the sampling threads rather than queued
+        private boolean direct;
     }
 
     private static final long serialVersionUID = 1L;
@@ -153,6 +155,10 @@ public class BackendListener
             }
             return;
         }
+        if (listenerClientData.direct) {
+            listenerClientData.client.handleSampleResult(sr, context);
+            return;
+        }
         try {
             if (!listenerClientData.queue.offer(sr)) { // we failed to add the element first time
                 listenerClientData.queueWaits.add(1L);
@@ -315,6 +321,7 @@ public class BackendListener
                 listenerClientData.queueWaitTime = new LongAdder();
                 listenerClientData.latch = new CountDownLatch(1);
                 listenerClientData.client = backendListenerClient;
+                listenerClientData.direct = backendListenerClient.handlesSampleResultsOnSamplingThreads();
                 if (log.isInfoEnabled()) {
                     log.info("{}: Starting worker with class: {} and queue capacity: {}", getName(), clientClass,
                             getQueueSize());
@@ -17,6 +17,7 @@
 
 package org.apache.jmeter.visualizers.backend;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.jmeter.config.Arguments;
@@ -129,4 +130,31 @@ public interface BackendListenerClient {
             BackendListenerContext context, SampleResult result) {
         return result;
     }
+
+    /**
+     * Indicates whether this client can handle results directly on the sampling
+     * threads. If so, {@link #handleSampleResult(SampleResult, BackendListenerContext)}
+     * is called by the thread which produced the result, concurrently with other
+     * sampling threads, and results are not queued for the listener thread.
+     * Defaults to false.
+     *
+     * @return true if results can be handled on the sampling threads
+     * @since 6.0
+     */
+    default boolean handlesSampleResultsOnSamplingThreads() {
+        return false;
+    }
+
+    /**
+     * Handle one sampleResult on the sampling thread which produced it.
+     * Only called when {@link #handlesSampleResultsOnSamplingThreads()} returns true,
+     * so implementations must be thread safe.
+     *
+     * @param sampleResult {@link SampleResult} returned by {@link #createSampleResult(BackendListenerContext, SampleResult)}
+     * @param context      provides access to initialization parameters.
+     * @since 6.0
+     */
+    default void handleSampleResult(SampleResult sampleResult, BackendListenerContext context) {
+        handleSampleResults(Collections.singletonList(sampleResult), context);
+    }
 }
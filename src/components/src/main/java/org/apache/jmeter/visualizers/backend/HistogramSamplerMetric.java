@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.visualizers.backend;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.math.ConcurrentLogLinearHistogram;
+import org.apache.jorphan.math.LogLinearHistogram;
+
+/**
+ * Sampler metric used in {@link WindowMode#HISTOGRAM} mode.
+ * <p>
+ * Sampling threads update it directly without locking: counters are striped
+ * {@link LongAdder}s and response times are counted in {@link ConcurrentLogLinearHistogram}s,
+ * whose memory does not depend on the number of samples.
+ * The values of the current interval are moved to a snapshot on the first read after
+ * {@link #resetForTimeInterval()}, so that all the values read for an interval are consistent.
+ * Getters and {@link #resetForTimeInterval()} are meant to be called by a single reporting thread.
+ *
+ * @since 6.0
+ */
+final class HistogramSamplerMetric extends SamplerMetric {
+    private static final int SIGNIFICANT_DIGITS = JMeterUtils.getPropDefault("backend_metrics_histogram_digits", 2);
+
+    private final ConcurrentLogLinearHistogram okResponses = new ConcurrentLogLinearHistogram(SIGNIFICANT_DIGITS);
+    private final ConcurrentLogLinearHistogram koResponses = new ConcurrentLogLinearHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder receivedBytes = new LongAdder();
+    private final ConcurrentHashMap<ErrorMetric, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    // @GuardedBy("snapshotLock")
+    private Snapshot snapshot;
+
+    /**
+     * Values of an interval
+     */
+    private static final class Snapshot {
+        private final int successes;
+        private final int failures;
+        private final int hits;
+        private final long sentBytes;
+        private final long receivedBytes;
+        private final Map<ErrorMetric, Integer> errors;
+        private final LogLinearHistogram ok;
+        private final LogLinearHistogram ko;
+        private final LogLinearHistogram all;
+
+        private Snapshot(HistogramSamplerMetric metric) {
+            successes = (int) metric.successes.sumThenReset();
+            failures = (int) metric.failures.sumThenReset();
+            hits = (int) metric.hits.sumThenReset();
+            sentBytes = metric.sentBytes.sumThenReset();
+            receivedBytes = metric.receivedBytes.sumThenReset();
+            errors = new HashMap<>();
+            metric.errors.forEach((error, count) -> {
+                int value = (int) count.sumThenReset();
+                if (value > 0) {
+                    errors.put(error, value);
+                }
+            });
+            ok = metric.okResponses.snapshotAndReset();
+            ko = metric.koResponses.snapshotAndReset();
+            all = new LogLinearHistogram(SIGNIFICANT_DIGITS);
+            all.add(ok);
+            all.add(ko);
+        }
+    }
+
+    HistogramSamplerMetric() {
+        super(false);
+    }
+
+    @Override
+    public void add(SampleResult result) {
+        add(result, false);
+    }
+
+    @Override
+    public void addCumulated(SampleResult result) {
+        add(result, true);
+    }
+
+    private void add(SampleResult result, boolean isCumulated) {
+        if (result.isSuccessful()) {
+            successes.add((long) result.getSampleCount() - result.getErrorCount());
+            okResponses.record(result.getTime());
+        } else {
+            failures.add(result.getErrorCount());
+            errors.computeIfAbsent(new ErrorMetric(result), k -> new LongAdder()).add(result.getErrorCount());
+            koResponses.record(result.getTime());
+        }
+        hits.add(countHits(result, isCumulated));
+        if (countsNetworkData(result, isCumulated)) {
+            sentBytes.add(result.getSentBytes());
+            receivedBytes.add(result.getBytesAsLong());
+        }
+    }
+
+    @Override
+    public void resetForTimeInterval() {
+        snapshotLock.lock();
+        try {
+            if (snapshot == null) {
+                // Nothing was read for this interval, drop its values
+                new Snapshot(this);
+            }
+            snapshot = null;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private Snapshot snapshot() {
+        snapshotLock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = new Snapshot(this);
+            }
+            return snapshot;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private static double max(LogLinearHistogram histogram) {
+        return histogram.getCount() == 0 ? Double.NaN : histogram.getMax();
+    }
+
+    private static double min(LogLinearHistogram histogram) {
+        return histogram.getCount() == 0 ? Double.NaN : histogram.getMin();
+    }
+
+    private static double mean(LogLinearHistogram histogram) {
+        return histogram.getCount() == 0 ? Double.NaN : histogram.getMean();
+    }
+
+    private static double percentile(LogLinearHistogram histogram, double percentile) {
+        return histogram.getCount() == 0 ? Double.NaN : histogram.getValueAtPercentile(percentile);
+    }
+
+    @Override
+    public int getTotal() {
+        Snapshot s = snapshot();
+        return s.successes + s.failures;
+    }
+
+    @Override
+    public int getSuccesses() {
+        return snapshot().successes;
+    }
+
+    @Override
+    public int getFailures() {
+        return snapshot().failures;
+    }
+
+    @Override
+    public double getOkMaxTime() {
+        return max(snapshot().ok);
+    }
+
+    @Override
+    public double getOkMinTime() {
+        return min(snapshot().ok);
+    }
+
+    @Override
+    public double getOkMean() {
+        return mean(snapshot().ok);
+    }
+
+    @Override
+    public double getOkPercentile(double percentile) {
+        return percentile(snapshot().ok, percentile);
+    }
+
+    @Override
+    public double getKoMaxTime() {
+        return max(snapshot().ko);
+    }
+
+    @Override
+    public double getKoMinTime() {
+        return min(snapshot().ko);
+    }
+
+    @Override
+    public double getKoMean() {
+        return mean(snapshot().ko);
+    }
+
+    @Override
+    public double getKoPercentile(double percentile) {
+        return percentile(snapshot().ko, percentile);
+    }
+
+    @Override
+    public double getAllMaxTime() {
+        return max(snapshot().all);
+    }
+
+    @Override
+    public double getAllMinTime() {
+        return min(snapshot().all);
+    }
+
+    @Override
+    public double getAllMean() {
+        return mean(snapshot().all);
+    }
+
+    @Override
+    public double getAllPercentile(double percentile) {
+        return percentile(snapshot().all, percentile);
+    }
+
+    @Override
+    public int getHits() {
+        return snapshot().hits;
+    }
+
+    @Override
+    public Map<ErrorMetric, Integer> getErrors() {
+        return snapshot().errors;
+    }
+
+    @Override
+    public long getSentBytes() {
+        return snapshot().sentBytes;
+    }
+
+    @Override
+    public long getReceivedBytes() {
+        return snapshot().receivedBytes;
+    }
+}
@@ -42,23 +42,23 @@ public class SamplerMetric {
     /**
      * Response times for OK samples
      */
-    private final DescriptiveStatistics okResponsesStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(LARGE_SLIDING_WINDOW_SIZE);
+    private final DescriptiveStatistics okResponsesStats;
     /**
      * Response times for KO samples
      */
-    private final DescriptiveStatistics koResponsesStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(LARGE_SLIDING_WINDOW_SIZE);
+    private final DescriptiveStatistics koResponsesStats;
     /**
      * Response times for All samples
      */
-    private final DescriptiveStatistics allResponsesStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(LARGE_SLIDING_WINDOW_SIZE);
+    private final DescriptiveStatistics allResponsesStats;
     /**
      *  OK, KO, ALL stats
      */
-    private final List<DescriptiveStatistics> windowedStats = initWindowedStats();
+    private final List<DescriptiveStatistics> windowedStats;
     /**
      * Timeboxed percentiles don't makes sense
      */
-    private final DescriptiveStatistics pctResponseStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(SLIDING_WINDOW_SIZE);
+    private final DescriptiveStatistics pctResponseStats;
     private int successes;
     private int failures;
     private int hits;
@@ -71,6 +71,26 @@ public class SamplerMetric {
      *
      */
     public SamplerMetric() {
+        this(true);
+    }
+
+    /**
+     * @param withWindows false for subclasses which keep their own statistics
+     */
+    SamplerMetric(boolean withWindows) {
+        if (!withWindows) {
+            okResponsesStats = null;
+            koResponsesStats = null;
+            allResponsesStats = null;
+            windowedStats = List.of();
+            pctResponseStats = null;
+            return;
+        }
+        okResponsesStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(LARGE_SLIDING_WINDOW_SIZE);
+        koResponsesStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(LARGE_SLIDING_WINDOW_SIZE);
+        allResponsesStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(LARGE_SLIDING_WINDOW_SIZE);
+        windowedStats = initWindowedStats();
+        pctResponseStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(SLIDING_WINDOW_SIZE);
         // Limit to sliding window of SLIDING_WINDOW_SIZE values for FIXED mode
         if (globalWindowMode == WindowMode.FIXED) {
             for (DescriptiveStatistics stat : windowedStats) {
@@ -79,6 +99,27 @@ public class SamplerMetric {
         }
     }
 
+    /**
+     * Creates a metric for the window mode defined by {@code backend_metrics_window_mode}.
+     * In {@link WindowMode#HISTOGRAM} mode, the metric can be updated by several threads
+     * at once without locking, see {@link #isLockFree()}.
+     *
+     * @return new metric
+     * @since 6.0
+     */
+    public static SamplerMetric create() {
+        return isLockFree() ? new HistogramSamplerMetric() : new SamplerMetric();
+    }
+
+    /**
+     * @return true if the metrics returned by {@link #create()} can be updated by several
+     * threads at once without locking, which is the case in {@link WindowMode#HISTOGRAM} mode
+     * @since 6.0
+     */
+    public static boolean isLockFree() {
+        return globalWindowMode == WindowMode.HISTOGRAM;
+    }
+
     /**
      * Set {@link WindowMode} to use for newly created metrics.
      * @param windowMode new visibility mode
@@ -146,12 +187,21 @@ public class SamplerMetric {
      * @param isCumulated related to the overall sampler metric
      */
     private void addNetworkData(SampleResult result, boolean isCumulated) {
-        if (isCumulated && TransactionController.isFromTransactionController(result)
-                && result.getSubResults().length == 0) { // Transaction controller without generate parent sampler
-            return;
+        if (countsNetworkData(result, isCumulated)) {
+            sentBytes += result.getSentBytes();
+            receivedBytes += result.getBytesAsLong();
         }
-        sentBytes += result.getSentBytes();
-        receivedBytes += result.getBytesAsLong();
+    }
+
+    /**
+     * @param result SampleResult
+     * @param isCumulated related to the overall sampler metric
+     * @return false if the traffic of the result is already counted by its children
+     */
+    static boolean countsNetworkData(SampleResult result, boolean isCumulated) {
+        // Transaction controller without generate parent sampler
+        return !(isCumulated && TransactionController.isFromTransactionController(result)
+                && result.getSubResults().length == 0);
     }
 
     /**
@@ -160,17 +210,29 @@ public class SamplerMetric {
      * @param isCumulated related to the overall sampler metric
      */
     private void addHits(SampleResult result, boolean isCumulated) {
+        hits += countHits(result, isCumulated);
+    }
+
+    /**
+     * Compute hits from result
+     * @param result {@link SampleResult}
+     * @param isCumulated related to the overall sampler metric
+     * @return number of hits of the result and its sub-results
+     */
+    static int countHits(SampleResult result, boolean isCumulated) {
         SampleResult[] subResults = result.getSubResults();
         if (isCumulated && TransactionController.isFromTransactionController(result)
                 && subResults.length == 0) { // Transaction controller without generate parent sampler
-            return;
+            return 0;
         }
+        int count = 0;
         if (!(TransactionController.isFromTransactionController(result) && subResults.length > 0)) {
-            hits += result.getSampleCount();
+            count += result.getSampleCount();
         }
         for (SampleResult subResult : subResults) {
-            addHits(subResult, isCumulated);
+            count += countHits(subResult, isCumulated);
         }
+        return count;
     }
 
     /**
@@ -182,7 +244,7 @@ public class SamplerMetric {
                 // We don't clear responsesStats nor usersStats as it will slide as per my understanding of
                 // http://commons.apache.org/proper/commons-math/userguide/stat.html
             }
-            case TIMED -> {
+            case TIMED, HISTOGRAM -> {
                 for (DescriptiveStatistics stat : windowedStats) {
                     stat.clear();
                 }
@@ -17,6 +17,8 @@
 
 package org.apache.jmeter.visualizers.backend;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.jmeter.report.processor.DescriptiveStatisticsFactory;
 import org.apache.jmeter.samplers.SampleResult;
@@ -34,6 +36,9 @@ public class UserMetric {
     // Limit to sliding window of SLIDING_WINDOW_SIZE values
     private final DescriptiveStatistics usersStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(SLIDING_WINDOW_SIZE);
 
+    /** Guards usersStats, which sampling threads update while the reporting thread reads it */
+    private final ReentrantLock lock = new ReentrantLock();
+
     /**
      *
      */
@@ -45,14 +50,22 @@ public class UserMetric {
      * Add a {@link SampleResult} to be used in the statistics
      * @param result {@link SampleResult} not used
      */
-    public synchronized void add(SampleResult result) {
-        usersStats.addValue(JMeterContextService.getThreadCounts().activeThreads);
+    public void add(SampleResult result) {
+        // Active threads are sampled: when sampling threads add results directly,
+        // skipping a value while another thread adds one does not change the statistics
+        if (lock.tryLock()) {
+            try {
+                usersStats.addValue(JMeterContextService.getThreadCounts().activeThreads);
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     /**
      * Reset metric except for percentile related data
      */
-    public synchronized void resetForTimeInterval() {
+    public void resetForTimeInterval() {
         // NOOP
     }
 
@@ -61,7 +74,12 @@ public class UserMetric {
      *          using a sliding window of SLIDING_WINDOW_SIZE
      */
     public int getMaxActiveThreads() {
-        return (int) usersStats.getMax();
+        lock.lock();
+        try {
+            return (int) usersStats.getMax();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -69,7 +87,12 @@ public class UserMetric {
      *          using a sliding window of SLIDING_WINDOW_SIZE
      */
     public int getMeanActiveThreads() {
-        return (int) usersStats.getMean();
+        lock.lock();
+        try {
+            return (int) usersStats.getMean();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -77,7 +100,12 @@ public class UserMetric {
      *          using a sliding window of SLIDING_WINDOW_SIZE
      */
     public int getMinActiveThreads() {
-        return (int) usersStats.getMin();
+        lock.lock();
+        try {
+            return (int) usersStats.getMin();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -98,6 +126,11 @@ public class UserMetric {
      * Clear stats
      */
     public void clear() {
-        this.usersStats.clear();
+        lock.lock();
+        try {
+            this.usersStats.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -22,14 +22,20 @@ import java.util.Locale;
 import org.apache.jmeter.util.JMeterUtils;
 
 /**
- * Metrics are sent into boxes which can be {@link #FIXED a fixed-size sliding window} or {@link #TIMED time boxed}.
+ * Metrics are sent into boxes which can be {@link #FIXED a fixed-size sliding window}, {@link #TIMED time boxed}
+ * or {@link #HISTOGRAM time boxed histograms}.
  * @since 3.2
  */
 public enum WindowMode {
     /** Fixed-size sliding window. **/
     FIXED,
     /** Time boxed. **/
-    TIMED;
+    TIMED,
+    /**
+     * Time boxed, response times being counted in lock-free histograms instead of sliding windows.
+     * @since 6.0
+     */
+    HISTOGRAM;
 
     /**
      * Gets defined JMeter mode.
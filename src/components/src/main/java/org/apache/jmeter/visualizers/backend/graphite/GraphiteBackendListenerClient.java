@@ -274,27 +274,41 @@ public class GraphiteBackendListenerClient extends AbstractBackendListenerClient
 
     @Override
     public void handleSampleResults(List<SampleResult> sampleResults, BackendListenerContext context) {
-        boolean samplersToFilterMatch;
         synchronized (LOCK) {
-            UserMetric userMetrics = getUserMetrics();
             for (SampleResult sampleResult : sampleResults) {
-                userMetrics.add(sampleResult);
-
-                if (!summaryOnly) {
-                    if (useRegexpForSamplersList) {
-                        Matcher matcher = pattern.matcher(sampleResult.getSampleLabel());
-                        samplersToFilterMatch = matcher.matches();
-                    } else {
-                        samplersToFilterMatch = samplersToFilter.contains(sampleResult.getSampleLabel());
-                    }
-                    if (samplersToFilterMatch) {
-                        SamplerMetric samplerMetric = getSamplerMetric(sampleResult.getSampleLabel());
-                        samplerMetric.add(sampleResult);
-                    }
-                }
-                getSamplerMetric(CUMULATED_METRICS).addCumulated(sampleResult);
+                addSampleResult(sampleResult);
+            }
+        }
+    }
+
+    @Override
+    public boolean handlesSampleResultsOnSamplingThreads() {
+        return hasLockFreeMetrics();
+    }
+
+    @Override
+    public void handleSampleResult(SampleResult sampleResult, BackendListenerContext context) {
+        // Metrics are lock free, see handlesSampleResultsOnSamplingThreads
+        addSampleResult(sampleResult);
+    }
+
+    private void addSampleResult(SampleResult sampleResult) {
+        getUserMetrics().add(sampleResult);
+
+        if (!summaryOnly) {
+            boolean samplersToFilterMatch;
+            if (useRegexpForSamplersList) {
+                Matcher matcher = pattern.matcher(sampleResult.getSampleLabel());
+                samplersToFilterMatch = matcher.matches();
+            } else {
+                samplersToFilterMatch = samplersToFilter.contains(sampleResult.getSampleLabel());
+            }
+            if (samplersToFilterMatch) {
+                SamplerMetric samplerMetric = getSamplerMetric(sampleResult.getSampleLabel());
+                samplerMetric.add(sampleResult);
             }
         }
+        getSamplerMetric(CUMULATED_METRICS).addCumulated(sampleResult);
     }
 
     @Override
@@ -298,20 +298,34 @@ public class InfluxdbBackendListenerClient extends AbstractBackendListenerClient
     @Override
     public void handleSampleResults(List<SampleResult> sampleResults, BackendListenerContext context) {
         synchronized (LOCK) {
-            UserMetric userMetrics = getUserMetrics();
             for (SampleResult sampleResult : sampleResults) {
-                userMetrics.add(sampleResult);
-                Matcher matcher = samplersToFilter.matcher(sampleResult.getSampleLabel());
-                if (!summaryOnly && matcher.find()) {
-                    SamplerMetric samplerMetric = getSamplerMetricInfluxdb(sampleResult.getSampleLabel());
-                    samplerMetric.add(sampleResult);
-                }
-                SamplerMetric cumulatedMetrics = getSamplerMetricInfluxdb(CUMULATED_METRICS);
-                cumulatedMetrics.addCumulated(sampleResult);
+                addSampleResult(sampleResult);
             }
         }
     }
 
+    @Override
+    public boolean handlesSampleResultsOnSamplingThreads() {
+        return hasLockFreeMetrics();
+    }
+
+    @Override
+    public void handleSampleResult(SampleResult sampleResult, BackendListenerContext context) {
+        // Metrics are lock free, see handlesSampleResultsOnSamplingThreads
+        addSampleResult(sampleResult);
+    }
+
+    private void addSampleResult(SampleResult sampleResult) {
+        getUserMetrics().add(sampleResult);
+        Matcher matcher = samplersToFilter.matcher(sampleResult.getSampleLabel());
+        if (!summaryOnly && matcher.find()) {
+            SamplerMetric samplerMetric = getSamplerMetricInfluxdb(sampleResult.getSampleLabel());
+            samplerMetric.add(sampleResult);
+        }
+        SamplerMetric cumulatedMetrics = getSamplerMetricInfluxdb(CUMULATED_METRICS);
+        cumulatedMetrics.addCumulated(sampleResult);
+    }
+
     @Override
     public void setupTest(BackendListenerContext context) throws Exception {
         summaryOnly = context.getBooleanParameter("summaryOnly", false);
@@ -395,7 +409,7 @@ public class InfluxdbBackendListenerClient extends AbstractBackendListenerClient
             return samplerMetric;
         }
 
-        SamplerMetric newSamplerMetric = new SamplerMetric();
+        SamplerMetric newSamplerMetric = SamplerMetric.create();
         SamplerMetric oldValue = metricsPerSampler.putIfAbsent(sampleLabel, newSamplerMetric);
         if (oldValue != null) {
             newSamplerMetric = oldValue;
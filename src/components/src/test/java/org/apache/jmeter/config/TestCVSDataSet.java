@@ -28,6 +28,7 @@ import org.apache.jmeter.services.FileServer;
 import org.apache.jmeter.threads.JMeterContext;
 import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.test.JMeterSerialTest;
 import org.apache.jorphan.util.JMeterStopThreadException;
 import org.junit.jupiter.api.AfterEach;
@@ -50,6 +51,7 @@ public class TestCVSDataSet extends JMeterTestCase implements JMeterSerialTest {
     public void tearDown() throws IOException {
         // Use of singleton requires this test run in serial
         FileServer.getFileServer().closeFiles();
+        JMeterUtils.getJMeterProperties().remove("csvdataset.indexed");
     }
 
     @Test
@@ -239,4 +241,68 @@ public class TestCVSDataSet extends JMeterTestCase implements JMeterSerialTest {
         csv1.iterationStart(null);
         assertEquals("a4", threadVars.get("a"));
     }
+
+    @Test
+    public void testIndexedHeaderQuotes(){
+        JMeterUtils.setProperty("csvdataset.indexed", "true");
+        CSVDataSet csv = new CSVDataSet();
+        csv.setFilename(findTestPath("testfiles/testquoted.csv"));
+        csv.setDelimiter("|");
+        csv.setQuotedData(true);
+        csv.setRecycle(false);
+        csv.setStopThread(true);
+        csv.iterationStart(null);
+        assertEquals("a1", threadVars.get("A"));
+        assertEquals("c1", threadVars.get("C"));
+        assertEquals("d1", threadVars.get("D|1"));
+        csv.iterationStart(null);
+        assertEquals("a2", threadVars.get("A"));
+        csv.iterationStart(null);
+        assertEquals("a3", threadVars.get("A"));
+        assertEquals("d3", threadVars.get("D|1"));
+        try {
+            csv.iterationStart(null);
+            fail("Expected JMeterStopThreadException");
+        } catch (JMeterStopThreadException expected) {
+        }
+    }
+
+    @Test
+    public void testIndexedHeaderOpenAndRecycle(){
+        JMeterUtils.setProperty("csvdataset.indexed", "true");
+        CSVDataSet csv = new CSVDataSet();
+        csv.setFilename(findTestPath("testfiles/testheader.csv"));
+        csv.setDelimiter("|");
+        csv.setRecycle(true);
+        csv.iterationStart(null); // line 2
+        csv.iterationStart(null); // line 3
+        csv.iterationStart(null); // line 4
+        csv.iterationStart(null); // line 5
+        csv.iterationStart(null); // return to 2nd line (first line is names)
+        assertEquals("a1", threadVars.get("A"));
+        assertEquals("b1", threadVars.get("B"));
+        assertEquals("c1", threadVars.get("C"));
+        assertEquals("d1", threadVars.get("D|1"));
+    }
+
+    @Test
+    public void testIndexedShareMode(){
+        JMeterUtils.setProperty("csvdataset.indexed", "true");
+        new CSVDataSetBeanInfo(); // needs to be initialised
+        CSVDataSet csv0 = initCSV();
+        CSVDataSet csv1 = initCSV();
+        csv1.setShareMode("abc");
+        csv1.iterationStart(null);
+        assertEquals("a1", threadVars.get("a"));
+        csv1.iterationStart(null);
+        assertEquals("a2", threadVars.get("a"));
+        CSVDataSet csv2 = initCSV();
+        csv2.setShareMode("abc");
+        csv2.iterationStart(null);
+        assertEquals("a3", threadVars.get("a"));
+        csv0.iterationStart(null);
+        assertEquals("a1", threadVars.get("a"));
+        csv1.iterationStart(null);
+        assertEquals("a4", threadVars.get("a"));
+    }
 }
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.threads.JMeterContext;
@@ -479,4 +480,100 @@ public class TestRegexExtractor {
         final String found = vars.get("regVal");
         assertTrue(found.equals("ONE") || found.equals("TWO"));
     }
+
+    @Test
+    public void testStreamedBodyIsMatchedBeyondStoredData() {
+        extractor.setRegex("<id>(\\d+)</id>");
+        extractor.setTemplate("$1$");
+        extractor.setMatchNumber(-1);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            body.append("<item><id>").append(i).append("</id></item>\n");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(extractor.start(result, false));
+        for (int i = 0; i < bytes.length; i += 100) {
+            extractor.consume(result, bytes, i, Math.min(100, bytes.length - i));
+        }
+        extractor.end(result);
+        // Only a prefix of the body is stored
+        result.setResponseData(body.substring(0, 50), null);
+        extractor.process();
+        assertEquals("1000", vars.get("regVal_matchNr"));
+        assertEquals("1", vars.get("regVal_1"));
+        assertEquals("1000", vars.get("regVal_1000"));
+
+        // The streamed matches are only used once, then the stored data is matched
+        extractor.process();
+        assertEquals("2", vars.get("regVal_matchNr"));
+    }
+
+    @Test
+    public void testStreamingIsNotUsedForHeaders() {
+        extractor.setUseField(RegexExtractor.USE_HDRS);
+        assertFalse(extractor.start(result, false));
+    }
+
+    @Test
+    public void testStreamingFollowsTheScope() {
+        assertTrue(extractor.start(new SampleResult(), false));
+        assertFalse(extractor.start(new SampleResult(), true));
+        extractor.setScopeChildren();
+        assertFalse(extractor.start(new SampleResult(), false));
+        assertTrue(extractor.start(new SampleResult(), true));
+        extractor.setScopeAll();
+        assertTrue(extractor.start(new SampleResult(), false));
+        assertTrue(extractor.start(new SampleResult(), true));
+        extractor.setScopeVariable("var");
+        assertFalse(extractor.start(new SampleResult(), false));
+    }
+
+    @Test
+    public void testInterleavedStreamsAreMatchedPerResult() {
+        extractor.setRegex("<title>([^<]+)<");
+        extractor.setTemplate("$1$");
+        extractor.setMatchNumber(-1);
+        extractor.setScopeAll();
+        SampleResult parent = new SampleResult();
+        SampleResult child = new SampleResult();
+        parent.addSubResult(child);
+        byte[] parentBody = "<title>PARENT</title>".getBytes(StandardCharsets.UTF_8);
+        byte[] childBody = "<title>CHILD</title>".getBytes(StandardCharsets.UTF_8);
+        assertTrue(extractor.start(parent, false));
+        assertTrue(extractor.start(child, true));
+        // Parallel downloads interleave the chunks of the bodies
+        for (int i = 0; i < Math.max(parentBody.length, childBody.length); i += 5) {
+            if (i < parentBody.length) {
+                extractor.consume(parent, parentBody, i, Math.min(5, parentBody.length - i));
+            }
+            if (i < childBody.length) {
+                extractor.consume(child, childBody, i, Math.min(5, childBody.length - i));
+            }
+        }
+        extractor.end(child);
+        extractor.end(parent);
+        // Nothing is stored, the matches only come from the streams
+        parent.setResponseData("", null);
+        child.setResponseData("", null);
+        jmctx.setPreviousResult(parent);
+        extractor.process();
+        assertEquals("2", vars.get("regVal_matchNr"));
+        assertEquals("PARENT", vars.get("regVal_1"));
+        assertEquals("CHILD", vars.get("regVal_2"));
+    }
+
+    @Test
+    public void testUnfinishedStreamIsNotUsed() {
+        extractor.setRegex("<title>([^<]+)<");
+        extractor.setTemplate("$1$");
+        SampleResult res = new SampleResult();
+        assertTrue(extractor.start(res, false));
+        byte[] body = "<title>STREAMED</title>".getBytes(StandardCharsets.UTF_8);
+        extractor.consume(res, body, 0, body.length);
+        // Reading the body failed, end() is not called
+        res.setResponseData("<title>STORED</title>", null);
+        jmctx.setPreviousResult(res);
+        extractor.process();
+        assertEquals("STORED", vars.get("regVal"));
+    }
 }
@@ -20,7 +20,13 @@ package org.apache.jmeter.timers;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.TestJMeterContextService;
@@ -76,6 +82,48 @@ class ConstantThroughputTimerTest {
         assertEquals(1, timer.calculateCurrentTarget(0)); // Should delay for 1 milli-second
     }
 
+    @Test
+    void sharedScheduleFollowsTheLastScheduledSample() {
+        ConstantThroughputTimer.ThroughputInfo info = new ConstantThroughputTimer.ThroughputInfo();
+        assertEquals(0, info.nextDelay(1000, 10)); // first sample runs now
+        assertEquals(10, info.nextDelay(1000, 10));
+        assertEquals(15, info.nextDelay(1005, 10));
+        assertEquals(0, info.nextDelay(2000, 10)); // the schedule is in the past, restart from now
+        assertEquals(10, info.nextDelay(2000, 10));
+        info.reset();
+        assertEquals(0, info.nextDelay(2000, 10));
+    }
+
+    @Test
+    void sharedScheduleGivesEachConcurrentSampleItsOwnSlot() throws Exception {
+        ConstantThroughputTimer.ThroughputInfo info = new ConstantThroughputTimer.ThroughputInfo();
+        int threads = 8;
+        int samples = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] delays = new long[samples];
+                    for (int i = 0; i < samples; i++) {
+                        delays[i] = info.nextDelay(1000, 10);
+                    }
+                    return delays;
+                }));
+            }
+            long[] all = new long[threads * samples];
+            for (int t = 0; t < threads; t++) {
+                System.arraycopy(futures.get(t).get(), 0, all, t * samples, samples);
+            }
+            Arrays.sort(all);
+            for (int i = 0; i < all.length; i++) {
+                assertEquals(i * 10L, all[i], "delay of sample " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void testTimer3() throws Exception {
         ConstantThroughputTimer timer = new ConstantThroughputTimer();
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.visualizers.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SamplerMetricHistogramModeTest {
+
+    private static final int DEFAULT_ELAPSED_TIME = 1_000;
+    private static final double ALLOWED_DELTA = 25.0;
+
+    @BeforeEach
+    @SuppressWarnings("deprecation")
+    public void initMode() throws Exception {
+        SamplerMetric.setDefaultWindowMode(WindowMode.HISTOGRAM);
+    }
+
+    @Test
+    public void checkCreateIsLockFree() {
+        assertTrue(SamplerMetric.isLockFree());
+        assertTrue(SamplerMetric.create() instanceof HistogramSamplerMetric);
+    }
+
+    @Test
+    public void checkResetOkKoAndAllStats() throws Exception {
+        SamplerMetric metric = SamplerMetric.create();
+        metric.add(createSampleResult(true, DEFAULT_ELAPSED_TIME));
+        metric.add(createSampleResult(false, 2 * DEFAULT_ELAPSED_TIME));
+        assertEquals(DEFAULT_ELAPSED_TIME, metric.getOkMaxTime(), 0.001, "Before reset ok.max");
+        assertEquals(2 * DEFAULT_ELAPSED_TIME, metric.getKoMaxTime(), 0.001, "Before reset ko.max");
+        assertEquals(2 * DEFAULT_ELAPSED_TIME, metric.getAllMaxTime(), 0.001, "Before reset all.max");
+        assertEquals(DEFAULT_ELAPSED_TIME, metric.getAllMinTime(), 0.001, "Before reset all.min");
+        assertEquals(1.5 * DEFAULT_ELAPSED_TIME, metric.getAllMean(), 0.001, "Before reset all.mean");
+        assertEquals(2 * DEFAULT_ELAPSED_TIME, metric.getAllPercentile(99), ALLOWED_DELTA, "Before reset all.pct99");
+        assertEquals(2, metric.getTotal(), "Before reset total");
+        assertEquals(1, metric.getFailures(), "Before reset failures");
+        assertEquals(1, metric.getErrors().size(), "Before reset errors");
+        assertEquals(2, metric.getHits(), "Before reset hits");
+        assertEquals(2000, metric.getSentBytes(), "Before reset sent bytes");
+        assertEquals(4000, metric.getReceivedBytes(), "Before reset received bytes");
+
+        // Values added while an interval is read belong to the next one
+        metric.add(createSampleResult(true, DEFAULT_ELAPSED_TIME));
+        assertEquals(2, metric.getTotal(), "Same interval total");
+
+        metric.resetForTimeInterval();
+
+        assertEquals(1, metric.getTotal(), "After reset total");
+        assertEquals(Double.NaN, metric.getKoMaxTime(), 0.0, "After reset ko.max");
+        assertEquals(0, metric.getErrors().size(), "After reset errors");
+
+        metric.resetForTimeInterval();
+
+        assertEquals(0, metric.getTotal(), "After second reset total");
+        assertEquals(Double.NaN, metric.getAllMaxTime(), 0.0, "After second reset all.max");
+        assertEquals(Double.NaN, metric.getAllPercentile(90), 0.0, "After second reset all.pct90");
+    }
+
+    @Test
+    public void checkConcurrentAdds() throws Exception {
+        SamplerMetric metric = SamplerMetric.create();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    metric.add(createSampleResult(i % 10 != 0, DEFAULT_ELAPSED_TIME));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8_000, metric.getTotal(), "total");
+        assertEquals(800, metric.getFailures(), "failures");
+        assertEquals(8_000, metric.getHits(), "hits");
+        assertEquals(800, metric.getErrors().values().iterator().next(), "errors");
+    }
+
+    private static SampleResult createSampleResult(boolean success, long elapsed) {
+        SampleResult result = new SampleResult();
+        result.setSuccessful(success);
+        result.setSampleCount(1);
+        result.setErrorCount(success ? 0 : 1);
+        result.sampleStart();
+        result.setSentBytes(1000);
+        result.setBytes(2000L);
+        result.setEndTime(result.getStartTime() + elapsed);
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.visualizers.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.jupiter.api.Test;
+
+public class UserMetricTest {
+
+    @Test
+    public void checkReadAndClearWhileSamplingThreadsAdd() throws Exception {
+        UserMetric metric = new UserMetric();
+        SampleResult result = new SampleResult();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> adders = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                adders.add(executor.submit(() -> {
+                    while (running.get()) {
+                        metric.add(result);
+                    }
+                }));
+            }
+            // Reporting thread
+            for (int i = 0; i < 10_000; i++) {
+                metric.getMinActiveThreads();
+                metric.getMaxActiveThreads();
+                metric.getMeanActiveThreads();
+                metric.resetForTimeInterval();
+                if (i % 100 == 0) {
+                    metric.clear();
+                }
+            }
+            running.set(false);
+            for (Future<?> adder : adders) {
+                // Fails if an adder got an exception from a concurrent modification
+                adder.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        metric.clear();
+        metric.add(result);
+        assertEquals(0, metric.getMaxActiveThreads());
+    }
+}
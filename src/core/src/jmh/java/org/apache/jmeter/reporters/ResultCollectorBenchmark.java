@@ -17,8 +17,17 @@
 
 package org.apache.jmeter.reporters;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.CSVSaveService;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -29,6 +38,8 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
@@ -61,6 +72,87 @@ public class ResultCollectorBenchmark {
         return collector.isSampleWanted(success);
     }
 
+    /**
+     * Result file shared by all the producer threads.
+     * {@code sync} formats and writes on the sampling thread as {@link ResultCollector} does by default,
+     * {@code async} hands the sample over to {@link AsyncSampleWriter}.
+     */
+    @State(Scope.Benchmark)
+    public static class ResultFile {
+        @Param({"sync", "async"})
+        String mode;
+
+        PrintWriter out;
+        AsyncSampleWriter asyncWriter;
+
+        @Setup
+        public void setup() {
+            // Formatting and contention are measured, not the disk
+            out = new PrintWriter(new OutputStreamWriter(
+                    new BufferedOutputStream(OutputStream.nullOutputStream()), StandardCharsets.UTF_8));
+            if ("async".equals(mode)) {
+                asyncWriter = new AsyncSampleWriter("benchmark",
+                        (event, config) -> CSVSaveService.saveSampleResult(event, config, out), out::flush,
+                        AsyncSampleWriter.QUEUE_SIZE, AsyncSampleWriter.BATCH_SIZE,
+                        SampleOverflowPolicy.BLOCK);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (asyncWriter != null) {
+                asyncWriter.close();
+            }
+            out.close();
+        }
+
+        void write(SampleEvent event) {
+            if (asyncWriter != null) {
+                asyncWriter.write(event, event.getResult().getSaveConfig());
+            } else {
+                CSVSaveService.saveSampleResult(event, out);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sample {
+        SampleEvent event;
+
+        @Setup
+        public void setup() {
+            SampleResult result = SampleResult.createTestSample(1_700_000_000_000L, 1_700_000_000_125L);
+            result.setSampleLabel("HTTP Request, \"quoted\" label");
+            result.setThreadName("Thread Group 1-" + Thread.currentThread().getId());
+            result.setResponseCode("200");
+            result.setResponseMessage("OK");
+            result.setDataType(SampleResult.TEXT);
+            result.setSuccessful(true);
+            result.setBytes(12_345L);
+            result.setSentBytes(321L);
+            result.setSaveConfig(new SampleSaveConfiguration());
+            event = new SampleEvent(result, "Thread Group");
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void writeSample_1thread(ResultFile file, Sample sample) {
+        file.write(sample.event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void writeSample_8threads(ResultFile file, Sample sample) {
+        file.write(sample.event);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void writeSample_64threads(ResultFile file, Sample sample) {
+        file.write(sample.event);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(ResultCollectorBenchmark.class.getSimpleName())
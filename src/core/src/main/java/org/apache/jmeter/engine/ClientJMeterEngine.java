@@ -17,13 +17,19 @@
 
 package org.apache.jmeter.engine;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.rmi.NoSuchObjectException;
 import java.rmi.NotBoundException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.RemoteObject;
+import java.rmi.server.RemoteServer;
 import java.util.HashMap;
 import java.util.Properties;
 import java.util.stream.Collectors;
@@ -48,6 +54,9 @@ public class ClientJMeterEngine implements JMeterEngine {
 
     private HashTree test;
 
+    /** Token returned by the remote engine when configured with a serialized tree */
+    private long ownerToken;
+
     /**
      * Maybe only host or host:port
      */
@@ -80,7 +89,17 @@ public class ClientJMeterEngine implements JMeterEngine {
     }
 
     public ClientJMeterEngine(String hostAndPort) throws NotBoundException, RemoteException {
-        this.remote = getEngine(hostAndPort);
+        this(getEngine(hostAndPort), hostAndPort);
+    }
+
+    /**
+     * Only for use by test code.
+     *
+     * @param remote      the remote engine
+     * @param hostAndPort host or host:port of the remote engine
+     */
+    ClientJMeterEngine(RemoteJMeterEngine remote, String hostAndPort) {
+        this.remote = remote;
         this.hostAndPort = hostAndPort;
     }
 
@@ -128,11 +147,7 @@ public class ClientJMeterEngine implements JMeterEngine {
         HashTree testTree = test;
 
         synchronized(testTree) {
-            PreCompiler compiler = new PreCompiler(true);
-            testTree.traverse(compiler);  // limit the changes to client only test elements
-            JMeterContextService.initClientSideVariables(compiler.getClientSideVariables());
-            testTree.traverse(new TurnElementsOn());
-            testTree.traverse(new ConvertListeners());
+            prepareTest(testTree);
         }
 
         String methodName="unknown";
@@ -172,6 +187,121 @@ public class ClientJMeterEngine implements JMeterEngine {
         }
     }
 
+    private static void prepareTest(HashTree testTree) {
+        PreCompiler compiler = new PreCompiler(true);
+        testTree.traverse(compiler);  // limit the changes to client only test elements
+        JMeterContextService.initClientSideVariables(compiler.getClientSideVariables());
+        testTree.traverse(new TurnElementsOn());
+        testTree.traverse(new ConvertListeners());
+    }
+
+    /**
+     * Prepares a copy of the test tree like {@link #runTest()} does, and serializes it,
+     * so that it can be sent to several engines with {@link #configure(byte[])}.
+     * <p>
+     * The listeners converted for remote use are shared by all the engines that receive the tree.
+     *
+     * @param testTree test tree to send
+     * @return the serialized tree
+     * @throws IOException if the tree cannot be serialized
+     */
+    static byte[] serializeTest(HashTree testTree) throws IOException {
+        JMeterContextService.clearTotalThreads();
+        TreeCloner cloner = new TreeCloner(false);
+        testTree.traverse(cloner);
+        HashTree clonedTree = cloner.getClonedTree();
+        prepareTest(clonedTree);
+        JMeterContextService.startTest();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new RemoteStubOutputStream(bytes)) {
+            out.writeObject(clonedTree);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Sends a tree serialized by {@link #serializeTest(HashTree)} and the properties to the remote engine,
+     * which is then ready for {@link #runTest(long)}.
+     *
+     * @param serializedTree the serialized test tree
+     * @throws JMeterEngineException if the remote engine could not be configured
+     */
+    void configure(byte[] serializedTree) throws JMeterEngineException {
+        String methodName = "rconfigure()"; // NOSONAR Used for tracing
+        try {
+            File baseDirRelative = FileServer.getFileServer().getBaseDirRelative();
+            String scriptName = FileServer.getFileServer().getScriptName();
+            ownerToken = remote.rconfigure(serializedTree, hostAndPort, baseDirRelative, scriptName);
+            log.info("sent test to {} basedir='{}'", hostAndPort, baseDirRelative); // $NON-NLS-1$
+            if (savep == null) {
+                savep = new Properties();
+            }
+            log.info("Sending properties {}", savep);
+            try {
+                methodName = "rsetProperties()"; // NOSONAR Used for tracing
+                remote.rsetProperties(toHashMapOfString(savep));
+            } catch (RemoteException e) {
+                log.warn("Could not set properties: {}, error:{}", savep, e.getMessage(), e);
+            }
+        } catch (IllegalStateException ex) {
+            log.error("Error in {} method ", methodName, ex); // $NON-NLS-1$ $NON-NLS-2$
+            tidyRMI(log);
+            throw ex; // Don't wrap this error - display it as is
+        } catch (Exception ex) {
+            log.error("Error in {} method", methodName, ex); // $NON-NLS-1$ $NON-NLS-2$
+            tidyRMI(log);
+            throw new JMeterEngineException("Error in " + methodName + " method " + ex, ex); // $NON-NLS-1$ $NON-NLS-2$
+        }
+    }
+
+    /**
+     * Starts a test sent by {@link #configure(byte[])} at the given instant.
+     * <p>
+     * The remote engine receives the delay until that instant rather than the instant itself,
+     * so the clocks of the client and the server need not be synchronized. The call returns
+     * once the remote engine started the test.
+     *
+     * @param startTimeMillis time of the start, as returned by {@link System#currentTimeMillis()}
+     * @throws JMeterEngineException if the remote engine could not be started
+     */
+    void runTest(long startTimeMillis) throws JMeterEngineException {
+        try {
+            remote.rrunTest(ownerToken, startTimeMillis - System.currentTimeMillis());
+            log.info("sent run command to {}", hostAndPort);
+        } catch (IllegalStateException ex) {
+            log.error("Error in rrunTest() method ", ex); // $NON-NLS-1$
+            tidyRMI(log);
+            throw ex; // Don't wrap this error - display it as is
+        } catch (Exception ex) {
+            log.error("Error in rrunTest() method", ex); // $NON-NLS-1$
+            tidyRMI(log);
+            throw new JMeterEngineException("Error in rrunTest() method " + ex, ex); // $NON-NLS-1$
+        }
+    }
+
+    /**
+     * Writes the exported remote objects, such as the converted listeners, as their stubs,
+     * like RMI does for the arguments of remote calls.
+     */
+    static final class RemoteStubOutputStream extends ObjectOutputStream {
+        RemoteStubOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj instanceof RemoteServer server) {
+                try {
+                    return RemoteObject.toStub(server);
+                } catch (NoSuchObjectException e) {
+                    return obj; // not exported
+                }
+            }
+            return obj;
+        }
+    }
+
     @SuppressWarnings("NonApiType")
     private static HashMap<String, String> toHashMapOfString(Properties properties) {
         return new HashMap<>(
@@ -29,10 +29,17 @@ import java.time.format.FormatStyle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.HashTree;
@@ -54,15 +61,20 @@ public class DistributedRunner {
     public static final String RETRIES_NUMBER = "client.tries"; // $NON-NLS-1$
     public static final String RETRIES_DELAY = "client.retries_delay"; // $NON-NLS-1$
     public static final String CONTINUE_ON_FAIL = "client.continue_on_fail"; // $NON-NLS-1$
+    public static final String START_THREADS = "client.start_threads"; // $NON-NLS-1$
+    public static final String START_DELAY = "client.start_delay"; // $NON-NLS-1$
 
     private final Properties remoteProps;
     private final boolean continueOnFail;
     private final int retriesDelay;
     private final int retriesNumber;
+    private final int startThreads;
+    private final int startDelay;
     private PrintStream stdout = new PrintStream(new SilentOutputStream());
     private PrintStream stdErr = new PrintStream(new SilentOutputStream());
     private final Map<String, JMeterEngine> engines = new HashMap<>();
-
+    /** Test tree sent once to all the engines when they are started concurrently */
+    private HashTree testTree;
 
     public DistributedRunner() {
         this(new Properties());
@@ -73,11 +85,14 @@ public class DistributedRunner {
         retriesNumber = JMeterUtils.getPropDefault(RETRIES_NUMBER, 1);
         continueOnFail = JMeterUtils.getPropDefault(CONTINUE_ON_FAIL, false);
         retriesDelay = JMeterUtils.getPropDefault(RETRIES_DELAY, 5000);
+        startThreads = JMeterUtils.getPropDefault(START_THREADS, 1);
+        startDelay = JMeterUtils.getPropDefault(START_DELAY, 1000);
     }
 
     public void init(List<String> addresses, HashTree tree) {
         // converting list into mutable version
         List<String> addrs = new ArrayList<>(addresses);
+        testTree = tree;
 
         for (int tryNo = 0; tryNo < retriesNumber; tryNo++) {
             if (tryNo > 0) {
@@ -89,17 +104,21 @@ public class DistributedRunner {
                 }
             }
 
-            int idx = 0;
-            while (idx < addrs.size()) {
-                String address = addrs.get(idx);
-                println("Configuring remote engine: " + address);
-                JMeterEngine engine = getClientEngine(address.trim(), tree);
-                if (engine != null) {
-                    engines.put(address, engine);
-                    addrs.remove(address);
-                } else {
-                    println("Failed to configure " + address);
-                    idx++;
+            if (startThreads > 1) {
+                configureConcurrently(addrs, tree);
+            } else {
+                int idx = 0;
+                while (idx < addrs.size()) {
+                    String address = addrs.get(idx);
+                    println("Configuring remote engine: " + address);
+                    JMeterEngine engine = getClientEngine(address.trim(), tree);
+                    if (engine != null) {
+                        engines.put(address, engine);
+                        addrs.remove(address);
+                    } else {
+                        println("Failed to configure " + address);
+                        idx++;
+                    }
                 }
             }
 
@@ -120,6 +139,21 @@ public class DistributedRunner {
         }
     }
 
+    private void configureConcurrently(List<String> addrs, HashTree tree) {
+        Map<String, JMeterEngine> configured = forEachConcurrently(addrs, startThreads, address -> {
+            println("Configuring remote engine: " + address);
+            return getClientEngine(address.trim(), tree);
+        });
+        configured.forEach((address, engine) -> {
+            if (engine != null) {
+                engines.put(address, engine);
+                addrs.remove(address);
+            } else {
+                println("Failed to configure " + address);
+            }
+        });
+    }
+
     private static String formatLikeDate(Instant instant) {
         return DateTimeFormatter
                 .ofLocalizedDateTime(FormatStyle.LONG)
@@ -134,24 +168,20 @@ public class DistributedRunner {
      * @param addresses list of the DNS names or IP addresses of the remote testing engines
      */
     public void start(List<String> addresses) {
+        if (startThreads > 1) {
+            startConcurrently(addresses);
+            return;
+        }
         Instant now = Instant.now();
         println("Starting distributed test with remote engines: "
                 + addresses + " @ " + formatLikeDate(now) + " (" + now.toEpochMilli() + ')');
         List<String> startedEngines = new ArrayList<>(addresses.size());
         List<String> failedEngines = new ArrayList<>(addresses.size());
         for (String address : addresses) {
-            JMeterEngine engine = engines.get(address);
-            try {
-                if (engine != null) {
-                    engine.runTest();
-                    startedEngines.add(address);
-                } else {
-                    log.warn(HOST_NOT_FOUND_MESSAGE, address);
-                    failedEngines.add(address);
-                }
-            } catch (IllegalStateException | JMeterEngineException e) { // NOSONAR already reported to user
+            if (runOnEngine(address, JMeterEngine::runTest)) {
+                startedEngines.add(address);
+            } else {
                 failedEngines.add(address);
-                JMeterUtils.reportErrorToUser(e.getMessage(), JMeterUtils.getResString("remote_error_starting")); // $NON-NLS-1$
             }
         }
         println("Remote engines have been started:" + startedEngines);
@@ -160,6 +190,112 @@ public class DistributedRunner {
         }
     }
 
+    /**
+     * Sends the test tree, serialized once, to the engines with at most {@link #START_THREADS} concurrent calls,
+     * then starts all the engines at the same instant, {@link #START_DELAY} milliseconds later.
+     */
+    private void startConcurrently(List<String> addresses) {
+        byte[] serializedTree;
+        try {
+            serializedTree = ClientJMeterEngine.serializeTest(testTree);
+        } catch (IOException e) {
+            errln("Failed to serialize the test plan", e);
+            JMeterUtils.reportErrorToUser(e.getMessage(), JMeterUtils.getResString("remote_error_starting")); // $NON-NLS-1$
+            errln("The following remote engines have not started:" + addresses);
+            return;
+        }
+        println("Sending the test plan (" + serializedTree.length + " bytes) to remote engines: " + addresses);
+        Map<String, Boolean> configured = forEachConcurrently(addresses, startThreads,
+                address -> runOnEngine(address, engine -> {
+                    if (engine instanceof ClientJMeterEngine clientEngine) {
+                        clientEngine.configure(serializedTree);
+                    }
+                }));
+        List<String> failedEngines = new ArrayList<>(addresses.size());
+        List<String> configuredEngines = new ArrayList<>(addresses.size());
+        configured.forEach((address, ok) -> (ok ? configuredEngines : failedEngines).add(address));
+
+        long startTime = System.currentTimeMillis() + startDelay;
+        Instant start = Instant.ofEpochMilli(startTime);
+        println("Starting distributed test with remote engines: "
+                + configuredEngines + " @ " + formatLikeDate(start) + " (" + startTime + ')');
+        // Each call returns once its engine started, so they are all made at the same time
+        Map<String, Boolean> started = forEachConcurrently(configuredEngines, configuredEngines.size(),
+                address -> runOnEngine(address, engine -> {
+                    if (engine instanceof ClientJMeterEngine clientEngine) {
+                        clientEngine.runTest(startTime);
+                    } else {
+                        engine.runTest();
+                    }
+                }));
+        List<String> startedEngines = new ArrayList<>(addresses.size());
+        started.forEach((address, ok) -> (ok ? startedEngines : failedEngines).add(address));
+        println("Remote engines have been started:" + startedEngines);
+        if (!failedEngines.isEmpty()) {
+            errln("The following remote engines have not started:" + failedEngines);
+        }
+    }
+
+    /**
+     * Applies an action to each address, with at most the given number of concurrent calls.
+     *
+     * @return the results of the action, in the order of the addresses
+     */
+    private static <T> Map<String, T> forEachConcurrently(List<String> addresses, int threads,
+            Function<String, T> action) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(threads, addresses.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "DistributedRunner-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            Map<String, Future<T>> futures = new LinkedHashMap<>();
+            for (String address : addresses) {
+                futures.put(address, executor.submit(() -> action.apply(address)));
+            }
+            Map<String, T> results = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while contacting remote engines:" + addresses, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to contact remote engines:" + addresses, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies an action to the engine of an address, reporting failures to the user.
+     *
+     * @return {@code true} if the action succeeded
+     */
+    private boolean runOnEngine(String address, EngineAction action) {
+        JMeterEngine engine = engines.get(address);
+        if (engine == null) {
+            log.warn(HOST_NOT_FOUND_MESSAGE, address);
+            return false;
+        }
+        try {
+            action.run(engine);
+            return true;
+        } catch (IllegalStateException | JMeterEngineException e) { // NOSONAR already reported to user
+            JMeterUtils.reportErrorToUser(e.getMessage(), JMeterUtils.getResString("remote_error_starting")); // $NON-NLS-1$
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface EngineAction {
+        void run(JMeterEngine engine) throws JMeterEngineException;
+    }
+
     /**
      * Start all engines that were previously initiated
      */
@@ -230,7 +366,10 @@ public class DistributedRunner {
         JMeterEngine engine;
         try {
             engine = createEngine(address);
-            engine.configure(testTree);
+            if (startThreads <= 1 || !(engine instanceof ClientJMeterEngine)) {
+                // otherwise the tree is sent once to all the engines when they are started
+                engine.configure(testTree);
+            }
             if (!remoteProps.isEmpty()) {
                 engine.setProperties(remoteProps);
             }
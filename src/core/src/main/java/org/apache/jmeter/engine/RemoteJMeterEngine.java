@@ -30,8 +30,33 @@ import org.apache.jorphan.collections.HashTree;
 public interface RemoteJMeterEngine extends Remote {
     void rconfigure(HashTree testTree, String host, File jmxBase, String scriptName) throws RemoteException;
 
+    /**
+     * Configures the engine with a test tree that was serialized once for all the remote engines.
+     *
+     * @param testTree   test tree serialized by {@link java.io.ObjectOutputStream}
+     * @param host       host and port of the engine, as known by the client
+     * @param jmxBase    base directory of the script
+     * @param scriptName name of the script
+     * @return token that must be passed to {@link #rrunTest(long, long)}
+     * @throws RemoteException if the tree cannot be read or the call fails
+     */
+    long rconfigure(byte[] testTree, String host, File jmxBase, String scriptName) throws RemoteException;
+
     void rrunTest() throws RemoteException, JMeterEngineException;
 
+    /**
+     * Starts the test after a delay, so that several engines can start at the same instant.
+     * The call returns once the test is started, or throws if it could not be started.
+     *
+     * @param token       token returned by {@link #rconfigure(byte[], String, File, String)}
+     * @param delayMillis delay before the start, counted from the reception of the call
+     * @throws RemoteException       if the call fails
+     * @throws JMeterEngineException if the test cannot be started
+     * @throws IllegalStateException if the token is not the one of the last configuration,
+     *                               or if the test was stopped since the configuration
+     */
+    void rrunTest(long token, long delayMillis) throws RemoteException, JMeterEngineException;
+
     void rstopTest(boolean now) throws RemoteException;
 
     void rreset() throws RemoteException;
@@ -17,7 +17,10 @@
 
 package org.apache.jmeter.engine;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.net.InetAddress;
 import java.rmi.NoSuchObjectException;
 import java.rmi.NotBoundException;
@@ -26,8 +29,11 @@ import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.ServerNotActiveException;
 import java.rmi.server.UnicastRemoteObject;
+import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.apache.jmeter.rmi.RmiUtils;
 import org.apache.jmeter.services.FileServer;
@@ -50,6 +56,14 @@ public final class RemoteJMeterEngineImpl extends java.rmi.server.UnicastRemoteO
 
     private transient Thread ownerThread;
 
+    /** Token of the client that configured the engine with a serialized tree, 0 if none; guarded by LOCK */
+    private transient long ownerToken;
+
+    /** Set by {@link #rstopTest(boolean)} to cancel the start of the configuration owning ownerToken; guarded by LOCK */
+    private transient boolean startCancelled;
+
+    private final transient Function<String, JMeterEngine> engineFactory;
+
     // Should we create our own copy of the RMI registry?
     private static final boolean CREATE_SERVER =
         JMeterUtils.getPropDefault("server.rmi.create", true); // $NON-NLS-1$
@@ -63,13 +77,29 @@ public final class RemoteJMeterEngineImpl extends java.rmi.server.UnicastRemoteO
 
     private Properties remotelySetProperties;
 
+    private static final SecureRandom TOKENS = new SecureRandom();
+
     private RemoteJMeterEngineImpl(int localPort, int rmiRegistryPort) throws RemoteException {
         // Create this object using the specified port (0 means anonymous)
         super(localPort, RmiUtils.createClientSocketFactory(), RmiUtils.createServerSocketFactory());
         this.rmiRegistryPort = rmiRegistryPort;
+        this.engineFactory = StandardJMeterEngine::new;
         System.out.println("Created remote object: "+this.getRef().remoteToString());
     }
 
+    /**
+     * Only for use by test code: the object is exported on an anonymous port without SSL,
+     * and is not bound to a registry.
+     *
+     * @param engineFactory creates the backing engine from the host and port of the server
+     * @throws RemoteException if the object cannot be exported
+     */
+    RemoteJMeterEngineImpl(Function<String, JMeterEngine> engineFactory) throws RemoteException {
+        super(0);
+        this.rmiRegistryPort = 0;
+        this.engineFactory = engineFactory;
+    }
+
     public static void startServer(int rmiRegistryPort) throws RemoteException {
         RemoteJMeterEngineImpl engine =
                 new RemoteJMeterEngineImpl(
@@ -147,13 +177,34 @@ public final class RemoteJMeterEngineImpl extends java.rmi.server.UnicastRemoteO
             }
             ownerThread = Thread.currentThread();
             JMeterUtils.setProperty(JMeterUtils.THREAD_GROUP_DISTRIBUTED_PREFIX_PROPERTY_NAME, hostAndPort);
-            backingEngine = new StandardJMeterEngine(hostAndPort);
+            backingEngine = engineFactory.apply(hostAndPort);
             backingEngine.configure(testTree); // sets active = true
         }
         FileServer.getFileServer().setScriptName(scriptName);
         FileServer.getFileServer().setBase(jmxBase);
     }
 
+    @Override
+    public long rconfigure(byte[] testTree, String hostAndPort, File jmxBase, String scriptName) throws RemoteException {
+        HashTree tree;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(testTree))) {
+            tree = (HashTree) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new RemoteException("Could not read the test plan sent by " + hostAndPort, e);
+        }
+        rconfigure(tree, hostAndPort, jmxBase, scriptName);
+        synchronized(LOCK) {
+            long token;
+            do {
+                token = TOKENS.nextLong();
+            } while (token == 0);
+            ownerToken = token;
+            // A stop received from now on cancels the start of this configuration
+            startCancelled = false;
+            return token;
+        }
+    }
+
     @Override
     public void rrunTest() throws RemoteException, JMeterEngineException {
         log.info("Running test");
@@ -161,6 +212,47 @@ public final class RemoteJMeterEngineImpl extends java.rmi.server.UnicastRemoteO
         backingEngine.runTest();
     }
 
+    @Override
+    public void rrunTest(long token, long delayMillis) throws RemoteException, JMeterEngineException {
+        synchronized(LOCK) {
+            if (token == 0 || token != ownerToken || backingEngine == null) {
+                String msg = "The engine is not owned by this client - cannot call runTest";
+                log.warn(msg);
+                throw new IllegalStateException(msg);
+            }
+            ownerToken = 0;
+            if (delayMillis > 0) {
+                log.info("Running test in {} ms", delayMillis);
+                awaitStart(delayMillis);
+            }
+            if (startCancelled) {
+                String msg = "The test was stopped before its start";
+                log.info(msg);
+                throw new IllegalStateException(msg);
+            }
+            // The engine is started while holding the lock, so that a stop either cancels the start or follows it
+            log.info("Running test");
+            backingEngine.runTest();
+        }
+    }
+
+    /**
+     * Waits for the delay of a start, releasing the lock so that {@link #rstopTest(boolean)} can cancel it.
+     * The call returns once the test is started, so that the client knows whether the start failed.
+     */
+    private void awaitStart(long delayMillis) throws JMeterEngineException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        try {
+            long remaining;
+            while (!startCancelled && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(LOCK, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JMeterEngineException("Interrupted while waiting for the start of the test", e);
+        }
+    }
+
     @Override
     public void rreset() throws RemoteException {
         // Mail on userlist reported NPE here - looks like only happens if there are network errors, but check anyway
@@ -180,6 +272,10 @@ public final class RemoteJMeterEngineImpl extends java.rmi.server.UnicastRemoteO
         } else {
             log.info("Shutting test ...");
         }
+        synchronized(LOCK) {
+            startCancelled = true;
+            LOCK.notifyAll();
+        }
         backingEngine.stopTest(now);
         log.info("... stopped");
     }
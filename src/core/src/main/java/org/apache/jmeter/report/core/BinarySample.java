@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.core;
+
+import org.apache.jmeter.save.BinaryResultFormat.ColumnType;
+import org.apache.jmeter.save.CSVSaveService;
+
+/**
+ * Represents a sample read from a binary result file.
+ * <p>
+ * Numeric and boolean columns are kept as primitives, so the typed getters
+ * such as {@link #getTimestamp()} or {@link #getElapsedTime()} do not parse
+ * any string. Their text form is only built when {@link #getData(int)} is
+ * called for them.
+ *
+ * @see BinarySampleReader
+ * @since 6.0
+ */
+public final class BinarySample extends Sample {
+
+    private final SampleMetadata metadata;
+    private final ColumnType[] types;
+    /** Values of the string columns, null for the other columns */
+    private final String[] strings;
+    /** Values of the numeric and boolean columns */
+    private final long[] values;
+
+    BinarySample(long row, SampleMetadata metadata, ColumnType[] types, String[] strings, long[] values) {
+        super(row, metadata, strings);
+        this.metadata = metadata;
+        this.types = types;
+        this.strings = strings;
+        this.values = values;
+    }
+
+    @Override
+    public String getData(int index) {
+        return switch (types[index]) {
+            case STRING -> strings[index];
+            case BOOLEAN -> Boolean.toString(values[index] != 0);
+            default -> Long.toString(values[index]);
+        };
+    }
+
+    @Override
+    public String getData(String name) {
+        return getData(metadata.ensureIndexOf(name));
+    }
+
+    @Override
+    public <T> T getData(Class<T> clazz, int index, String fieldName) {
+        if (types[index] == ColumnType.STRING) {
+            return super.getData(clazz, index, fieldName);
+        }
+        try {
+            return Converters.convert(clazz, getData(index));
+        } catch (ConvertException ex) {
+            throw new SampleException("Error in sample at row:" + (getSampleRow() + 1)
+                    + " converting field:" + fieldName + " at column:" + index
+                    + " to:" + clazz.getName(), ex);
+        }
+    }
+
+    private long getLong(String name) {
+        return values[metadata.ensureIndexOf(name)];
+    }
+
+    private long getOptionalLong(String name) {
+        int index = metadata.indexOf(name);
+        return index >= 0 ? values[index] : 0L;
+    }
+
+    @Override
+    public long getTimestamp() {
+        return getLong(CSVSaveService.TIME_STAMP);
+    }
+
+    @Override
+    public long getElapsedTime() {
+        return getLong(CSVSaveService.CSV_ELAPSED);
+    }
+
+    @Override
+    public long getLatency() {
+        return getLong(CSVSaveService.CSV_LATENCY);
+    }
+
+    @Override
+    public long getConnectTime() {
+        return getOptionalLong(CSVSaveService.CSV_CONNECT_TIME);
+    }
+
+    @Override
+    public boolean getSuccess() {
+        return getLong(CSVSaveService.SUCCESSFUL) != 0;
+    }
+
+    @Override
+    public long getReceivedBytes() {
+        return getLong(CSVSaveService.CSV_BYTES);
+    }
+
+    @Override
+    public long getSentBytes() {
+        return getOptionalLong(CSVSaveService.CSV_SENT_BYTES);
+    }
+
+    @Override
+    public int getGroupThreads() {
+        return (int) getLong(CSVSaveService.CSV_THREAD_COUNT1);
+    }
+
+    @Override
+    public int getAllThreads() {
+        return (int) getLong(CSVSaveService.CSV_THREAD_COUNT2);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                sb.append(metadata.getSeparator());
+            }
+            sb.append(getData(i));
+        }
+        return sb.toString();
+    }
+}
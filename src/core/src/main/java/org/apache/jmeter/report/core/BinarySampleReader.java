@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.core;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.jmeter.save.BinaryResultFormat;
+import org.apache.jmeter.save.BinaryResultFormat.ColumnType;
+import org.apache.jorphan.util.JOrphanUtils;
+
+/**
+ * Reader class for reading binary result files written by
+ * {@link org.apache.jmeter.save.BinaryResultWriter}.
+ * <p>
+ * Blocks are decoded column by column straight from their bytes; no value is
+ * parsed from text.
+ *
+ * @since 6.0
+ */
+public class BinarySampleReader implements SampleReader {
+
+    private static final int BUF_SIZE = 1024 * 1024;
+
+    private final File file;
+    private final InputStream in;
+    private final SampleMetadata metadata;
+    private final ColumnType[] types;
+
+    // State of the current segment
+    private final List<String> dictionary = new ArrayList<>();
+    private long lastTimestamp;
+
+    // Current block, column by column
+    private byte[] block = new byte[0];
+    private int blockLength;
+    private int position;
+    private final long[][] longValues;
+    private final String[][] stringValues;
+    private int blockRows;
+    private int blockRow;
+
+    private long row;
+
+    /**
+     * Instantiates a new binary sample reader.
+     *
+     * @param inputFile the input file (must not be {@code null})
+     */
+    public BinarySampleReader(File inputFile) {
+        if (!(inputFile.isFile() && inputFile.canRead())) {
+            throw new IllegalArgumentException(inputFile.getAbsolutePath()
+                    + " does not exist or is not readable");
+        }
+        this.file = inputFile;
+        try {
+            this.in = new BufferedInputStream(Files.newInputStream(inputFile.toPath()), BUF_SIZE);
+        } catch (IOException ex) {
+            throw new SampleException("Could not create file reader !", ex);
+        }
+        try {
+            int tag = in.read();
+            if (!BinaryResultFormat.isSegmentStart(tag)) {
+                throw new SampleException("File '" + file.getAbsolutePath() + "' is not a binary result file");
+            }
+            String[] columns = readSegmentHeader();
+            this.metadata = new SampleMetadata(',', columns);
+        } catch (IOException | RuntimeException e) {
+            JOrphanUtils.closeQuietly(in);
+            throw new SampleException("Could not read metadata !", e);
+        }
+        int columnCount = metadata.getColumnCount();
+        this.types = new ColumnType[columnCount];
+        this.longValues = new long[columnCount][];
+        this.stringValues = new String[columnCount][];
+        for (int i = 0; i < columnCount; i++) {
+            types[i] = BinaryResultFormat.columnType(metadata.getColumnName(i));
+        }
+    }
+
+    private String[] readSegmentHeader() throws IOException {
+        BinaryResultFormat.readMagic(in);
+        int columnCount = (int) BinaryResultFormat.readVarLong(in);
+        String[] columns = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = BinaryResultFormat.readString(in);
+        }
+        dictionary.clear();
+        lastTimestamp = 0;
+        return columns;
+    }
+
+    @Override
+    public SampleMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return next sample from the file.
+     */
+    @Override
+    public Sample readSample() {
+        try {
+            if (blockRow == blockRows && !readBlock()) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new SampleException("Could not read sample <" + row + "> of '" + file + "'", e);
+        }
+        int columnCount = types.length;
+        String[] strings = new String[columnCount];
+        long[] values = new long[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            if (types[i] == ColumnType.STRING) {
+                strings[i] = stringValues[i][blockRow];
+            } else {
+                values[i] = longValues[i][blockRow];
+            }
+        }
+        blockRow++;
+        return new BinarySample(row++, metadata, types, strings, values);
+    }
+
+    /**
+     * @return false at the end of the file
+     */
+    private boolean readBlock() throws IOException {
+        int tag;
+        while ((tag = in.read()) >= 0 && BinaryResultFormat.isSegmentStart(tag)) {
+            // Results appended to the file by another test: must have the same columns
+            String[] columns = readSegmentHeader();
+            if (!Arrays.equals(columns, metadata.columns.toArray(new String[0]))) {
+                throw new SampleException("Mismatch between expected columns:" + metadata
+                        + " and columns:" + String.join(",", columns) + " of segment in '" + file + "'");
+            }
+        }
+        if (tag < 0) {
+            return false;
+        }
+        if (tag != BinaryResultFormat.BLOCK) {
+            throw new IOException("Unexpected record type " + tag);
+        }
+        int length = (int) BinaryResultFormat.readVarLong(in);
+        if (block.length < length) {
+            block = new byte[length];
+        }
+        if (in.readNBytes(block, 0, length) < length) {
+            throw new EOFException("Truncated block");
+        }
+        blockLength = length;
+        position = 0;
+        blockRows = (int) readVarLong();
+        blockRow = 0;
+        for (int i = 0; i < types.length; i++) {
+            readColumn(i);
+        }
+        return blockRows > 0 || readBlock();
+    }
+
+    private void readColumn(int column) throws IOException {
+        switch (types[column]) {
+            case TIMESTAMP -> {
+                long[] values = longColumn(column);
+                for (int r = 0; r < blockRows; r++) {
+                    lastTimestamp += BinaryResultFormat.zigZagDecode(readVarLong());
+                    values[r] = lastTimestamp;
+                }
+            }
+            case LONG -> {
+                long[] values = longColumn(column);
+                for (int r = 0; r < blockRows; r++) {
+                    values[r] = BinaryResultFormat.zigZagDecode(readVarLong());
+                }
+            }
+            case BOOLEAN -> {
+                long[] values = longColumn(column);
+                for (int r = 0; r < blockRows; r++) {
+                    values[r] = readByte();
+                }
+            }
+            case STRING -> {
+                String[] values = stringColumn(column);
+                for (int r = 0; r < blockRows; r++) {
+                    values[r] = readDictionaryEntry();
+                }
+            }
+        }
+    }
+
+    private long[] longColumn(int column) {
+        long[] values = longValues[column];
+        if (values == null || values.length < blockRows) {
+            values = new long[blockRows];
+            longValues[column] = values;
+        }
+        return values;
+    }
+
+    private String[] stringColumn(int column) {
+        String[] values = stringValues[column];
+        if (values == null || values.length < blockRows) {
+            values = new String[blockRows];
+            stringValues[column] = values;
+        }
+        return values;
+    }
+
+    private String readDictionaryEntry() throws IOException {
+        int id = (int) readVarLong();
+        if (id < dictionary.size()) {
+            return dictionary.get(id);
+        }
+        if (id != dictionary.size()) {
+            throw new IOException("Invalid dictionary index " + id);
+        }
+        int length = (int) readVarLong();
+        checkAvailable(length);
+        String value = new String(block, position, length, StandardCharsets.UTF_8);
+        position += length;
+        dictionary.add(value);
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        checkAvailable(1);
+        return block[position++];
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private void checkAvailable(int length) throws EOFException {
+        if (position + length > blockLength) {
+            throw new EOFException("Truncated block");
+        }
+    }
+
+    @Override
+    public void close() {
+        JOrphanUtils.closeQuietly(in);
+    }
+}
@@ -18,7 +18,6 @@
 package org.apache.jmeter.report.core;
 
 import java.io.BufferedReader;
-import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -27,6 +26,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
@@ -47,7 +47,7 @@ import org.slf4j.LoggerFactory;
  *
  * @since 3.0
  */
-public class CsvSampleReader implements Closeable{
+public class CsvSampleReader implements SampleReader {
 
     private static final Logger log = LoggerFactory.getLogger(CsvSampleReader.class);
 
@@ -65,6 +65,7 @@ public class CsvSampleReader implements Closeable{
     private InputStream fis;
     private Reader isr;
     private BufferedReader reader;
+    private ParallelCsvReader parallelReader;
     private final char separator;
     private long row;
     private final SampleMetadata metadata;
@@ -84,7 +85,22 @@ public class CsvSampleReader implements Closeable{
      *                         SampleSaveConfiguration to define metadata
      */
     public CsvSampleReader(File inputFile, char separator, boolean useSaveSampleCfg) {
-        this(inputFile, null, separator, useSaveSampleCfg);
+        this(inputFile, null, separator, useSaveSampleCfg, 1);
+    }
+
+    /**
+     * Instantiates a new csv sample reader that parses the file with several threads.
+     * Samples are still read in the order of the file.
+     *
+     * @param inputFile        the input file (must not be {@code null})
+     * @param separator        the separator
+     * @param useSaveSampleCfg indicates whether the reader uses jmeter
+     *                         SampleSaveConfiguration to define metadata
+     * @param parserThreads    number of threads parsing the file, 1 to parse it on the calling thread
+     * @since 6.0
+     */
+    public CsvSampleReader(File inputFile, char separator, boolean useSaveSampleCfg, int parserThreads) {
+        this(inputFile, null, separator, useSaveSampleCfg, parserThreads);
     }
 
     /**
@@ -94,11 +110,11 @@ public class CsvSampleReader implements Closeable{
      * @param metadata  the metadata
      */
     public CsvSampleReader(File inputFile, SampleMetadata metadata) {
-        this(inputFile, metadata, DEFAULT_SEPARATOR, false);
+        this(inputFile, metadata, DEFAULT_SEPARATOR, false, 1);
     }
 
     private CsvSampleReader(File inputFile, SampleMetadata metadata,
-            char separator, boolean useSaveSampleCfg) {
+            char separator, boolean useSaveSampleCfg, int parserThreads) {
         if (!(inputFile.isFile() && inputFile.canRead())) {
             throw new IllegalArgumentException(inputFile.getAbsolutePath()
                     + " does not exist or is not readable");
@@ -132,9 +148,31 @@ public class CsvSampleReader implements Closeable{
         } else {
             this.numberOfSampleVariablesInCsv = 0;
         }
+        if (parserThreads > 1) {
+            openParallelReader(metadata == null, parserThreads);
+        }
         this.lastSampleRead = nextSample();
     }
 
+    private void openParallelReader(boolean skipFirstLine, int parserThreads) {
+        Charset charset = Charset.forName(CHARSET);
+        if (!JOrphanUtils.canSplitOnAsciiBytes(charset)) {
+            log.info("Charset {} cannot be parsed in parallel, reading '{}' sequentially", charset, file);
+            return;
+        }
+        try {
+            long offset = skipFirstLine ? ParallelCsvReader.firstLineLength(file) : 0;
+            parallelReader = new ParallelCsvReader(file, offset, charset, separator, parserThreads);
+        } catch (IOException e) {
+            close();
+            throw new SampleException("Could not create file reader !", e);
+        }
+        // The sequential reader is not needed anymore
+        JOrphanUtils.closeQuietly(isr);
+        JOrphanUtils.closeQuietly(fis);
+        JOrphanUtils.closeQuietly(reader);
+    }
+
     private Map.Entry<Boolean, SampleMetadata> readMetadata(char separator, boolean useSaveSampleCfg) {
         try {
             SampleMetadata result;
@@ -172,6 +210,7 @@ public class CsvSampleReader implements Closeable{
         }
     }
 
+    @Override
     public SampleMetadata getMetadata() {
         return metadata;
     }
@@ -179,7 +218,9 @@ public class CsvSampleReader implements Closeable{
     private Sample nextSample() {
         String[] data;
         try {
-            data = CSVSaveService.csvReadFile(reader, separator);
+            data = parallelReader != null
+                    ? parallelReader.readRecord()
+                    : CSVSaveService.csvReadFile(reader, separator);
             Sample sample = null;
             if (data.length > 0) {
                 assertCorrectColumns(data);
@@ -208,6 +249,7 @@ public class CsvSampleReader implements Closeable{
     /**
      * @return next sample from the file.
      */
+    @Override
     public Sample readSample() {
         Sample out = lastSampleRead;
         lastSampleRead = nextSample();
@@ -233,5 +275,8 @@ public class CsvSampleReader implements Closeable{
         JOrphanUtils.closeQuietly(isr);
         JOrphanUtils.closeQuietly(fis);
         JOrphanUtils.closeQuietly(reader);
+        if (parallelReader != null) {
+            parallelReader.close();
+        }
     }
 }
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.report.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jorphan.util.JOrphanUtils;
+
+/**
+ * Reads the records of a CSV file with several threads.
+ * <p>
+ * The file is cut in chunks of bytes that always end on a record boundary: line
+ * breaks inside quoted fields are skipped by keeping track of the quote characters.
+ * Chunks are parsed concurrently by {@link CSVSaveService#csvReadFile(BufferedReader, char)},
+ * and their records are returned in the order of the file, so the caller sees exactly
+ * what a sequential read would have produced.
+ * <p>
+ * Only a bounded number of chunks are read ahead, so memory does not depend on the size of the file.
+ * This class is not thread safe.
+ *
+ * @since 6.0
+ */
+final class ParallelCsvReader implements Closeable {
+
+    private static final String[] END_OF_FILE = new String[0];
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final InputStream in;
+    private final Charset charset;
+    private final char separator;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final ExecutorService parsers;
+    private final Deque<Future<ParsedChunk>> pendingChunks = new ArrayDeque<>();
+
+    /** Bytes read from the file and not yet handed to a parser */
+    private byte[] buffer;
+    private int length;
+    /** Position up to which the buffer has been scanned for record boundaries */
+    private int scanPosition;
+    /** Whether {@link #scanPosition} is inside a quoted field */
+    private boolean inQuotes;
+    /** End of the last complete record found in the buffer, 0 if none */
+    private int recordEnd;
+    private boolean eof;
+
+    private List<String[]> records = List.of();
+    private int recordIndex;
+    private IOException chunkFailure;
+
+    /**
+     * @param file        the CSV file
+     * @param offset      number of bytes to skip at the beginning of the file, e.g. the header line
+     * @param charset     charset of the file, chunks are cut on the bytes of the quote and line break
+     *                    characters, see {@link JOrphanUtils#canSplitOnAsciiBytes(Charset)}
+     * @param separator   the separator of the columns
+     * @param parallelism number of threads parsing the file
+     * @throws IOException when the file cannot be opened
+     */
+    ParallelCsvReader(File file, long offset, Charset charset, char separator, int parallelism)
+            throws IOException {
+        this(file, offset, charset, separator, parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelCsvReader(File file, long offset, Charset charset, char separator, int parallelism,
+            int chunkSize) throws IOException {
+        this.in = Files.newInputStream(file.toPath());
+        try {
+            in.skipNBytes(offset);
+        } catch (IOException e) {
+            JOrphanUtils.closeQuietly(in);
+            throw e;
+        }
+        this.charset = charset;
+        this.separator = separator;
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[chunkSize];
+        // Keep the parsers busy while the caller consumes the oldest chunk
+        this.maxPendingChunks = 2 * parallelism;
+        this.parsers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "ReportCsvParser-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Computes the length of the first line of a file, as read by {@link BufferedReader#readLine()}.
+     *
+     * @param file the file
+     * @return the number of bytes of the first line, including its line break
+     * @throws IOException when the file cannot be read
+     */
+    static long firstLineLength(File file) throws IOException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            long count = 0;
+            int b;
+            while ((b = input.read()) != -1) {
+                count++;
+                if (b == '\n') {
+                    break;
+                }
+                if (b == '\r') {
+                    if (input.read() == '\n') {
+                        count++;
+                    }
+                    break;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @return the fields of the next record, or an empty array at the end of the file
+     * @throws IOException when the file cannot be read or a record is invalid
+     */
+    String[] readRecord() throws IOException {
+        while (recordIndex == records.size()) {
+            if (chunkFailure != null) {
+                IOException failure = chunkFailure;
+                chunkFailure = null;
+                throw failure;
+            }
+            fillPendingChunks();
+            Future<ParsedChunk> next = pendingChunks.poll();
+            if (next == null) {
+                return END_OF_FILE;
+            }
+            ParsedChunk chunk = await(next);
+            records = chunk.records;
+            recordIndex = 0;
+            chunkFailure = chunk.failure;
+        }
+        String[] record = records.get(recordIndex);
+        // Let the chunk be collected as soon as it is consumed
+        records.set(recordIndex++, null);
+        return record;
+    }
+
+    private void fillPendingChunks() throws IOException {
+        if (parsers.isShutdown()) {
+            throw new IOException("Reader is closed");
+        }
+        while (pendingChunks.size() < maxPendingChunks) {
+            byte[] chunk = nextChunk();
+            if (chunk == null) {
+                return;
+            }
+            pendingChunks.add(parsers.submit(() -> parse(chunk)));
+        }
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing CSV file");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse CSV file", e.getCause());
+        }
+    }
+
+    /**
+     * @return the bytes of the next complete records, or null at the end of the file
+     */
+    private byte[] nextChunk() throws IOException {
+        while (!eof && (length < chunkSize || recordEnd == 0)) {
+            if (length == buffer.length) {
+                // A single record is larger than the buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                eof = true;
+            } else {
+                length += read;
+            }
+            scan();
+        }
+        int end = eof ? length : recordEnd;
+        if (end == 0) {
+            return null;
+        }
+        byte[] chunk = Arrays.copyOf(buffer, end);
+        System.arraycopy(buffer, end, buffer, 0, length - end);
+        length -= end;
+        scanPosition -= end;
+        recordEnd = 0;
+        return chunk;
+    }
+
+    private void scan() {
+        // A trailing CR may be followed by a LF that has not been read yet
+        int limit = eof ? length : length - 1;
+        for (; scanPosition < limit; scanPosition++) {
+            byte b = buffer[scanPosition];
+            if (b == CSVSaveService.QUOTING_CHAR) {
+                // Doubled quotes toggle twice, so only real quoted fields count
+                inQuotes = !inQuotes;
+            } else if (!inQuotes
+                    && (b == '\n'
+                    || b == '\r' && (scanPosition + 1 == length || buffer[scanPosition + 1] != '\n'))) {
+                recordEnd = scanPosition + 1;
+            }
+        }
+    }
+
+    private ParsedChunk parse(byte[] chunk) {
+        List<String[]> parsed = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(chunk), charset))) {
+            String[] record;
+            while ((record = CSVSaveService.csvReadFile(reader, separator)).length > 0) {
+                parsed.add(record);
+            }
+        } catch (IOException e) {
+            // Records parsed before the failure are still returned, like a sequential read would
+            return new ParsedChunk(parsed, e);
+        }
+        return new ParsedChunk(parsed, null);
+    }
+
+    @Override
+    public void close() {
+        parsers.shutdownNow();
+        pendingChunks.clear();
+        records = List.of();
+        recordIndex = 0;
+        JOrphanUtils.closeQuietly(in);
+    }
+
+    private static final class ParsedChunk {
+        private final List<String[]> records;
+        private final IOException failure;
+
+        private ParsedChunk(List<String[]> records, IOException failure) {
+            this.records = records;
+            this.failure = failure;
+        }
+    }
+}
@@ -130,6 +130,9 @@ public class SampleMetadata {
         if (saveConfig.saveConnectTime()) {
             configuredColumns.add(CSVSaveService.CSV_CONNECT_TIME);
         }
+        if (saveConfig.saveTlsSessionResumed()) {
+            configuredColumns.add(CSVSaveService.CSV_TLS_SESSION_RESUMED);
+        }
         initialize(saveConfig.getDelimiter().charAt(0), configuredColumns);
     }
 
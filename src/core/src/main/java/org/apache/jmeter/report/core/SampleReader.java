@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.core;
+
+import java.io.Closeable;
+
+/**
+ * Describes sample reader basic operations.<br>
+ * <br>
+ * Basically a sample reader is able to read samples from a source, one after
+ * the other, and close itself.<br>
+ *
+ * @since 6.0
+ */
+public interface SampleReader extends Closeable {
+
+    /**
+     * @return the metadata of the samples read from the source
+     */
+    SampleMetadata getMetadata();
+
+    /**
+     * @return next sample from the source, or {@code null} when there is no more sample
+     */
+    Sample readSample();
+
+    @Override
+    void close();
+}
@@ -79,7 +79,7 @@ public class JsonExporter extends AbstractDataExporter {
             itemsData.forEach(r -> createStatistic(statistics, (MapResultData)r));
 
             LOGGER.info("Checking output folder");
-            File outputDir = checkAndGetOutputFolder(reportGeneratorConfiguration);
+            File outputDir = checkAndGetOutputFolder(context, reportGeneratorConfiguration);
 
             File outputFile = new File(outputDir, OUTPUT_FILENAME);
             LOGGER.info("Writing statistics JSON to {}", outputFile);
@@ -93,11 +93,13 @@ public class JsonExporter extends AbstractDataExporter {
 
     /**
      * Check folder and return output folder.
+     * @param context {@link SampleContext}, the folder is not checked when refreshing a report
      * @param reportGeneratorConfiguration {@link ReportGeneratorConfiguration}
      * @return {@link File} output folder
      * @throws ExportException
      */
-    private File checkAndGetOutputFolder(ReportGeneratorConfiguration reportGeneratorConfiguration)
+    private File checkAndGetOutputFolder(SampleContext context,
+            ReportGeneratorConfiguration reportGeneratorConfiguration)
             throws ExportException {
         final ExporterConfiguration exportCfg = reportGeneratorConfiguration
                 .getExportConfigurations().get(getName());
@@ -109,7 +111,9 @@ public class JsonExporter extends AbstractDataExporter {
             outputDir = new File(globallyDefinedOutputDir);
         }
 
-        JOrphanUtils.canSafelyWriteToFolder(outputDir, JSON_FILE_FILTER);
+        if (!context.isRefreshingReport()) {
+            JOrphanUtils.canSafelyWriteToFolder(outputDir, JSON_FILE_FILTER);
+        }
         try {
             Files.createDirectories(outputDir.toPath());
         } catch (IOException ex) {
@@ -25,6 +25,10 @@ import java.lang.reflect.Method;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,9 +45,11 @@ import org.apache.jmeter.report.processor.AbstractSampleConsumer;
 import org.apache.jmeter.report.processor.AggregateConsumer;
 import org.apache.jmeter.report.processor.ApdexSummaryConsumer;
 import org.apache.jmeter.report.processor.ApdexThresholdsInfo;
+import org.apache.jmeter.report.processor.BinaryFileSampleSource;
 import org.apache.jmeter.report.processor.CsvFileSampleSource;
 import org.apache.jmeter.report.processor.ErrorsSummaryConsumer;
 import org.apache.jmeter.report.processor.FilterConsumer;
+import org.apache.jmeter.report.processor.LiveSampleSource;
 import org.apache.jmeter.report.processor.MaxAggregator;
 import org.apache.jmeter.report.processor.MinAggregator;
 import org.apache.jmeter.report.processor.NormalizerSampleConsumer;
@@ -55,7 +61,9 @@ import org.apache.jmeter.report.processor.StatisticsSummaryConsumer;
 import org.apache.jmeter.report.processor.Top5ErrorsBySamplerConsumer;
 import org.apache.jmeter.report.processor.graph.AbstractGraphConsumer;
 import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.reporters.SampleOverflowPolicy;
 import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.BinaryResultFormat;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.oro.text.regex.PatternMatcher;
 import org.slf4j.Logger;
@@ -86,6 +94,18 @@ public class ReportGenerator {
                             SampleSaveConfiguration.DEFAULT_DELIMITER))
                     .charAt(0);
 
+    private static final boolean INCREMENTAL_GENERATION = JMeterUtils.getPropDefault(
+            ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+                    + ReportGeneratorConfiguration.KEY_DELIMITER + "incremental", false);
+
+    private static final int INCREMENTAL_QUEUE_SIZE = 65536;
+
+    /** Seconds between two exports of the report during the test, 0 to only export it at the end */
+    private static final long INCREMENTAL_REFRESH_INTERVAL = JMeterUtils.getPropDefault(
+            ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+                    + ReportGeneratorConfiguration.KEY_DELIMITER + "incremental"
+                    + ReportGeneratorConfiguration.KEY_DELIMITER + "refresh_interval", 60L);
+
     private static final String INVALID_CLASS_FMT = "Class name \"%s\" is not valid.";
 
     public static final String NORMALIZER_CONSUMER_NAME = "normalizer";
@@ -113,6 +133,23 @@ public class ReportGenerator {
      */
     private final ResultCollector resultCollector;
 
+    /**
+     * Produces the samples of the running test to the consumers, null unless
+     * the report is generated incrementally
+     */
+    private LiveSampleSource liveSource;
+    private Thread liveThread;
+    private SampleContext liveSampleContext;
+    private boolean liveTmpDirCreated;
+    private volatile RuntimeException liveFailure;
+
+    /** Exports the report during the test, null unless it is refreshed periodically */
+    private ExecutorService refreshExecutor;
+    /** Last export of the report during the test, only used by the thread producing the samples */
+    private Future<?> refreshExport;
+    /** Set once the report has been exported during the test, the next exports overwrite it */
+    private volatile boolean reportRefreshed;
+
     /**
      * Instantiates a new report generator.
      *
@@ -154,6 +191,116 @@ public class ReportGenerator {
         log.info("Merging with JMeter properties");
         merged.putAll(JMeterUtils.getJMeterProperties());
         configuration = ReportGeneratorConfiguration.loadFromProperties(merged);
+        if (resultCollector != null && INCREMENTAL_GENERATION) {
+            startIncrementalGeneration();
+        }
+    }
+
+    /**
+     * Feeds the consumers with the samples of the result collector while the test runs,
+     * so {@link #generate()} only has to export the data instead of reading the whole file.
+     * The report is generated from the file as usual when this fails.
+     */
+    private void startIncrementalGeneration() {
+        File tmpDir = configuration.getTempDirectory();
+        try {
+            liveTmpDirCreated = createTempDir(tmpDir);
+            SampleContext sampleContext = new SampleContext();
+            sampleContext.setWorkingDirectory(tmpDir);
+            LiveSampleSource source = new LiveSampleSource(testFile, resultCollector.getSaveConfig(),
+                    INCREMENTAL_QUEUE_SIZE, SampleOverflowPolicy.getConfigured());
+            source.setSampleContext(sampleContext);
+            addConsumers(source);
+            if (INCREMENTAL_REFRESH_INTERVAL > 0) {
+                refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread exportThread = new Thread(runnable, "ReportGeneratorRefresh");
+                    exportThread.setDaemon(true);
+                    return exportThread;
+                });
+                source.setIntermediateResultsHandler(INCREMENTAL_REFRESH_INTERVAL * 1000, this::refreshReport);
+            }
+            Thread thread = new Thread(() -> {
+                try {
+                    source.run();
+                } catch (RuntimeException ex) {
+                    log.error("Error while processing samples during the test, "
+                            + "the report will be generated from the results file", ex);
+                    liveFailure = ex;
+                }
+            }, "ReportGeneratorIncremental");
+            thread.setDaemon(true);
+            thread.start();
+            liveSampleContext = sampleContext;
+            liveSource = source;
+            liveThread = thread;
+            resultCollector.setSampleFeed(source::offer);
+            log.info("Will process samples for the report during the test");
+        } catch (GenerationException | RuntimeException ex) {
+            log.warn("Cannot process samples for the report during the test, "
+                    + "the report will be generated from the results file", ex);
+            removeTempDir(tmpDir, liveTmpDirCreated);
+        }
+    }
+
+    /**
+     * Exports the intermediate results of the consumers on the refresh thread,
+     * unless the previous export is still running.
+     */
+    private void refreshReport(SampleContext sampleContext) {
+        if (refreshExport != null && !refreshExport.isDone()) {
+            log.info("Previous export of the report is still running, skipping refresh");
+            return;
+        }
+        refreshExport = refreshExecutor.submit(() -> {
+            sampleContext.setRefreshingReport(reportRefreshed);
+            try {
+                exportData(sampleContext);
+                reportRefreshed = true;
+            } catch (GenerationException | RuntimeException ex) {
+                log.warn("Error while refreshing the report during the test", ex);
+            }
+        });
+    }
+
+    /**
+     * Waits for the samples of the test to be processed.
+     *
+     * @return true if the consumers processed all the samples, false if the
+     * report must be generated from the results file
+     */
+    private boolean finishIncrementalGeneration() throws GenerationException {
+        resultCollector.setSampleFeed(null);
+        liveSource.finish();
+        try {
+            liveThread.join();
+            if (refreshExecutor != null) {
+                refreshExecutor.shutdown();
+                if (refreshExport != null) {
+                    refreshExport.get();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Interrupted while processing samples", ex);
+        } catch (ExecutionException ex) {
+            // Failures are logged by the export task
+            log.debug("Refresh of the report failed", ex);
+        }
+        if (liveFailure != null) {
+            removeTempDir(configuration.getTempDirectory(), liveTmpDirCreated);
+            return false;
+        }
+        long droppedCount = liveSource.getDroppedCount();
+        if (droppedCount > 0) {
+            log.warn("{} samples were not processed during the test as the buffer was full, "
+                    + "the report will be generated from the results file", droppedCount);
+            removeTempDir(configuration.getTempDirectory(), liveTmpDirCreated);
+            return false;
+        }
+        log.info("{} samples processed during the test", liveSource.getSampleCount());
+        // The report exported during the test is overwritten
+        liveSampleContext.setRefreshingReport(reportRefreshed);
+        return true;
     }
 
     private static Properties loadProps(File file) {
@@ -202,15 +349,46 @@ public class ReportGenerator {
         }
         log.debug("Start report generation");
 
+        if (liveSource != null && finishIncrementalGeneration()) {
+            exportData(liveSampleContext);
+            removeTempDir(configuration.getTempDirectory(), liveTmpDirCreated);
+            log.debug("End of report generation");
+            return;
+        }
+
         File tmpDir = configuration.getTempDirectory();
         boolean tmpDirCreated = createTempDir(tmpDir);
 
-        // Build consumers chain
         SampleContext sampleContext = new SampleContext();
         sampleContext.setWorkingDirectory(tmpDir);
-        SampleSource source = new CsvFileSampleSource(testFile, CSV_DEFAULT_SEPARATOR);
+        // Overwrite the report exported during the test, if any
+        sampleContext.setRefreshingReport(reportRefreshed);
+        SampleSource source = BinaryResultFormat.isBinaryFile(testFile)
+                ? new BinaryFileSampleSource(testFile)
+                : new CsvFileSampleSource(testFile, CSV_DEFAULT_SEPARATOR);
         source.setSampleContext(sampleContext);
+        addConsumers(source);
+
+        // Generate data
+        log.debug("Start samples processing");
+        try {
+            source.run(); // NOSONAR
+        } catch (SampleException ex) {
+            throw new GenerationException("Error while processing samples: " + ex.getMessage(), ex);
+        }
+        log.debug("End of samples processing");
+
+        exportData(sampleContext);
 
+        removeTempDir(tmpDir, tmpDirCreated);
+
+        log.debug("End of report generation");
+    }
+
+    /**
+     * Builds the consumers chain of the samples produced by the source.
+     */
+    private void addConsumers(SampleSource source) throws GenerationException {
         NormalizerSampleConsumer normalizer = new NormalizerSampleConsumer();
         normalizer.setName(NORMALIZER_CONSUMER_NAME);
 
@@ -238,16 +416,9 @@ public class ReportGenerator {
         for (Map.Entry<String, GraphConfiguration> entryGraphCfg : graphConfigurations.entrySet()) {
             addGraphConsumer(nameFilter, excludeControllerFilter, entryGraphCfg);
         }
+    }
 
-        // Generate data
-        log.debug("Start samples processing");
-        try {
-            source.run(); // NOSONAR
-        } catch (SampleException ex) {
-            throw new GenerationException("Error while processing samples: " + ex.getMessage(), ex);
-        }
-        log.debug("End of samples processing");
-
+    private void exportData(SampleContext sampleContext) throws GenerationException {
         log.debug("Start data exporting");
 
         // Process configuration to build data exporters
@@ -263,10 +434,6 @@ public class ReportGenerator {
         }
 
         log.debug("End of data exporting");
-
-        removeTempDir(tmpDir, tmpDirCreated);
-
-        log.debug("End of report generation");
     }
 
     /**
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleException;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.core.SampleReader;
+import org.apache.jmeter.report.core.TimeHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read a result source file and write its rows (samples) all the registered
+ * <code>SampleConsumer</code>s.<br>
+ * If there is several other source files with the same root name then those
+ * files are produced on their corresponding channels, see
+ * {@link CsvFileSampleSource}.<br>
+ * Subclasses only provide the {@link SampleReader} of each file.
+ *
+ * @since 6.0
+ */
+public abstract class AbstractFileSampleSource extends AbstractSampleSource {
+
+    /** File name whose sample are being produced on the channel */
+    public static final String SOURCE_FILE_ATTRIBUTE = "samplesource.file";
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractFileSampleSource.class);
+
+    /** input files to be produced */
+    private final File[] inputFiles;
+
+    /** readers corresponding to the input files */
+    private final SampleReader[] readers;
+
+    /** mock producer to produce samples to its consumers */
+    private final PrivateProducer producer;
+
+    /**
+     * Build a sample source from the specified input file.
+     *
+     * @param inputFile    The input sample file (must not be {@code null})
+     * @param readerFactory Creates the reader of an input file
+     */
+    protected AbstractFileSampleSource(final File inputFile, Function<File, SampleReader> readerFactory) {
+        final String inputRootName = getFileRootName(inputFile.getName());
+        final String inputExtension = getFileExtension(inputFile.getName());
+
+        // Find secondary inputs by regex match
+        File[] secondaryInputs = null;
+        try {
+            final Pattern pattern = Pattern.compile(inputRootName
+                    + "-[0-9]+\\." + inputExtension);
+            secondaryInputs = inputFile.getAbsoluteFile().getParentFile()
+                    .listFiles(pathname -> pathname.isFile()
+                            && pattern.matcher(pathname.getName()).matches());
+        } catch (PatternSyntaxException e) {
+            throw new SampleException("Could not locate input sample files !",
+                    e);
+        }
+        if (secondaryInputs == null) {
+            secondaryInputs = new File[0];
+        }
+        inputFiles = new File[secondaryInputs.length + 1];
+        readers = new SampleReader[secondaryInputs.length + 1];
+        int k = 0;
+        // primary input file (ex. input.csv)
+        readers[k] = readerFactory.apply(inputFile);
+        inputFiles[k] = inputFile;
+        // secondary input files (ex. input-1.csv, input-2.csv, input-3.csv)
+        for (File input : secondaryInputs) {
+            k++;
+            readers[k] = readerFactory.apply(input);
+            inputFiles[k] = secondaryInputs[k - 1];
+        }
+        producer = new PrivateProducer();
+    }
+
+    private static String getFileRootName(String fName) {
+        int idx = fName.lastIndexOf('.');
+        if (idx < 0) {
+            return fName;
+        }
+        return fName.substring(0, idx);
+    }
+
+    private static String getFileExtension(String fName) {
+        int idx = fName.lastIndexOf('.');
+        if (idx < 0) {
+            return "";
+        }
+        if (idx < fName.length() - 1) {
+            return fName.substring(idx + 1);
+        }
+        return "";
+    }
+
+    /**
+     * Get the current time in milliseconds
+     */
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Get a readable time as hours, minutes and seconds from the specified time
+     * in milliseconds
+     *
+     * @return A readable string that displays the time provided as milliseconds
+     */
+    private static String time(long t) {
+        return TimeHelper.time(t);
+    }
+
+    /**
+     * Read all input files and produce their samples on registered sample
+     * consumers
+     */
+    private void produce() {
+        SampleContext context = getSampleContext();
+        if (context == null) {
+            throw new IllegalStateException("Set a sample context before producing samples.");
+        }
+
+        for (int i = 0; i < readers.length; i++) {
+            long sampleCount = 0;
+            long start = now();
+            SampleReader reader = readers[i];
+            producer.setSampleContext(context);
+            producer.setProducedMetadata(reader.getMetadata(), i);
+            producer.setChannelAttribute(i, SOURCE_FILE_ATTRIBUTE,
+                    inputFiles[i]);
+            producer.startProducing();
+            try {
+                Sample s = null;
+                while ((s = reader.readSample()) != null) {
+                    producer.produce(s, i);
+                    sampleCount++;
+                }
+            } finally {
+                producer.stopProducing();
+                reader.close();
+            }
+            if (LOG.isInfoEnabled()) {
+                LOG.info("produce(): {} samples produced in {} on channel {}",
+                        sampleCount, time(now() - start), i);
+            }
+        }
+    }
+
+    @Override
+    public void setSampleConsumers(List<SampleConsumer> consumers) {
+        producer.setSampleConsumers(consumers);
+    }
+
+    @Override
+    public void addSampleConsumer(SampleConsumer consumer) {
+        producer.addSampleConsumer(consumer);
+    }
+
+    @Override
+    public void removeSampleConsumer(SampleConsumer consumer) {
+        producer.removeSampleConsumer(consumer);
+    }
+
+    /**
+     * Run this sample source.<br>
+     * This sample source will start reading all inputs files and produce
+     * their samples to this sample source registered sample consumers.
+     */
+    @Override
+    public void run() {
+        produce();
+    }
+
+    /**
+     * Forwards the produced samples to the consumers of a sample source.
+     * Also used by {@link LiveSampleSource}.
+     */
+    static class PrivateProducer extends AbstractSampleProcessor implements
+            SampleProducer {
+
+        private List<SampleConsumer> sampleConsumers = new ArrayList<>();
+
+        /**
+         * Set the consumers for the samples that are to be consumed
+         *
+         * @param consumers list of consumers for the samples (must not be
+         *                  {@code null})
+         */
+        void setSampleConsumers(List<SampleConsumer> consumers) {
+            Objects.requireNonNull(consumers, "consumers must not be null");
+
+            this.sampleConsumers = consumers;
+        }
+
+        void addSampleConsumer(SampleConsumer consumer) {
+            if (consumer == null) {
+                return;
+            }
+            this.sampleConsumers.add(consumer);
+        }
+
+        void removeSampleConsumer(SampleConsumer consumer) {
+            if (consumer == null) {
+                return;
+            }
+            this.sampleConsumers.remove(consumer);
+        }
+
+        /**
+         * @see AbstractSampleConsumer#storeIntermediateResults()
+         */
+        void storeIntermediateResults() {
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                if (consumer instanceof AbstractSampleConsumer sampleConsumer) {
+                    sampleConsumer.storeIntermediateResults();
+                }
+            }
+        }
+
+        @Override
+        public void setSampleContext(SampleContext context) {
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                try {
+                    consumer.setSampleContext(context);
+                } catch (Exception e) {
+                    throw new SampleException("Consumer failed with message :"
+                            + e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void setProducedMetadata(SampleMetadata metadata, int channel) {
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                try {
+                    consumer.setConsumedMetadata(metadata, channel);
+                } catch (Exception e) {
+                    throw new SampleException("Consumer failed with message :"
+                            + e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void setChannelAttribute(int channel, String key, Object value) {
+            super.setChannelAttribute(channel, key, value);
+            // propagate to this mock producer's consumers
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                try {
+                    consumer.setChannelAttribute(channel, key, value);
+                } catch (Exception e) {
+                    throw new SampleException("Consumer failed with message :"
+                            + e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void startProducing() {
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                try {
+                    consumer.startConsuming();
+                } catch (Exception e) {
+                    throw new SampleException("Consumer failed with message :"
+                            + e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void produce(Sample s, int channel) {
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                try {
+                    consumer.consume(s, channel);
+                } catch (Exception e) {
+                    throw new SampleException("Consumer failed with message :"
+                            + e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void stopProducing() {
+            for (SampleConsumer consumer : this.sampleConsumers) {
+                try {
+                    consumer.stopConsuming();
+                } catch (Exception e) {
+                    throw new SampleException("Consumer failed with message :"
+                            + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+}
@@ -250,4 +250,21 @@ public abstract class AbstractSampleConsumer extends AbstractSampleProcessor
         }
     }
 
+    /**
+     * Stores in the sample context the results of the samples consumed so far,
+     * as {@link #stopConsuming()} does, but without resetting the consumer so it
+     * can go on consuming samples. Used to refresh the report while the test runs.
+     * <p>
+     * The default implementation only asks the consumers of this consumer to store their results.
+     *
+     * @since 6.0
+     */
+    public void storeIntermediateResults() {
+        for (SampleConsumer consumer : this.sampleConsumers) {
+            if (consumer instanceof AbstractSampleConsumer sampleConsumer) {
+                sampleConsumer.storeIntermediateResults();
+            }
+        }
+    }
+
 }
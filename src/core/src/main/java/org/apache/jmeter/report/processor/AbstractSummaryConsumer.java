@@ -230,6 +230,23 @@ public abstract class AbstractSummaryConsumer<TData> extends
 
     @Override
     public void stopConsuming() {
+        // Store the result in the context
+        setDataToContext(getName(), createResult());
+
+        super.stopProducing();
+
+        // Reset infos
+        infos.clear();
+        overallInfo.setData(null);
+    }
+
+    @Override
+    public void storeIntermediateResults() {
+        setDataToContext(getName(), createResult());
+        super.storeIntermediateResults();
+    }
+
+    private MapResultData createResult() {
         MapResultData result = new MapResultData();
 
         // Push the support flag in the result
@@ -257,14 +274,6 @@ public abstract class AbstractSummaryConsumer<TData> extends
             }
         }
         result.setResult(RESULT_VALUE_ITEMS, itemsResult);
-
-        // Store the result in the context
-        setDataToContext(getName(), result);
-
-        super.stopProducing();
-
-        // Reset infos
-        infos.clear();
-        overallInfo.setData(null);
+        return result;
     }
 }
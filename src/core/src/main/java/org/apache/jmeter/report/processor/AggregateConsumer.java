@@ -94,4 +94,10 @@ public class AggregateConsumer extends AbstractSampleConsumer {
         super.stopProducing();
     }
 
+    @Override
+    public void storeIntermediateResults() {
+        setDataToContext(getName(), new ValueResultData(aggregator.getResult()));
+        super.storeIntermediateResults();
+    }
+
 }
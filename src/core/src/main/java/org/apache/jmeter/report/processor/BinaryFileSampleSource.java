@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.processor;
+
+import java.io.File;
+
+import org.apache.jmeter.report.core.BinarySampleReader;
+
+/**
+ * Read a binary result file, written with
+ * <code>jmeter.save.saveservice.output_format=binary</code>, and write its
+ * rows (samples) to all the registered <code>SampleConsumer</code>s.<br>
+ * Secondary files are looked up and produced on their own channels the same
+ * way as {@link CsvFileSampleSource} does, for instance
+ * <code>results.jtlb</code>, <code>results-1.jtlb</code>, etc.
+ *
+ * @since 6.0
+ */
+public class BinaryFileSampleSource extends AbstractFileSampleSource {
+
+    /**
+     * Build a sample source from the specified binary input file.
+     *
+     * @param inputFile The input sample file (must not be {@code null})
+     */
+    public BinaryFileSampleSource(final File inputFile) {
+        super(inputFile, BinarySampleReader::new);
+    }
+}
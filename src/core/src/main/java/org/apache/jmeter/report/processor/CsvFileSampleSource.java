@@ -18,19 +18,10 @@
 package org.apache.jmeter.report.processor;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
+import org.apache.jmeter.report.config.ReportGeneratorConfiguration;
 import org.apache.jmeter.report.core.CsvSampleReader;
-import org.apache.jmeter.report.core.Sample;
-import org.apache.jmeter.report.core.SampleException;
-import org.apache.jmeter.report.core.SampleMetadata;
-import org.apache.jmeter.report.core.TimeHelper;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.jmeter.util.JMeterUtils;
 
 /**
  * Read a csv source file and write its rows (samples) all the registered
@@ -58,24 +49,16 @@ import org.slf4j.LoggerFactory;
  * <li>If the input file is named <code>results.csv</code> then it will
  * be produced on the channel 0.</li>
  * </ul>
+ * When {@code jmeter.reportgenerator.parser_threads} is greater than 1, each file
+ * is parsed by that many threads, its samples being still produced in order.
  *
  * @since 3.0
  */
-public class CsvFileSampleSource extends AbstractSampleSource {
+public class CsvFileSampleSource extends AbstractFileSampleSource {
 
-    /** File name whose sample are being produced on the channel */
-    public static final String SOURCE_FILE_ATTRIBUTE = "samplesource.file";
-
-    private static final Logger LOG = LoggerFactory.getLogger(CsvFileSampleSource.class);
-
-    /** input csv files to be produced */
-    private final File[] inputFiles;
-
-    /** csv readers corresponding to the input files */
-    private final CsvSampleReader[] csvReaders;
-
-    /** mock producer to produce samples to its consumers */
-    private final PrivateProducer producer;
+    private static final int PARSER_THREADS = JMeterUtils.getPropDefault(
+            ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+                    + ReportGeneratorConfiguration.KEY_DELIMITER + "parser_threads", 1);
 
     /**
      * Build a sample source from the specified input file and character
@@ -86,240 +69,6 @@ public class CsvFileSampleSource extends AbstractSampleSource {
      *                  columns
      */
     public CsvFileSampleSource(final File inputFile, final char separator) {
-        final String inputRootName = getFileRootName(inputFile.getName());
-        final String inputExtension = getFileExtension(inputFile.getName());
-
-        // Find secondary inputs by regex match
-        File[] secondaryInputs = null;
-        try {
-            final Pattern pattern = Pattern.compile(inputRootName
-                    + "-[0-9]+\\." + inputExtension);
-            secondaryInputs = inputFile.getAbsoluteFile().getParentFile()
-                    .listFiles(pathname -> pathname.isFile()
-                            && pattern.matcher(pathname.getName()).matches());
-        } catch (PatternSyntaxException e) {
-            throw new SampleException("Could not locate input sample files !",
-                    e);
-        }
-        if (secondaryInputs == null) {
-            secondaryInputs = new File[0];
-        }
-        inputFiles = new File[secondaryInputs.length + 1];
-        csvReaders = new CsvSampleReader[secondaryInputs.length + 1];
-        int k = 0;
-        // primary input file (ex. input.csv)
-        csvReaders[k] = new CsvSampleReader(inputFile, separator, true);
-        inputFiles[k] = inputFile;
-        // secondary input files (ex. input-1.csv, input-2.csv, input-3.csv)
-        for (File input : secondaryInputs) {
-            k++;
-            csvReaders[k] = new CsvSampleReader(input, separator, true);
-            inputFiles[k] = secondaryInputs[k - 1];
-        }
-        producer = new PrivateProducer();
-    }
-
-    private static String getFileRootName(String fName) {
-        int idx = fName.lastIndexOf('.');
-        if (idx < 0) {
-            return fName;
-        }
-        return fName.substring(0, idx);
-    }
-
-    private static String getFileExtension(String fName) {
-        int idx = fName.lastIndexOf('.');
-        if (idx < 0) {
-            return "";
-        }
-        if (idx < fName.length() - 1) {
-            return fName.substring(idx + 1);
-        }
-        return "";
-    }
-
-    /**
-     * Get the current time in milliseconds
-     */
-    private static long now() {
-        return System.currentTimeMillis();
-    }
-
-    /**
-     * Get a readable time as hours, minutes and seconds from the specified time
-     * in milliseconds
-     *
-     * @return A readable string that displays the time provided as milliseconds
-     */
-    private static String time(long t) {
-        return TimeHelper.time(t);
+        super(inputFile, file -> new CsvSampleReader(file, separator, true, PARSER_THREADS));
     }
-
-    /**
-     * Read all input CSV files and produce their samples on registered sample
-     * consumers
-     */
-    private void produce() {
-        SampleContext context = getSampleContext();
-        if (context == null) {
-            throw new IllegalStateException("Set a sample context before producing samples.");
-        }
-
-        for (int i = 0; i < csvReaders.length; i++) {
-            long sampleCount = 0;
-            long start = now();
-            CsvSampleReader csvReader = csvReaders[i];
-            producer.setSampleContext(context);
-            producer.setProducedMetadata(csvReader.getMetadata(), i);
-            producer.setChannelAttribute(i, SOURCE_FILE_ATTRIBUTE,
-                    inputFiles[i]);
-            producer.startProducing();
-            try {
-                Sample s = null;
-                while ((s = csvReader.readSample()) != null) {
-                    producer.produce(s, i);
-                    sampleCount++;
-                }
-            } finally {
-                producer.stopProducing();
-                csvReader.close();
-            }
-            if (LOG.isInfoEnabled()) {
-                LOG.info("produce(): {} samples produced in {} on channel {}",
-                        sampleCount, time(now() - start), i);
-            }
-        }
-    }
-
-    @Override
-    public void setSampleConsumers(List<SampleConsumer> consumers) {
-        producer.setSampleConsumers(consumers);
-    }
-
-    @Override
-    public void addSampleConsumer(SampleConsumer consumer) {
-        producer.addSampleConsumer(consumer);
-    }
-
-    @Override
-    public void removeSampleConsumer(SampleConsumer consumer) {
-        producer.removeSampleConsumer(consumer);
-    }
-
-    /**
-     * Run this sample source.<br>
-     * This sample source will start reading all inputs CSV files and produce
-     * their samples to this sample source registered sample consumers.
-     */
-    @Override
-    public void run() {
-        produce();
-    }
-
-    private static class PrivateProducer extends AbstractSampleProcessor implements
-            SampleProducer {
-
-        private List<SampleConsumer> sampleConsumers = new ArrayList<>();
-
-        /**
-         * Set the consumers for the samples that are to be consumed
-         *
-         * @param consumers list of consumers for the samples (must not be
-         *                  {@code null})
-         */
-        private void setSampleConsumers(List<SampleConsumer> consumers) {
-            Objects.requireNonNull(consumers, "consumers must not be null");
-
-            this.sampleConsumers = consumers;
-        }
-
-        private void addSampleConsumer(SampleConsumer consumer) {
-            if (consumer == null) {
-                return;
-            }
-            this.sampleConsumers.add(consumer);
-        }
-
-        private void removeSampleConsumer(SampleConsumer consumer) {
-            if (consumer == null) {
-                return;
-            }
-            this.sampleConsumers.remove(consumer);
-        }
-
-        @Override
-        public void setSampleContext(SampleContext context) {
-            for (SampleConsumer consumer : this.sampleConsumers) {
-                try {
-                    consumer.setSampleContext(context);
-                } catch (Exception e) {
-                    throw new SampleException("Consumer failed with message :"
-                            + e.getMessage(), e);
-                }
-            }
-        }
-
-        @Override
-        public void setProducedMetadata(SampleMetadata metadata, int channel) {
-            for (SampleConsumer consumer : this.sampleConsumers) {
-                try {
-                    consumer.setConsumedMetadata(metadata, channel);
-                } catch (Exception e) {
-                    throw new SampleException("Consumer failed with message :"
-                            + e.getMessage(), e);
-                }
-            }
-        }
-
-        @Override
-        public void setChannelAttribute(int channel, String key, Object value) {
-            super.setChannelAttribute(channel, key, value);
-            // propagate to this mock producer's consumers
-            for (SampleConsumer consumer : this.sampleConsumers) {
-                try {
-                    consumer.setChannelAttribute(channel, key, value);
-                } catch (Exception e) {
-                    throw new SampleException("Consumer failed with message :"
-                            + e.getMessage(), e);
-                }
-            }
-        }
-
-        @Override
-        public void startProducing() {
-            for (SampleConsumer consumer : this.sampleConsumers) {
-                try {
-                    consumer.startConsuming();
-                } catch (Exception e) {
-                    throw new SampleException("Consumer failed with message :"
-                            + e.getMessage(), e);
-                }
-            }
-        }
-
-        @Override
-        public void produce(Sample s, int channel) {
-            for (SampleConsumer consumer : this.sampleConsumers) {
-                try {
-                    consumer.consume(s, channel);
-                } catch (Exception e) {
-                    throw new SampleException("Consumer failed with message :"
-                            + e.getMessage(), e);
-                }
-            }
-        }
-
-        @Override
-        public void stopProducing() {
-            for (SampleConsumer consumer : this.sampleConsumers) {
-                try {
-                    consumer.stopConsuming();
-                } catch (Exception e) {
-                    throw new SampleException("Consumer failed with message :"
-                            + e.getMessage(), e);
-                }
-            }
-        }
-    }
-
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.processor;
+
+import org.apache.jmeter.report.config.ReportGeneratorConfiguration;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.math.LogLinearHistogram;
+import org.apiguardian.api.API;
+
+/**
+ * The class HistogramPercentileAggregator computes a percentile from a
+ * histogram of all the aggregated values.
+ * <p>
+ * Unlike {@link PercentileAggregator}, it does not keep a sliding window of the
+ * last values: every value is taken into account in constant memory, and the
+ * result is exact up to the configured number of significant digits. Values are
+ * rounded to the nearest integer.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class HistogramPercentileAggregator extends PercentileAggregator {
+
+    private static final String PROPERTY_PREFIX = ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+            + ReportGeneratorConfiguration.KEY_DELIMITER;
+
+    private static final boolean ENABLED = JMeterUtils.getPropDefault(
+            PROPERTY_PREFIX + "statistic_histogram", false);
+
+    /** Default number of significant digits kept by the histograms */
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = JMeterUtils.getPropDefault(
+            PROPERTY_PREFIX + "statistic_histogram_digits", 3);
+
+    private final LogLinearHistogram histogram;
+
+    /**
+     * Instantiates a new histogram percentile aggregator keeping the default
+     * number of significant digits.
+     *
+     * @param index
+     *            the index of the percentile
+     */
+    public HistogramPercentileAggregator(double index) {
+        this(index, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Instantiates a new histogram percentile aggregator.
+     *
+     * @param index
+     *            the index of the percentile
+     * @param significantDigits
+     *            the number of significant digits kept, between 1 and 5
+     */
+    public HistogramPercentileAggregator(double index, int significantDigits) {
+        super(index, null);
+        histogram = new LogLinearHistogram(significantDigits);
+    }
+
+    /**
+     * Indicates whether percentiles of the dashboard are computed with
+     * histograms instead of sliding windows, as set by the
+     * {@code jmeter.reportgenerator.statistic_histogram} property.
+     *
+     * @return true if histograms are used
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Adds all the values aggregated by another aggregator to this one, so that
+     * the percentile of several series can be computed without aggregating
+     * their values twice.
+     *
+     * @param other
+     *            aggregator keeping the same number of significant digits
+     */
+    public void merge(HistogramPercentileAggregator other) {
+        histogram.add(other.histogram);
+    }
+
+    @Override
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    @Override
+    public double getResult() {
+        return histogram.getValueAtPercentile(getPercentileIndex());
+    }
+
+    @Override
+    public void addValue(double value) {
+        histogram.record(Math.round(value));
+    }
+
+    @Override
+    public void reset() {
+        histogram.reset();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.processor;
+
+import org.apiguardian.api.API;
+
+/**
+ * A factory for creating HistogramPercentileAggregator.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class HistogramPercentileAggregatorFactory extends AbstractAggregatorFactory {
+
+    private double percentileIndex;
+    private int significantDigits = HistogramPercentileAggregator.DEFAULT_SIGNIFICANT_DIGITS;
+
+    /**
+     * Gets the percentile index.
+     *
+     * @return the percentile index
+     */
+    public final double getPercentileIndex() {
+        return percentileIndex;
+    }
+
+    /**
+     * Sets the percentile index.
+     *
+     * @param percentileIndex
+     *            the index of the percentile to set
+     */
+    public void setPercentileIndex(double percentileIndex) {
+        this.percentileIndex = percentileIndex;
+    }
+
+    /**
+     * Gets the number of significant digits kept by the created aggregators.
+     *
+     * @return the number of significant digits
+     */
+    public final int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    /**
+     * Sets the number of significant digits kept by the created aggregators.
+     *
+     * @param significantDigits
+     *            the number of significant digits to set, between 1 and 5
+     */
+    public void setSignificantDigits(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+
+    /**
+     * Gets the factory used by the dashboard graphs for a percentile: a
+     * HistogramPercentileAggregatorFactory when
+     * {@code jmeter.reportgenerator.statistic_histogram} is enabled, the given
+     * sliding window based factory otherwise.
+     *
+     * @param percentileIndex
+     *            the index of the percentile
+     * @param windowFactory
+     *            the factory to use when histograms are not enabled
+     * @return the factory to use
+     */
+    public static AggregatorFactory forPercentile(double percentileIndex, AggregatorFactory windowFactory) {
+        if (!HistogramPercentileAggregator.isEnabled()) {
+            return windowFactory;
+        }
+        HistogramPercentileAggregatorFactory factory = new HistogramPercentileAggregatorFactory();
+        factory.setPercentileIndex(percentileIndex);
+        return factory;
+    }
+
+    @Override
+    protected Aggregator createAggregator() {
+        return new HistogramPercentileAggregator(percentileIndex, significantDigits);
+    }
+
+}
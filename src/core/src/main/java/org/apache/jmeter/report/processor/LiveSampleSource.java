@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.report.processor;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetaDataParser;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.reporters.SampleOverflowPolicy;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jorphan.collections.MpscArrayQueue;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Produces the samples of a running test to the registered
+ * <code>SampleConsumer</code>s, as {@link CsvFileSampleSource} would produce
+ * them once the result file is complete.
+ * <p>
+ * Sampling threads {@link #offer(SampleEvent)} their samples on a lock-free ring buffer,
+ * {@link #run()} drains it on its own thread until {@link #finish()} is called.
+ * When the buffer is full, the sampling thread waits for room or the sample is dropped,
+ * depending on the {@link SampleOverflowPolicy}.
+ * Samples and their sub-results are converted to the columns of the result file with its save configuration,
+ * so consumers get the same data as when reading the file.
+ * All the samples are produced on channel 0.
+ * <p>
+ * The consumers can be asked to store their intermediate results periodically, see
+ * {@link #setIntermediateResultsHandler(long, Consumer)}.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class LiveSampleSource extends AbstractSampleSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LiveSampleSource.class);
+
+    private static final int BATCH_SIZE = 4096;
+
+    /** How long the producing thread parks when the buffer is empty */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** How long a sampling thread parks while waiting for room in the buffer */
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Same limit as {@link CSVSaveService} when writing the sub-results */
+    private static final int MAX_SUB_RESULTS_DEPTH = 10;
+
+    private final File resultFile;
+    private final SampleSaveConfiguration saveConfig;
+    private final SampleMetadata metadata;
+    private final MpscArrayQueue<SampleEvent> queue;
+    private final SampleOverflowPolicy overflowPolicy;
+    private final LongAdder dropped = new LongAdder();
+    private final AbstractFileSampleSource.PrivateProducer producer =
+            new AbstractFileSampleSource.PrivateProducer();
+
+    private long sampleCount;
+
+    private long intermediateResultsPeriodNanos;
+    private Consumer<SampleContext> intermediateResultsHandler;
+
+    /** Set when no more samples will be offered */
+    private volatile boolean finished;
+
+    /** Set when {@link #run()} returned, samples offered afterwards are ignored */
+    private volatile boolean stopped;
+
+    /**
+     * @param resultFile the result file the samples are written to, set as
+     *                   {@link AbstractFileSampleSource#SOURCE_FILE_ATTRIBUTE} of the channel
+     * @param saveConfig the save configuration of the result file
+     * @param queueSize  number of samples that can wait for being produced
+     * @param overflowPolicy what to do when <code>queueSize</code> samples are waiting
+     */
+    public LiveSampleSource(File resultFile, SampleSaveConfiguration saveConfig, int queueSize,
+            SampleOverflowPolicy overflowPolicy) {
+        this.resultFile = resultFile;
+        this.saveConfig = saveConfig;
+        // Same metadata as the header of the result file, sample variables included
+        this.metadata = new SampleMetaDataParser(saveConfig.getDelimiter().charAt(0))
+                .parse(CSVSaveService.printableFieldNamesToString(saveConfig));
+        this.queue = new MpscArrayQueue<>(queueSize);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Asks the consumers to store their intermediate results in the sample context
+     * every <code>periodMillis</code> while samples are produced, see
+     * {@link AbstractSampleConsumer#storeIntermediateResults()}.
+     * The handler is called on the thread producing the samples with a copy of the
+     * sample context, so it should hand the export over to another thread.
+     * Must be called before {@link #run()}.
+     *
+     * @param periodMillis time between two calls of the handler, 0 to never call it
+     * @param handler      receives the copy of the sample context holding the intermediate results
+     */
+    public void setIntermediateResultsHandler(long periodMillis, Consumer<SampleContext> handler) {
+        this.intermediateResultsPeriodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.intermediateResultsHandler = periodMillis > 0 ? handler : null;
+    }
+
+    /**
+     * Adds a sample of the test. When too many samples are waiting, either waits
+     * for room or drops the sample, depending on the overflow policy.
+     * The sample is formatted with the save configuration given to the constructor,
+     * whatever the configuration set on the sample result.
+     *
+     * @param event the sample
+     */
+    public void offer(SampleEvent event) {
+        if (stopped) {
+            dropped.increment();
+            return;
+        }
+        if (queue.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == SampleOverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+        while (!queue.offer(event)) {
+            if (stopped) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * @return the number of samples that were not produced because the buffer was full
+     * or {@link #run()} had returned
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Makes {@link #run()} return once the samples already offered have been produced.
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    /**
+     * @return the number of samples produced, to be called once {@link #run()} returned
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public void setSampleConsumers(List<SampleConsumer> consumers) {
+        producer.setSampleConsumers(consumers);
+    }
+
+    @Override
+    public void addSampleConsumer(SampleConsumer consumer) {
+        producer.addSampleConsumer(consumer);
+    }
+
+    @Override
+    public void removeSampleConsumer(SampleConsumer consumer) {
+        producer.removeSampleConsumer(consumer);
+    }
+
+    /**
+     * Produces the offered samples until {@link #finish()} is called.
+     */
+    @Override
+    public void run() {
+        SampleContext context = getSampleContext();
+        if (context == null) {
+            throw new IllegalStateException("Set a sample context before producing samples.");
+        }
+        try {
+            producer.setSampleContext(context);
+            producer.setProducedMetadata(metadata, 0);
+            producer.setChannelAttribute(0, AbstractFileSampleSource.SOURCE_FILE_ATTRIBUTE, resultFile);
+            producer.startProducing();
+            try {
+                long nextIntermediateResults = System.nanoTime() + intermediateResultsPeriodNanos;
+                while (true) {
+                    // Read the flag before draining, so samples offered before finish() are not lost
+                    boolean last = finished;
+                    int drained = queue.drain(this::produce, BATCH_SIZE);
+                    if (drained == 0) {
+                        if (last && queue.isEmpty()) {
+                            break;
+                        }
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    if (intermediateResultsHandler != null && System.nanoTime() - nextIntermediateResults >= 0) {
+                        storeIntermediateResults(context);
+                        nextIntermediateResults = System.nanoTime() + intermediateResultsPeriodNanos;
+                    }
+                }
+            } finally {
+                producer.stopProducing();
+            }
+        } finally {
+            // Never block sampling threads, even when a consumer failed
+            stopped = true;
+            queue.drain(event -> {}, Integer.MAX_VALUE);
+        }
+        LOG.info("run(): {} samples produced on channel 0", sampleCount);
+    }
+
+    private void storeIntermediateResults(SampleContext context) {
+        producer.storeIntermediateResults();
+        SampleContext copy = new SampleContext();
+        copy.setWorkingDirectory(context.getWorkingDirectory());
+        copy.getData().putAll(context.getData());
+        intermediateResultsHandler.accept(copy);
+    }
+
+    private void produce(SampleEvent event) {
+        SampleResult result = event.getResult();
+        produce(event, result);
+        if (saveConfig.saveSubresults()) {
+            produceSubResults(event, result, 0);
+        }
+    }
+
+    private void produceSubResults(SampleEvent event, SampleResult result, int depth) {
+        if (depth > MAX_SUB_RESULTS_DEPTH) {
+            return;
+        }
+        for (SampleResult subResult : result.getSubResults()) {
+            produce(event, subResult);
+            produceSubResults(event, subResult, depth + 1);
+        }
+    }
+
+    private void produce(SampleEvent event, SampleResult result) {
+        // The configuration of the sample result may be the one of another collector by now
+        String[] data = CSVSaveService.resultToColumns(event, result, saveConfig);
+        producer.produce(new Sample(sampleCount++, metadata, data), 0);
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.jmeter.report.processor;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
+import org.apache.jmeter.report.core.BinarySample;
 import org.apache.jmeter.report.core.Sample;
 import org.apache.jmeter.report.core.SampleException;
 import org.apache.jmeter.report.core.SampleMetadata;
@@ -91,6 +92,11 @@ public class NormalizerSampleConsumer extends AbstractSampleConsumer {
     @Override
     @SuppressWarnings("JavaUtilDate")
     public void consume(Sample s, int channel) {
+        if (s instanceof BinarySample) {
+            // Binary results always store the time stamp in milliseconds
+            super.produce(s, 0);
+            return;
+        }
         Date date = null;
         try {
             String tStr = s.getData(timestamp);
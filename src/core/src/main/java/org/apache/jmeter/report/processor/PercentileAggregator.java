@@ -46,6 +46,21 @@ public class PercentileAggregator implements Aggregator {
         percentileIndex = index;
     }
 
+    /**
+     * Instantiates a percentile aggregator for subclasses which keep the
+     * values themselves.
+     *
+     * @param index
+     *            the index of the percentile
+     * @param statistics
+     *            the statistics keeping the values, null if the subclass
+     *            overrides all the methods using them
+     */
+    PercentileAggregator(double index, DescriptiveStatistics statistics) {
+        this.statistics = statistics;
+        percentileIndex = index;
+    }
+
     /**
      * @param lastAggregator {@link PercentileAggregator}
      */
@@ -54,6 +69,16 @@ public class PercentileAggregator implements Aggregator {
         this.percentileIndex = lastAggregator.percentileIndex;
     }
 
+    /**
+     * Gets the percentile index.
+     *
+     * @return the percentile index
+     * @since 6.0
+     */
+    public final double getPercentileIndex() {
+        return percentileIndex;
+    }
+
     @Override
     public long getCount() {
         return statistics.getN();
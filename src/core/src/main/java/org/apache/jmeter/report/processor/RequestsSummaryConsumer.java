@@ -59,12 +59,22 @@ public class RequestsSummaryConsumer extends AbstractSampleConsumer {
 
     @Override
     public void stopConsuming() {
+        storeResult();
+        super.stopProducing();
+    }
+
+    @Override
+    public void storeIntermediateResults() {
+        storeResult();
+        super.storeIntermediateResults();
+    }
+
+    private void storeResult() {
         MapResultData result = new MapResultData();
         result.setResult("KoPercent", new ValueResultData((double) errorCount
                 * 100 / count));
         result.setResult("OkPercent", new ValueResultData(
                 (double) (count - errorCount) * 100 / count));
         setDataToContext(getName(), result);
-        super.stopProducing();
     }
 }
@@ -31,6 +31,7 @@ public class SampleContext {
 
     private File workingDirectory;
     private final Map<String, Object> data = new HashMap<>();
+    private boolean refreshingReport;
 
     /**
      * Return the root directory that consumers are authorized to use for
@@ -63,4 +64,26 @@ public class SampleContext {
         return data;
     }
 
+    /**
+     * Tells whether the data are exported to refresh a report that was already
+     * exported during the test, in which case exporters overwrite the files they
+     * wrote instead of refusing to write to a non empty folder.
+     *
+     * @return true when refreshing a report generated during the test
+     * @since 6.0
+     */
+    public final boolean isRefreshingReport() {
+        return refreshingReport;
+    }
+
+    /**
+     * @param refreshingReport true when the data are exported to refresh a
+     *                         report generated during the test
+     * @see #isRefreshingReport()
+     * @since 6.0
+     */
+    public final void setRefreshingReport(boolean refreshingReport) {
+        this.refreshingReport = refreshingReport;
+    }
+
 }
@@ -18,6 +18,7 @@
 package org.apache.jmeter.report.processor;
 
 import java.math.BigDecimal;
+import java.util.function.Function;
 
 import org.apache.jmeter.report.core.Sample;
 import org.apache.jmeter.util.JMeterUtils;
@@ -55,11 +56,24 @@ public class StatisticsSummaryConsumer extends
     private static final double PERCENTILE_INDEX2 = new BigDecimal(PCT2_LABEL).doubleValue();
     private static final double PERCENTILE_INDEX3 = new BigDecimal(PCT3_LABEL).doubleValue();
 
+    private final boolean useHistograms;
+
     /**
      * Instantiates a new statistics summary consumer.
      */
     public StatisticsSummaryConsumer() {
+        this(HistogramPercentileAggregator.isEnabled());
+    }
+
+    /**
+     * Instantiates a new statistics summary consumer.
+     *
+     * @param useHistograms true to compute the percentiles with histograms,
+     *                      the overall ones being merged from the ones of each label
+     */
+    StatisticsSummaryConsumer(boolean useHistograms) {
         super(true);
+        this.useHistograms = useHistograms;
     }
 
     /**
@@ -67,8 +81,10 @@ public class StatisticsSummaryConsumer extends
      * @param sample {@link Sample}
      * @param data {@link StatisticsSummaryData}
      * @param isOverall boolean indicating if aggregation concerns the Overall results in which case we ignore Transaction Controller's SampleResult
+     * @param withPercentiles false if the percentiles of the sample are merged later from another data
      */
-    private static void aggregateSample(Sample sample, StatisticsSummaryData data, boolean isOverall) {
+    private static void aggregateSample(Sample sample, StatisticsSummaryData data, boolean isOverall,
+            boolean withPercentiles) {
         if(isOverall && sample.isController()) {
             return;
         }
@@ -81,11 +97,13 @@ public class StatisticsSummaryConsumer extends
         }
 
         long elapsedTime = sample.getElapsedTime();
-        data.getPercentile1().addValue((double) elapsedTime);
-        data.getPercentile2().addValue((double) elapsedTime);
-        data.getPercentile3().addValue((double) elapsedTime);
+        if (withPercentiles) {
+            data.getPercentile1().addValue((double) elapsedTime);
+            data.getPercentile2().addValue((double) elapsedTime);
+            data.getPercentile3().addValue((double) elapsedTime);
+            data.getMedian().addValue((double) elapsedTime);
+        }
         data.getMean().addValue((double) elapsedTime);
-        data.getMedian().addValue((double) elapsedTime);
         data.setMin(elapsedTime);
         data.setMax(elapsedTime);
 
@@ -100,23 +118,50 @@ public class StatisticsSummaryConsumer extends
         StatisticsSummaryData overallData = overallInfo.getData();
         if (overallData == null) {
             overallData = new StatisticsSummaryData(PERCENTILE_INDEX1,
-                            PERCENTILE_INDEX2, PERCENTILE_INDEX3);
+                            PERCENTILE_INDEX2, PERCENTILE_INDEX3, useHistograms);
             overallInfo.setData(overallData);
         }
 
         StatisticsSummaryData data = info.getData();
         if (data == null) {
             data = new StatisticsSummaryData(PERCENTILE_INDEX1,
-                        PERCENTILE_INDEX2, PERCENTILE_INDEX3);
+                        PERCENTILE_INDEX2, PERCENTILE_INDEX3, useHistograms);
             info.setData(data);
         }
 
         if(!sample.isEmptyController()) {
-            aggregateSample(sample, data, false);
-            aggregateSample(sample, overallData, true);
+            // With histograms, the overall percentiles are merged from the ones of the labels when the result is created,
+            // unless the label also holds Transaction Controller samples which the overall percentiles ignore:
+            // what the label holds before such a sample is merged right away, the next values are recorded twice
+            if (data.isPercentilesMergePending() && sample.isController()) {
+                overallData.mergePercentiles(data);
+            }
+            aggregateSample(sample, data, false, true);
+            aggregateSample(sample, overallData, true, !data.isPercentilesMergePending());
         }
     }
 
+    /**
+     * Gets an overall percentile including the values of the labels whose
+     * percentiles have not been merged into the overall ones yet. The data are
+     * left untouched, so the result can also be computed while consuming goes on.
+     */
+    private PercentileAggregator getOverallPercentile(PercentileAggregator overall,
+            Function<StatisticsSummaryData, PercentileAggregator> percentileGetter) {
+        if (!useHistograms) {
+            return overall;
+        }
+        HistogramPercentileAggregator merged = new HistogramPercentileAggregator(overall.getPercentileIndex());
+        merged.merge((HistogramPercentileAggregator) overall);
+        for (SummaryInfo info : getSummaryInfos().values()) {
+            StatisticsSummaryData data = info.getData();
+            if (data != null && data.isPercentilesMergePending()) {
+                merged.merge((HistogramPercentileAggregator) percentileGetter.apply(data));
+            }
+        }
+        return merged;
+    }
+
     @Override
     protected ListResultData createDataResult(String key,
             StatisticsSummaryData data) {
@@ -131,10 +176,21 @@ public class StatisticsSummaryConsumer extends
         result.addResult(new ValueResultData(data.getMean().getResult()));
         result.addResult(new ValueResultData(data.getMin()));
         result.addResult(new ValueResultData(data.getMax()));
-        result.addResult(new ValueResultData(data.getMedian().getResult()));
-        result.addResult(new ValueResultData(data.getPercentile1().getResult()));
-        result.addResult(new ValueResultData(data.getPercentile2().getResult()));
-        result.addResult(new ValueResultData(data.getPercentile3().getResult()));
+        if (key == null) {
+            result.addResult(new ValueResultData(
+                    getOverallPercentile(data.getMedian(), StatisticsSummaryData::getMedian).getResult()));
+            result.addResult(new ValueResultData(
+                    getOverallPercentile(data.getPercentile1(), StatisticsSummaryData::getPercentile1).getResult()));
+            result.addResult(new ValueResultData(
+                    getOverallPercentile(data.getPercentile2(), StatisticsSummaryData::getPercentile2).getResult()));
+            result.addResult(new ValueResultData(
+                    getOverallPercentile(data.getPercentile3(), StatisticsSummaryData::getPercentile3).getResult()));
+        } else {
+            result.addResult(new ValueResultData(data.getMedian().getResult()));
+            result.addResult(new ValueResultData(data.getPercentile1().getResult()));
+            result.addResult(new ValueResultData(data.getPercentile2().getResult()));
+            result.addResult(new ValueResultData(data.getPercentile3().getResult()));
+        }
         result.addResult(new ValueResultData(data.getThroughput()));
         result.addResult(new ValueResultData(data.getKBytesPerSecond()));
         result.addResult(new ValueResultData(data.getSentKBytesPerSecond()));
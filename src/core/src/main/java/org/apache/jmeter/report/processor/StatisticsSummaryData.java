@@ -39,6 +39,8 @@ public class StatisticsSummaryData {
     private final PercentileAggregator percentile3;
     private long min = Long.MAX_VALUE;
     private long max = Long.MIN_VALUE;
+    /** Whether the percentile histograms still have to be merged into the overall ones */
+    private boolean percentilesMergePending;
 
     public long getElapsedTime() {
         return endTime - firstTime;
@@ -194,11 +196,52 @@ public class StatisticsSummaryData {
      */
     public StatisticsSummaryData(double percentileIndex1, double percentileIndex2,
             double percentileIndex3) {
-        percentile1 = new PercentileAggregator(percentileIndex1);
-        percentile2 = new PercentileAggregator(percentileIndex2);
-        percentile3 = new PercentileAggregator(percentileIndex3);
+        this(percentileIndex1, percentileIndex2, percentileIndex3, HistogramPercentileAggregator.isEnabled());
+    }
+
+    /**
+     * Instantiates a new statistics summary data.
+     *
+     * @param percentileIndex1 the index of the first percentile
+     * @param percentileIndex2 the index of the second percentile
+     * @param percentileIndex3 the index of the third percentile
+     * @param useHistograms    true to compute the percentiles with histograms,
+     *                         which can then be merged into the overall ones
+     */
+    StatisticsSummaryData(double percentileIndex1, double percentileIndex2,
+            double percentileIndex3, boolean useHistograms) {
+        percentile1 = createPercentileAggregator(percentileIndex1, useHistograms);
+        percentile2 = createPercentileAggregator(percentileIndex2, useHistograms);
+        percentile3 = createPercentileAggregator(percentileIndex3, useHistograms);
         mean = new MeanAggregator();
-        median = new PercentileAggregator(50);
+        median = createPercentileAggregator(50, useHistograms);
+        percentilesMergePending = useHistograms;
+    }
+
+    private static PercentileAggregator createPercentileAggregator(double index, boolean useHistograms) {
+        return useHistograms ? new HistogramPercentileAggregator(index) : new PercentileAggregator(index);
+    }
+
+    /**
+     * @return true if the percentiles of this data have not been merged into
+     *         the overall ones yet
+     */
+    boolean isPercentilesMergePending() {
+        return percentilesMergePending;
+    }
+
+    /**
+     * Adds the values of the percentile histograms of another data to the ones
+     * of this data. Both must use histograms.
+     *
+     * @param other the data whose percentiles are merged, it is marked as merged
+     */
+    void mergePercentiles(StatisticsSummaryData other) {
+        ((HistogramPercentileAggregator) median).merge((HistogramPercentileAggregator) other.median);
+        ((HistogramPercentileAggregator) percentile1).merge((HistogramPercentileAggregator) other.percentile1);
+        ((HistogramPercentileAggregator) percentile2).merge((HistogramPercentileAggregator) other.percentile2);
+        ((HistogramPercentileAggregator) percentile3).merge((HistogramPercentileAggregator) other.percentile3);
+        other.percentilesMergePending = false;
     }
 
     /**
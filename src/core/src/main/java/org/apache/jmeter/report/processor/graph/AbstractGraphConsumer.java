@@ -504,6 +504,21 @@ public abstract class AbstractGraphConsumer extends AbstractSampleConsumer {
     public void stopConsuming() {
         super.stopProducing();
 
+        // Store the result
+        setDataToContext(getName(), createResultFromGroups());
+
+        for (GroupInfo groupInfo : groupInfos.values()) {
+            groupInfo.getGroupData().clear();
+        }
+    }
+
+    @Override
+    public void storeIntermediateResults() {
+        setDataToContext(getName(), createResultFromGroups());
+        super.storeIntermediateResults();
+    }
+
+    private MapResultData createResultFromGroups() {
         MapResultData result = createResult();
 
         // Get the aggregate results from the map
@@ -538,13 +553,7 @@ public abstract class AbstractGraphConsumer extends AbstractSampleConsumer {
                 }
             }
         }
-
-        // Store the result
-        setDataToContext(getName(), result);
-
-        for (GroupInfo groupInfo : groupInfos.values()) {
-            groupInfo.getGroupData().clear();
-        }
+        return result;
     }
 
     public void initialize() {
@@ -128,6 +128,15 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
         super.stopConsuming();
     }
 
+    /**
+     * Does nothing: the samples are buffered in files until consuming stops,
+     * so the graph is only available once the test has ended.
+     */
+    @Override
+    public void storeIntermediateResults() {
+        // Nothing to store before the samples are replayed
+    }
+
     @Override
     protected void initializeExtraResults(MapResultData parentResult) {
         parentResult.setResult(RESULT_CTX_GRANULARITY, new ValueResultData(
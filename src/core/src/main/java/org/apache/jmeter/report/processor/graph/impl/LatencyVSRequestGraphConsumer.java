@@ -20,6 +20,7 @@ package org.apache.jmeter.report.processor.graph.impl;
 import java.util.Collections;
 import java.util.Map;
 
+import org.apache.jmeter.report.processor.HistogramPercentileAggregatorFactory;
 import org.apache.jmeter.report.processor.MedianAggregatorFactory;
 import org.apache.jmeter.report.processor.graph.AbstractGraphConsumer;
 import org.apache.jmeter.report.processor.graph.AbstractVersusRequestsGraphConsumer;
@@ -50,7 +51,8 @@ public class LatencyVSRequestGraphConsumer extends
         return Collections.singletonMap(
                 AbstractGraphConsumer.DEFAULT_GROUP,
                 new GroupInfo(
-                        new MedianAggregatorFactory(), new StatusSeriesSelector(),
+                        HistogramPercentileAggregatorFactory.forPercentile(50, new MedianAggregatorFactory()),
+                        new StatusSeriesSelector(),
                         // We ignore Transaction Controller results
                         new LatencyValueSelector(true), false, false));
     }
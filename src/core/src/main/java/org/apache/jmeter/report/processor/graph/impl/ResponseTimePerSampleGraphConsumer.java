@@ -20,6 +20,7 @@ package org.apache.jmeter.report.processor.graph.impl;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.jmeter.report.processor.HistogramPercentileAggregatorFactory;
 import org.apache.jmeter.report.processor.ListResultData;
 import org.apache.jmeter.report.processor.MapResultData;
 import org.apache.jmeter.report.processor.PercentileAggregatorFactory;
@@ -74,7 +75,7 @@ public class ResponseTimePerSampleGraphConsumer extends AbstractGraphConsumer {
         seriesSelector.setSeriesName(String.format(
                 "%dth percentile", property));
 
-        return new GroupInfo(factory, seriesSelector,
+        return new GroupInfo(HistogramPercentileAggregatorFactory.forPercentile(property, factory), seriesSelector,
                 // We include Transaction Controller results
                 new ElapsedTimeValueSelector(false), false, false);
     }
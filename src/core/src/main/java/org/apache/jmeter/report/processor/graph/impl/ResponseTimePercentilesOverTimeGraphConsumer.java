@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.jmeter.report.processor.AggregatorFactory;
+import org.apache.jmeter.report.processor.HistogramPercentileAggregatorFactory;
 import org.apache.jmeter.report.processor.MaxAggregatorFactory;
 import org.apache.jmeter.report.processor.MedianAggregatorFactory;
 import org.apache.jmeter.report.processor.MinAggregatorFactory;
@@ -93,7 +94,8 @@ public class ResponseTimePercentilesOverTimeGraphConsumer
     private static GroupInfo createMedianGroupInfo() {
         StaticSeriesSelector seriesSelector = new StaticSeriesSelector();
         seriesSelector.setSeriesName("Median");
-        return createGroupInfo(new MedianAggregatorFactory(), seriesSelector);
+        return createGroupInfo(HistogramPercentileAggregatorFactory.forPercentile(50, new MedianAggregatorFactory()),
+                seriesSelector);
     }
 
     private static GroupInfo createPercentileGroupInfo(String propKey, String label) {
@@ -105,7 +107,7 @@ public class ResponseTimePercentilesOverTimeGraphConsumer
         StaticSeriesSelector seriesSelector = new StaticSeriesSelector();
         seriesSelector.setSeriesName(seriesName);
 
-        return createGroupInfo(factory, seriesSelector);
+        return createGroupInfo(HistogramPercentileAggregatorFactory.forPercentile(property, factory), seriesSelector);
     }
 
     private static GroupInfo createGroupInfo(AggregatorFactory aggregationFactory, StaticSeriesSelector seriesSelector) {
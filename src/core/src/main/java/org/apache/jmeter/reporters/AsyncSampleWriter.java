@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.reporters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.BinaryResultWriter;
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jmeter.save.SaveService;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.MpscArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Formats and writes samples of a result file on a dedicated thread.
+ * <p>
+ * Sampling threads only put the {@link SampleEvent} and the {@link SampleSaveConfiguration}
+ * of the collector on a lock-free ring buffer, the writer thread drains it in batches, formats the samples with
+ * {@link CSVSaveService}, {@link SaveService} or {@link BinaryResultWriter}
+ * and flushes once per batch.
+ * When the buffer is full, the sampling thread either waits for room
+ * ({@link SampleOverflowPolicy#BLOCK}) or the sample is not written to the file
+ * ({@link SampleOverflowPolicy#DROP}).
+ * Samples received once the writer is closed are counted as dropped whatever the policy.
+ * @since 6.0
+ */
+final class AsyncSampleWriter {
+    private static final Logger log = LoggerFactory.getLogger(AsyncSampleWriter.class);
+
+    /**
+     * Sample waiting to be written.
+     * The save configuration is captured on the sampling thread, as the sample result is shared
+     * with the other collectors, which set their own configuration on it.
+     */
+    record QueuedSample(SampleEvent event, SampleSaveConfiguration config) {
+    }
+
+    static final boolean ENABLED =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.async", false); // $NON-NLS-1$
+
+    static final int QUEUE_SIZE =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.async.queue_size", 65536); // $NON-NLS-1$
+
+    static final int BATCH_SIZE =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.async.batch_size", 4096); // $NON-NLS-1$
+
+    static final SampleOverflowPolicy OVERFLOW_POLICY = SampleOverflowPolicy.getConfigured();
+
+    /** How long the writer thread parks when the buffer is empty */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** How long a producer parks while waiting for room with {@link SampleOverflowPolicy#BLOCK} */
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final MpscArrayQueue<QueuedSample> queue;
+    private final BiConsumer<SampleEvent, SampleSaveConfiguration> sampleWriter;
+    private final Runnable flusher;
+    private final int batchSize;
+    private final SampleOverflowPolicy overflowPolicy;
+    private final Thread writerThread;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicBoolean droppedAfterCloseLogged = new AtomicBoolean();
+    /** Number of sampling threads inside {@link #write}, {@link #close} waits for them before its last drain */
+    private final AtomicInteger producers = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    /**
+     * @param filename       name of the result file, used to name the writer thread
+     * @param sampleWriter   formats and writes a sample to the result file using the given save
+     *                       configuration; the file must not be written to by other threads
+     * @param flusher        flushes the result file
+     * @param queueSize      capacity of the ring buffer
+     * @param batchSize      maximum number of samples written between two flushes
+     * @param overflowPolicy what to do when the ring buffer is full
+     */
+    AsyncSampleWriter(String filename, BiConsumer<SampleEvent, SampleSaveConfiguration> sampleWriter, Runnable flusher,
+            int queueSize, int batchSize, SampleOverflowPolicy overflowPolicy) {
+        this.queue = new MpscArrayQueue<>(queueSize);
+        this.sampleWriter = sampleWriter;
+        this.flusher = flusher;
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.writerThread = new Thread(this::run, "ResultCollector-writer-" + filename); // $NON-NLS-1$
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.info("Started asynchronous writer for {}, queue size={}, batch size={}, overflow={}",
+                filename, queue.capacity(), this.batchSize, overflowPolicy);
+    }
+
+    /**
+     * Queue a sample for writing. Called by the sampling threads.
+     * @param event the sample to write
+     * @param config the save configuration of the collector writing the sample
+     */
+    void write(SampleEvent event, SampleSaveConfiguration config) {
+        if (!running) {
+            droppedAfterClose();
+            return;
+        }
+        // Registering before checking running again ensures close() either waits for this producer
+        // or this producer sees the writer closed
+        producers.incrementAndGet();
+        try {
+            offer(new QueuedSample(event, config));
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    private void offer(QueuedSample sample) {
+        if (!running) {
+            droppedAfterClose();
+            return;
+        }
+        if (queue.offer(sample)) {
+            return;
+        }
+        if (overflowPolicy == SampleOverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+        while (!queue.offer(sample)) {
+            if (!running) {
+                droppedAfterClose();
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    private void droppedAfterClose() {
+        dropped.increment();
+        if (droppedAfterCloseLogged.compareAndSet(false, true)) {
+            log.warn("Samples received after {} was closed are not written", writerThread.getName());
+        }
+    }
+
+    /**
+     * @return number of samples that were not written because the buffer was full or the writer was closed
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes the remaining samples and stops the writer thread.
+     * The caller is responsible for closing the writer.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the writer thread to complete");
+        }
+        // Producers that passed the running check before close might still queue samples
+        while (producers.get() > 0) {
+            Thread.yield();
+        }
+        while (drainBatch() > 0) {
+            // keep draining
+        }
+        long droppedCount = dropped.sum();
+        if (droppedCount > 0) {
+            log.warn("{} samples were not written by {} because its buffer was full or it was closed",
+                    droppedCount, writerThread.getName());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (drainBatch() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // Producers might still have added samples between the last drain and stop
+        while (drainBatch() > 0) {
+            // keep draining
+        }
+    }
+
+    private int drainBatch() {
+        int count = queue.drain(sample -> sampleWriter.accept(sample.event(), sample.config()), batchSize);
+        if (count > 0) {
+            flusher.run();
+        }
+        return count;
+    }
+}
@@ -33,15 +33,17 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.gui.GuiPackage;
 import org.apache.jmeter.samplers.Clearable;
 import org.apache.jmeter.samplers.Remoteable;
 import org.apache.jmeter.samplers.SampleEvent;
-import org.apache.jmeter.samplers.SampleListener;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.samplers.ScalarSampleListener;
+import org.apache.jmeter.save.BinaryResultWriter;
 import org.apache.jmeter.save.CSVSaveService;
 import org.apache.jmeter.save.SaveService;
 import org.apache.jmeter.services.FileServer;
@@ -59,7 +61,7 @@ import org.slf4j.LoggerFactory;
  * This class handles all saving of samples.
  * The class must be thread-safe because it is shared between threads (NoThreadClone).
  */
-public class ResultCollector extends AbstractListenerElement implements SampleListener, Clearable, Serializable,
+public class ResultCollector extends AbstractListenerElement implements ScalarSampleListener, Clearable, Serializable,
         TestStateListener, Remoteable, NoThreadClone {
     /**
      * Keep track of the file writer and the configuration,
@@ -67,11 +69,19 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
      * them. This means one cannot use the saved PrintWriter or use getSaveConfig()
      */
     private static class FileEntry{
+        /** Writer of CSV and XML files, null for binary files */
         final PrintWriter pw;
+        /** Writer of binary files, null for CSV and XML files */
+        final BinaryResultWriter binaryWriter;
         final SampleSaveConfiguration config;
-        FileEntry(PrintWriter printWriter, SampleSaveConfiguration sampleSaveConfiguration){
+        /** Writes samples on a dedicated thread, null unless jmeter.save.saveservice.async=true */
+        final AsyncSampleWriter asyncWriter;
+        FileEntry(PrintWriter printWriter, BinaryResultWriter binaryResultWriter,
+                SampleSaveConfiguration sampleSaveConfiguration, AsyncSampleWriter asyncSampleWriter){
             this.pw = printWriter;
+            this.binaryWriter = binaryResultWriter;
             this.config = sampleSaveConfiguration;
+            this.asyncWriter = asyncSampleWriter;
         }
     }
 
@@ -141,6 +151,13 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
     // Instance variables (guarded by volatile)
     private transient volatile PrintWriter out;
 
+    private transient volatile BinaryResultWriter binaryOut;
+
+    private transient volatile AsyncSampleWriter asyncWriter;
+
+    /** Also receives the samples written to the file, see {@link #setSampleFeed(Consumer)} */
+    private transient volatile Consumer<SampleEvent> sampleFeed;
+
     /**
      * Is a test running ?
      */
@@ -301,6 +318,8 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
                 }
                 finalizeFileOutput();
                 out = null;
+                binaryOut = null;
+                asyncWriter = null;
                 inTest = false;
             }
         }
@@ -319,10 +338,15 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
             }
             instanceCount++;
             try {
-                if (out == null) {
+                if (out == null && binaryOut == null) {
                     try {
-                        // Note: getFileWriter ignores a null filename
-                        out = getFileWriter(getFilename(), getSaveConfig());
+                        // Note: getFileEntry ignores a null filename
+                        FileEntry fileEntry = getFileEntry(getFilename(), getSaveConfig());
+                        if (fileEntry != null) {
+                            asyncWriter = fileEntry.asyncWriter;
+                            binaryOut = fileEntry.binaryWriter;
+                            out = fileEntry.pw;
+                        }
                     } catch (FileNotFoundException e) {
                         out = null;
                     }
@@ -437,7 +461,7 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         }
     }
 
-    private static PrintWriter getFileWriter(final String pFilename, SampleSaveConfiguration saveConfig)
+    private static FileEntry getFileEntry(final String pFilename, SampleSaveConfiguration saveConfig)
             throws IOException {
         if (StringUtilities.isEmpty(pFilename)) {
             return null;
@@ -448,11 +472,13 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         String filename = FileServer.resolveBaseRelativeName(pFilename);
         filename = new File(filename).getCanonicalPath(); // try to ensure uniqueness (Bug 60822)
         FileEntry fe = files.get(filename);
-        PrintWriter writer = null;
         boolean trimmed = true;
 
         if (fe == null) {
-            if (saveConfig.saveAsXml()) {
+            if (saveConfig.saveAsBinary()) {
+                // Appending to a binary file starts a new segment, there is no header or terminator to handle
+                trimmed = true;
+            } else if (saveConfig.saveAsXml()) {
                 trimmed = trimLastLine(filename);
             } else {
                 trimmed = new File(filename).exists();
@@ -471,20 +497,34 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
                     log.warn("Error creating directories for {}", pdir);
                 }
             }
-            writer = new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(filename,
-                    trimmed)), SaveService.getFileEncoding(StandardCharsets.UTF_8.name())), SAVING_AUTOFLUSH);
+            PrintWriter writer = null;
+            BinaryResultWriter binaryWriter = null;
+            if (saveConfig.saveAsBinary()) {
+                binaryWriter = new BinaryResultWriter(
+                        new BufferedOutputStream(new FileOutputStream(filename, true)), saveConfig);
+            } else {
+                writer = new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(filename,
+                        trimmed)), SaveService.getFileEncoding(StandardCharsets.UTF_8.name())), SAVING_AUTOFLUSH);
+            }
             if(log.isDebugEnabled()) {
                 log.debug("Opened file: {} in thread {}", filename, Thread.currentThread().getName());
             }
-            files.put(filename, new FileEntry(writer, saveConfig));
-        } else {
-            writer = fe.pw;
-        }
-        if (!trimmed) {
-            log.debug("Writing header to file: {}", filename);
-            writeFileStart(writer, saveConfig);
+            if (!trimmed) {
+                log.debug("Writing header to file: {}", filename);
+                writeFileStart(writer, saveConfig);
+            }
+            AsyncSampleWriter asyncSampleWriter = null;
+            if (AsyncSampleWriter.ENABLED) {
+                PrintWriter pw = writer;
+                BinaryResultWriter bw = binaryWriter;
+                asyncSampleWriter = new AsyncSampleWriter(filename,
+                        (event, config) -> writeSample(event, config, pw, bw), bw != null ? bw::flush : pw::flush,
+                        AsyncSampleWriter.QUEUE_SIZE, AsyncSampleWriter.BATCH_SIZE, AsyncSampleWriter.OVERFLOW_POLICY);
+            }
+            fe = new FileEntry(writer, binaryWriter, saveConfig, asyncSampleWriter);
+            files.put(filename, fe);
         }
-        return writer;
+        return fe;
     }
 
     // returns false if the file did not contain the terminator
@@ -545,17 +585,18 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
 
         if (isSampleWanted(result.isSuccessful())) {
             sendToVisualizer(result);
-            if (out != null && !isResultMarked(result) && !this.isStats) {
+            if ((out != null || binaryOut != null) && !isResultMarked(result) && !this.isStats) {
                 SampleSaveConfiguration config = getSaveConfig();
                 result.setSaveConfig(config);
-                try {
-                    if (config.saveAsXml()) {
-                        SaveService.saveSampleResult(event, out);
-                    } else { // !saveAsXml
-                        CSVSaveService.saveSampleResult(event, out);
-                    }
-                } catch (Exception err) {
-                    log.error("Error trying to record a sample", err); // should throw exception back to caller
+                AsyncSampleWriter writer = asyncWriter;
+                if (writer != null) {
+                    writer.write(event, config);
+                } else {
+                    writeSample(event, config, out, binaryOut);
+                }
+                Consumer<SampleEvent> feed = sampleFeed;
+                if (feed != null) {
+                    feed.accept(event);
                 }
             }
         }
@@ -565,6 +606,38 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         }
     }
 
+    /**
+     * The response data is only read by visualizers and when the save configuration saves it.
+     * The summariser only reads scalar fields.
+     */
+    @Override
+    public boolean readsScalarFieldsOnly() {
+        return getVisualizer() == null && !getSaveConfig().mightSaveResponseData();
+    }
+
+    /**
+     * Writes a sample to the result file.
+     * @param event the sample to write
+     * @param config save configuration of the collector, the one set on the sample result
+     *               might have been replaced by another collector
+     * @param pw writer of a CSV or XML file, null for a binary file
+     * @param binaryWriter writer of a binary file, null for a CSV or XML file
+     */
+    static void writeSample(SampleEvent event, SampleSaveConfiguration config,
+            PrintWriter pw, BinaryResultWriter binaryWriter) {
+        try {
+            if (binaryWriter != null) {
+                binaryWriter.write(event);
+            } else if (config.saveAsXml()) {
+                SaveService.saveSampleResult(event, config, pw);
+            } else { // !saveAsXml
+                CSVSaveService.saveSampleResult(event, config, pw);
+            }
+        } catch (Exception err) {
+            log.error("Error trying to record a sample", err); // should throw exception back to caller
+        }
+    }
+
     protected final void sendToVisualizer(SampleResult r) {
         if (getVisualizer() != null) {
             getVisualizer().add(r);
@@ -581,6 +654,17 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         return res.markFile(filename);
     }
 
+    /**
+     * Sets a consumer that receives, on the sampling threads, every sample written to the results file.
+     * Used to generate the report dashboard during the test.
+     *
+     * @param sampleFeed consumer of the written samples, null to remove it
+     * @since 6.0
+     */
+    public void setSampleFeed(Consumer<SampleEvent> sampleFeed) {
+        this.sampleFeed = sampleFeed;
+    }
+
     /**
      * Flush PrintWriter to synchronize file contents
      */
@@ -588,6 +672,9 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         if (out != null) {
             log.info("forced flush through ResultCollector#flushFile");
             out.flush();
+        } else if (binaryOut != null) {
+            log.info("forced flush through ResultCollector#flushFile");
+            binaryOut.flush();
         }
     }
 
@@ -597,10 +684,20 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
             ResultCollector.FileEntry value = me.getValue();
             try {
                 log.debug("Closing: {}", key);
-                writeFileEnd(value.pw, value.config);
-                value.pw.close();
-                if (value.pw.checkError()){
-                    log.warn("Problem detected during use of {}", key);
+                if (value.asyncWriter != null) {
+                    value.asyncWriter.close();
+                }
+                if (value.binaryWriter != null) {
+                    value.binaryWriter.close();
+                    if (value.binaryWriter.checkError()) {
+                        log.warn("Problem detected during use of {}", key);
+                    }
+                } else {
+                    writeFileEnd(value.pw, value.config);
+                    value.pw.close();
+                    if (value.pw.checkError()){
+                        log.warn("Problem detected during use of {}", key);
+                    }
                 }
             } catch(Exception ex) {
                 log.error("Error closing file {}", key, ex);
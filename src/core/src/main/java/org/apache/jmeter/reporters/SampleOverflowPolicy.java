@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.reporters;
+
+import java.util.Locale;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * What a sampling thread does when the buffer of samples waiting to be written
+ * or processed on another thread is full.
+ * The policy is set with the <code>jmeter.save.saveservice.async.overflow</code> property.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public enum SampleOverflowPolicy {
+    /** Wait until there is room in the buffer, samples are never lost */
+    BLOCK,
+    /** Do not add the sample to the buffer, count it as dropped */
+    DROP;
+
+    private static final Logger log = LoggerFactory.getLogger(SampleOverflowPolicy.class);
+
+    private static final String OVERFLOW_PROPERTY = "jmeter.save.saveservice.async.overflow"; // $NON-NLS-1$
+
+    /**
+     * @return the policy set with the <code>jmeter.save.saveservice.async.overflow</code> property,
+     * {@link #BLOCK} when it is not set or invalid
+     */
+    public static SampleOverflowPolicy getConfigured() {
+        String value = JMeterUtils.getPropDefault(OVERFLOW_PROPERTY, "block"); // $NON-NLS-1$
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid value '{}' for {}, using 'block'", value, OVERFLOW_PROPERTY);
+            return BLOCK;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jorphan.math.ConcurrentLogLinearHistogram;
+import org.apache.jorphan.math.LogLinearHistogram;
+import org.apiguardian.api.API;
+
+/**
+ * Aggregates, on a remote engine, the samples of one label, response code and status
+ * received during a time window, for use by the Histogram remote batch mode.
+ * <p>
+ * Unlike {@link StatisticalSampleResult}, the elapsed times are recorded in a histogram,
+ * which is sent to the client as its non-empty buckets. The client expands it back into
+ * one sample per recorded value with {@link #forEachSample(Consumer)}, so its listeners compute
+ * the same percentiles as with the original samples, within the precision of the histogram.
+ * The other fields of the expanded samples are the averages, or the first values, of the aggregated ones.
+ * <p>
+ * Several sampling threads can {@link #add(SampleResult)} samples concurrently, without locking.
+ * The added samples are moved to the fields of this result when it is serialized or expanded,
+ * which must not happen while samples are added.
+ * <p>
+ * The time stamps, bytes and latencies of the expanded samples are synthetic, so they have the data type
+ * {@link #DATA_TYPE} and the thread name of their thread group followed by {@link #THREAD_NAME_SUFFIX},
+ * which tell them apart from real samples in the result files.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class HistogramSampleResult extends StatisticalSampleResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Data type of the samples expanded from a histogram.
+     */
+    public static final String DATA_TYPE = "histogram"; // $NON-NLS-1$
+
+    /**
+     * Appended to the name of the thread group to build the thread name of the samples expanded from a histogram.
+     * It follows a space, so that the report generator counts the active threads of the thread group.
+     */
+    public static final String THREAD_NAME_SUFFIX = "(histogram)"; // $NON-NLS-1$
+
+    /** Spreads the time stamps of the expanded samples over the window, whatever their count */
+    private static final double GOLDEN_RATIO_CONJUGATE = 0.6180339887498949;
+
+    // Only used by the server: samples are recorded concurrently in histogram and pending,
+    // then moved to recorded, sent as bucketValues and bucketCounts, and to the other fields by snapshot()
+    private final transient ConcurrentLogLinearHistogram histogram;
+
+    private final transient LogLinearHistogram recorded;
+
+    private final transient Pending pending;
+
+    private long[] bucketValues = new long[0];
+
+    private long[] bucketCounts = new long[0];
+
+    private long firstTimeStamp = Long.MAX_VALUE;
+
+    private long lastTimeStamp = Long.MIN_VALUE;
+
+    private String failureMessage;
+
+    /**
+     * Create a histogram sample result from the first sample of its key.
+     *
+     * @param res               the sample result
+     * @param threadGroup       name of the thread group of the sample
+     * @param significantDigits number of significant digits of the elapsed times, between 1 and 5
+     */
+    public HistogramSampleResult(SampleResult res, String threadGroup, int significantDigits) {
+        super(res);
+        histogram = new ConcurrentLogLinearHistogram(significantDigits);
+        recorded = new LogLinearHistogram(significantDigits);
+        pending = new Pending();
+        setSuccessful(res.isSuccessful());
+        setResponseCode(res.getResponseCode());
+        setResponseMessage(res.getResponseMessage());
+        setDataType(DATA_TYPE);
+        setThreadName(threadGroup == null || threadGroup.isEmpty()
+                ? THREAD_NAME_SUFFIX
+                : threadGroup + " " + THREAD_NAME_SUFFIX);
+    }
+
+    /**
+     * Adds a sample to this result. Can be called by several threads at the same time.
+     *
+     * @param res the sample to add
+     */
+    @Override
+    public void add(SampleResult res) {
+        histogram.record(res.getTime(), res.getSampleCount());
+        pending.add(res);
+    }
+
+    /**
+     * Expands this result into one sample per recorded elapsed time.
+     * <p>
+     * The time stamps of the samples are spread between the first and the last aggregated ones,
+     * and the bytes, latency and connect time are shared between the samples. The samples are marked
+     * with {@link #DATA_TYPE} and the thread name of this result.
+     *
+     * @param consumer receives the samples
+     */
+    public void forEachSample(Consumer<? super SampleResult> consumer) {
+        snapshot();
+        long count = 0;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return;
+        }
+        AssertionResult assertion = null;
+        if (failureMessage != null) {
+            assertion = new AssertionResult(getSampleLabel());
+            assertion.setFailure(true);
+            assertion.setFailureMessage(failureMessage);
+        }
+        long span = Math.max(0, lastTimeStamp - firstTimeStamp);
+        long index = 0;
+        double position = 0;
+        for (int bucket = 0; bucket < bucketValues.length; bucket++) {
+            long elapsed = bucketValues[bucket];
+            for (long i = 0; i < bucketCounts[bucket]; i++, index++) {
+                SampleResult sample = new SampleResult(firstTimeStamp + (long) (span * position), elapsed);
+                position = (position + GOLDEN_RATIO_CONJUGATE) % 1;
+                sample.setSampleLabel(getSampleLabel());
+                sample.setThreadName(getThreadName());
+                sample.setSuccessful(isSuccessful());
+                sample.setResponseCode(getResponseCode());
+                sample.setResponseMessage(getResponseMessage());
+                sample.setDataType(getDataType());
+                sample.setBytes(share(getBytesAsLong(), count, index));
+                sample.setSentBytes(share(getSentBytes(), count, index));
+                sample.setLatency(Math.min(elapsed, share(getLatency(), count, index)));
+                sample.setConnectTime(Math.min(elapsed, share(getConnectTime(), count, index)));
+                sample.setGroupThreads(getGroupThreads());
+                sample.setAllThreads(getAllThreads());
+                if (assertion != null) {
+                    sample.addAssertionResult(assertion);
+                }
+                consumer.accept(sample);
+            }
+        }
+    }
+
+    /**
+     * @return the part of the total given to the sample of the given index, so that the parts add up to the total
+     */
+    private static long share(long total, long count, long index) {
+        return total / count + (index < total % count ? 1 : 0);
+    }
+
+    /**
+     * Moves the samples added since the previous snapshot to the fields of this result.
+     */
+    private void snapshot() {
+        if (histogram == null) {
+            // Received by the client
+            return;
+        }
+        LogLinearHistogram added = histogram.snapshotAndReset();
+        if (added.getCount() == 0) {
+            return;
+        }
+        recorded.add(added);
+        pending.moveTo(this);
+        Buckets buckets = new Buckets();
+        recorded.forEachBucket(buckets);
+        bucketValues = Arrays.copyOf(buckets.values, buckets.size);
+        bucketCounts = Arrays.copyOf(buckets.counts, buckets.size);
+    }
+
+    /**
+     * Adds the totals of the samples moved by {@link Pending#moveTo(HistogramSampleResult)}.
+     */
+    private void addTotals(SampleResult totals, long errors, long first, long last, int groupThreads,
+            int allThreads, String failure) {
+        super.add(totals);
+        if (errors > 0) {
+            setErrorCount(getErrorCount() + (int) errors);
+            setSuccessful(false);
+        }
+        firstTimeStamp = Math.min(firstTimeStamp, first);
+        lastTimeStamp = Math.max(lastTimeStamp, last);
+        setGroupThreads(Math.max(getGroupThreads(), groupThreads));
+        setAllThreads(Math.max(getAllThreads(), allThreads));
+        if (failureMessage == null) {
+            failureMessage = failure;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        snapshot();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Totals of the samples added concurrently since the previous snapshot.
+     */
+    private static final class Pending {
+        private final LongAdder sampleCount = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder elapsed = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder latency = new LongAdder();
+        private final LongAdder connectTime = new LongAdder();
+        private final LongAccumulator startTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator endTime = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator firstTimeStamp = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastTimeStamp = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAccumulator groupThreads = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator allThreads = new LongAccumulator(Math::max, 0);
+        private final AtomicReference<String> failureMessage = new AtomicReference<>();
+
+        void add(SampleResult res) {
+            sampleCount.add(res.getSampleCount());
+            if (!res.isSuccessful()) {
+                errors.increment();
+                if (failureMessage.get() == null) {
+                    for (AssertionResult assertion : res.getAssertionResults()) {
+                        if (assertion.isFailure() || assertion.isError()) {
+                            failureMessage.compareAndSet(null, assertion.getFailureMessage());
+                            break;
+                        }
+                    }
+                }
+            }
+            elapsed.add(res.getTime());
+            bytes.add(res.getBytesAsLong());
+            sentBytes.add(res.getSentBytes());
+            latency.add(res.getLatency());
+            connectTime.add(res.getConnectTime());
+            startTime.accumulate(res.getStartTime());
+            endTime.accumulate(res.getEndTime());
+            firstTimeStamp.accumulate(res.getTimeStamp());
+            lastTimeStamp.accumulate(res.getTimeStamp());
+            groupThreads.accumulate(res.getGroupThreads());
+            allThreads.accumulate(res.getAllThreads());
+        }
+
+        void moveTo(HistogramSampleResult result) {
+            SampleResult totals = new SampleResult();
+            totals.setSuccessful(true); // errors are added separately
+            totals.setSampleCount((int) sampleCount.sumThenReset());
+            totals.setBytes(bytes.sumThenReset());
+            totals.setSentBytes(sentBytes.sumThenReset());
+            totals.setLatency(latency.sumThenReset());
+            totals.setConnectTime(connectTime.sumThenReset());
+            long start = startTime.getThenReset();
+            totals.restoreTimes(start, start, endTime.getThenReset(), elapsed.sumThenReset(), 0);
+            result.addTotals(totals, errors.sumThenReset(), firstTimeStamp.getThenReset(),
+                    lastTimeStamp.getThenReset(), (int) groupThreads.getThenReset(),
+                    (int) allThreads.getThenReset(), failureMessage.get());
+        }
+    }
+
+    /**
+     * Collects the non-empty buckets of a histogram, in increasing order of values.
+     */
+    private static final class Buckets implements LogLinearHistogram.BucketConsumer {
+        private long[] values = new long[16];
+        private long[] counts = new long[16];
+        private int size;
+
+        @Override
+        public void accept(long value, long count) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            values[size] = value;
+            counts[size] = count;
+            size++;
+        }
+    }
+}
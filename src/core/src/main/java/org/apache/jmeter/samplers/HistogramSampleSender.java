@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.util.JMeterError;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates the samples on the remote engine in histograms, for each time window, thread group, label,
+ * response code, status and sample variables, and only sends these histograms to the client.
+ * <p>
+ * The sampling threads add their samples to the histograms concurrently. A window is closed once a sample
+ * of the window after the next one is received, and the closed windows are sent to the client
+ * by a worker thread, so the sampling threads never wait for the network.
+ * <p>
+ * The client expands each {@link HistogramSampleResult} back into samples (see {@link RemoteSampleListenerImpl}),
+ * so its listeners and the report generator compute percentiles within the precision of the histograms,
+ * while the network traffic only depends on the number of distinct keys and response times. The expanded
+ * samples have the data type {@link HistogramSampleResult#DATA_TYPE}.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class HistogramSampleSender extends AbstractSampleSender implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(HistogramSampleSender.class);
+
+    private static final long DEFAULT_WINDOW_MS = 1000L;
+
+    private static final int DEFAULT_DIGITS = 3;
+
+    /** Close request of all the windows, which ends the worker */
+    private static final long END_OF_RUN = Long.MAX_VALUE;
+
+    // Static fields are set by the server when the class is constructed
+
+    private static final long WINDOW_MS =
+            JMeterUtils.getPropDefault("histogram_sender.window", DEFAULT_WINDOW_MS); // $NON-NLS-1$
+
+    private static final int DIGITS =
+            JMeterUtils.getPropDefault("histogram_sender.digits", DEFAULT_DIGITS); // $NON-NLS-1$
+
+    // Instance fields are constructed by the client when the instance is create in the test plan
+    // and the field values are then transferred to the server copy by RMI serialisation/deserialisation
+
+    private final long clientConfiguredWindowMs =
+            JMeterUtils.getPropDefault("histogram_sender.window", DEFAULT_WINDOW_MS); // $NON-NLS-1$
+
+    private final int clientConfiguredDigits =
+            JMeterUtils.getPropDefault("histogram_sender.digits", DEFAULT_DIGITS); // $NON-NLS-1$
+
+    private final RemoteSampleListener listener;
+
+    /** Windows by their start time, created by readResolve */
+    private transient ConcurrentSkipListMap<Long, Window> windows;
+
+    /** Start of the latest window which received a sample */
+    private transient AtomicLong latestWindow;
+
+    /** Start of the windows up to which the worker closes and sends the windows, created by readResolve */
+    private transient BlockingQueue<Long> closeRequests;
+
+    private transient Worker worker;
+
+    // Settings; readResolve sets these from the server/client values as appropriate
+    private transient volatile long windowMs;
+
+    private transient volatile int digits;
+
+    /**
+     * Key of the samples aggregated together in a window.
+     */
+    private record Key(String threadGroup, String label, String responseCode, boolean success,
+            boolean transaction, List<String> variables) {
+    }
+
+    /**
+     * Aggregated samples of a window. Samples are added concurrently while holding the read lock,
+     * the worker closes the window with the write lock, once all the samples being added are done.
+     */
+    private final class Window {
+        private final Map<Key, SampleEvent> aggregates = new ConcurrentHashMap<>();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private boolean closed; // guarded by lock
+
+        /**
+         * @return false if the window is closed, the sample was not added
+         */
+        boolean add(Key key, SampleEvent e) {
+            lock.readLock().lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                SampleEvent aggregate = aggregates.computeIfAbsent(key, k -> new SampleEvent(
+                        new HistogramSampleResult(e.getResult(), e.getThreadGroup(), digits),
+                        e.getThreadGroup(), e.getHostname(), e.getVarValues(), e.isTransactionSampleEvent()));
+                ((HistogramSampleResult) aggregate.getResult()).add(e.getResult());
+                return true;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<SampleEvent> close() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return new ArrayList<>(aggregates.values());
+        }
+    }
+
+    /**
+     * @deprecated only for use by test code
+     */
+    @Deprecated
+    public HistogramSampleSender() {
+        this(null);
+        log.warn("Constructor only intended for use in testing"); // $NON-NLS-1$
+    }
+
+    /**
+     * Constructor, only called by client code.
+     *
+     * @param listener that the List of sample events will be sent to.
+     */
+    HistogramSampleSender(RemoteSampleListener listener) {
+        this.listener = listener;
+        if (isClientConfigured()) {
+            log.info("Using HistogramSampleSender (client settings) for this run. Window: {} ms, digits: {}",
+                    clientConfiguredWindowMs, clientConfiguredDigits);
+        } else {
+            log.info("Using HistogramSampleSender (server settings) for this run.");
+        }
+    }
+
+    /**
+     * Sends the samples of all the windows to the listener and informs it that the test ended.
+     *
+     * @param host the hostname that the test has ended on.
+     */
+    @Override
+    public void testEnded(String host) {
+        log.info("Test Ended on {}", host);
+        try {
+            closeRequests.add(END_OF_RUN);
+            worker.join();
+            listener.testEnded(host);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while sending the last windows");
+        } catch (RemoteException err) {
+            log.warn("testEnded(hostname)", err);
+        }
+    }
+
+    /**
+     * Adds the sample to the histogram of its window and key. When the sample starts a new window,
+     * the worker closes and sends the windows which ended before the previous one, the previous one
+     * being kept for the samples which end late.
+     *
+     * @param e a Sample Event
+     */
+    @Override
+    public void sampleOccurred(SampleEvent e) {
+        SampleResult result = e.getResult();
+        long window = Math.floorDiv(result.getTimeStamp(), windowMs) * windowMs;
+        Key key = new Key(e.getThreadGroup(), result.getSampleLabel(), result.getResponseCode(),
+                result.isSuccessful(), e.isTransactionSampleEvent(), Arrays.asList(e.getVarValues()));
+        while (!windows.computeIfAbsent(window, w -> new Window()).add(key, e)) {
+            // The worker has just closed the window, the sample is sent with the next closed windows
+        }
+        if (window > latestWindow.getAndAccumulate(window, Math::max)) {
+            closeRequests.add(window - windowMs);
+        }
+    }
+
+    /**
+     * Removes and closes the windows which start before the given time.
+     *
+     * @return the aggregated samples of the closed windows
+     */
+    private List<SampleEvent> closeWindowsBefore(long window) {
+        List<SampleEvent> events = new ArrayList<>();
+        for (Map.Entry<Long, Window> entry : windows.headMap(window).entrySet()) {
+            if (windows.remove(entry.getKey(), entry.getValue())) {
+                events.addAll(entry.getValue().close());
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Processed by the RMI server code; acts as testStarted().
+     * @return this
+     * @throws ObjectStreamException never
+     */
+    protected Object readResolve() throws ObjectStreamException {
+        windows = new ConcurrentSkipListMap<>();
+        latestWindow = new AtomicLong(Long.MIN_VALUE);
+        closeRequests = new LinkedBlockingQueue<>();
+        if (isClientConfigured()) {
+            windowMs = clientConfiguredWindowMs;
+            digits = clientConfiguredDigits;
+        } else {
+            windowMs = WINDOW_MS;
+            digits = DIGITS;
+        }
+        if (windowMs <= 0) {
+            log.warn("Invalid histogram_sender.window {}, using {} ms", windowMs, DEFAULT_WINDOW_MS);
+            windowMs = DEFAULT_WINDOW_MS;
+        }
+        if (digits < 1 || digits > 5) {
+            log.warn("Invalid histogram_sender.digits {}, using {}", digits, DEFAULT_DIGITS);
+            digits = DEFAULT_DIGITS;
+        }
+        log.info("Using HistogramSampleSender for this run. {} config: Window: {} ms, digits: {}",
+                isClientConfigured() ? "Client" : "Server", windowMs, digits);
+        worker = new Worker();
+        worker.setDaemon(true);
+        worker.start();
+        return this;
+    }
+
+    /**
+     * Closes the windows requested by the sampling threads and sends their samples to the listener.
+     */
+    private final class Worker extends Thread {
+
+        private Worker() {
+            super("HistogramSampleSender"); // $NON-NLS-1$
+        }
+
+        @Override
+        public void run() {
+            try {
+                long until;
+                do {
+                    until = closeRequests.take();
+                    // Handle the requests received meanwhile at once
+                    for (Long next = closeRequests.poll(); next != null; next = closeRequests.poll()) {
+                        until = Math.max(until, next);
+                    }
+                    send(closeWindowsBefore(until));
+                } while (until != END_OF_RUN);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.debug("Worker ended");
+        }
+
+        private void send(List<SampleEvent> events) {
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                listener.processBatch(events);
+            } catch (RemoteException err) {
+                if (err.getCause() instanceof java.net.ConnectException) {
+                    throw new JMeterError("Could not return sample", err);
+                }
+                log.error("Failed to return sample", err);
+            }
+        }
+    }
+}
@@ -100,7 +100,7 @@ public class RemoteSampleListenerImpl extends java.rmi.server.UnicastRemoteObjec
     public void processBatch(List<SampleEvent> samples) {
         if (samples != null && sampleListener != null) {
             for (SampleEvent e : samples) {
-                sampleListener.sampleOccurred(e);
+                fireSampleOccurred(e);
             }
         }
     }
@@ -108,6 +108,19 @@ public class RemoteSampleListenerImpl extends java.rmi.server.UnicastRemoteObjec
     @Override
     public void sampleOccurred(SampleEvent e) {
         if (sampleListener != null) {
+            fireSampleOccurred(e);
+        }
+    }
+
+    /**
+     * Fires the event, or the samples aggregated in it by {@link HistogramSampleSender}.
+     */
+    private void fireSampleOccurred(SampleEvent e) {
+        if (e.getResult() instanceof HistogramSampleResult histogramResult) {
+            histogramResult.forEachSample(result -> sampleListener.sampleOccurred(
+                    new SampleEvent(result, e.getThreadGroup(), e.getHostname(),
+                            e.getVarValues(), e.isTransactionSampleEvent())));
+        } else {
             sampleListener.sampleOccurred(e);
         }
     }
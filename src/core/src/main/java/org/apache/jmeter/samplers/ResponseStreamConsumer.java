@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import org.apiguardian.api.API;
+
+/**
+ * Receives the body of the responses while the sampler reads it, so it can be processed
+ * without being stored whole in the {@link SampleResult}.
+ * <p>
+ * The Post-Processors of a sampler that implement this interface are registered in the
+ * {@link org.apache.jmeter.threads.JMeterContext} while the sampler runs.
+ * Samplers that support streaming call {@link #start(SampleResult, boolean)}, then
+ * {@link #consume(SampleResult, byte[], int, int)} for every chunk of the body, and {@link #end(SampleResult)}
+ * once the body has been read. This happens for every response of the sample, for instance
+ * redirects or embedded resources, each with its own {@link SampleResult}.
+ * <p>
+ * Embedded resources may be downloaded in parallel, so the methods can be called by several
+ * threads at once for different results: implementations must keep their state per result.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public interface ResponseStreamConsumer {
+
+    /**
+     * Will be called before the body of a response is read
+     * @param result    result of the response, with its headers and encoding when the sampler knows them
+     * @param subResult true if the result will be a sub-result of the sample, for instance
+     *                  a redirect or an embedded resource
+     * @return false if the consumer does not need the body of this response
+     */
+    boolean start(SampleResult result, boolean subResult);
+
+    /**
+     * Will be called for every chunk of the body. The buffer is reused once the method returns.
+     * @param result result of the response, as given to {@link #start(SampleResult, boolean)}
+     * @param buffer buffer holding the chunk
+     * @param offset offset of the chunk in the buffer
+     * @param length length of the chunk
+     */
+    void consume(SampleResult result, byte[] buffer, int offset, int length);
+
+    /**
+     * Will be called once the body has been read completely, but not if reading it failed
+     * @param result result of the response
+     */
+    void end(SampleResult result);
+}
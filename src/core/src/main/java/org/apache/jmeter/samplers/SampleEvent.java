@@ -131,6 +131,18 @@ public class SampleEvent implements Serializable {
         this.isTransactionSampleEvent = isTransactionSampleEvent;
     }
 
+    /**
+     * Used by {@link SampleStreamCodec} to recreate an event received from a remote engine.
+     */
+    SampleEvent(SampleResult result, String threadGroup, String hostname, String[] values,
+            boolean isTransactionSampleEvent) {
+        this.result = result;
+        this.threadGroup = threadGroup;
+        this.hostname = hostname;
+        this.values = values;
+        this.isTransactionSampleEvent = isTransactionSampleEvent;
+    }
+
     /**
      * @param result
      *            The SampleResult to be associated with this event
@@ -190,6 +202,13 @@ public class SampleEvent implements Serializable {
         }
     }
 
+    /**
+     * @return the values of the sample variables, as sent by {@link SampleStreamCodec}
+     */
+    String[] getVarValues() {
+        return values;
+    }
+
     /**
      * Get the {@link SampleResult} associated with this event
      *
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.apache.jmeter.assertions.AssertionResult;
 import org.apache.jmeter.gui.Searchable;
@@ -210,11 +211,14 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
     private boolean success;
 
     /**
-     * Files that this sample has been saved in.
-     * In Non GUI mode and when best config is used, size never exceeds 1,
-     * but as a compromise set it to 2
+     * Files that this sample has been saved in: null, the name of a single file, or a Set of names.
+     * In Non GUI mode and when best config is used, a sample is saved in a single file,
+     * so no set is allocated for it.
      */
-    private final Set<String> files = ConcurrentHashMap.newKeySet(2);
+    private volatile Object files;
+
+    private static final AtomicReferenceFieldUpdater<SampleResult, Object> FILES_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(SampleResult.class, Object.class, "files");
 
     // TODO do contentType and/or dataEncoding belong in HTTPSampleResult instead?
     private String dataEncoding;// (is this really the character set?) e.g.
@@ -231,6 +235,12 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
     /** time to end connecting */
     private long connectTime = 0;
 
+    /** true if the sample made a TLS handshake to open its connection */
+    private boolean tlsHandshake;
+
+    /** true if the TLS handshake of the sample resumed a cached session */
+    private boolean tlsSessionResumed;
+
     /** Way to signal what to do on Test */
     private TestLogicalAction testLogicalAction = TestLogicalAction.CONTINUE;
 
@@ -310,12 +320,14 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         dataEncoding = res.dataEncoding;//OK
         dataType = res.dataType;//OK
         endTime = res.endTime;//OK
-        // files is created automatically, and applies per instance
+        // files applies per instance, so is not copied
         groupThreads = res.groupThreads;//OK
         idleTime = res.idleTime;
         label = res.label;//OK
         latency = res.latency;
         connectTime = res.connectTime;
+        tlsHandshake = res.tlsHandshake;
+        tlsSessionResumed = res.tlsSessionResumed;
         location = res.location;//OK
         parent = res.parent;
         pauseTime = res.pauseTime;
@@ -492,6 +504,23 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         stampAndTime(stamp, elapsed);
     }
 
+    /**
+     * Restores the times of a result received from a remote engine by {@link SampleStreamCodec}.
+     *
+     * @param stamp   the time stamp
+     * @param start   the start time
+     * @param end     the end time
+     * @param elapsed the elapsed time
+     * @param idle    the idle time
+     */
+    void restoreTimes(long stamp, long start, long end, long elapsed, long idle) {
+        timeStamp = stamp;
+        startTime = start;
+        endTime = end;
+        elapsedTime = elapsed;
+        idleTime = idle;
+    }
+
     /**
      * Set the "marked" flag to show that the result has been written to the file.
      *
@@ -499,7 +528,29 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
      * @return <code>true</code> if the result was previously marked
      */
     public boolean markFile(String filename) {
-        return !files.add(filename != null ? filename : NULL_FILENAME);
+        String name = filename != null ? filename : NULL_FILENAME;
+        while (true) {
+            Object current = files;
+            if (current == null) {
+                if (FILES_UPDATER.compareAndSet(this, null, name)) {
+                    return false;
+                }
+            } else if (current instanceof String currentName) {
+                if (currentName.equals(name)) {
+                    return true;
+                }
+                Set<String> names = ConcurrentHashMap.newKeySet(2);
+                names.add(currentName);
+                names.add(name);
+                if (FILES_UPDATER.compareAndSet(this, current, names)) {
+                    return false;
+                }
+            } else {
+                @SuppressWarnings("unchecked")
+                Set<String> names = (Set<String>) current;
+                return !names.add(name);
+            }
+        }
     }
 
     public String getResponseCode() {
@@ -962,7 +1013,12 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         sb.append(", assertionResults=").append(assertionResults);
         sb.append(", subResults=").append(subResults);
         sb.append(", dataType='").append(dataType).append('\'');
-        sb.append(", files=").append(files);
+        Object currentFiles = files;
+        if (currentFiles == null || currentFiles instanceof String) {
+            sb.append(", files=[").append(currentFiles == null ? "" : currentFiles).append(']');
+        } else {
+            sb.append(", files=").append(currentFiles);
+        }
         sb.append(", dataEncoding='").append(dataEncoding).append('\'');
         sb.append(", contentType='").append(contentType).append('\'');
         sb.append(", elapsedTime=").append(elapsedTime);
@@ -1409,6 +1465,41 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         this.connectTime = time;
     }
 
+    /**
+     * Whether the sample made a TLS handshake to open its connection.
+     * It is false when the sample reused an open connection or did not use TLS.
+     *
+     * @return true if {@link #isTlsSessionResumed()} tells how the handshake was made
+     * @since 6.0
+     */
+    public boolean isTlsHandshake() {
+        return tlsHandshake;
+    }
+
+    /**
+     * Whether the TLS handshake of the sample resumed a cached session
+     * (session ID or session ticket) instead of being a full handshake.
+     * In that case, the connect time does not include the cost of a full handshake.
+     * Only meaningful when {@link #isTlsHandshake()} is true.
+     *
+     * @return true if the TLS session was resumed
+     * @since 6.0
+     */
+    public boolean isTlsSessionResumed() {
+        return tlsSessionResumed;
+    }
+
+    /**
+     * Records the TLS handshake made to open the connection of the sample.
+     *
+     * @param sessionResumed true if the handshake resumed a cached session
+     * @since 6.0
+     */
+    public void setTlsHandshake(boolean sessionResumed) {
+        this.tlsHandshake = true;
+        this.tlsSessionResumed = sessionResumed;
+    }
+
     /**
      * This is only intended for use by SampleResultConverter!
      *
@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.samplers;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring buffer of bytes in a memory-mapped file, written by one process and read by another process of the same host.
+ * <p>
+ * The file starts with a header holding the capacity, the positions of the writer and of the reader,
+ * and their states, each on its own cache line. The positions only grow, the data of a position
+ * is at {@code position % capacity}. A side publishes its position with a release store after having
+ * copied the data, and reads the position of the other side with an acquire load, so no lock is needed.
+ * A side waits for the other one by spinning, then parking for short periods.
+ * <p>
+ * The header also holds the process id of the writer and a heartbeat counter, which the writer increments
+ * with {@link #heartbeat()} while it has nothing to write. A reader waiting for data gives up when the writer
+ * process has died, or when neither the data nor the heartbeat progressed for its timeout, so that the ring
+ * of a killed server does not block the reader nor remain on disk.
+ */
+final class SampleRing implements Closeable {
+
+    private static final int MAGIC = 0x4A4D5352; // "JMSR"
+
+    private static final int VERSION = 2;
+
+    private static final int MAGIC_OFFSET = 0;
+
+    private static final int VERSION_OFFSET = 4;
+
+    private static final int CAPACITY_OFFSET = 8;
+
+    private static final int WRITE_POSITION_OFFSET = 64;
+
+    private static final int WRITER_STATE_OFFSET = 72;
+
+    private static final int WRITER_PID_OFFSET = 80;
+
+    private static final int HEARTBEAT_OFFSET = 88;
+
+    private static final int READ_POSITION_OFFSET = 128;
+
+    private static final int READER_STATE_OFFSET = 136;
+
+    private static final int HEADER_SIZE = 192;
+
+    private static final long OPEN = 0;
+
+    /** Reader state once it has read all the data up to the end of the stream */
+    private static final long ACKNOWLEDGED = 1;
+
+    private static final long CLOSED = 2;
+
+    private static final int SPINS = 100;
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Interval between the checks of the writer by a reader waiting for data */
+    private static final long LIVENESS_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private final long capacity;
+
+    private final boolean writer;
+
+    private SampleRing(Path file, MappedByteBuffer buffer, long capacity, boolean writer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.writer = writer;
+    }
+
+    /**
+     * Creates the file of a ring, which is only visible under its name once initialized.
+     *
+     * @param file     file of the ring, must not exist
+     * @param capacity number of bytes of data the ring can hold
+     * @return the writing side of the ring
+     * @throws IOException when the file can not be created
+     */
+    static SampleRing create(Path file, int capacity) throws IOException {
+        return create(file, capacity, ProcessHandle.current().pid());
+    }
+
+    /**
+     * Only for use by test code.
+     *
+     * @param file      file of the ring, must not exist
+     * @param capacity  number of bytes of data the ring can hold
+     * @param writerPid process id of the writer
+     * @return the writing side of the ring
+     * @throws IOException when the file can not be created
+     */
+    static SampleRing create(Path file, int capacity, long writerPid) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) HEADER_SIZE + capacity);
+        }
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putLong(CAPACITY_OFFSET, capacity);
+        buffer.putLong(WRITER_PID_OFFSET, writerPid);
+        INTS.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new SampleRing(file, buffer, capacity, true);
+    }
+
+    /**
+     * Opens a ring created by {@link #create(Path, int)}.
+     *
+     * @param file file of the ring
+     * @return the reading side of the ring
+     * @throws IOException when the file can not be read or is not a ring
+     */
+    static SampleRing open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a sample ring: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if ((int) INTS.getAcquire(buffer, MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a sample ring: " + file);
+            }
+            if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Unsupported sample ring version " + buffer.getInt(VERSION_OFFSET) + ": " + file);
+            }
+            long capacity = buffer.getLong(CAPACITY_OFFSET);
+            if (capacity <= 0 || capacity != size - HEADER_SIZE) {
+                throw new IOException("Invalid capacity " + capacity + " of sample ring: " + file);
+            }
+            return new SampleRing(file, buffer, capacity, false);
+        }
+    }
+
+    /**
+     * @param timeoutMillis maximum time to wait for the reader to free some space
+     * @return the stream writing to the ring; its writes block while the ring is full
+     */
+    OutputStream getOutputStream(long timeoutMillis) {
+        if (!writer) {
+            throw new IllegalStateException("Reading side of the ring " + file);
+        }
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                long position = (long) LONGS.getOpaque(buffer, WRITE_POSITION_OFFSET);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                int attempt = 0;
+                while (len > 0) {
+                    long free = capacity - (position - (long) LONGS.getAcquire(buffer, READ_POSITION_OFFSET));
+                    if (free == 0) {
+                        if ((long) LONGS.getAcquire(buffer, READER_STATE_OFFSET) == CLOSED) {
+                            throw new IOException("The reader of the sample ring has closed it: " + file);
+                        }
+                        if (System.nanoTime() - deadline > 0) {
+                            throw new IOException("The sample ring has been full for " + timeoutMillis + " ms: " + file);
+                        }
+                        pause(attempt++);
+                        continue;
+                    }
+                    attempt = 0;
+                    int count = copy(position, b, off, (int) Math.min(free, len), true);
+                    position += count;
+                    off += count;
+                    len -= count;
+                    LONGS.setRelease(buffer, WRITE_POSITION_OFFSET, position);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param timeoutMillis maximum time to wait for data while the writer does not call {@link #heartbeat()}
+     * @return the stream reading the ring; its reads block until data is available,
+     * and it ends when the writer has closed the ring. The reads fail when the writer process has died
+     * or has not written nor called {@link #heartbeat()} for the given time.
+     */
+    InputStream getInputStream(long timeoutMillis) {
+        if (writer) {
+            throw new IllegalStateException("Writing side of the ring " + file);
+        }
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        return new InputStream() {
+            private long lastHeartbeat = (long) LONGS.getAcquire(buffer, HEARTBEAT_OFFSET);
+
+            private long lastAlive = System.nanoTime();
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                long position = (long) LONGS.getOpaque(buffer, READ_POSITION_OFFSET);
+                int attempt = 0;
+                long nextCheck = System.nanoTime() + LIVENESS_CHECK_NANOS;
+                long available;
+                while ((available = (long) LONGS.getAcquire(buffer, WRITE_POSITION_OFFSET) - position) == 0) {
+                    if ((long) LONGS.getAcquire(buffer, WRITER_STATE_OFFSET) == CLOSED) {
+                        // the writer may have written some data before closing
+                        if ((long) LONGS.getAcquire(buffer, WRITE_POSITION_OFFSET) == position) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    if (Thread.interrupted()) {
+                        throw new InterruptedIOException("Interrupted while reading the sample ring " + file);
+                    }
+                    long now = System.nanoTime();
+                    if (now - nextCheck > 0) {
+                        checkWriter(now);
+                        nextCheck = now + LIVENESS_CHECK_NANOS;
+                    }
+                    pause(attempt++);
+                }
+                lastAlive = System.nanoTime();
+                int count = copy(position, b, off, (int) Math.min(available, len), false);
+                LONGS.setRelease(buffer, READ_POSITION_OFFSET, position + count);
+                return count;
+            }
+
+            private void checkWriter(long now) throws IOException {
+                long heartbeat = (long) LONGS.getAcquire(buffer, HEARTBEAT_OFFSET);
+                if (heartbeat != lastHeartbeat) {
+                    lastHeartbeat = heartbeat;
+                    lastAlive = now;
+                    return;
+                }
+                if (!isWriterAlive()) {
+                    throw new EOFException("The writer of the sample ring has died: " + file);
+                }
+                if (now - lastAlive > timeoutNanos) {
+                    throw new IOException("The writer of the sample ring has not been seen for "
+                            + timeoutMillis + " ms: " + file);
+                }
+            }
+
+            @Override
+            public int available() {
+                long available = (long) LONGS.getAcquire(buffer, WRITE_POSITION_OFFSET)
+                        - (long) LONGS.getOpaque(buffer, READ_POSITION_OFFSET);
+                return (int) Math.min(available, Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    /**
+     * Copies bytes between the ring and an array, up to the end of the data area.
+     *
+     * @return the number of bytes copied
+     */
+    private int copy(long position, byte[] b, int off, int len, boolean toRing) {
+        int index = (int) (position % capacity);
+        int count = (int) Math.min(len, capacity - index);
+        if (toRing) {
+            buffer.put(HEADER_SIZE + index, b, off, count);
+        } else {
+            buffer.get(HEADER_SIZE + index, b, off, count);
+        }
+        return count;
+    }
+
+    /**
+     * @return {@code false} if the process of the writer has ended
+     */
+    private boolean isWriterAlive() {
+        long pid = buffer.getLong(WRITER_PID_OFFSET);
+        try {
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (UnsupportedOperationException | SecurityException e) { // NOSONAR
+            // the heartbeat still detects the end of the writer
+            return true;
+        }
+    }
+
+    /**
+     * Tells the reader that the writer is alive, called by the writer while it has no data to write.
+     */
+    void heartbeat() {
+        LONGS.setRelease(buffer, HEARTBEAT_OFFSET, (long) LONGS.getOpaque(buffer, HEARTBEAT_OFFSET) + 1);
+    }
+
+    private static void pause(int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(attempt - SPINS, 10)));
+        }
+    }
+
+    /**
+     * Tells the writer that all the data has been read, called by the reader after the end of the stream.
+     */
+    void acknowledge() {
+        LONGS.setRelease(buffer, READER_STATE_OFFSET, ACKNOWLEDGED);
+    }
+
+    /**
+     * Waits for the reader to call {@link #acknowledge()}.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return {@code true} if the reader acknowledged the end of the stream
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean awaitAcknowledge(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int attempt = 0;
+        while (true) {
+            long state = (long) LONGS.getAcquire(buffer, READER_STATE_OFFSET);
+            if (state != OPEN) {
+                return state == ACKNOWLEDGED;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            pause(attempt++);
+        }
+    }
+
+    /**
+     * Closes this side of the ring. The reader deletes the file, as does the writer if the reader
+     * has not acknowledged the end of the stream, so that the file of an abandoned ring does not remain.
+     */
+    @Override
+    public void close() {
+        if (writer) {
+            LONGS.setRelease(buffer, WRITER_STATE_OFFSET, CLOSED);
+            if ((long) LONGS.getAcquire(buffer, READER_STATE_OFFSET) != ACKNOWLEDGED) {
+                delete();
+            }
+        } else {
+            if ((long) LONGS.getAcquire(buffer, READER_STATE_OFFSET) == OPEN) {
+                LONGS.setRelease(buffer, READER_STATE_OFFSET, CLOSED);
+            }
+            delete();
+        }
+    }
+
+    private void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // some systems do not delete the files mapped by another process
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+}
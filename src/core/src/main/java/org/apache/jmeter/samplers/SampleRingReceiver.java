@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.samplers;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.rmi.RemoteException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives on the client the samples written in {@link SampleRing}s by the {@link StreamingSampleSender}s
+ * of the servers running on the same host, and fires them to the local listeners.
+ * <p>
+ * Each listener of the test plan gets a marker file in the directory of the rings, which tells the servers
+ * that they share the directory with the client. Each server then creates one ring per listener,
+ * which the receiver finds by scanning the directory and reads in its own thread.
+ * <p>
+ * By default the directory is private to the user running the client, in the temporary directory,
+ * so the servers must run as the same user.
+ */
+final class SampleRingReceiver {
+
+    private static final Logger log = LoggerFactory.getLogger(SampleRingReceiver.class);
+
+    private static final String DIRECTORY =
+            JMeterUtils.getPropDefault("streaming.ring.directory", ""); // $NON-NLS-1$
+
+    /** Time after which the ring of a server which neither writes samples nor heartbeats is abandoned */
+    private static final long TIMEOUT_MS =
+            JMeterUtils.getPropDefault("streaming.ring.timeout", 60000L); // $NON-NLS-1$
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = EnumSet.of(
+            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+
+    static final String FILE_PREFIX = "jmeter-samples-"; // $NON-NLS-1$
+
+    static final String MARKER_SUFFIX = ".listener"; // $NON-NLS-1$
+
+    static final String RING_SUFFIX = ".ring"; // $NON-NLS-1$
+
+    private static final long SCAN_INTERVAL_MS = 100L;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static volatile SampleRingReceiver instance;
+
+    private final Path directory;
+
+    /** Listeners are only referenced weakly, so the ones of the previous tests can be collected */
+    private final Map<String, WeakReference<RemoteSampleListener>> listeners = new ConcurrentHashMap<>();
+
+    /** Rings being read */
+    private final Set<Path> rings = ConcurrentHashMap.newKeySet();
+
+    private SampleRingReceiver(Path directory) {
+        this.directory = directory;
+        Thread scanner = new Thread(this::scan, "SampleRingReceiver"); // $NON-NLS-1$
+        scanner.setDaemon(true);
+        scanner.start();
+        log.info("Receiving samples through shared memory in {}", directory);
+    }
+
+    /**
+     * @return the receiver of the client, started on the first call
+     * @throws RemoteException when the directory of the rings can not be used
+     */
+    static SampleRingReceiver getInstance() throws RemoteException {
+        SampleRingReceiver receiver = instance;
+        if (receiver == null) {
+            synchronized (SampleRingReceiver.class) {
+                receiver = instance;
+                if (receiver == null) {
+                    Path directory;
+                    try {
+                        directory = DIRECTORY.isEmpty()
+                                ? createPrivateDirectory(defaultDirectory())
+                                : createDirectory(Paths.get(DIRECTORY).toAbsolutePath());
+                    } catch (IOException e) {
+                        throw new RemoteException("Unable to use a directory for shared memory samples", e);
+                    }
+                    receiver = new SampleRingReceiver(directory);
+                    instance = receiver;
+                }
+            }
+        }
+        return receiver;
+    }
+
+    /**
+     * @return the directory of the rings of the user in the temporary directory
+     */
+    static Path defaultDirectory() {
+        String user = System.getProperty("user.name", "").replaceAll("[^A-Za-z0-9._-]", "_"); // $NON-NLS-1$
+        return Paths.get(System.getProperty("java.io.tmpdir"), FILE_PREFIX + user).toAbsolutePath(); // $NON-NLS-1$
+    }
+
+    /**
+     * Creates a directory which only its owner can access, if it does not exist yet.
+     *
+     * @param directory directory to create
+     * @return the directory
+     * @throws IOException when the directory can not be created
+     */
+    static Path createDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return directory;
+        }
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) { // $NON-NLS-1$
+            Files.createDirectories(directory.getParent());
+            Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            // the umask may have removed some permissions of the owner
+            Files.setPosixFilePermissions(directory, OWNER_ONLY);
+            return directory;
+        }
+        return Files.createDirectories(directory);
+    }
+
+    /**
+     * Creates a directory which only its owner can access, or checks that the existing one belongs to the current user
+     * and is not accessible by the other users, so that they can neither read the samples nor write fake rings.
+     *
+     * @param directory directory to create
+     * @return the directory
+     * @throws IOException when the directory can not be created, or can be accessed by other users
+     */
+    static Path createPrivateDirectory(Path directory) throws IOException {
+        createDirectory(directory);
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) { // $NON-NLS-1$
+            return directory;
+        }
+        PosixFileAttributes attributes =
+                Files.readAttributes(directory, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        // only its owner can write in a directory accessible by its owner only
+        if (!attributes.isDirectory()
+                || !OWNER_ONLY.containsAll(attributes.permissions())
+                || !Files.isWritable(directory)) {
+            throw new IOException("Directory " + directory + " must be owned by the current user"
+                    + " and only accessible by them");
+        }
+        return directory;
+    }
+
+    /**
+     * @return the directory in which the servers create their rings
+     */
+    String getDirectory() {
+        return directory.toString();
+    }
+
+    /**
+     * Registers a listener of the test plan.
+     *
+     * @param listener listener to which the received samples are sent
+     * @return the key the servers use to name their rings for this listener
+     * @throws RemoteException when the marker file of the listener can not be created
+     */
+    String register(RemoteSampleListener listener) throws RemoteException {
+        listeners.entrySet().removeIf(entry -> {
+            if (entry.getValue().get() != null) {
+                return false;
+            }
+            deleteQuietly(markerFile(directory, entry.getKey()));
+            return true;
+        });
+        String key = UUID.randomUUID().toString();
+        Path marker = markerFile(directory, key);
+        try {
+            Files.createFile(marker);
+        } catch (IOException e) {
+            throw new RemoteException("Unable to create " + marker, e);
+        }
+        marker.toFile().deleteOnExit();
+        listeners.put(key, new WeakReference<>(listener));
+        return key;
+    }
+
+    /**
+     * @param directory directory of the rings
+     * @param key       key of the listener
+     * @return the file telling the servers that the listener reads rings in the directory
+     */
+    static Path markerFile(Path directory, String key) {
+        return directory.resolve(FILE_PREFIX + key + MARKER_SUFFIX);
+    }
+
+    /**
+     * @param directory directory of the rings
+     * @param key       key of the listener
+     * @return a new file name for a ring of the listener
+     */
+    static Path ringFile(Path directory, String key) {
+        return directory.resolve(FILE_PREFIX + key + '.' + UUID.randomUUID() + RING_SUFFIX);
+    }
+
+    private void scan() {
+        while (true) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(SCAN_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (listeners.isEmpty()) {
+                continue;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + RING_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String key = name.substring(FILE_PREFIX.length(), name.indexOf('.'));
+                    WeakReference<RemoteSampleListener> reference = listeners.get(key);
+                    RemoteSampleListener listener = reference == null ? null : reference.get();
+                    if (listener != null && rings.add(file)) {
+                        Thread reader = new Thread(() -> receive(file, listener),
+                                "SampleRingReceiver-" + name); // $NON-NLS-1$
+                        reader.setDaemon(true);
+                        reader.start();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Error scanning {} for sample rings", directory, e);
+            }
+            // the rings are remembered until their file is deleted, so that they are only read once
+            rings.removeIf(ring -> !Files.exists(ring));
+        }
+    }
+
+    private void receive(Path file, RemoteSampleListener listener) {
+        long samples = 0;
+        try (SampleRing ring = SampleRing.open(file)) {
+            log.info("Receiving samples from {}", file);
+            SampleStreamCodec.Decoder decoder =
+                    new SampleStreamCodec.Decoder(new BufferedInputStream(ring.getInputStream(TIMEOUT_MS), BUFFER_SIZE));
+            List<SampleEvent> events;
+            while ((events = decoder.readFrame()) != null) {
+                samples += events.size();
+                listener.processBatch(events);
+            }
+            ring.acknowledge();
+            log.info("Received {} samples from {}", samples, file);
+        } catch (IOException e) {
+            log.error("Error reading samples from {} after {} samples", file, samples, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Unable to delete {}", file, e);
+        }
+    }
+}
@@ -81,6 +81,9 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     /** Indicates that the results file should be in CSV format. * */
     private static final String CSV = "csv"; // $NON_NLS-1$
 
+    /** Indicates that the results file should be in binary format. * */
+    private static final String BINARY = "binary"; // $NON_NLS-1$
+
     /** A properties file indicator for true. * */
     private static final String TRUE = "true"; // $NON_NLS-1$
 
@@ -120,7 +123,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     /***************************************************************************
      * The name of the property indicating which format should be used when
-     * saving the results, e.g., xml or csv.
+     * saving the results, e.g., xml, csv or binary.
      **************************************************************************/
     private static final String OUTPUT_FORMAT_PROP = "jmeter.save.saveservice.output_format"; // $NON_NLS-1$
 
@@ -218,6 +221,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     private static final String SAVE_IDLE_TIME       = "jmeter.save.saveservice.idle_time"; // $NON_NLS-1$
 
+    private static final String SAVE_TLS_SESSION_RESUMED = "jmeter.save.saveservice.tls_session_resumed"; // $NON_NLS-1$
+
     // Defaults from properties:
     private static final boolean TIME;
     private static final boolean TIMESTAMP;
@@ -227,6 +232,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     private static final boolean MESSAGE;
     private static final boolean THREAD_NAME;
     private static final boolean IS_XML;
+    private static final boolean IS_BINARY;
     private static final boolean RESPONSE_DATA;
     private static final boolean DATATYPE;
     private static final boolean ENCODING;
@@ -278,6 +284,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     private static final boolean IDLE_TIME;
 
+    private static final boolean TLS_SESSION_RESUMED;
+
     public static final String DEFAULT_DELIMITER = ","; // $NON_NLS-1$
 
     // Read in the properties having to do with saving from a properties file.
@@ -370,11 +378,16 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
         if (XML.equals(howToSave)) {
             IS_XML = true;
+            IS_BINARY = false;
+        } else if (BINARY.equals(howToSave)) {
+            IS_XML = false;
+            IS_BINARY = true;
         } else {
             if (!CSV.equals(howToSave)) {
                 log.warn("{} has unexpected value: '{}' - assuming 'csv' format", OUTPUT_FORMAT_PROP, howToSave);
             }
             IS_XML = false;
+            IS_BINARY = false;
         }
 
         THREAD_COUNTS=TRUE.equalsIgnoreCase(props.getProperty(SAVE_THREAD_COUNTS, TRUE));
@@ -382,6 +395,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         SAMPLE_COUNT=TRUE.equalsIgnoreCase(props.getProperty(SAVE_SAMPLE_COUNT, FALSE));
 
         IDLE_TIME=TRUE.equalsIgnoreCase(props.getProperty(SAVE_IDLE_TIME, TRUE));
+
+        TLS_SESSION_RESUMED=TRUE.equalsIgnoreCase(props.getProperty(SAVE_TLS_SESSION_RESUMED, FALSE));
     }
 
     private static final SampleSaveConfiguration STATIC_SAVE_CONFIGURATION = new SampleSaveConfiguration();
@@ -427,6 +442,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         "ResponseData", // XML
         "Subresults", // XML
         "Assertions", // XML
+        "TlsSessionResumed",
     }));
     // N.B. Remember to update the equals and hashCode methods when adding new variables.
 
@@ -447,6 +463,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     private boolean responseData = RESPONSE_DATA;
     private boolean samplerData = SAMPLER_DATA;
     private boolean xml = IS_XML;
+    private boolean binary = IS_BINARY;
     private boolean fieldNames = FIELD_NAMES;
     private boolean responseHeaders = RESPONSE_HEADERS;
     private boolean requestHeaders = REQUEST_HEADERS;
@@ -467,6 +484,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     private boolean idleTime = IDLE_TIME;
 
+    private boolean tlsSessionResumed = TLS_SESSION_RESUMED;
+
     // Does not appear to be used (yet)
     // it is
     @SuppressWarnings("FieldCanBeStatic")
@@ -528,8 +547,10 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         threadName = value;
         time = value;
         timestamp = value;
+        tlsSessionResumed = value;
         url = value;
         xml = value;
+        binary = false; // Not a field of the Config dialogue
     }
 
     public int getVarCount() { // Only for use by CSVSaveService
@@ -644,6 +665,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
             s.responseData == responseData &&
             s.samplerData == samplerData &&
             s.xml == xml &&
+            s.binary == binary &&
             s.fieldNames == fieldNames &&
             s.responseHeaders == responseHeaders &&
             s.requestHeaders == requestHeaders &&
@@ -658,6 +680,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
             s.hostname == hostname &&
             s.sampleCount == sampleCount &&
             s.idleTime == idleTime &&
+            s.tlsSessionResumed == tlsSessionResumed &&
             s.threadCounts == threadCounts;
 
         boolean stringValues = false;
@@ -691,6 +714,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         hash = 31 * hash + (responseData ? 1 : 0);
         hash = 31 * hash + (samplerData ? 1 : 0);
         hash = 31 * hash + (xml ? 1 : 0);
+        hash = 31 * hash + (binary ? 1 : 0);
         hash = 31 * hash + (fieldNames ? 1 : 0);
         hash = 31 * hash + (responseHeaders ? 1 : 0);
         hash = 31 * hash + (requestHeaders ? 1 : 0);
@@ -704,6 +728,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         hash = 31 * hash + (fileName ? 1 : 0);
         hash = 31 * hash + (hostname ? 1 : 0);
         hash = 31 * hash + (threadCounts ? 1 : 0);
+        hash = 31 * hash + (tlsSessionResumed ? 1 : 0);
         hash = 31 * hash + (delimiter != null  ? delimiter.hashCode() : 0);
         hash = 31 * hash + (dateFormat != null  ? dateFormat.hashCode() : 0);
         hash = 31 * hash + (sampleCount ? 1 : 0);
@@ -803,6 +828,14 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         return responseData;
     }
 
+    /**
+     * @return true if the response data of some samples may be saved, see {@link #saveResponseData(SampleResult)}
+     * @since 6.0
+     */
+    public boolean mightSaveResponseData() {
+        return responseData || responseDataOnError || TestPlan.getFunctionalMode();
+    }
+
     public void setResponseData(boolean responseData) {
         this.responseData = responseData;
     }
@@ -869,6 +902,23 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         this.xml = xml;
     }
 
+    /**
+     * @return true if results are written in the binary format of {@link org.apache.jmeter.save.BinaryResultWriter}.
+     * This takes precedence over {@link #saveAsXml()}
+     * @since 6.0
+     */
+    public boolean saveAsBinary() {
+        return binary;
+    }
+
+    /**
+     * @param binary true to write results in the binary format of {@link org.apache.jmeter.save.BinaryResultWriter}
+     * @since 6.0
+     */
+    public void setAsBinary(boolean binary) {
+        this.binary = binary;
+    }
+
     public boolean saveFieldNames() {
         return fieldNames;
     }
@@ -1018,4 +1068,20 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     public void setIdleTime(boolean save) {
         idleTime = save;
     }
+
+    /**
+     * @return true if whether the TLS handshake of the samples resumed a session is saved
+     * @since 6.0
+     */
+    public boolean saveTlsSessionResumed() {
+        return tlsSessionResumed;
+    }
+
+    /**
+     * @param save true to save whether the TLS handshake of the samples resumed a session
+     * @since 6.0
+     */
+    public void setTlsSessionResumed(boolean save) {
+        tlsSessionResumed = save;
+    }
 }
@@ -30,12 +30,17 @@ public class SampleSenderFactory {
     private static final String MODE_STANDARD = "Standard"; // $NON-NLS-1$
     private static final String MODE_BATCH = "Batch"; // $NON-NLS-1$
     private static final String MODE_STATISTICAL = "Statistical"; // $NON-NLS-1$
+    private static final String MODE_HISTOGRAM = "Histogram"; // $NON-NLS-1$
     private static final String MODE_STRIPPED = "Stripped"; // $NON-NLS-1$
     private static final String MODE_STRIPPED_BATCH = "StrippedBatch"; // $NON-NLS-1$
     private static final String MODE_ASYNCH = "Asynch"; // $NON-NLS-1$
     private static final String MODE_STRIPPED_ASYNCH = "StrippedAsynch"; // $NON-NLS-1$
     private static final String MODE_DISKSTORE = "DiskStore"; // $NON-NLS-1$
     private static final String MODE_STRIPPED_DISKSTORE = "StrippedDiskStore"; // $NON-NLS-1$
+    private static final String MODE_STREAMING = "Streaming"; // $NON-NLS-1$
+    private static final String MODE_STRIPPED_STREAMING = "StrippedStreaming"; // $NON-NLS-1$
+    private static final String MODE_SHARED_MEMORY = "SharedMemory"; // $NON-NLS-1$
+    private static final String MODE_STRIPPED_SHARED_MEMORY = "StrippedSharedMemory"; // $NON-NLS-1$
 
     private SampleSenderFactory() {
         // this is a singleton, so don't let anyone instantiate us
@@ -58,6 +63,8 @@ public class SampleSenderFactory {
             s = new DataStrippingSampleSender(new BatchSampleSender(listener));
         } else if (type.equalsIgnoreCase(MODE_STATISTICAL)) {
             s = new StatisticalSampleSender(listener);
+        } else if (type.equalsIgnoreCase(MODE_HISTOGRAM)) {
+            s = new HistogramSampleSender(listener);
         } else if (type.equalsIgnoreCase(MODE_STANDARD)) {
             s = new StandardSampleSender(listener);
         } else if (type.equalsIgnoreCase(MODE_STRIPPED)) {
@@ -70,6 +77,14 @@ public class SampleSenderFactory {
             s = new DiskStoreSampleSender(listener);
         } else if (type.equalsIgnoreCase(MODE_STRIPPED_DISKSTORE)) {
             s = new DataStrippingSampleSender(new DiskStoreSampleSender(listener));
+        } else if (type.equalsIgnoreCase(MODE_STREAMING)) {
+            s = new StreamingSampleSender(listener);
+        } else if (type.equalsIgnoreCase(MODE_STRIPPED_STREAMING)) {
+            s = new DataStrippingSampleSender(new StreamingSampleSender(listener));
+        } else if (type.equalsIgnoreCase(MODE_SHARED_MEMORY)) {
+            s = new StreamingSampleSender(listener, true);
+        } else if (type.equalsIgnoreCase(MODE_STRIPPED_SHARED_MEMORY)) {
+            s = new DataStrippingSampleSender(new StreamingSampleSender(listener, true));
         } else {
             // should be a user provided class name
             try {
@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jmeter.assertions.AssertionResult;
+
+/**
+ * Binary format of the samples sent by {@link StreamingSampleSender}.
+ * <p>
+ * A connection starts with a header (magic number, version, compression flag and the key of the listener),
+ * followed by frames made of a type byte, the length of the payload and the payload.
+ * Integers are written as variable length numbers, and the strings which usually repeat
+ * (labels, thread names, response codes...) are sent once per connection then referenced by their index.
+ * Only the fields of {@link SampleResult} and {@link AssertionResult} are sent, so the results are received
+ * as plain {@link SampleResult}s.
+ */
+final class SampleStreamCodec {
+
+    static final int MAGIC = 0x4A4D5353; // "JMSS"
+
+    static final int VERSION = 1;
+
+    static final byte FRAME_SAMPLES = 1;
+
+    static final byte FRAME_END = 2;
+
+    /** Acknowledgement sent by the receiver once it has processed the end frame */
+    static final int END_ACK = 0x45;
+
+    private static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+
+    /** Number of distinct strings remembered by each side of a connection */
+    private static final int MAX_STRINGS = 16384;
+
+    private static final int MAX_SUB_RESULT_DEPTH = 32;
+
+    private static final int STRING_NULL = 0;
+
+    private static final int STRING_LITERAL = 1;
+
+    private static final int STRING_INDEX_OFFSET = 2;
+
+    private static final int SUCCESS = 1;
+    private static final int TRANSACTION = 2;
+    private static final int TLS_SESSION_RESUMED = 4;
+    private static final int TLS_HANDSHAKE = 8;
+
+    private static final int ASSERTION_FAILURE = 1;
+    private static final int ASSERTION_ERROR = 2;
+
+    private SampleStreamCodec() {
+    }
+
+    /**
+     * Header sent once at the start of a connection, before the compression is enabled.
+     *
+     * @param compressed true if the frames are compressed
+     * @param key        key of the listener the samples are sent to
+     */
+    record Header(boolean compressed, String key) {
+
+        void writeTo(OutputStream stream) throws IOException {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeBoolean(compressed);
+            out.writeUTF(key);
+            out.flush();
+        }
+
+        static Header readFrom(InputStream stream) throws IOException {
+            DataInputStream in = new DataInputStream(stream);
+            int magic = in.readInt();
+            if (magic != MAGIC) {
+                throw new IOException("Not a sample stream, magic number: " + Integer.toHexString(magic));
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported sample stream version: " + version);
+            }
+            boolean compressed = in.readBoolean();
+            return new Header(compressed, in.readUTF());
+        }
+    }
+
+    /**
+     * Writes the frames of a connection. Not thread-safe.
+     */
+    static final class Encoder {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream frame = new ByteArrayOutputStream(8192);
+        private final DataOutputStream data = new DataOutputStream(frame);
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Encoder(OutputStream out) {
+            this.out = new DataOutputStream(out);
+        }
+
+        /**
+         * Writes a frame holding the given events. The frame is not flushed.
+         *
+         * @param events events to write
+         * @throws IOException when the frame can not be written
+         */
+        void writeSamples(List<SampleEvent> events) throws IOException {
+            frame.reset();
+            writeVarLong(data, events.size());
+            for (SampleEvent event : events) {
+                writeEvent(event);
+            }
+            out.writeByte(FRAME_SAMPLES);
+            out.writeInt(frame.size());
+            frame.writeTo(out);
+        }
+
+        /**
+         * Writes the frame telling that no more samples will be sent, and flushes the stream.
+         *
+         * @throws IOException when the frame can not be written
+         */
+        void writeEnd() throws IOException {
+            out.writeByte(FRAME_END);
+            out.writeInt(0);
+            out.flush();
+        }
+
+        private void writeEvent(SampleEvent event) throws IOException {
+            SampleResult result = event.getResult();
+            writeString(event.getThreadGroup());
+            writeString(event.getHostname());
+            data.writeByte(event.isTransactionSampleEvent() ? TRANSACTION : 0);
+            String[] values = event.getVarValues();
+            writeVarLong(data, values.length);
+            for (String value : values) {
+                writeLiteral(value);
+            }
+            writeResult(result, 0);
+        }
+
+        private void writeResult(SampleResult result, int depth) throws IOException {
+            long timeStamp = result.getTimeStamp();
+            writeVarLong(data, zigZag(timeStamp));
+            writeVarLong(data, zigZag(result.getStartTime() - timeStamp));
+            writeVarLong(data, zigZag(result.getEndTime() - result.getStartTime()));
+            writeVarLong(data, zigZag(result.getTime()));
+            writeVarLong(data, zigZag(result.getIdleTime()));
+            writeVarLong(data, zigZag(result.getLatency()));
+            writeVarLong(data, zigZag(result.getConnectTime()));
+            writeVarLong(data, zigZag(result.getBytesAsLong()));
+            writeVarLong(data, zigZag(result.getSentBytes()));
+            writeVarLong(data, zigZag(result.getHeadersSize()));
+            writeVarLong(data, zigZag(result.getBodySizeAsLong()));
+            writeVarLong(data, zigZag(result.getGroupThreads()));
+            writeVarLong(data, zigZag(result.getAllThreads()));
+            writeVarLong(data, zigZag(result.getSampleCount()));
+            int flags = result.isSuccessful() ? SUCCESS : 0;
+            if (result.isTlsHandshake()) {
+                flags |= TLS_HANDSHAKE;
+                if (result.isTlsSessionResumed()) {
+                    flags |= TLS_SESSION_RESUMED;
+                }
+            }
+            data.writeByte(flags);
+            writeString(result.getSampleLabel());
+            writeString(result.getThreadName());
+            writeString(result.getResponseCode());
+            writeString(result.getResponseMessage());
+            writeString(result.getDataType());
+            writeString(result.getContentType());
+            writeString(result.getDataEncodingNoDefault());
+            URL url = result.getURL();
+            writeString(url == null ? null : url.toExternalForm());
+            writeLiteral(result.getSamplerData());
+            writeLiteral(result.getRequestHeaders());
+            writeLiteral(result.getResponseHeaders());
+            byte[] responseData = result.getResponseData();
+            writeVarLong(data, responseData.length);
+            data.write(responseData);
+
+            AssertionResult[] assertions = result.getAssertionResults();
+            writeVarLong(data, assertions.length);
+            for (AssertionResult assertion : assertions) {
+                writeString(assertion.getName());
+                int assertionFlags = assertion.isFailure() ? ASSERTION_FAILURE : 0;
+                if (assertion.isError()) {
+                    assertionFlags |= ASSERTION_ERROR;
+                }
+                data.writeByte(assertionFlags);
+                writeLiteral(assertion.getFailureMessage());
+            }
+
+            SampleResult[] subResults = depth < MAX_SUB_RESULT_DEPTH ? result.getSubResults() : new SampleResult[0];
+            writeVarLong(data, subResults.length);
+            for (SampleResult subResult : subResults) {
+                writeResult(subResult, depth + 1);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(data, STRING_NULL);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarLong(data, index + (long) STRING_INDEX_OFFSET);
+                return;
+            }
+            writeVarLong(data, STRING_LITERAL);
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            if (strings.size() < MAX_STRINGS) {
+                strings.put(value, strings.size());
+            }
+        }
+
+        private void writeLiteral(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(data, 0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(data, bytes.length + 1L);
+            data.write(bytes);
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeVarLong(data, bytes.length);
+            data.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the frames of a connection. Not thread-safe.
+     */
+    static final class Decoder {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+        private DataInputStream data;
+
+        Decoder(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        /**
+         * Reads the next frame.
+         *
+         * @return the events of the frame, or {@code null} when the end frame has been read
+         * @throws IOException when the stream is closed or corrupted
+         */
+        List<SampleEvent> readFrame() throws IOException {
+            byte type = in.readByte();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_FRAME_LENGTH) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            if (type == FRAME_END) {
+                return null;
+            }
+            if (type != FRAME_SAMPLES) {
+                throw new IOException("Unknown frame type: " + type);
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            data = new DataInputStream(new ByteArrayInputStream(payload));
+            int count = readCount();
+            List<SampleEvent> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                events.add(readEvent());
+            }
+            return events;
+        }
+
+        private SampleEvent readEvent() throws IOException {
+            String threadGroup = readString();
+            String hostname = readString();
+            boolean transaction = (data.readByte() & TRANSACTION) != 0;
+            String[] values = new String[readCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readLiteral();
+            }
+            SampleResult result = readResult(0);
+            return new SampleEvent(result, threadGroup, hostname, values, transaction);
+        }
+
+        private SampleResult readResult(int depth) throws IOException {
+            if (depth > MAX_SUB_RESULT_DEPTH) {
+                throw new IOException("Too many levels of sub results");
+            }
+            SampleResult result = new SampleResult();
+            long timeStamp = unZigZag(readVarLong(data));
+            long startTime = timeStamp + unZigZag(readVarLong(data));
+            long endTime = startTime + unZigZag(readVarLong(data));
+            long elapsed = unZigZag(readVarLong(data));
+            long idle = unZigZag(readVarLong(data));
+            result.restoreTimes(timeStamp, startTime, endTime, elapsed, idle);
+            result.setLatency(unZigZag(readVarLong(data)));
+            result.setConnectTime(unZigZag(readVarLong(data)));
+            result.setBytes(unZigZag(readVarLong(data)));
+            result.setSentBytes(unZigZag(readVarLong(data)));
+            result.setHeadersSize((int) unZigZag(readVarLong(data)));
+            result.setBodySize(unZigZag(readVarLong(data)));
+            result.setGroupThreads((int) unZigZag(readVarLong(data)));
+            result.setAllThreads((int) unZigZag(readVarLong(data)));
+            result.setSampleCount((int) unZigZag(readVarLong(data)));
+            int flags = data.readByte();
+            result.setSuccessful((flags & SUCCESS) != 0);
+            if ((flags & TLS_HANDSHAKE) != 0) {
+                result.setTlsHandshake((flags & TLS_SESSION_RESUMED) != 0);
+            }
+            result.setSampleLabel(readString());
+            result.setThreadName(readString());
+            result.setResponseCode(readString());
+            result.setResponseMessage(readString());
+            result.setDataType(readString());
+            result.setContentType(readString());
+            result.setDataEncoding(readString());
+            String url = readString();
+            if (url != null) {
+                try {
+                    result.setURL(new URL(url));
+                } catch (MalformedURLException e) { // NOSONAR The URL was valid on the sender side
+                    result.setURL(null);
+                }
+            }
+            result.setSamplerData(readLiteral());
+            result.setRequestHeaders(readLiteral());
+            result.setResponseHeaders(readLiteral());
+            byte[] responseData = new byte[readCount()];
+            data.readFully(responseData);
+            result.setResponseData(responseData);
+
+            int assertions = readCount();
+            for (int i = 0; i < assertions; i++) {
+                AssertionResult assertion = new AssertionResult(readString());
+                int assertionFlags = data.readByte();
+                assertion.setFailure((assertionFlags & ASSERTION_FAILURE) != 0);
+                assertion.setError((assertionFlags & ASSERTION_ERROR) != 0);
+                assertion.setFailureMessage(readLiteral());
+                result.addAssertionResult(assertion);
+            }
+
+            int subResults = readCount();
+            for (int i = 0; i < subResults; i++) {
+                result.storeSubResult(readResult(depth + 1), false);
+            }
+            return result;
+        }
+
+        private String readString() throws IOException {
+            long code = readVarLong(data);
+            if (code == STRING_NULL) {
+                return null;
+            }
+            if (code == STRING_LITERAL) {
+                byte[] bytes = new byte[readCount()];
+                data.readFully(bytes);
+                String value = new String(bytes, StandardCharsets.UTF_8);
+                if (strings.size() < MAX_STRINGS) {
+                    strings.add(value);
+                }
+                return value;
+            }
+            long index = code - STRING_INDEX_OFFSET;
+            if (index >= strings.size()) {
+                throw new IOException("Unknown string index: " + index);
+            }
+            return strings.get((int) index);
+        }
+
+        private String readLiteral() throws IOException {
+            long length = readVarLong(data);
+            if (length == 0) {
+                return null;
+            }
+            if (length - 1 > MAX_FRAME_LENGTH) {
+                throw new IOException("Invalid string length: " + (length - 1));
+            }
+            byte[] bytes = new byte[(int) (length - 1)];
+            data.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readCount() throws IOException {
+            long count = readVarLong(data);
+            if (count > MAX_FRAME_LENGTH) {
+                throw new IOException("Invalid count: " + count);
+            }
+            return (int) count;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length number");
+    }
+}
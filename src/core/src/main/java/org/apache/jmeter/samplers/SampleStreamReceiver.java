@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.rmi.RemoteException;
+import java.rmi.server.RMIServerSocketFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.jmeter.rmi.RmiUtils;
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives on the client the samples streamed by the {@link StreamingSampleSender}s of the servers,
+ * and fires them to the local listeners.
+ * <p>
+ * The receiver listens on one port for all the listeners of the test plan, each server opens one connection
+ * per listener and keeps it open until the end of the test. The socket uses the same factories as RMI,
+ * so it is secured by SSL unless <code>server.rmi.ssl.disable</code> is set.
+ */
+final class SampleStreamReceiver {
+
+    private static final Logger log = LoggerFactory.getLogger(SampleStreamReceiver.class);
+
+    private static final int PORT = JMeterUtils.getPropDefault("client.sample_stream.port", 0); // $NON-NLS-1$
+
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+    private static volatile SampleStreamReceiver instance;
+
+    private final ServerSocket serverSocket;
+
+    private final String host;
+
+    /** Listeners are only referenced weakly, so the ones of the previous tests can be collected */
+    private final Map<String, WeakReference<RemoteSampleListener>> listeners = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connectionNumber = new AtomicInteger();
+
+    private SampleStreamReceiver() throws IOException {
+        RMIServerSocketFactory factory = RmiUtils.createServerSocketFactory();
+        serverSocket = factory == null ? new ServerSocket(PORT) : factory.createServerSocket(PORT);
+        host = RmiUtils.getRmiHost().getHostAddress();
+        Thread acceptor = new Thread(this::acceptConnections, "SampleStreamReceiver"); // $NON-NLS-1$
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Receiving streamed samples on {}:{}", host, serverSocket.getLocalPort());
+    }
+
+    /**
+     * @return the receiver of the client, started on the first call
+     * @throws RemoteException when the receiver can not be started
+     */
+    static SampleStreamReceiver getInstance() throws RemoteException {
+        SampleStreamReceiver receiver = instance;
+        if (receiver == null) {
+            synchronized (SampleStreamReceiver.class) {
+                receiver = instance;
+                if (receiver == null) {
+                    try {
+                        receiver = new SampleStreamReceiver();
+                    } catch (RemoteException e) {
+                        throw e;
+                    } catch (IOException e) {
+                        throw new RemoteException("Unable to listen for streamed samples on port " + PORT, e);
+                    }
+                    instance = receiver;
+                }
+            }
+        }
+        return receiver;
+    }
+
+    /**
+     * @return the address the servers connect to
+     */
+    String getHost() {
+        return host;
+    }
+
+    /**
+     * @return the port the servers connect to
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Registers a listener of the test plan.
+     *
+     * @param listener listener to which the received samples are sent
+     * @return the key the servers use to send samples to this listener
+     */
+    String register(RemoteSampleListener listener) {
+        listeners.values().removeIf(reference -> reference.get() == null);
+        String key = UUID.randomUUID().toString();
+        listeners.put(key, new WeakReference<>(listener));
+        return key;
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread reader = new Thread(() -> receive(socket),
+                        "SampleStreamReceiver-" + connectionNumber.incrementAndGet()); // $NON-NLS-1$
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Error accepting a sample stream connection", e);
+                }
+            }
+        }
+    }
+
+    private void receive(Socket socket) {
+        String remote = String.valueOf(socket.getRemoteSocketAddress());
+        long samples = 0;
+        Inflater inflater = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream(), INFLATER_BUFFER_SIZE);
+            SampleStreamCodec.Header header = SampleStreamCodec.Header.readFrom(in);
+            WeakReference<RemoteSampleListener> reference = listeners.get(header.key());
+            RemoteSampleListener listener = reference == null ? null : reference.get();
+            if (listener == null) {
+                log.warn("Closing sample stream from {}, its listener is unknown", remote);
+                return;
+            }
+            if (header.compressed()) {
+                inflater = new Inflater();
+                in = new InflaterInputStream(in, inflater, INFLATER_BUFFER_SIZE);
+            }
+            log.info("Receiving streamed samples from {}", remote);
+            SampleStreamCodec.Decoder decoder = new SampleStreamCodec.Decoder(in);
+            List<SampleEvent> events;
+            while ((events = decoder.readFrame()) != null) {
+                samples += events.size();
+                listener.processBatch(events);
+            }
+            socket.getOutputStream().write(SampleStreamCodec.END_ACK);
+            socket.getOutputStream().flush();
+            log.info("Received {} streamed samples from {}", samples, remote);
+        } catch (SocketException e) {
+            log.warn("Sample stream from {} closed after {} samples: {}", remote, samples, e.toString());
+        } catch (IOException e) {
+            log.error("Error reading sample stream from {} after {} samples", remote, samples, e);
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+}
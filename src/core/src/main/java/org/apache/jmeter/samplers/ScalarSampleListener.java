@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import org.apiguardian.api.API;
+
+/**
+ * A {@link SampleListener} that may only read the scalar fields of the samples
+ * it receives (times, sizes, codes, messages, labels), never their response data.
+ * <p>
+ * With <code>sampleresult.lean_mode=true</code>, samplers do not store the response
+ * data of a sample when no assertion or post-processor applies to it and all its
+ * listeners only read scalar fields.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public interface ScalarSampleListener extends SampleListener {
+    /**
+     * Called on the sampling thread before each sample when the lean mode is enabled,
+     * so it must be cheap.
+     *
+     * @return true if {@link #sampleOccurred(SampleEvent)} does not read the response data
+     */
+    default boolean readsScalarFieldsOnly() {
+        return true;
+    }
+}
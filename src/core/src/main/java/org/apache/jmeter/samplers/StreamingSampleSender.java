@@ -0,0 +1,445 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.rmi.RemoteException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.jmeter.rmi.RmiUtils;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends samples in a separate Thread over one socket per listener, instead of one RMI call per batch.
+ * <p>
+ * The samples are written in a compact binary format (see {@link SampleStreamCodec}), optionally compressed,
+ * and the frames are sent without waiting for the client to process the previous ones.
+ * The client receives them with a {@link SampleStreamReceiver} and fires them to the listener as
+ * {@link RemoteSampleListener#processBatch(List)} would.
+ * If the socket can not be opened, or fails during the test, the samples are sent by RMI.
+ * <p>
+ * When the servers run on the same host as the client, the samples can be written instead in a ring buffer
+ * in a memory-mapped file (see {@link SampleRing}), which the client reads with a {@link SampleRingReceiver}
+ * without going through the network stack.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class StreamingSampleSender extends AbstractSampleSender implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingSampleSender.class);
+
+    // Create unique object as marker for end of queue
+    private static final transient SampleEvent FINAL_EVENT = new SampleEvent();
+
+    private static final int DEFAULT_QUEUE_SIZE = 5000;
+
+    private static final boolean DEFAULT_COMPRESSION = true;
+
+    /** Maximum number of samples written in one frame */
+    private static final int MAX_FRAME_SAMPLES = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int DEFAULT_RING_SIZE = 16 * 1024 * 1024;
+
+    /** Time to wait for the client to process the remaining samples at the end of the test */
+    private static final long END_TIMEOUT_MS = 60000L;
+
+    /** Interval between the heartbeats written in the ring while there is no sample to send */
+    private static final long HEARTBEAT_INTERVAL_MS = 1000L;
+
+    private static final int SERVER_CONFIGURED_CAPACITY =
+            JMeterUtils.getPropDefault("streaming.queue.size", DEFAULT_QUEUE_SIZE); // $NON-NLS-1$
+
+    private static final boolean SERVER_CONFIGURED_COMPRESSION =
+            JMeterUtils.getPropDefault("streaming.compression", DEFAULT_COMPRESSION); // $NON-NLS-1$
+
+    private static final int SERVER_CONFIGURED_RING_SIZE =
+            JMeterUtils.getPropDefault("streaming.ring.size", DEFAULT_RING_SIZE); // $NON-NLS-1$
+
+    // instance fields are copied from the client instance
+    private final int clientConfiguredCapacity =
+            JMeterUtils.getPropDefault("streaming.queue.size", DEFAULT_QUEUE_SIZE); // $NON-NLS-1$
+
+    private final boolean clientConfiguredCompression =
+            JMeterUtils.getPropDefault("streaming.compression", DEFAULT_COMPRESSION); // $NON-NLS-1$
+
+    private final int clientConfiguredRingSize =
+            JMeterUtils.getPropDefault("streaming.ring.size", DEFAULT_RING_SIZE); // $NON-NLS-1$
+
+    // created by client
+    private final RemoteSampleListener listener;
+
+    /** Address and port of the receiver of the client, and key of the listener; null key if it is not available */
+    private final String receiverHost;
+
+    private final int receiverPort;
+
+    private final String receiverKey;
+
+    /** Directory of the rings read by the client, null if the samples are sent over a socket */
+    private final String ringDirectory;
+
+    private transient BlockingQueue<SampleEvent> queue; // created by server in readResolve method
+
+    private transient Worker worker;
+
+    private transient LongAdder queueWaits; // how many times we had to wait to queue a sample
+
+    private transient LongAdder queueWaitTime; // how long we had to wait (nanoSeconds)
+
+    /**
+     * @deprecated only for use by test code
+     */
+    @Deprecated
+    public StreamingSampleSender() {
+        this(null);
+        log.warn("Constructor only intended for use in testing"); // $NON-NLS-1$
+    }
+
+    // Created by SampleSenderFactory
+    protected StreamingSampleSender(RemoteSampleListener listener) {
+        this(listener, false);
+    }
+
+    /**
+     * @param listener     listener of the client
+     * @param sharedMemory {@code true} to write the samples in memory-mapped files,
+     *                     for servers running on the same host as the client
+     */
+    // Created by SampleSenderFactory
+    protected StreamingSampleSender(RemoteSampleListener listener, boolean sharedMemory) {
+        this.listener = listener;
+        String host = null;
+        int port = 0;
+        String key = null;
+        String directory = null;
+        if (listener != null) {
+            try {
+                if (sharedMemory) {
+                    SampleRingReceiver receiver = SampleRingReceiver.getInstance();
+                    directory = receiver.getDirectory();
+                    key = receiver.register(listener);
+                } else {
+                    SampleStreamReceiver receiver = SampleStreamReceiver.getInstance();
+                    host = receiver.getHost();
+                    port = receiver.getPort();
+                    key = receiver.register(listener);
+                }
+            } catch (RemoteException e) {
+                log.error("Unable to start the receiver of streamed samples, samples will be sent by RMI", e);
+            }
+        }
+        this.receiverHost = host;
+        this.receiverPort = port;
+        this.receiverKey = key;
+        this.ringDirectory = directory;
+        if (log.isInfoEnabled()) {
+            if (sharedMemory) {
+                log.info("Using Streaming Remote Sampler for this test run, queue size: {}, shared memory: {} bytes", // client log file
+                        getCapacity(), getRingSize());
+            } else {
+                log.info("Using Streaming Remote Sampler for this test run, queue size: {}, compression: {}", // client log file
+                        getCapacity(), isCompressed());
+            }
+        }
+    }
+
+    /**
+     * Processed by the RMI server code.
+     *
+     * @return this
+     * @throws ObjectStreamException never
+     */
+    protected Object readResolve() throws ObjectStreamException {
+        int capacity = getCapacity();
+        log.info("Using streaming queue size (streaming.queue.size): {}, compression (streaming.compression): {}",
+                capacity, isCompressed()); // server log file
+        queue = new ArrayBlockingQueue<>(capacity);
+        queueWaits = new LongAdder();
+        queueWaitTime = new LongAdder();
+        worker = new Worker();
+        worker.setDaemon(true);
+        worker.start();
+        return this;
+    }
+
+    private int getCapacity() {
+        return isClientConfigured() ?
+                clientConfiguredCapacity : SERVER_CONFIGURED_CAPACITY;
+    }
+
+    private boolean isCompressed() {
+        return isClientConfigured() ?
+                clientConfiguredCompression : SERVER_CONFIGURED_COMPRESSION;
+    }
+
+    private int getRingSize() {
+        return isClientConfigured() ?
+                clientConfiguredRingSize : SERVER_CONFIGURED_RING_SIZE;
+    }
+
+    @Override
+    public void testEnded(String host) {
+        log.debug("Test Ended on {}", host);
+        try {
+            queue.put(FINAL_EVENT);
+            // The client must have processed all the samples before it is told the test ended
+            worker.join(END_TIMEOUT_MS);
+            if (worker.isAlive()) {
+                log.warn("Streamed samples have not been sent within {} ms", END_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            listener.testEnded(host);
+        } catch (Exception ex) {
+            log.warn("testEnded(host)", ex);
+        }
+        if (queueWaits.sum() > 0) {
+            log.info("QueueWaits: {}; QueueWaitTime: {} (nanoseconds)", queueWaits.sum(), queueWaitTime.sum());
+        }
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent e) {
+        try {
+            if (!queue.offer(e)) { // we failed to add the element first time
+                queueWaits.increment();
+                long t1 = System.nanoTime();
+                queue.put(e);
+                long t2 = System.nanoTime();
+                queueWaitTime.add(t2 - t1);
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            log.error("sampleOccurred; interrupted while queuing the sample", err);
+        }
+    }
+
+    private class Worker extends Thread {
+
+        private Socket socket;
+
+        private OutputStream stream;
+
+        private Deflater deflater;
+
+        private SampleStreamCodec.Encoder encoder;
+
+        private SampleRing ring;
+
+        private Worker() {
+            super("StreamingSampleSender"); // $NON-NLS-1$
+        }
+
+        @Override
+        public void run() {
+            connect();
+            try {
+                List<SampleEvent> events = new ArrayList<>();
+                boolean eof = false;
+                while (!eof) {
+                    SampleEvent e = take();
+                    // The == comparison is not an error
+                    while (e != null) {
+                        eof = e == FINAL_EVENT;
+                        if (eof) {
+                            break;
+                        }
+                        events.add(e);
+                        if (events.size() == MAX_FRAME_SAMPLES) {
+                            send(events);
+                        }
+                        e = queue.poll(); // returns null if nothing on queue currently
+                    }
+                    send(events);
+                    flush();
+                }
+                end();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+            log.debug("Worker ended");
+        }
+
+        /**
+         * @return the next sample of the queue, tells the reader of the ring that the server is alive while waiting
+         */
+        private SampleEvent take() throws InterruptedException {
+            if (ring == null) {
+                return queue.take();
+            }
+            SampleEvent e;
+            while ((e = queue.poll(HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+                ring.heartbeat();
+            }
+            return e;
+        }
+
+        private void connect() {
+            if (receiverKey == null) {
+                return;
+            }
+            if (ringDirectory != null) {
+                connectRing();
+                return;
+            }
+            try {
+                RMIClientSocketFactory factory = RmiUtils.createClientSocketFactory();
+                socket = factory == null
+                        ? new Socket(receiverHost, receiverPort)
+                        : factory.createSocket(receiverHost, receiverPort);
+                socket.setTcpNoDelay(true);
+                stream = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+                boolean compressed = isCompressed();
+                new SampleStreamCodec.Header(compressed, receiverKey).writeTo(stream);
+                if (compressed) {
+                    deflater = new Deflater(Deflater.BEST_SPEED);
+                    stream = new DeflaterOutputStream(stream, deflater, BUFFER_SIZE, true);
+                }
+                encoder = new SampleStreamCodec.Encoder(stream);
+                log.info("Streaming samples to {}:{}", receiverHost, receiverPort);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to stream samples to {}:{}, samples will be sent by RMI",
+                        receiverHost, receiverPort, e);
+                close();
+            }
+        }
+
+        private void connectRing() {
+            Path directory = Paths.get(ringDirectory);
+            if (!Files.exists(SampleRingReceiver.markerFile(directory, receiverKey))) {
+                log.warn("The client does not read samples in {}, it may run on another host, samples will be sent by RMI",
+                        directory);
+                return;
+            }
+            try {
+                ring = SampleRing.create(SampleRingReceiver.ringFile(directory, receiverKey), getRingSize());
+                stream = new BufferedOutputStream(ring.getOutputStream(END_TIMEOUT_MS), BUFFER_SIZE);
+                encoder = new SampleStreamCodec.Encoder(stream);
+                log.info("Writing samples to {}", ring);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to write samples in {}, samples will be sent by RMI", directory, e);
+                close();
+            }
+        }
+
+        private void send(List<SampleEvent> events) {
+            if (events.isEmpty()) {
+                return;
+            }
+            if (encoder != null) {
+                try {
+                    encoder.writeSamples(events);
+                    events.clear();
+                    return;
+                } catch (IOException e) {
+                    log.error("Failed to stream samples, switching to RMI", e);
+                    close();
+                }
+            }
+            try {
+                listener.processBatch(events);
+            } catch (RemoteException err) {
+                log.error("Failed to return sample", err);
+            }
+            events.clear();
+        }
+
+        private void flush() {
+            if (encoder == null) {
+                return;
+            }
+            try {
+                stream.flush();
+            } catch (IOException e) {
+                log.error("Failed to stream samples, switching to RMI", e);
+                close();
+            }
+        }
+
+        private void end() {
+            if (encoder == null) {
+                return;
+            }
+            try {
+                encoder.writeEnd();
+                if (ring != null) {
+                    if (!ring.awaitAcknowledge(END_TIMEOUT_MS)) {
+                        log.warn("The client did not acknowledge the end of the samples in {}", ring);
+                    }
+                    return;
+                }
+                socket.setSoTimeout((int) END_TIMEOUT_MS);
+                if (socket.getInputStream().read() != SampleStreamCodec.END_ACK) {
+                    log.warn("The client did not acknowledge the end of the sample stream");
+                }
+            } catch (IOException e) {
+                log.error("Failed to end the sample stream", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void close() {
+            encoder = null;
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    log.debug("Error closing the sample stream", e);
+                }
+                socket = null;
+            }
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+            if (ring != null) {
+                ring.close();
+                ring = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.save;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apiguardian.api.API;
+
+/**
+ * Layout of the binary result files written by {@link BinaryResultWriter}.
+ * <p>
+ * A file is a sequence of segments. A segment starts with a header:
+ * <pre>
+ * 'J' 'T' 'L' 'B' version:byte columnCount:varint (columnName:string)*
+ * </pre>
+ * followed by blocks of rows:
+ * <pre>
+ * BLOCK:byte payloadLength:varint rowCount:varint (column values)*
+ * </pre>
+ * Inside a block the values are stored column after column:
+ * <ul>
+ * <li>{@link ColumnType#TIMESTAMP}: zig-zag varint of the difference with the previous time stamp of the segment</li>
+ * <li>{@link ColumnType#LONG}: zig-zag varint</li>
+ * <li>{@link ColumnType#BOOLEAN}: one byte, 0 or 1</li>
+ * <li>{@link ColumnType#STRING}: varint index in the dictionary of the segment.
+ * An index equal to the current dictionary size adds a new entry, whose string follows.</li>
+ * </ul>
+ * Strings are written as a varint byte length followed by their UTF-8 bytes.
+ * Time stamps are always epoch milliseconds, whatever {@code jmeter.save.saveservice.timestamp_format} is.
+ * Appending to an existing file starts a new segment, so the dictionary and the
+ * time stamp deltas never span two segments.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class BinaryResultFormat {
+
+    private static final byte[] MAGIC = {'J', 'T', 'L', 'B'};
+
+    /** Version of the format written in segment headers */
+    public static final int VERSION = 1;
+
+    /** Tag of a block of rows */
+    public static final int BLOCK = 1;
+
+    /** How the values of a column are encoded */
+    public enum ColumnType {
+        TIMESTAMP,
+        LONG,
+        BOOLEAN,
+        STRING
+    }
+
+    private BinaryResultFormat() {
+    }
+
+    /**
+     * @param column name of the column as used by {@link CSVSaveService}
+     * @return how the values of this column are encoded
+     */
+    public static ColumnType columnType(String column) {
+        return switch (column) {
+            case CSVSaveService.TIME_STAMP -> ColumnType.TIMESTAMP;
+            case CSVSaveService.SUCCESSFUL -> ColumnType.BOOLEAN;
+            case CSVSaveService.CSV_ELAPSED, CSVSaveService.CSV_BYTES, CSVSaveService.CSV_SENT_BYTES,
+                 CSVSaveService.CSV_THREAD_COUNT1, CSVSaveService.CSV_THREAD_COUNT2,
+                 CSVSaveService.CSV_LATENCY, CSVSaveService.CSV_SAMPLE_COUNT, CSVSaveService.CSV_ERROR_COUNT,
+                 CSVSaveService.CSV_IDLETIME, CSVSaveService.CSV_CONNECT_TIME -> ColumnType.LONG;
+            default -> ColumnType.STRING;
+        };
+    }
+
+    /**
+     * @param file file to check
+     * @return true if the file starts with the header of a binary result file
+     */
+    public static boolean isBinaryFile(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return Arrays.equals(MAGIC, in.readNBytes(MAGIC.length));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static void writeMagic(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    /**
+     * Reads the end of the magic and the version, once the first byte of the magic has been read.
+     *
+     * @param in stream positioned after the first byte of a segment header
+     * @throws IOException when the header is invalid or has an unsupported version
+     */
+    public static void readMagic(InputStream in) throws IOException {
+        byte[] rest = in.readNBytes(MAGIC.length);
+        if (rest.length < MAGIC.length) {
+            throw new EOFException("Truncated segment header");
+        }
+        for (int i = 1; i < MAGIC.length; i++) {
+            if (rest[i - 1] != MAGIC[i]) {
+                throw new IOException("Invalid segment header");
+            }
+        }
+        int version = rest[MAGIC.length - 1];
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary result format version: " + version);
+        }
+    }
+
+    /**
+     * @param tag first byte of a segment or of a block
+     * @return true if this byte starts a segment header
+     */
+    public static boolean isSegmentStart(int tag) {
+        return tag == MAGIC[0];
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    /**
+     * @param in stream to read from
+     * @return the unsigned varint read from the stream
+     * @throws IOException when the stream ends in the middle of the varint
+     */
+    public static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param in stream to read from
+     * @return the string read from the stream
+     * @throws IOException when the stream ends in the middle of the string
+     */
+    public static String readString(InputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Truncated string");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param value signed value
+     * @return value mapped so that small negative numbers have small encodings
+     */
+    public static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * @param value value encoded by {@link #zigZagEncode(long)}
+     * @return the signed value
+     */
+    public static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
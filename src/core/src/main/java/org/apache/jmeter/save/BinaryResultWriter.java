@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.save;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.BinaryResultFormat.ColumnType;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes samples in the binary result format described in {@link BinaryResultFormat}.
+ * <p>
+ * The columns are the ones {@link CSVSaveService} would write for the same {@link SampleSaveConfiguration}.
+ * Rows are buffered and written column by column in blocks, so labels, thread names and
+ * response codes are dictionary encoded and time stamps are delta encoded.
+ * <p>
+ * Like {@link java.io.PrintWriter}, this class never throws {@link IOException}:
+ * check {@link #checkError()} after closing it.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class BinaryResultWriter implements Closeable, Flushable {
+    private static final Logger log = LoggerFactory.getLogger(BinaryResultWriter.class);
+
+    /** Number of rows buffered before a block is written */
+    private static final int BLOCK_SIZE = 4096;
+
+    /** A new segment, with an empty dictionary, is started once the dictionary holds more entries */
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    /** Same limit as {@link CSVSaveService} */
+    private static final int MAX_SUBRESULT_DEPTH = 10;
+
+    private record Column(
+            String name,
+            ColumnType type,
+            ToLongFunction<SampleResult> longValue,
+            BiFunction<SampleEvent, SampleResult, String> stringValue) {
+
+        static Column ofLong(String name, ToLongFunction<SampleResult> value) {
+            return new Column(name, BinaryResultFormat.columnType(name), value, null);
+        }
+
+        static Column ofString(String name, BiFunction<SampleEvent, SampleResult, String> value) {
+            return new Column(name, ColumnType.STRING, null, value);
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final OutputStream out;
+    private final boolean saveSubresults;
+    private final Column[] columns;
+
+    // Rows of the current block, column by column
+    private final long[][] longValues;
+    private final String[][] stringValues;
+    private int rows;
+
+    // State of the current segment
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long lastTimestamp;
+    private boolean segmentStarted;
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(64 * 1024);
+    private boolean error;
+
+    /**
+     * @param out        stream to write to, it is closed by {@link #close()}
+     * @param saveConfig configuration that selects the columns to write
+     */
+    public BinaryResultWriter(OutputStream out, SampleSaveConfiguration saveConfig) {
+        this.out = out;
+        this.saveSubresults = saveConfig.saveSubresults();
+        this.columns = createColumns(saveConfig);
+        this.longValues = new long[columns.length][];
+        this.stringValues = new String[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].type() == ColumnType.STRING) {
+                stringValues[i] = new String[BLOCK_SIZE];
+            } else {
+                longValues[i] = new long[BLOCK_SIZE];
+            }
+        }
+    }
+
+    // Same columns, in the same order, as CSVSaveService#resultToDelimitedString
+    private static Column[] createColumns(SampleSaveConfiguration saveConfig) {
+        List<Column> columns = new ArrayList<>();
+        if (saveConfig.saveTimestamp()) {
+            columns.add(Column.ofLong(CSVSaveService.TIME_STAMP, SampleResult::getTimeStamp));
+        }
+        if (saveConfig.saveTime()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_ELAPSED, SampleResult::getTime));
+        }
+        if (saveConfig.saveLabel()) {
+            columns.add(Column.ofString(CSVSaveService.LABEL, (e, r) -> r.getSampleLabel()));
+        }
+        if (saveConfig.saveCode()) {
+            columns.add(Column.ofString(CSVSaveService.RESPONSE_CODE, (e, r) -> r.getResponseCode()));
+        }
+        if (saveConfig.saveMessage()) {
+            columns.add(Column.ofString(CSVSaveService.RESPONSE_MESSAGE, (e, r) -> r.getResponseMessage()));
+        }
+        if (saveConfig.saveThreadName()) {
+            columns.add(Column.ofString(CSVSaveService.THREAD_NAME, (e, r) -> r.getThreadName()));
+        }
+        if (saveConfig.saveDataType()) {
+            columns.add(Column.ofString(CSVSaveService.DATA_TYPE, (e, r) -> r.getDataType()));
+        }
+        if (saveConfig.saveSuccess()) {
+            columns.add(Column.ofLong(CSVSaveService.SUCCESSFUL, r -> r.isSuccessful() ? 1 : 0));
+        }
+        if (saveConfig.saveAssertionResultsFailureMessage()) {
+            columns.add(Column.ofString(CSVSaveService.FAILURE_MESSAGE, (e, r) -> r.getFirstAssertionFailureMessage()));
+        }
+        if (saveConfig.saveBytes()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_BYTES, SampleResult::getBytesAsLong));
+        }
+        if (saveConfig.saveSentBytes()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_SENT_BYTES, SampleResult::getSentBytes));
+        }
+        if (saveConfig.saveThreadCounts()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_THREAD_COUNT1, SampleResult::getGroupThreads));
+            columns.add(Column.ofLong(CSVSaveService.CSV_THREAD_COUNT2, SampleResult::getAllThreads));
+        }
+        if (saveConfig.saveUrl()) {
+            columns.add(Column.ofString(CSVSaveService.CSV_URL,
+                    (e, r) -> r.getURL() == null ? null : r.getURL().toString()));
+        }
+        if (saveConfig.saveFileName()) {
+            columns.add(Column.ofString(CSVSaveService.CSV_FILENAME, (e, r) -> r.getResultFileName()));
+        }
+        if (saveConfig.saveLatency()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_LATENCY, SampleResult::getLatency));
+        }
+        if (saveConfig.saveEncoding()) {
+            columns.add(Column.ofString(CSVSaveService.CSV_ENCODING, (e, r) -> r.getDataEncodingWithDefault()));
+        }
+        if (saveConfig.saveSampleCount()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_SAMPLE_COUNT, SampleResult::getSampleCount));
+            columns.add(Column.ofLong(CSVSaveService.CSV_ERROR_COUNT, SampleResult::getErrorCount));
+        }
+        if (saveConfig.saveHostname()) {
+            columns.add(Column.ofString(CSVSaveService.CSV_HOSTNAME, (e, r) -> e.getHostname()));
+        }
+        if (saveConfig.saveIdleTime()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_IDLETIME, SampleResult::getIdleTime));
+        }
+        if (saveConfig.saveConnectTime()) {
+            columns.add(Column.ofLong(CSVSaveService.CSV_CONNECT_TIME, SampleResult::getConnectTime));
+        }
+        if (saveConfig.saveTlsSessionResumed()) {
+            columns.add(Column.ofString(CSVSaveService.CSV_TLS_SESSION_RESUMED,
+                    (e, r) -> r.isTlsHandshake() ? Boolean.toString(r.isTlsSessionResumed()) : ""));
+        }
+        for (int i = 0; i < SampleEvent.getVarCount(); i++) {
+            final int varIndex = i;
+            columns.add(Column.ofString(SampleEvent.getVarName(i), (e, r) -> e.getVarValue(varIndex)));
+        }
+        return columns.toArray(new Column[0]);
+    }
+
+    /**
+     * Adds the sample, and its sub-results if they are saved, to the current block.
+     *
+     * @param event the sample to write
+     */
+    public void write(SampleEvent event) {
+        lock.lock();
+        try {
+            addRow(event, event.getResult());
+            if (saveSubresults) {
+                addSubResults(event, event.getResult(), 0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addSubResults(SampleEvent event, SampleResult result, int recursionLevel) {
+        if (recursionLevel > MAX_SUBRESULT_DEPTH) {
+            return;
+        }
+        for (SampleResult subResult : result.getSubResults()) {
+            addRow(event, subResult);
+            addSubResults(event, subResult, recursionLevel + 1);
+        }
+    }
+
+    private void addRow(SampleEvent event, SampleResult result) {
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            if (column.type() == ColumnType.STRING) {
+                stringValues[i][rows] = column.stringValue().apply(event, result);
+            } else {
+                longValues[i][rows] = column.longValue().applyAsLong(result);
+            }
+        }
+        rows++;
+        if (rows == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() {
+        if (rows == 0 || error) {
+            rows = 0;
+            return;
+        }
+        try {
+            if (!segmentStarted || dictionary.size() > MAX_DICTIONARY_SIZE) {
+                startSegment();
+            }
+            block.reset();
+            BinaryResultFormat.writeVarLong(block, rows);
+            for (int i = 0; i < columns.length; i++) {
+                writeColumn(i);
+            }
+            out.write(BinaryResultFormat.BLOCK);
+            BinaryResultFormat.writeVarLong(out, block.size());
+            block.writeTo(out);
+        } catch (IOException e) {
+            error = true;
+            log.error("Error writing binary results", e);
+        } finally {
+            rows = 0;
+        }
+    }
+
+    private void startSegment() throws IOException {
+        dictionary.clear();
+        lastTimestamp = 0;
+        BinaryResultFormat.writeMagic(out);
+        BinaryResultFormat.writeVarLong(out, columns.length);
+        for (Column column : columns) {
+            BinaryResultFormat.writeString(out, column.name());
+        }
+        segmentStarted = true;
+    }
+
+    private void writeColumn(int column) throws IOException {
+        switch (columns[column].type()) {
+            case TIMESTAMP -> {
+                long[] values = longValues[column];
+                for (int row = 0; row < rows; row++) {
+                    BinaryResultFormat.writeVarLong(block, BinaryResultFormat.zigZagEncode(values[row] - lastTimestamp));
+                    lastTimestamp = values[row];
+                }
+            }
+            case LONG -> {
+                long[] values = longValues[column];
+                for (int row = 0; row < rows; row++) {
+                    BinaryResultFormat.writeVarLong(block, BinaryResultFormat.zigZagEncode(values[row]));
+                }
+            }
+            case BOOLEAN -> {
+                long[] values = longValues[column];
+                for (int row = 0; row < rows; row++) {
+                    block.write(values[row] != 0 ? 1 : 0);
+                }
+            }
+            case STRING -> {
+                String[] values = stringValues[column];
+                for (int row = 0; row < rows; row++) {
+                    writeDictionaryEntry(values[row]);
+                    values[row] = null; // Don't keep references to the samples
+                }
+            }
+        }
+    }
+
+    private void writeDictionaryEntry(String value) throws IOException {
+        String key = value == null ? "" : value;
+        Integer id = dictionary.get(key);
+        if (id != null) {
+            BinaryResultFormat.writeVarLong(block, id);
+            return;
+        }
+        int newId = dictionary.size();
+        dictionary.put(key, newId);
+        BinaryResultFormat.writeVarLong(block, newId);
+        BinaryResultFormat.writeString(block, key);
+    }
+
+    /**
+     * Writes the buffered rows as a block and flushes the underlying stream.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            writeBlock();
+            out.flush();
+        } catch (IOException e) {
+            error = true;
+            log.error("Error flushing binary results", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered rows and closes the underlying stream.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            writeBlock();
+            out.close();
+        } catch (IOException e) {
+            error = true;
+            log.error("Error closing binary results", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if an error occurred while writing
+     */
+    public boolean checkError() {
+        lock.lock();
+        try {
+            return error;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -106,6 +106,7 @@ public final class CSVSaveService {
     public static final String CSV_ENCODING = "Encoding"; // $NON-NLS-1$
     public static final String CSV_HOSTNAME = "Hostname"; // $NON-NLS-1$
     public static final String CSV_IDLETIME = "IdleTime"; // $NON-NLS-1$
+    public static final String CSV_TLS_SESSION_RESUMED = "TLSSessionResumed"; // $NON-NLS-1$
 
     // Used to enclose variable name labels, to distinguish from any of the
     // above labels
@@ -383,6 +384,14 @@ public final class CSVSaveService {
                 text = parts[i++];
                 result.setConnectTime(Long.parseLong(text));
             }
+            if (saveConfig.saveTlsSessionResumed()) {
+                field = CSV_TLS_SESSION_RESUMED;
+                text = parts[i++];
+                // Empty when the sample did not make a TLS handshake
+                if (!text.isEmpty()) {
+                    result.setTlsHandshake(Boolean.parseBoolean(text));
+                }
+            }
 
             if (i + saveConfig.getVarCount() < parts.length) {
                 log.warn("Line: {}. Found {} fields, expected {}. Extra fields have been ignored.", lineNumber,
@@ -442,6 +451,7 @@ public final class CSVSaveService {
         appendFields(saveConfig.saveHostname(), text, delim, CSV_HOSTNAME);
         appendFields(saveConfig.saveIdleTime(), text, delim, CSV_IDLETIME);
         appendFields(saveConfig.saveConnectTime(), text, delim, CSV_CONNECT_TIME);
+        appendFields(saveConfig.saveTlsSessionResumed(), text, delim, CSV_TLS_SESSION_RESUMED);
 
         for (int i = 0; i < SampleEvent.getVarCount(); i++) {
             text.append(VARIABLE_NAME_QUOTE_CHAR);
@@ -508,6 +518,7 @@ public final class CSVSaveService {
         headerLabelMethods.put(CSV_HOSTNAME, new Functor("setHostname"));
         headerLabelMethods.put(CSV_IDLETIME, new Functor("setIdleTime"));
         headerLabelMethods.put(CSV_CONNECT_TIME, new Functor("setConnectTime"));
+        headerLabelMethods.put(CSV_TLS_SESSION_RESUMED, new Functor("setTlsSessionResumed"));
         int pos = 0;
         for (String key : headerLabelMethods.keySet()) {
             headerLabelPositions.put(key, pos++);
@@ -769,11 +780,34 @@ public final class CSVSaveService {
                 .getDelimiter());
     }
 
+    /**
+     * Receives the columns of a result, in the order of the header of the result file.
+     */
+    abstract static class ColumnWriter {
+        public abstract void append(String s);
+
+        public void append(Object obj) {
+            append(String.valueOf(obj));
+        }
+
+        public void append(int i) {
+            append(Integer.toString(i));
+        }
+
+        public void append(long l) {
+            append(Long.toString(l));
+        }
+
+        public void append(boolean b) {
+            append(Boolean.toString(b));
+        }
+    }
+
     /**
      * Class to handle generating the delimited string. - adds the delimiter
      * if not the first call - quotes any strings that require it
      */
-    static final class StringQuoter {
+    static final class StringQuoter extends ColumnWriter {
         private final StringBuilder sb;
         private final char[] specials;
         private boolean addDelim;
@@ -795,27 +829,27 @@ public final class CSVSaveService {
 
         // These methods handle parameters that could contain delimiters or
         // quotes:
+        @Override
         public void append(String s) {
             addDelim();
             sb.append(quoteDelimiters(s, specials));
         }
 
-        public void append(Object obj) {
-            append(String.valueOf(obj));
-        }
-
         // These methods handle parameters that cannot contain delimiters or
         // quotes
+        @Override
         public void append(int i) {
             addDelim();
             sb.append(i);
         }
 
+        @Override
         public void append(long l) {
             addDelim();
             sb.append(l);
         }
 
+        @Override
         public void append(boolean b) {
             addDelim();
             sb.append(b);
@@ -827,6 +861,19 @@ public final class CSVSaveService {
         }
     }
 
+    /**
+     * Collects the columns as they are read back from a result file, without quoting them.
+     */
+    private static final class ColumnCollector extends ColumnWriter {
+        private final List<String> columns = new ArrayList<>();
+
+        @Override
+        public void append(String s) {
+            // StringQuoter writes null as "null"
+            columns.add(String.valueOf(s));
+        }
+    }
+
     /**
      * Convert a result into a string, where the fields of the result are
      * separated by a specified String.
@@ -854,12 +901,36 @@ public final class CSVSaveService {
      *            the separation string
      * @return the separated value representation of the result
      */
-    @SuppressWarnings("JavaUtilDate")
     public static String resultToDelimitedString(SampleEvent event,
             SampleResult sample,
             SampleSaveConfiguration saveConfig,
             final String delimiter) {
         StringQuoter text = new StringQuoter(delimiter.charAt(0));
+        appendColumns(text, event, sample, saveConfig);
+        return text.toString();
+    }
+
+    /**
+     * Convert a result into the columns of a result file, as they are read back
+     * from the file by {@link #csvSplitString(String, char)}, in the order of
+     * {@link #printableFieldNamesToString(SampleSaveConfiguration)}.
+     *
+     * @param event the sample event to be converted
+     * @param sample {@link SampleResult} to convert
+     * @param saveConfig {@link SampleSaveConfiguration} selecting the columns
+     * @return the columns of the result
+     * @since 6.0
+     */
+    public static String[] resultToColumns(SampleEvent event, SampleResult sample,
+            SampleSaveConfiguration saveConfig) {
+        ColumnCollector columns = new ColumnCollector();
+        appendColumns(columns, event, sample, saveConfig);
+        return columns.columns.toArray(new String[0]);
+    }
+
+    @SuppressWarnings("JavaUtilDate")
+    private static void appendColumns(ColumnWriter text, SampleEvent event, SampleResult sample,
+            SampleSaveConfiguration saveConfig) {
         if (saveConfig.saveTimestamp()) {
             if (saveConfig.printMilliseconds()) {
                 text.append(sample.getTimeStamp());
@@ -954,11 +1025,13 @@ public final class CSVSaveService {
             text.append(sample.getConnectTime());
         }
 
+        if (saveConfig.saveTlsSessionResumed()) {
+            text.append(sample.isTlsHandshake() ? Boolean.toString(sample.isTlsSessionResumed()) : "");
+        }
+
         for (int i = 0; i < SampleEvent.getVarCount(); i++) {
             text.append(event.getVarValue(i));
         }
-
-        return text.toString();
     }
 
     // =================================== CSV quote/unquote handling
@@ -1169,7 +1242,17 @@ public final class CSVSaveService {
      * @param out {@link PrintWriter} to which samples will be written
      */
     public static void saveSampleResult(SampleEvent event, PrintWriter out) {
-        SampleSaveConfiguration saveConfiguration = event.getResult().getSaveConfig();
+        saveSampleResult(event, event.getResult().getSaveConfig(), out);
+    }
+
+    /**
+     * @param event {@link SampleEvent}
+     * @param saveConfiguration {@link SampleSaveConfiguration} to use instead of the one of the sample result
+     * @param out {@link PrintWriter} to which samples will be written
+     * @since 6.0
+     */
+    public static void saveSampleResult(SampleEvent event, SampleSaveConfiguration saveConfiguration,
+            PrintWriter out) {
         String delimiter = saveConfiguration.getDelimiter();
         String formattedResult = resultToDelimitedString(event, event.getResult(), saveConfiguration, delimiter);
         out.println(formattedResult);
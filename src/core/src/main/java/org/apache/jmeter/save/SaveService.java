@@ -40,6 +40,7 @@ import java.util.Properties;
 import org.apache.jmeter.reporters.ResultCollectorHelper;
 import org.apache.jmeter.samplers.SampleEvent;
 import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.util.NameUpdater;
 import org.apache.jorphan.collections.HashTree;
@@ -74,6 +75,8 @@ public class SaveService {
     // Names of DataHolder entries for JTL processing
     public static final String SAMPLE_EVENT_OBJECT = "SampleEvent"; // $NON-NLS-1$
     public static final String RESULTCOLLECTOR_HELPER_OBJECT = "ResultCollectorHelper"; // $NON-NLS-1$
+    /** @since 6.0 */
+    public static final String SAMPLE_SAVE_CONFIG_OBJECT = "SampleSaveConfiguration"; // $NON-NLS-1$
 
     // Names of DataHolder entries for JMX processing
     public static final String TEST_CLASS_NAME = "TestClassName"; // $NON-NLS-1$
@@ -344,9 +347,24 @@ public class SaveService {
      * @throws IOException when writing data to output fails
      */
     // Used by ResultCollector.sampleOccurred(SampleEvent event)
-    public static synchronized void saveSampleResult(SampleEvent evt, Writer writer) throws IOException {
+    public static void saveSampleResult(SampleEvent evt, Writer writer) throws IOException {
+        saveSampleResult(evt, evt.getResult().getSaveConfig(), writer);
+    }
+
+    /**
+     * Save a sampleResult to an XML output file using XStream.
+     *
+     * @param evt sampleResult wrapped in a sampleEvent
+     * @param config configuration to use instead of the one of the sample result and its sub-results
+     * @param writer output stream which must be created using {@link #getFileEncoding(String)}
+     * @throws IOException when writing data to output fails
+     * @since 6.0
+     */
+    public static synchronized void saveSampleResult(SampleEvent evt, SampleSaveConfiguration config, Writer writer)
+            throws IOException {
         DataHolder dh = JTLSAVER.newDataHolder();
         dh.put(SAMPLE_EVENT_OBJECT, evt);
+        dh.put(SAMPLE_SAVE_CONFIG_OBJECT, config);
         // This is effectively the same as saver.toXML(Object, Writer) except we get to provide the DataHolder
         // Don't know why there is no method for this in the XStream class
         try {
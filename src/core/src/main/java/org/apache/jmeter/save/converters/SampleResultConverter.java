@@ -89,6 +89,7 @@ public class SampleResultConverter extends AbstractCollectionConverter {
     private static final String ATT_TIME              = "t";  //$NON-NLS-1$
     private static final String ATT_IDLETIME          = "it"; //$NON-NLS-1$
     private static final String ATT_THREADNAME        = "tn"; //$NON-NLS-1$
+    private static final String ATT_TLS_SESSION_RESUMED = "tr"; //$NON-NLS-1$
     private static final String ATT_TIME_STAMP        = "ts"; //$NON-NLS-1$
 
     /**
@@ -111,7 +112,7 @@ public class SampleResultConverter extends AbstractCollectionConverter {
     @Override
     public void marshal(Object obj, HierarchicalStreamWriter writer, MarshallingContext context) {
         SampleResult res = (SampleResult) obj;
-        SampleSaveConfiguration save = res.getSaveConfig();
+        SampleSaveConfiguration save = getSaveConfig(context, res);
         setAttributes(writer, context, res, save);
         saveAssertions(writer, context, res, save);
         saveSubResults(writer, context, res, save);
@@ -121,6 +122,17 @@ public class SampleResultConverter extends AbstractCollectionConverter {
         saveSamplerData(writer, context, res, save);
     }
 
+    /**
+     * @param context context for xstream, which might hold the configuration to use
+     * @param res sample to be saved
+     * @return configuration of the context if set, otherwise the one of the sample result
+     * @since 6.0
+     */
+    protected static SampleSaveConfiguration getSaveConfig(MarshallingContext context, SampleResult res) {
+        SampleSaveConfiguration save = (SampleSaveConfiguration) context.get(SaveService.SAMPLE_SAVE_CONFIG_OBJECT);
+        return save != null ? save : res.getSaveConfig();
+    }
+
     /**
      * Save the data of the sample result to a stream
      *
@@ -237,8 +249,11 @@ public class SampleResultConverter extends AbstractCollectionConverter {
             SampleSaveConfiguration save) {
         if (save.saveSubresults()) {
             SampleResult[] subResults = res.getSubResults();
+            boolean configInContext = context.get(SaveService.SAMPLE_SAVE_CONFIG_OBJECT) != null;
             for (SampleResult subResult : subResults) {
-                subResult.setSaveConfig(save);
+                if (!configInContext) {
+                    subResult.setSaveConfig(save);
+                }
                 writeCompleteItem(subResult, context, writer);
             }
         }
@@ -292,6 +307,10 @@ public class SampleResultConverter extends AbstractCollectionConverter {
         if (save.saveConnectTime()) {
             writer.addAttribute(ATT_CONNECT_TIME, Long.toString(res.getConnectTime()));
         }
+        // Only when the sample made a handshake
+        if (save.saveTlsSessionResumed() && res.isTlsHandshake()) {
+            writer.addAttribute(ATT_TLS_SESSION_RESUMED, Boolean.toString(res.isTlsSessionResumed()));
+        }
         if (save.saveTimestamp()) {
             writer.addAttribute(ATT_TIME_STAMP, Long.toString(res.getTimeStamp()));
         }
@@ -448,6 +467,10 @@ public class SampleResultConverter extends AbstractCollectionConverter {
         res.setIdleTime(Converter.getLong(reader.getAttribute(ATT_IDLETIME)));
         res.setLatency(Converter.getLong(reader.getAttribute(ATT_LATENCY)));
         res.setConnectTime(Converter.getLong(reader.getAttribute(ATT_CONNECT_TIME)));
+        String tlsSessionResumed = reader.getAttribute(ATT_TLS_SESSION_RESUMED);
+        if (tlsSessionResumed != null) {
+            res.setTlsHandshake(Boolean.parseBoolean(tlsSessionResumed));
+        }
         res.setBytes(Converter.getLong(reader.getAttribute(ATT_BYTES)));
         res.setSentBytes(Converter.getLong(reader.getAttribute(ATT_SENT_BYTES)));
         res.setSampleCount(Converter.getInt(reader.getAttribute(ATT_SAMPLE_COUNT),1)); // default is 1
@@ -62,6 +62,8 @@ public class SampleSaveConfigurationConverter  extends ReflectionConverter {
     private static final String NODE_SAMPLE_COUNT = "sampleCount"; // $NON-NLS-1$
     private static final String NODE_IDLE_TIME = "idleTime"; // $NON-NLS-1$
     private static final String NODE_CONNECT_TIME = "connectTime"; // $NON-NLS-1$
+    private static final String NODE_BINARY = "binary"; // $NON-NLS-1$
+    private static final String NODE_TLS_SESSION_RESUMED = "tlsSessionResumed"; // $NON-NLS-1$
 
     // Additional member names which are currently not written out
     private static final String NODE_DELIMITER = "delimiter"; // $NON-NLS-1$
@@ -87,7 +89,7 @@ public class SampleSaveConfigurationConverter  extends ReflectionConverter {
             return switch (fieldName) {
                 case NODE_BYTES, NODE_SENT_BYTES, NODE_URL, NODE_FILENAME,
                      NODE_HOSTNAME, NODE_THREAD_COUNT, NODE_SAMPLE_COUNT,
-                     NODE_IDLE_TIME, NODE_CONNECT_TIME,
+                     NODE_IDLE_TIME, NODE_CONNECT_TIME, NODE_BINARY, NODE_TLS_SESSION_RESUMED,
                      // The two fields below are not currently saved or restored
                      NODE_DELIMITER, NODE_PRINTMS -> false;
                 default -> true;
@@ -133,6 +135,8 @@ public class SampleSaveConfigurationConverter  extends ReflectionConverter {
         createNode(writer,prop.saveSampleCount(),NODE_SAMPLE_COUNT);
         createNode(writer,prop.saveIdleTime(),NODE_IDLE_TIME);
         createNode(writer, prop.saveConnectTime(), NODE_CONNECT_TIME);
+        createNode(writer, prop.saveAsBinary(), NODE_BINARY);
+        createNode(writer, prop.saveTlsSessionResumed(), NODE_TLS_SESSION_RESUMED);
     }
 
     // Helper method to simplify marshall routine. Save if and only if true.
@@ -34,7 +34,11 @@ import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.jmeter.gui.JMeterFileFilter;
 import org.apache.jmeter.save.CSVSaveService;
@@ -77,6 +81,16 @@ public class FileServer {
 
     private final Map<String, FileEntry> files = new HashMap<>();
 
+    // Guards base and files. A ReentrantLock rather than a monitor, so that
+    // virtual threads blocked on file I/O do not pin their carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Indexed files, shared by all the aliases reading the same file with the same settings */
+    private final Map<String, IndexedCsvFile> indexedFiles = new ConcurrentHashMap<>();
+
+    /** Read position of each alias reserved with {@link #reserveIndexedFile} */
+    private final Map<String, IndexedCursor> indexedCursors = new ConcurrentHashMap<>();
+
     private static final FileServer server = new FileServer();
 
     // volatile needed to ensure safe publication
@@ -98,10 +112,15 @@ public class FileServer {
     /**
      * Resets the current base to DEFAULT_BASE.
      */
-    public synchronized void resetBase() {
-        checkForOpenFiles();
-        base = new File(DEFAULT_BASE);
-        log.info("Reset base to '{}'", base);
+    public void resetBase() {
+        lock.lock();
+        try {
+            checkForOpenFiles();
+            base = new File(DEFAULT_BASE);
+            log.info("Reset base to '{}'", base);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -112,15 +131,20 @@ public class FileServer {
      * @param basedir the path to set, or {@code null} if the GUI is being cleared
      * @throws IllegalStateException if files are still open
      */
-    public synchronized void setBasedir(String basedir) {
-        checkForOpenFiles(); // TODO should this be called if basedir == null?
-        if (basedir != null) {
-            File newBase = new File(basedir);
-            if (!newBase.isDirectory()) {
-                newBase = newBase.getParentFile();
+    public void setBasedir(String basedir) {
+        lock.lock();
+        try {
+            checkForOpenFiles(); // TODO should this be called if basedir == null?
+            if (basedir != null) {
+                File newBase = new File(basedir);
+                if (!newBase.isDirectory()) {
+                    newBase = newBase.getParentFile();
+                }
+                base = newBase;
+                log.info("Set new base='{}'", base);
             }
-            base = newBase;
-            log.info("Set new base='{}'", base);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -133,13 +157,18 @@ public class FileServer {
      * @throws IllegalStateException if files are still open
      * @throws IllegalArgumentException if scriptPath parameter is null
      */
-    public synchronized void setBaseForScript(File scriptPath) {
-        if (scriptPath == null){
-            throw new IllegalArgumentException("scriptPath must not be null");
+    public void setBaseForScript(File scriptPath) {
+        lock.lock();
+        try {
+            if (scriptPath == null){
+                throw new IllegalArgumentException("scriptPath must not be null");
+            }
+            setScriptName(scriptPath.getName());
+            // getParentFile() may not work on relative paths
+            setBase(scriptPath.getAbsoluteFile().getParentFile());
+        } finally {
+            lock.unlock();
         }
-        setScriptName(scriptPath.getName());
-        // getParentFile() may not work on relative paths
-        setBase(scriptPath.getAbsoluteFile().getParentFile());
     }
 
     /**
@@ -149,13 +178,18 @@ public class FileServer {
      * @throws IllegalStateException if files are still open
      * @throws IllegalArgumentException if {@code basepath} is null
      */
-    public synchronized void setBase(File jmxBase) {
-        if (jmxBase == null) {
-            throw new IllegalArgumentException("jmxBase must not be null");
+    public void setBase(File jmxBase) {
+        lock.lock();
+        try {
+            if (jmxBase == null) {
+                throw new IllegalArgumentException("jmxBase must not be null");
+            }
+            checkForOpenFiles();
+            base = jmxBase;
+            log.info("Set new base='{}'", base);
+        } finally {
+            lock.unlock();
         }
-        checkForOpenFiles();
-        base = jmxBase;
-        log.info("Set new base='{}'", base);
     }
 
     /**
@@ -173,8 +207,13 @@ public class FileServer {
         files.clear(); // tidy up any unused entries
     }
 
-    public synchronized String getBaseDir() {
-        return base.getAbsolutePath();
+    public String getBaseDir() {
+        lock.lock();
+        try {
+            return base.getAbsolutePath();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public static String getDefaultBase(){
@@ -187,26 +226,31 @@ public class FileServer {
      *
      * @return the relative path, or {@code "."} if the path cannot be determined
      */
-    public synchronized File getBaseDirRelative() {
-        // Must first convert to absolute path names to ensure parents are available
-        File parent = new File(DEFAULT_BASE).getAbsoluteFile();
-        File f = base.getAbsoluteFile();
-        ArrayDeque<String> l = new ArrayDeque<>();
-        while (f != null) {
-            if (f.equals(parent)){
-                if (l.isEmpty()){
-                    break;
-                }
-                File rel = new File(l.pop());
-                while(!l.isEmpty()) {
-                    rel = new File(rel, l.pop());
+    public File getBaseDirRelative() {
+        lock.lock();
+        try {
+            // Must first convert to absolute path names to ensure parents are available
+            File parent = new File(DEFAULT_BASE).getAbsoluteFile();
+            File f = base.getAbsoluteFile();
+            ArrayDeque<String> l = new ArrayDeque<>();
+            while (f != null) {
+                if (f.equals(parent)){
+                    if (l.isEmpty()){
+                        break;
+                    }
+                    File rel = new File(l.pop());
+                    while(!l.isEmpty()) {
+                        rel = new File(rel, l.pop());
+                    }
+                    return rel;
                 }
-                return rel;
+                l.push(f.getName());
+                f = f.getParentFile();
             }
-            l.push(f.getName());
-            f = f.getParentFile();
+            return new File(".");
+        } finally {
+            lock.unlock();
         }
-        return new File(".");
     }
 
     /**
@@ -253,38 +297,162 @@ public class FileServer {
      * @return the header line; may be null
      * @throws IllegalArgumentException if header could not be read or filename is null or empty
      */
-    public synchronized String reserveFile(String filename, String charsetName, String alias, boolean hasHeader) {
+    public String reserveFile(String filename, String charsetName, String alias, boolean hasHeader) {
+        lock.lock();
+        try {
+            if (StringUtilities.isEmpty(filename)){
+                throw new IllegalArgumentException("Filename must not be null or empty");
+            }
+            if (alias == null){
+                throw new IllegalArgumentException("Alias must not be null");
+            }
+            FileEntry fileEntry = files.get(alias);
+            if (fileEntry == null) {
+                fileEntry = new FileEntry(resolveFileFromPath(filename), null, charsetName);
+                if (filename.equals(alias)){
+                    log.info("Stored: {}", filename);
+                } else {
+                    log.info("Stored: {} Alias: {}", filename, alias);
+                }
+                files.put(alias, fileEntry);
+                if (hasHeader) {
+                    try {
+                        fileEntry.headerLine = readLine(alias, false);
+                        if (fileEntry.headerLine == null) {
+                            fileEntry.exception = new EOFException("File is empty: " + fileEntry.file);
+                        }
+                    } catch (IOException | IllegalArgumentException e) {
+                        fileEntry.exception = e;
+                    }
+                }
+            }
+            if (hasHeader && fileEntry.headerLine == null) {
+                throw new IllegalArgumentException("Could not read file header line for file " + filename,
+                        fileEntry.exception);
+            }
+            return fileEntry.headerLine;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates an association between a filename and a memory-mapped, indexed view of the file,
+     * and stores it for later use - unless it is already stored.
+     * <p>
+     * Records of an indexed file are read with {@link #readIndexedLine(String, boolean)},
+     * which does not take any lock: threads sharing the alias claim the next record
+     * with an atomic counter. The file is mapped and indexed once, whatever the number of aliases using it.
+     * <p>
+     * When the file cannot be indexed, for instance because its charset is not supported,
+     * it is reserved with {@link #reserveFile(String, String, String, boolean)} instead,
+     * which can be checked with {@link #isIndexed(String)}.
+     *
+     * @param filename - relative (to base) or absolute file name (must not be null or empty)
+     * @param charsetName - the character set encoding to use for the file (may be null)
+     * @param alias - the name to be used to access the object (must not be null)
+     * @param hasHeader true if the file has a header line describing the contents
+     * @param quoted true if records may contain quoted fields spanning several lines
+     * @return the header line; may be null
+     * @throws IllegalArgumentException if header could not be read or filename is null or empty
+     * @since 6.0
+     */
+    public String reserveIndexedFile(String filename, String charsetName, String alias,
+            boolean hasHeader, boolean quoted) {
         if (StringUtilities.isEmpty(filename)){
             throw new IllegalArgumentException("Filename must not be null or empty");
         }
         if (alias == null){
             throw new IllegalArgumentException("Alias must not be null");
         }
-        FileEntry fileEntry = files.get(alias);
-        if (fileEntry == null) {
-            fileEntry = new FileEntry(resolveFileFromPath(filename), null, charsetName);
-            if (filename.equals(alias)){
-                log.info("Stored: {}", filename);
-            } else {
-                log.info("Stored: {} Alias: {}", filename, alias);
-            }
-            files.put(alias, fileEntry);
-            if (hasHeader) {
-                try {
-                    fileEntry.headerLine = readLine(alias, false);
-                    if (fileEntry.headerLine == null) {
-                        fileEntry.exception = new EOFException("File is empty: " + fileEntry.file);
+        IndexedCursor cursor = indexedCursors.get(alias);
+        if (cursor == null) {
+            lock.lock();
+            try {
+                cursor = indexedCursors.get(alias);
+                if (cursor == null) {
+                    if (files.containsKey(alias)) {
+                        // Already reserved as a plain file
+                        return reserveFile(filename, charsetName, alias, hasHeader);
+                    }
+                    IndexedCsvFile indexedFile = getIndexedFile(resolveFileFromPath(filename), charsetName, quoted);
+                    if (indexedFile == null) {
+                        log.info("Could not index {}, reading it sequentially", filename);
+                        return reserveFile(filename, charsetName, alias, hasHeader);
                     }
-                } catch (IOException | IllegalArgumentException e) {
-                    fileEntry.exception = e;
+                    if (filename.equals(alias)){
+                        log.info("Stored indexed: {}", filename);
+                    } else {
+                        log.info("Stored indexed: {} Alias: {}", filename, alias);
+                    }
+                    cursor = new IndexedCursor(indexedFile, hasHeader);
+                    indexedCursors.put(alias, cursor);
                 }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (hasHeader) {
+            if (cursor.file.getRecordCount() == 0) {
+                throw new IllegalArgumentException("Could not read file header line for file " + filename,
+                        new EOFException("File is empty: " + filename));
+            }
+            return cursor.file.getRecord(0);
+        }
+        return null;
+    }
+
+    private IndexedCsvFile getIndexedFile(File file, String charsetName, boolean quoted) {
+        if (!file.canRead() || !file.isFile()) {
+            // Let reserveFile report the error the usual way
+            return null;
+        }
+        String key = file.getAbsolutePath() + "|" + Objects.toString(charsetName, "") + "|" + quoted;
+        IndexedCsvFile indexedFile = indexedFiles.get(key);
+        if (indexedFile == null) {
+            try {
+                indexedFile = IndexedCsvFile.open(file, charsetName, quoted);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not index {}", file, e);
+                return null;
             }
+            if (indexedFile == null) {
+                return null;
+            }
+            log.info("Indexed {} records of {}", indexedFile.getRecordCount(), file);
+            indexedFiles.put(key, indexedFile);
         }
-        if (hasHeader && fileEntry.headerLine == null) {
-            throw new IllegalArgumentException("Could not read file header line for file " + filename,
-                    fileEntry.exception);
+        return indexedFile;
+    }
+
+    /**
+     * @param alias the file name or alias
+     * @return true if the alias was reserved with {@link #reserveIndexedFile} and the file could be indexed
+     * @since 6.0
+     */
+    public boolean isIndexed(String alias) {
+        return indexedCursors.containsKey(alias);
+    }
+
+    /**
+     * Get the next record of a file reserved with {@link #reserveIndexedFile}.
+     * The header line, if any, is skipped.
+     * This method does not take any lock.
+     *
+     * @param alias the file name or alias that was used to reserve the file
+     * @param recycle - should file be restarted at EOF?
+     * @return the next record, without its line break (null if EOF reached and not recycle)
+     * @throws IOException when the file was not reserved properly
+     * @since 6.0
+     */
+    public String readIndexedLine(String alias, boolean recycle) throws IOException {
+        IndexedCursor cursor = indexedCursors.get(alias);
+        if (cursor == null) {
+            throw new IOException("File never reserved: "+alias);
         }
-        return fileEntry.headerLine;
+        String line = cursor.next(recycle);
+        log.debug("Read:{}", line);
+        return line;
     }
 
     /**
@@ -334,31 +502,36 @@ public class FileServer {
      * @return String containing the next line in the file (null if EOF reached and not recycle)
      * @throws IOException when reading of the file fails, or the file was not reserved properly
      */
-    public synchronized String readLine(String filename, boolean recycle,
+    public String readLine(String filename, boolean recycle,
             boolean ignoreFirstLine) throws IOException {
-        FileEntry fileEntry = files.get(filename);
-        if (fileEntry != null) {
-            if (fileEntry.inputOutputObject == null) {
-                fileEntry.inputOutputObject = createBufferedReader(fileEntry);
-            } else if (!(fileEntry.inputOutputObject instanceof Reader)) {
-                throw new IOException("File " + filename + " already in use");
-            }
-            BufferedReader reader = (BufferedReader) fileEntry.inputOutputObject;
-            String line = reader.readLine();
-            if (line == null && recycle) {
-                reader.close();
-                reader = createBufferedReader(fileEntry);
-                fileEntry.inputOutputObject = reader;
-                if (ignoreFirstLine) {
-                    // read first line and forget
-                    reader.readLine();//NOSONAR
+        lock.lock();
+        try {
+            FileEntry fileEntry = files.get(filename);
+            if (fileEntry != null) {
+                if (fileEntry.inputOutputObject == null) {
+                    fileEntry.inputOutputObject = createBufferedReader(fileEntry);
+                } else if (!(fileEntry.inputOutputObject instanceof Reader)) {
+                    throw new IOException("File " + filename + " already in use");
                 }
-                line = reader.readLine();
+                BufferedReader reader = (BufferedReader) fileEntry.inputOutputObject;
+                String line = reader.readLine();
+                if (line == null && recycle) {
+                    reader.close();
+                    reader = createBufferedReader(fileEntry);
+                    fileEntry.inputOutputObject = reader;
+                    if (ignoreFirstLine) {
+                        // read first line and forget
+                        reader.readLine();//NOSONAR
+                    }
+                    line = reader.readLine();
+                }
+                log.debug("Read:{}", line);
+                return line;
             }
-            log.debug("Read:{}", line);
-            return line;
+            throw new IOException("File never reserved: "+filename);
+        } finally {
+            lock.unlock();
         }
-        throw new IOException("File never reserved: "+filename);
     }
 
     /**
@@ -370,9 +543,14 @@ public class FileServer {
      * @return the parsed line, will be empty if the file is at EOF
      * @throws IOException when reading of the aliased file fails, or the file was not reserved properly
      */
-    public synchronized String[] getParsedLine(String alias, boolean recycle, boolean ignoreFirstLine, char delim) throws IOException {
-        BufferedReader reader = getReader(alias, recycle, ignoreFirstLine);
-        return CSVSaveService.csvReadFile(reader, delim);
+    public String[] getParsedLine(String alias, boolean recycle, boolean ignoreFirstLine, char delim) throws IOException {
+        lock.lock();
+        try {
+            BufferedReader reader = getReader(alias, recycle, ignoreFirstLine);
+            return CSVSaveService.csvReadFile(reader, delim);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -439,19 +617,24 @@ public class FileServer {
         return new BufferedReader(reader);
     }
 
-    public synchronized void write(String filename, String value) throws IOException {
-        FileEntry fileEntry = files.get(filename);
-        if (fileEntry != null) {
-            if (fileEntry.inputOutputObject == null) {
-                fileEntry.inputOutputObject = createBufferedWriter(fileEntry);
-            } else if (!(fileEntry.inputOutputObject instanceof Writer)) {
-                throw new IOException("File " + filename + " already in use");
+    public void write(String filename, String value) throws IOException {
+        lock.lock();
+        try {
+            FileEntry fileEntry = files.get(filename);
+            if (fileEntry != null) {
+                if (fileEntry.inputOutputObject == null) {
+                    fileEntry.inputOutputObject = createBufferedWriter(fileEntry);
+                } else if (!(fileEntry.inputOutputObject instanceof Writer)) {
+                    throw new IOException("File " + filename + " already in use");
+                }
+                BufferedWriter writer = (BufferedWriter) fileEntry.inputOutputObject;
+                log.debug("Write:{}", value);
+                writer.write(value);
+            } else {
+                throw new IOException("File never reserved: "+filename);
             }
-            BufferedWriter writer = (BufferedWriter) fileEntry.inputOutputObject;
-            log.debug("Write:{}", value);
-            writer.write(value);
-        } else {
-            throw new IOException("File never reserved: "+filename);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -470,20 +653,37 @@ public class FileServer {
         return new BufferedWriter(osw);
     }
 
-    public synchronized void closeFiles() throws IOException {
-        for (Map.Entry<String, FileEntry> me : files.entrySet()) {
-            closeFile(me.getKey(),me.getValue() );
+    public void closeFiles() throws IOException {
+        lock.lock();
+        try {
+            for (Map.Entry<String, FileEntry> me : files.entrySet()) {
+                closeFile(me.getKey(),me.getValue() );
+            }
+            files.clear();
+            indexedCursors.clear();
+            for (IndexedCsvFile indexedFile : indexedFiles.values()) {
+                indexedFile.close();
+            }
+            indexedFiles.clear();
+        } finally {
+            lock.unlock();
         }
-        files.clear();
     }
 
     /**
      * @param name the name or alias of the file to be closed
      * @throws IOException when closing of the aliased file fails
      */
-    public synchronized void closeFile(String name) throws IOException {
-        FileEntry fileEntry = files.get(name);
-        closeFile(name, fileEntry);
+    public void closeFile(String name) throws IOException {
+        lock.lock();
+        try {
+            FileEntry fileEntry = files.get(name);
+            closeFile(name, fileEntry);
+            // The mapping is shared, it is released by closeFiles()
+            indexedCursors.remove(name);
+        } finally {
+            lock.unlock();
+        }
     }
 
     private static void closeFile(String name, FileEntry fileEntry) throws IOException {
@@ -495,7 +695,7 @@ public class FileServer {
     }
 
     boolean filesOpen() { // package access for test code only
-        return files.values().stream()
+        return !indexedCursors.isEmpty() || files.values().stream()
                 .anyMatch(fileEntry -> fileEntry.inputOutputObject != null);
     }
 
@@ -551,6 +751,35 @@ public class FileServer {
         }
     }
 
+    /**
+     * Read position of an alias in an indexed file.
+     */
+    private static final class IndexedCursor {
+        private final IndexedCsvFile file;
+        private final int firstRecord;
+        private final AtomicLong next = new AtomicLong();
+
+        IndexedCursor(IndexedCsvFile file, boolean hasHeader) {
+            this.file = file;
+            this.firstRecord = hasHeader ? 1 : 0;
+        }
+
+        String next(boolean recycle) {
+            int count = file.getRecordCount() - firstRecord;
+            if (count <= 0) {
+                return null;
+            }
+            long n = next.getAndIncrement();
+            if (n >= count) {
+                if (!recycle) {
+                    return null;
+                }
+                n %= count;
+            }
+            return file.getRecord(firstRecord + (int) n);
+        }
+    }
+
     /**
      * Resolve a file name that may be relative to the base directory. If the
      * name begins with the value of the JMeter property
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.services;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jorphan.util.JOrphanUtils;
+import org.apache.jorphan.util.StringUtilities;
+
+/**
+ * Read-only view of a text file whose records can be fetched by index, from any thread.
+ * <p>
+ * The file is memory-mapped, so its content stays off-heap, and the offsets of its
+ * records are computed once when it is opened. A record is a line, as read by
+ * {@link java.io.BufferedReader#readLine()}, or a CSV record that may span several
+ * lines when quoted fields are enabled, as read by
+ * {@link CSVSaveService#csvReadFile(java.io.BufferedReader, char)}.
+ * Records are returned without their line break.
+ *
+ * @see FileServer#reserveIndexedFile(String, String, String, boolean, boolean)
+ * @since 6.0
+ */
+final class IndexedCsvFile implements Closeable {
+
+    /** Largest part of the file mapped by a single buffer */
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private static final int MAX_RECORDS = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int segmentSize;
+    private final long size;
+    private final Charset charset;
+
+    /** Start of each record, followed by the end of the file */
+    private final long[] recordStarts;
+    private final int recordCount;
+
+    private IndexedCsvFile(FileChannel channel, int segmentSize, long start, Charset charset, boolean quoted)
+            throws IOException {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.size = channel.size();
+        this.charset = charset;
+        int segmentCount = (int) ((size + segmentSize - 1) / segmentSize);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long position = (long) i * segmentSize;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+        }
+        long[] starts = indexRecords(start, quoted);
+        this.recordCount = starts.length - 1;
+        this.recordStarts = starts;
+    }
+
+    /**
+     * Maps a file and indexes its records.
+     *
+     * @param file        the file
+     * @param charsetName the charset of the file. When blank, a UTF-8 byte order mark is
+     *                    skipped and UTF-8 is used, like {@link FileServer} does
+     * @param quoted      whether records may contain quoted fields with line breaks
+     * @return the indexed file, or null if the charset of the file is not supported
+     * @throws IOException when the file cannot be read
+     */
+    static IndexedCsvFile open(File file, String charsetName, boolean quoted) throws IOException {
+        return open(file, charsetName, quoted, DEFAULT_SEGMENT_SIZE);
+    }
+
+    static IndexedCsvFile open(File file, String charsetName, boolean quoted, int segmentSize) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long start = 0;
+            Charset charset;
+            if (StringUtilities.isNotBlank(charsetName)) {
+                charset = Charset.forName(charsetName);
+            } else {
+                byte[] head = new byte[4];
+                int read = channel.read(ByteBuffer.wrap(head), 0);
+                if (read >= 3 && head[0] == (byte) 0xEF && head[1] == (byte) 0xBB && head[2] == (byte) 0xBF) {
+                    start = 3;
+                } else if (read >= 2 && (head[0] == (byte) 0xFE || head[0] == (byte) 0xFF || head[0] == 0)
+                        && (head[1] == (byte) 0xFE || head[1] == (byte) 0xFF || head[1] == 0)) {
+                    // UTF-16 or UTF-32 byte order mark
+                    channel.close();
+                    return null;
+                }
+                charset = StandardCharsets.UTF_8;
+            }
+            // Records are found by looking for the bytes of the quote and line break characters
+            if (!JOrphanUtils.canSplitOnAsciiBytes(charset)) {
+                channel.close();
+                return null;
+            }
+            return new IndexedCsvFile(channel, segmentSize, start, charset, quoted);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private long[] indexRecords(long start, boolean quoted) throws IOException {
+        long[] starts = new long[1024];
+        int count = 0;
+        if (start < size) {
+            starts[count++] = start;
+        }
+        boolean inQuotes = false;
+        long position = start;
+        while (position < size) {
+            MappedByteBuffer segment = segments[(int) (position / segmentSize)];
+            int from = (int) (position % segmentSize);
+            int limit = segment.limit();
+            long base = position - from;
+            for (int i = from; i < limit; i++) {
+                byte b = segment.get(i);
+                if (quoted && b == CSVSaveService.QUOTING_CHAR) {
+                    inQuotes = !inQuotes;
+                } else if (!inQuotes && (b == '\n' || b == '\r')) {
+                    long next = base + i + 1;
+                    // A CR followed by a LF is a single line break, ended by the LF
+                    if (next < size && !(b == '\r' && byteAt(next) == '\n')) {
+                        if (count == starts.length - 1) {
+                            if (starts.length >= MAX_RECORDS) {
+                                throw new IOException("Too many records to be indexed: " + count);
+                            }
+                            starts = Arrays.copyOf(starts, (int) Math.min(starts.length * 2L, MAX_RECORDS));
+                        }
+                        starts[count++] = next;
+                    }
+                }
+            }
+            position = base + limit;
+        }
+        starts = Arrays.copyOf(starts, count + 1);
+        starts[count] = size;
+        return starts;
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position / segmentSize)].get((int) (position % segmentSize));
+    }
+
+    /**
+     * @return the number of records of the file
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @param index index of the record, from 0 to {@link #getRecordCount()} excluded
+     * @return the record, without its line break
+     */
+    String getRecord(int index) {
+        long start = recordStarts[index];
+        long end = recordStarts[index + 1];
+        if (end > start && byteAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && byteAt(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        int offset = 0;
+        long position = start;
+        while (offset < bytes.length) {
+            MappedByteBuffer segment = segments[(int) (position / segmentSize)];
+            int from = (int) (position % segmentSize);
+            int length = Math.min(bytes.length - offset, segment.limit() - from);
+            // Absolute bulk get does not change the position, so buffers can be shared by threads
+            segment.get(from, bytes, offset, length);
+            offset += length;
+            position += length;
+        }
+        return new String(bytes, charset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Mappings are released when the buffers are garbage collected
+        Arrays.fill(segments, null);
+        channel.close();
+    }
+}
@@ -17,11 +17,14 @@
 
 package org.apache.jmeter.threads;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.jmeter.engine.StandardJMeterEngine;
+import org.apache.jmeter.samplers.ResponseStreamConsumer;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.samplers.Sampler;
 import org.apache.jmeter.util.JMeterUtils;
@@ -53,6 +56,8 @@ public class JMeterContext {
     private TestLogicalAction testLogicalAction = TestLogicalAction.CONTINUE;
     private final ConcurrentHashMap<String, Object> samplerContext = new ConcurrentHashMap<>(5);
     private boolean recording;
+    private List<ResponseStreamConsumer> responseStreamConsumers = Collections.emptyList();
+    private boolean responseDataNeeded = true;
 
     JMeterContext() {
         clear0();
@@ -74,6 +79,8 @@ public class JMeterContext {
         threadNum = 0;
         thread = null;
         recording = false;
+        responseStreamConsumers = Collections.emptyList();
+        responseDataNeeded = true;
         samplerContext.clear();
     }
 
@@ -292,4 +299,42 @@ public class JMeterContext {
     public boolean isRecording() {
         return recording;
     }
+
+    /**
+     * @return the consumers of the response bodies of the current sampler, never null
+     * @since 6.0
+     */
+    public List<ResponseStreamConsumer> getResponseStreamConsumers() {
+        return responseStreamConsumers;
+    }
+
+    /**
+     * Internally called by JMeter, never call it directly
+     * @param consumers consumers of the response bodies of the current sampler
+     * @since 6.0
+     */
+    public void setResponseStreamConsumers(List<ResponseStreamConsumer> consumers) {
+        this.responseStreamConsumers = consumers;
+    }
+
+    /**
+     * With <code>sampleresult.lean_mode=true</code>, tells samplers whether an element
+     * in the scope of the current sampler may read the response data of its sample.
+     * When it returns false, samplers may only count the bytes of the response instead of storing them.
+     *
+     * @return false if the response data of the current sample is not read, true by default
+     * @since 6.0
+     */
+    public boolean isResponseDataNeeded() {
+        return responseDataNeeded;
+    }
+
+    /**
+     * Internally called by JMeter, never call it directly
+     * @param responseDataNeeded false if nothing reads the response data of the current sample
+     * @since 6.0
+     */
+    public void setResponseDataNeeded(boolean responseDataNeeded) {
+        this.responseDataNeeded = responseDataNeeded;
+    }
 }
@@ -19,6 +19,7 @@ package org.apache.jmeter.threads;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -36,11 +37,13 @@ import org.apache.jmeter.gui.GuiPackage;
 import org.apache.jmeter.processor.PostProcessor;
 import org.apache.jmeter.processor.PreProcessor;
 import org.apache.jmeter.samplers.Interruptible;
+import org.apache.jmeter.samplers.ResponseStreamConsumer;
 import org.apache.jmeter.samplers.SampleEvent;
 import org.apache.jmeter.samplers.SampleListener;
 import org.apache.jmeter.samplers.SampleMonitor;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.samplers.ScalarSampleListener;
 import org.apache.jmeter.testbeans.TestBeanHelper;
 import org.apache.jmeter.testelement.AbstractScopedAssertion;
 import org.apache.jmeter.testelement.AbstractTestElement;
@@ -88,6 +91,9 @@ public class JMeterThread implements Runnable, Interruptible {
 
     private static final boolean APPLY_TIMER_FACTOR = Float.compare(TIMER_FACTOR,ONE_AS_FLOAT) != 0;
 
+    /** Let samplers skip storing the response data that nothing reads */
+    private static final boolean LEAN_MODE = JMeterUtils.getPropDefault("sampleresult.lean_mode", false); // $NON-NLS-1$
+
     private final Controller threadGroupLoopController;
 
     private final HashTree testTree;
@@ -561,7 +567,14 @@ public class JMeterThread implements Runnable, Interruptible {
         SampleResult result = null;
         if (running) {
             Sampler sampler = pack.getSampler();
-            result = doSampling(threadContext, sampler);
+            threadContext.setResponseStreamConsumers(getResponseStreamConsumers(pack.getPostProcessors()));
+            threadContext.setResponseDataNeeded(!LEAN_MODE || isResponseDataNeeded(pack, transactionPack));
+            try {
+                result = doSampling(threadContext, sampler);
+            } finally {
+                threadContext.setResponseStreamConsumers(Collections.emptyList());
+                threadContext.setResponseDataNeeded(true);
+            }
         }
         // If we got any results, then perform processing on the result
         if (result != null) {
@@ -613,6 +626,48 @@ public class JMeterThread implements Runnable, Interruptible {
         }
     }
 
+    /**
+     * @param postProcessors Post-Processors of the sampler
+     * @return the Post-Processors that process the response bodies while they are read
+     */
+    private static List<ResponseStreamConsumer> getResponseStreamConsumers(List<? extends PostProcessor> postProcessors) {
+        List<ResponseStreamConsumer> consumers = null;
+        for (PostProcessor postProcessor : postProcessors) {
+            if (postProcessor instanceof ResponseStreamConsumer consumer) {
+                if (consumers == null) {
+                    consumers = new ArrayList<>(2);
+                }
+                consumers.add(consumer);
+            }
+        }
+        return consumers == null ? Collections.emptyList() : consumers;
+    }
+
+    /**
+     * @param pack            the package of the sampler
+     * @param transactionPack the package of the enclosing Transaction Controller, may be null
+     * @return true if an assertion, a Post-Processor or a listener may read the response data of the sample
+     */
+    private static boolean isResponseDataNeeded(SamplePackage pack, SamplePackage transactionPack) {
+        if (!pack.getAssertions().isEmpty() || !pack.getPostProcessors().isEmpty()
+                || !readScalarFieldsOnly(pack.getSampleListeners())) {
+            return true;
+        }
+        // The listeners of the transaction sample also get the sample as a sub-result
+        return transactionPack != null
+                && (!transactionPack.getAssertions().isEmpty()
+                || !readScalarFieldsOnly(transactionPack.getSampleListeners()));
+    }
+
+    private static boolean readScalarFieldsOnly(List<SampleListener> listeners) {
+        for (SampleListener listener : listeners) {
+            if (!(listener instanceof ScalarSampleListener scalarListener && scalarListener.readsScalarFieldsOnly())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Call sample on Sampler handling:
      * <ul>
@@ -32,6 +32,7 @@ import org.apache.jmeter.testelement.schema.PropertiesAccessor;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.ListedHashTree;
 import org.apache.jorphan.util.JMeterStopTestException;
+import org.apache.jorphan.util.VirtualThreads;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +55,10 @@ public class ThreadGroup extends AbstractThreadGroup {
     private static final int RAMPUP_GRANULARITY =
             JMeterUtils.getPropDefault("jmeterthread.rampup.granularity", 1000); // $NON-NLS-1$
 
+    /** Run the threads of all Thread Groups on virtual threads, default false */
+    private static final boolean VIRTUAL_THREADS_FOR_ALL_GROUPS =
+            JMeterUtils.getPropDefault("jmeterthread.virtual_threads", false); // $NON-NLS-1$
+
     //+ JMX entries - do not change the string values
 
     /** Ramp-up time */
@@ -88,6 +93,9 @@ public class ThreadGroup extends AbstractThreadGroup {
     /** Are we using delayed startup? */
     private boolean delayedStartup;
 
+    /** Are JMeterThreads run on virtual threads? */
+    private boolean useVirtualThreads;
+
     /** Thread safe class */
     private ListenerNotifier notifier;
 
@@ -190,6 +198,27 @@ public class ThreadGroup extends AbstractThreadGroup {
         return get(getSchema().getDelayedStart());
     }
 
+    /**
+     * Set whether threads should run on JDK virtual threads.
+     *
+     * @param virtualThreads true if virtual threads should be used
+     * @since 6.0
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        set(getSchema().getVirtualThreads(), virtualThreads);
+    }
+
+    /**
+     * Get whether threads should run on JDK virtual threads.
+     * The property {@code jmeterthread.virtual_threads} enables them for all Thread Groups.
+     *
+     * @return true if virtual threads should be used
+     * @since 6.0
+     */
+    public boolean isVirtualThreads() {
+        return VIRTUAL_THREADS_FOR_ALL_GROUPS || get(getSchema().getVirtualThreads());
+    }
+
     /**
      * This will schedule the time for the JMeterThread.
      *
@@ -227,8 +256,14 @@ public class ThreadGroup extends AbstractThreadGroup {
         int numThreads = getNumThreads();
         int rampUpPeriodInSeconds = getRampUp();
         delayedStartup = isDelayedStartup(); // Fetch once; needs to stay constant
-        log.info("Starting thread group... number={} threads={} ramp-up={} delayedStart={}", groupNumber,
-                numThreads, rampUpPeriodInSeconds, delayedStartup);
+        useVirtualThreads = isVirtualThreads();
+        if (useVirtualThreads && !VirtualThreads.isSupported()) {
+            log.warn("Virtual threads are not supported by Java {}, Thread Group {} will use platform threads",
+                    System.getProperty("java.version"), getName()); // $NON-NLS-1$
+            useVirtualThreads = false;
+        }
+        log.info("Starting thread group... number={} threads={} ramp-up={} delayedStart={} virtualThreads={}", groupNumber,
+                numThreads, rampUpPeriodInSeconds, delayedStartup, useVirtualThreads);
         if (delayedStartup) {
             threadStarter = new Thread(new ThreadStarter(notifier, threadGroupTree, engine), getName()+"-ThreadStarter");
             threadStarter.setDaemon(true);
@@ -273,12 +308,28 @@ public class ThreadGroup extends AbstractThreadGroup {
         JMeterThread jmThread = makeThread(engine, this, notifier, groupNumber, threadNum, cloneTree(threadGroupTree), variables);
         scheduleThread(jmThread, now); // set start and end time
         jmThread.setInitialDelay(delay);
-        Thread newThread = new Thread(jmThread, jmThread.getThreadName());
+        Thread newThread = createThread(jmThread);
         registerStartedThread(jmThread, newThread);
         newThread.start();
         return jmThread;
     }
 
+    /**
+     * Create the JVM thread that runs the {@link JMeterThread}.
+     * Virtual threads are always daemon threads, so the engine relies on
+     * {@link #waitThreadsStopped()} rather than on JVM liveness to wait for them.
+     * @param jmThread {@link JMeterThread}
+     * @return unstarted Thread
+     */
+    private Thread createThread(JMeterThread jmThread) {
+        if (useVirtualThreads) {
+            return VirtualThreads.newThread(jmThread, jmThread.getThreadName());
+        }
+        Thread newThread = new Thread(jmThread, jmThread.getThreadName());
+        newThread.setDaemon(false); // ThreadStarter is daemon, but we don't want sampler threads to be so too
+        return newThread;
+    }
+
     /*
      * Fix NPE for addThreadLock transient object in remote mode (BZ60829)
      */
@@ -587,8 +638,7 @@ public class ThreadGroup extends AbstractThreadGroup {
                         jmThread.setScheduled(true);
                         jmThread.setEndTime(endtime);
                     }
-                    Thread newThread = new Thread(jmThread, jmThread.getThreadName());
-                    newThread.setDaemon(false); // ThreadStarter is daemon, but we don't want sampler threads to be so too
+                    Thread newThread = createThread(jmThread);
                     registerStartedThread(jmThread, newThread);
                     newThread.start();
                 }
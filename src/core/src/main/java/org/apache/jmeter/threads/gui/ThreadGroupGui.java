@@ -67,6 +67,11 @@ public class ThreadGroupGui extends AbstractThreadGroupGui implements ItemListen
                     ThreadGroupSchema.INSTANCE.getUseScheduler(),
                     JMeterUtils.getResString("scheduler"));
 
+    private final JBooleanPropertyEditor virtualThreads =
+            new JBooleanPropertyEditor(
+                    ThreadGroupSchema.INSTANCE.getVirtualThreads(),
+                    JMeterUtils.getResString("threadgroup_virtual_threads"));
+
     private final JTextField duration = new JTextField();
     private final JLabel durationLabel = labelFor(duration, "duration");
 
@@ -97,6 +102,7 @@ public class ThreadGroupGui extends AbstractThreadGroupGui implements ItemListen
                         new JTextComponentBinding(duration, ThreadGroupSchema.INSTANCE.getDuration()),
                         new JTextComponentBinding(delay, ThreadGroupSchema.INSTANCE.getDelay()),
                         sameUserBox,
+                        virtualThreads,
                         scheduler
                 )
         );
@@ -202,6 +208,7 @@ public class ThreadGroupGui extends AbstractThreadGroupGui implements ItemListen
                     JMeterUtils.getResString("delayed_start")); // $NON-NLS-1$
             threadPropsPanel.add(delayedStart, "span 2");
         }
+        threadPropsPanel.add(virtualThreads, "span 2");
         scheduler.addPropertyChangeListener(
                 JBooleanPropertyEditor.VALUE_PROPERTY, (ev) -> toggleSchedulerFields());
 
@@ -25,11 +25,13 @@ import java.security.PrivateKey;
 import java.security.Provider;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.util.Locale;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509ExtendedKeyManager;
@@ -58,9 +60,51 @@ public class JsseSSLManager extends SSLManager {
     private static final String DEFAULT_SSL_PROTOCOL =
         JMeterUtils.getPropDefault("https.default.protocol","TLS"); // $NON-NLS-1$ // $NON-NLS-2$
 
-    // Allow reversion to original shared session context
-    private static final boolean SHARED_SESSION_CONTEXT =
-        JMeterUtils.getPropDefault("https.sessioncontext.shared",false); // $NON-NLS-1$
+    /**
+     * How long the TLS client sessions, and so the SSL contexts holding them, are kept.
+     */
+    enum SessionCacheScope {
+        /** Each thread has its own sessions, dropped when it starts a new iteration */
+        ITERATION,
+        /** Each thread keeps its sessions across iterations */
+        THREAD,
+        /** One cache for all threads */
+        SHARED;
+
+        /**
+         * @param scope                value of {@code https.session_cache.scope}
+         * @param sharedSessionContext value of {@code https.sessioncontext.shared}
+         * @return the scope, {@link #ITERATION} if the value is unknown
+         */
+        static SessionCacheScope of(String scope, boolean sharedSessionContext) {
+            if (sharedSessionContext) {
+                return SHARED;
+            }
+            try {
+                return valueOf(scope.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown value for https.session_cache.scope: {}, using iteration", scope);
+                return ITERATION;
+            }
+        }
+    }
+
+    // Allow reversion to original shared session context with https.sessioncontext.shared
+    private static final SessionCacheScope SESSION_CACHE_SCOPE = SessionCacheScope.of(
+        JMeterUtils.getPropDefault("https.session_cache.scope", "iteration"), // $NON-NLS-1$ // $NON-NLS-2$
+        JMeterUtils.getPropDefault("https.sessioncontext.shared", false)); // $NON-NLS-1$
+
+    /**
+     * Time to live of the cached TLS sessions in seconds, 0 to use the JVM default
+     */
+    private static final int SESSION_CACHE_TTL =
+        JMeterUtils.getPropDefault("https.session_cache.ttl", 0); // $NON-NLS-1$
+
+    /**
+     * Maximum number of TLS sessions of a cache, least recently used sessions are evicted first. 0 to use the JVM default
+     */
+    private static final int SESSION_CACHE_SIZE =
+        JMeterUtils.getPropDefault("https.session_cache.size", 0); // $NON-NLS-1$
 
     /**
      * Characters per second, used to slow down sockets
@@ -70,7 +114,10 @@ public class JsseSSLManager extends SSLManager {
     static {
         if (log.isInfoEnabled()) {
             log.info("Using default SSL protocol: {}", DEFAULT_SSL_PROTOCOL);
-            log.info("SSL session context: {}", SHARED_SESSION_CONTEXT ? "shared" : "per-thread");
+            log.info("SSL session context: {}", SESSION_CACHE_SCOPE == SessionCacheScope.SHARED ? "shared" : "per-thread");
+            if (SESSION_CACHE_SCOPE == SessionCacheScope.THREAD) {
+                log.info("SSL sessions are kept across iterations");
+            }
 
             if (CPS > 0) {
                 log.info("Setting up HTTPS SlowProtocol, cps={}", CPS);
@@ -85,6 +132,14 @@ public class JsseSSLManager extends SSLManager {
 
     private Provider pro = null; // TODO why not use the super class value?
 
+    private final SessionCacheScope sessionCacheScope;
+
+    /** Time to live of the cached sessions in seconds, 0 to use the JVM default */
+    private final int sessionCacheTtl;
+
+    /** Maximum number of cached sessions of a context, 0 to use the JVM default */
+    private final int sessionCacheSize;
+
     private SSLContext defaultContext; // If we are using a single session
     private ThreadLocal<SSLContext> threadlocal; // Otherwise
 
@@ -96,13 +151,26 @@ public class JsseSSLManager extends SSLManager {
      *            Description of Parameter
      */
     public JsseSSLManager(Provider provider) {
+        this(provider, SESSION_CACHE_SCOPE, SESSION_CACHE_TTL, SESSION_CACHE_SIZE);
+    }
+
+    /**
+     * @param provider         Description of Parameter
+     * @param sessionCacheScope how long the TLS sessions are kept
+     * @param sessionCacheTtl  time to live of the cached sessions in seconds, 0 to use the JVM default
+     * @param sessionCacheSize maximum number of cached sessions of a context, 0 to use the JVM default
+     */
+    JsseSSLManager(Provider provider, SessionCacheScope sessionCacheScope, int sessionCacheTtl, int sessionCacheSize) {
+        this.sessionCacheScope = sessionCacheScope;
+        this.sessionCacheTtl = sessionCacheTtl;
+        this.sessionCacheSize = sessionCacheSize;
         log.debug("ssl Provider = {}", provider);
         setProvider(provider);
         if (null == this.rand) { // Surely this is always null in the constructor?
             this.rand = new SecureRandom();
         }
         try {
-            if (SHARED_SESSION_CONTEXT) {
+            if (sessionCacheScope == SessionCacheScope.SHARED) {
                 log.debug("Creating shared context");
                 this.defaultContext = createContext();
             } else {
@@ -160,7 +228,7 @@ public class JsseSSLManager extends SSLManager {
      *             when constructing the context fails
      */
     public SSLContext getContext() throws GeneralSecurityException {
-        if (SHARED_SESSION_CONTEXT) {
+        if (sessionCacheScope == SessionCacheScope.SHARED) {
             if (log.isDebugEnabled()){
                 log.debug("Using shared SSL context for: {}", Thread.currentThread().getName());
             }
@@ -182,11 +250,12 @@ public class JsseSSLManager extends SSLManager {
     }
 
     /**
-     * Resets the SSLContext if using per-thread contexts.
+     * Resets the SSLContext if using per-thread contexts
+     * whose sessions are not kept across iterations.
      *
      */
     public void resetContext() {
-        if (!SHARED_SESSION_CONTEXT) {
+        if (sessionCacheScope == SessionCacheScope.ITERATION) {
             log.debug("Clearing session context for current thread");
             this.threadlocal.remove();
         }
@@ -241,6 +310,14 @@ public class JsseSSLManager extends SSLManager {
             }
         }
         context.init(newManagers, trustmanagers, this.rand);
+        // The client session cache holds both the session IDs and the session tickets used for resumption
+        SSLSessionContext sessionContext = context.getClientSessionContext();
+        if (sessionCacheTtl > 0) {
+            sessionContext.setSessionTimeout(sessionCacheTtl);
+        }
+        if (sessionCacheSize > 0) {
+            sessionContext.setSessionCacheSize(sessionCacheSize);
+        }
         if (log.isDebugEnabled()){
             String[] dCiphers = context.getSocketFactory().getDefaultCipherSuites();
             String[] sCiphers = context.getSocketFactory().getSupportedCipherSuites();
@@ -20,6 +20,8 @@ package org.apache.jmeter.visualizers;
 import java.util.Map;
 
 import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.math.HistogramStatCalculatorLong;
 import org.apache.jorphan.math.StatCalculatorLong;
 
 /**
@@ -28,7 +30,14 @@ import org.apache.jorphan.math.StatCalculatorLong;
  * the stats out with whatever methods you prefer.
  */
 public class SamplingStatCalculator {
-    private final StatCalculatorLong calculator = new StatCalculatorLong();
+    // Count values in a bounded histogram rather than keeping every distinct value
+    private static final boolean USE_HISTOGRAM = JMeterUtils.getPropDefault("aggregate_rpt_histogram", false);
+
+    private static final int HISTOGRAM_DIGITS = JMeterUtils.getPropDefault("aggregate_rpt_histogram_digits", 3);
+
+    private final StatCalculatorLong calculator = USE_HISTOGRAM
+            ? new HistogramStatCalculatorLong(HISTOGRAM_DIGITS)
+            : new StatCalculatorLong();
 
     private double maxThroughput;
 
@@ -35,6 +35,14 @@ public abstract class ThreadGroupSchema : AbstractThreadGroupSchema() {
     public val delayedStart: BooleanPropertyDescriptor<ThreadGroupSchema>
         by boolean("ThreadGroup.delayedStart", default = false)
 
+    /**
+     * Whether the threads of the group run on JDK virtual threads.
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public val virtualThreads: BooleanPropertyDescriptor<ThreadGroupSchema>
+        by boolean("ThreadGroup.virtual_threads", default = false)
+
     /** Ramp-up time */
     public val rampTime: IntegerPropertyDescriptor<ThreadGroupSchema>
         by int("ThreadGroup.ramp_time")
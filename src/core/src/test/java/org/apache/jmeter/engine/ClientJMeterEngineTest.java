@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jorphan.collections.HashTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ClientJMeterEngineTest {
+
+    private static final long TOKEN = 42;
+
+    private FakeRemoteEngine remote;
+    private ClientJMeterEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        DistributedRunnerTest.createJmeterEnv();
+        remote = new FakeRemoteEngine();
+        engine = new ClientJMeterEngine(remote, "worker-1:1099");
+    }
+
+    @Test
+    public void testSerializedTestIsAPreparedCopy() throws Exception {
+        ConfigTestElement element = new ConfigTestElement();
+        element.setName("config");
+        HashTree tree = new HashTree();
+        tree.add(element);
+
+        byte[] bytes;
+        try {
+            bytes = ClientJMeterEngine.serializeTest(tree);
+        } finally {
+            JMeterContextService.endTest();
+        }
+
+        HashTree received;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            received = (HashTree) in.readObject();
+        }
+        Object receivedElement = received.list().iterator().next();
+        assertTrue(receivedElement instanceof ConfigTestElement, () -> "got " + receivedElement);
+        assertEquals("config", ((ConfigTestElement) receivedElement).getName());
+        assertTrue(((ConfigTestElement) receivedElement).isRunningVersion(), "the sent element is prepared");
+        assertSame(element, tree.list().iterator().next(), "the tree of the client is not modified");
+        assertFalse(element.isRunningVersion(), "the element of the client is not prepared");
+    }
+
+    @Test
+    public void testExportedObjectsAreWrittenAsStubs() throws Exception {
+        ExportedObject exported = new ExportedObject();
+        try {
+            Object[] written = new Object[]{exported, "value"};
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ClientJMeterEngine.RemoteStubOutputStream(bytes)) {
+                out.writeObject(written);
+            }
+            Object[] read;
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                read = (Object[]) in.readObject();
+            }
+            assertTrue(read[0] instanceof Pingable, () -> "got " + read[0]);
+            assertFalse(read[0] instanceof ExportedObject, "exported object is replaced by its stub");
+            assertEquals("value", read[1]);
+        } finally {
+            UnicastRemoteObject.unexportObject(exported, true);
+        }
+    }
+
+    @Test
+    public void testConfigureSendsTheTreeAndTheProperties() throws Exception {
+        byte[] tree = {1, 2, 3};
+        Properties properties = new Properties();
+        properties.setProperty("name", "value");
+        engine.setProperties(properties);
+
+        engine.configure(tree);
+
+        assertArrayEquals(tree, remote.tree);
+        assertEquals("worker-1:1099", remote.host);
+        assertEquals(Map.of("name", "value"), remote.properties);
+    }
+
+    @Test
+    public void testRunTestSendsTheTokenAndTheRemainingDelay() throws Exception {
+        engine.configure(new byte[0]);
+
+        engine.runTest(System.currentTimeMillis() + 500);
+
+        assertEquals(TOKEN, remote.runToken);
+        assertTrue(remote.runDelay > 0 && remote.runDelay <= 500, () -> "delay " + remote.runDelay);
+    }
+
+    @Test
+    public void testRunTestReportsTheFailureOfTheStart() throws Exception {
+        engine.configure(new byte[0]);
+        remote.runFailure = new JMeterEngineException("cannot start");
+        JMeterEngineException e = assertThrows(JMeterEngineException.class, () -> engine.runTest(0));
+        assertSame(remote.runFailure, e.getCause());
+
+        remote.runFailure = new IllegalStateException("stopped");
+        IllegalStateException stopped = assertThrows(IllegalStateException.class, () -> engine.runTest(0));
+        assertSame(remote.runFailure, stopped);
+    }
+
+    @Test
+    public void testConfigureReportsTheFailureOfTheUpload() {
+        remote.configureFailure = new RemoteException("cannot read");
+        JMeterEngineException e = assertThrows(JMeterEngineException.class, () -> engine.configure(new byte[0]));
+        assertSame(remote.configureFailure, e.getCause());
+    }
+
+    interface Pingable extends Remote {
+        void ping() throws RemoteException;
+    }
+
+    private static class ExportedObject extends UnicastRemoteObject implements Pingable {
+        private static final long serialVersionUID = 1L;
+
+        ExportedObject() throws RemoteException {
+            super(0);
+        }
+
+        @Override
+        public void ping() {
+        }
+    }
+
+    private static class FakeRemoteEngine implements RemoteJMeterEngine {
+        private byte[] tree;
+        private String host;
+        private Map<String, String> properties;
+        private long runToken;
+        private long runDelay;
+        private RemoteException configureFailure;
+        private Exception runFailure;
+
+        @Override
+        public void rconfigure(HashTree testTree, String host, File jmxBase, String scriptName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long rconfigure(byte[] testTree, String host, File jmxBase, String scriptName)
+                throws RemoteException {
+            if (configureFailure != null) {
+                throw configureFailure;
+            }
+            this.tree = testTree;
+            this.host = host;
+            return TOKEN;
+        }
+
+        @Override
+        public void rrunTest() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rrunTest(long token, long delayMillis) throws JMeterEngineException {
+            if (runFailure instanceof JMeterEngineException e) {
+                throw e;
+            }
+            if (runFailure instanceof RuntimeException e) {
+                throw e;
+            }
+            runToken = token;
+            runDelay = delayMillis;
+        }
+
+        @Override
+        public void rstopTest(boolean now) {
+        }
+
+        @Override
+        public void rreset() {
+        }
+
+        @Override
+        @SuppressWarnings("NonApiType")
+        public void rsetProperties(HashMap<String, String> p) {
+            properties = p;
+        }
+
+        @Override
+        public void rexit() {
+        }
+    }
+}
@@ -17,7 +17,9 @@
 
 package org.apache.jmeter.engine;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -71,6 +73,29 @@ public class DistributedRunnerTest {
         obj.exit(hosts);
     }
 
+    @Test
+    public void testConcurrentStart() {
+        createJmeterEnv();
+        JMeterUtils.setProperty(DistributedRunner.RETRIES_NUMBER, "1");
+        JMeterUtils.setProperty(DistributedRunner.CONTINUE_ON_FAIL, "false");
+        JMeterUtils.setProperty(DistributedRunner.START_THREADS, "2");
+        JMeterUtils.setProperty(DistributedRunner.START_DELAY, "0");
+        DistributedRunnerEmul obj = new DistributedRunnerEmul();
+        List<EmulatorEngine> emulators = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            emulators.add(new EmulatorEngine());
+        }
+        obj.engines.addAll(emulators);
+        List<String> hosts = Arrays.asList("test1", "test2", "test3");
+        obj.init(hosts, new HashTree());
+        assertEquals(3, obj.getEngines().size(), "configured engines");
+        obj.start();
+        for (EmulatorEngine emulator : emulators) {
+            assertTrue(emulator.started, "engine should be started: " + emulator.host);
+        }
+        obj.stop(hosts);
+    }
+
     @Test
     public void testFailure1() {
         createJmeterEnv();
@@ -133,7 +158,7 @@ public class DistributedRunnerTest {
         public List<EmulatorEngine> engines = new ArrayList<>();
 
         @Override
-        protected JMeterEngine createEngine(String address) {
+        protected synchronized JMeterEngine createEngine(String address) {
             if (engines.isEmpty()) {
                 throw new IllegalArgumentException("Throwing on Engine creation to simulate failure");
             }
@@ -146,6 +171,7 @@ public class DistributedRunnerTest {
     private static class EmulatorEngine implements JMeterEngine {
         private static final Logger log = LoggerFactory.getLogger(EmulatorEngine.class);
         private String host;
+        private volatile boolean started;
 
         public EmulatorEngine() {
             log.debug("Creating emulator");
@@ -159,6 +185,7 @@ public class DistributedRunnerTest {
         @Override
         public void runTest() {
             log.debug("Running {}", host);
+            started = true;
         }
 
         @Override
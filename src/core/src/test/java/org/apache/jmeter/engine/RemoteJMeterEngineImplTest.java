@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.jmeter.services.FileServer;
+import org.apache.jorphan.collections.HashTree;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RemoteJMeterEngineImplTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private FakeEngine backingEngine;
+    private RemoteJMeterEngineImpl engine;
+
+    @BeforeEach
+    public void setUp() throws RemoteException {
+        DistributedRunnerTest.createJmeterEnv();
+        backingEngine = new FakeEngine();
+        engine = new RemoteJMeterEngineImpl(host -> backingEngine);
+    }
+
+    @AfterEach
+    public void tearDown() throws RemoteException {
+        UnicastRemoteObject.unexportObject(engine, true);
+    }
+
+    private static byte[] serialize(HashTree tree) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tree);
+        }
+        return bytes.toByteArray();
+    }
+
+    private long configure() throws Exception {
+        HashTree tree = new HashTree();
+        tree.add("plan", "sampler");
+        FileServer fileServer = FileServer.getFileServer();
+        return engine.rconfigure(serialize(tree), "localhost:1099", new File(fileServer.getBaseDir()),
+                fileServer.getScriptName());
+    }
+
+    @Test
+    public void testSerializedTreeConfiguresTheEngine() throws Exception {
+        long token = configure();
+        assertTrue(token != 0, "a token is returned");
+        assertTrue(backingEngine.tree.containsKey("plan"), () -> "tree received: " + backingEngine.tree);
+        assertTrue(backingEngine.tree.getTree("plan").containsKey("sampler"));
+    }
+
+    @Test
+    public void testInvalidTreeIsRejected() {
+        FileServer fileServer = FileServer.getFileServer();
+        assertThrows(RemoteException.class, () -> engine.rconfigure(new byte[]{1, 2, 3}, "localhost:1099",
+                new File(fileServer.getBaseDir()), fileServer.getScriptName()));
+        assertNull(backingEngine.tree);
+    }
+
+    @Test
+    public void testRunTestNeedsTheTokenOfTheConfiguration() throws Exception {
+        long token = configure();
+        assertThrows(IllegalStateException.class, () -> engine.rrunTest(0, 0));
+        assertThrows(IllegalStateException.class, () -> engine.rrunTest(token + 1, 0));
+        assertFalse(backingEngine.started);
+
+        engine.rrunTest(token, 0);
+        assertTrue(backingEngine.started);
+        // The token can only be used once
+        assertThrows(IllegalStateException.class, () -> engine.rrunTest(token, 0));
+    }
+
+    @Test
+    public void testDelayedStartReturnsOnceStarted() throws Exception {
+        long token = configure();
+        long start = System.nanoTime();
+        assertTimeoutPreemptively(TIMEOUT, () -> engine.rrunTest(token, 200));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200), "waited for the delay");
+        assertTrue(backingEngine.started);
+    }
+
+    @Test
+    public void testDelayedStartFailureIsReportedToTheClient() throws Exception {
+        backingEngine.failure = new JMeterEngineException("cannot start");
+        long token = configure();
+        JMeterEngineException e = assertThrows(JMeterEngineException.class, () -> engine.rrunTest(token, 50));
+        assertEquals("cannot start", e.getMessage());
+    }
+
+    @Test
+    public void testStopCancelsTheDelayedStart() throws Exception {
+        long token = configure();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread client = new Thread(() -> {
+            try {
+                engine.rrunTest(token, TIMEOUT.toMillis() * 2);
+            } catch (Throwable e) { // NOSONAR the test checks the failure
+                failure.set(e);
+            }
+        });
+        client.start();
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (client.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(10);
+            }
+            engine.rstopTest(true);
+            client.join();
+        });
+        assertTrue(failure.get() instanceof IllegalStateException, () -> "got " + failure.get());
+        assertFalse(backingEngine.started);
+        assertTrue(backingEngine.stopped);
+    }
+
+    @Test
+    public void testStopBeforeTheStartCancelsIt() throws Exception {
+        long token = configure();
+        engine.rstopTest(true);
+        assertThrows(IllegalStateException.class, () -> engine.rrunTest(token, 0));
+        assertFalse(backingEngine.started);
+        assertTrue(backingEngine.stopped);
+
+        // A new configuration can be started
+        long next = configure();
+        engine.rrunTest(next, 0);
+        assertTrue(backingEngine.started);
+    }
+
+    private static class FakeEngine implements JMeterEngine {
+        private volatile HashTree tree;
+        private volatile boolean started;
+        private volatile boolean stopped;
+        private volatile JMeterEngineException failure;
+
+        @Override
+        public void configure(HashTree testPlan) {
+            tree = testPlan;
+        }
+
+        @Override
+        public void runTest() throws JMeterEngineException {
+            if (failure != null) {
+                throw failure;
+            }
+            started = true;
+        }
+
+        @Override
+        public void stopTest(boolean now) {
+            stopped = true;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void setProperties(Properties p) {
+        }
+
+        @Override
+        public void exit() {
+        }
+
+        @Override
+        public boolean isActive() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.BinaryResultFormat;
+import org.apache.jmeter.save.BinaryResultWriter;
+import org.apache.jmeter.save.CSVSaveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinarySampleReaderTest extends JMeterTestCase {
+
+    private static final int NR_ROWS = 10_000; // More than one block
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    File tempDir;
+
+    private File results;
+
+    private final SampleSaveConfiguration saveConfig = new SampleSaveConfiguration();
+
+    @BeforeEach
+    public void setUp() {
+        results = new File(tempDir, "results.jtlb");
+        saveConfig.setAsBinary(true);
+    }
+
+    private SampleResult createResult(int i) {
+        SampleResult result = SampleResult.createTestSample(START + i * 10L, START + i * 10L + i % 100);
+        result.setSampleLabel("label " + (i % 7));
+        result.setThreadName("Thread Group 1-" + (i % 3));
+        result.setResponseCode(i % 5 == 0 ? "500" : "200");
+        result.setResponseMessage("message " + i);
+        result.setSuccessful(i % 5 != 0);
+        result.setBytes((long) i * 3);
+        result.setSentBytes(i);
+        result.setLatency(i % 50);
+        result.setConnectTime(i % 10);
+        result.setSaveConfig(saveConfig);
+        return result;
+    }
+
+    private void writeSamples(boolean append, int count) throws IOException {
+        try (BinaryResultWriter writer = new BinaryResultWriter(
+                new BufferedOutputStream(new FileOutputStream(results, append)), saveConfig)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(new SampleEvent(createResult(i), "Thread Group", "localhost"));
+            }
+            writer.flush();
+            assertFalse(writer.checkError(), "error while writing");
+        }
+    }
+
+    @Test
+    public void testIsBinaryFile() throws IOException {
+        writeSamples(false, 1);
+        assertTrue(BinaryResultFormat.isBinaryFile(results));
+        assertFalse(BinaryResultFormat.isBinaryFile(new File(tempDir, "missing.jtlb")));
+    }
+
+    @Test
+    public void testConstructorWithInvalidFile() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new BinarySampleReader(new File("/not/available.jtlb"))
+        );
+    }
+
+    @Test
+    public void testReadSamples() throws IOException {
+        writeSamples(false, NR_ROWS);
+        try (BinarySampleReader reader = new BinarySampleReader(results)) {
+            assertEquals(new SampleMetadata(saveConfig).toString(), reader.getMetadata().toString());
+            for (int i = 0; i < NR_ROWS; i++) {
+                Sample sample = reader.readSample();
+                assertEquals(i, sample.getSampleRow());
+                assertEquals(createResult(i).getTimeStamp(), sample.getTimestamp());
+                assertEquals(i % 100, sample.getElapsedTime());
+                assertEquals("label " + (i % 7), sample.getName());
+                assertEquals("Thread Group 1-" + (i % 3), sample.getThreadName());
+                assertEquals(i % 5 == 0 ? "500" : "200", sample.getResponseCode());
+                assertEquals("message " + i, sample.getResponseMessage());
+                assertEquals(i % 5 != 0, sample.getSuccess());
+                assertEquals(i * 3L, sample.getReceivedBytes());
+                assertEquals(i, sample.getSentBytes());
+                assertEquals(i % 50, sample.getLatency());
+                assertEquals(i % 10, sample.getConnectTime());
+                assertEquals(Long.toString(i % 100), sample.getData(CSVSaveService.CSV_ELAPSED));
+                assertEquals(Boolean.toString(i % 5 != 0), sample.getData(CSVSaveService.SUCCESSFUL));
+            }
+            assertNull(reader.readSample());
+        }
+    }
+
+    @Test
+    public void testReadAppendedSegments() throws IOException {
+        writeSamples(false, 100);
+        writeSamples(true, 100);
+        try (BinarySampleReader reader = new BinarySampleReader(results)) {
+            for (int i = 0; i < 200; i++) {
+                Sample sample = reader.readSample();
+                assertEquals("message " + (i % 100), sample.getResponseMessage());
+                assertEquals(createResult(i % 100).getTimeStamp(), sample.getTimestamp());
+            }
+            assertNull(reader.readSample());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.report.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.save.CSVSaveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ParallelCsvReaderTest {
+
+    @TempDir
+    File tempDir;
+
+    private File write(String content) throws IOException {
+        File file = new File(tempDir, "results.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String[]> readSequentially(String content) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(content));
+        String[] record;
+        while ((record = CSVSaveService.csvReadFile(reader, ',')).length > 0) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static List<String[]> readInParallel(File file, long offset, int chunkSize) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (ParallelCsvReader reader = new ParallelCsvReader(file, offset, StandardCharsets.UTF_8, ',', 3, chunkSize)) {
+            String[] record;
+            while ((record = reader.readRecord()).length > 0) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static String createContent(String lineBreak) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append(1_700_000_000_000L + i).append(',').append(i % 100).append(',');
+            switch (i % 4) {
+                case 0 -> content.append("\"multi").append(lineBreak).append("line\"");
+                case 1 -> content.append("\"with \"\"quotes\"\", and comma\"");
+                case 2 -> content.append("\"\"");
+                default -> content.append("label é ").append(i);
+            }
+            content.append(lineBreak);
+        }
+        return content.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r\n", "\r"})
+    public void testSameRecordsAsSequentialRead(String lineBreak) throws IOException {
+        String content = createContent(lineBreak);
+        File file = write(content);
+        List<String[]> expected = readSequentially(content);
+        // Chunks much smaller than a record and of a few records
+        for (int chunkSize : new int[]{7, 100, 4096}) {
+            List<String[]> actual = readInParallel(file, 0, chunkSize);
+            assertEquals(expected.size(), actual.size(), "chunk size " + chunkSize);
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), actual.get(i), "record " + i + ", chunk size " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    public void testSkipsHeader() throws IOException {
+        File file = write("timeStamp,elapsed\r\n1,2\r\n3,4");
+        long offset = ParallelCsvReader.firstLineLength(file);
+        assertEquals("timeStamp,elapsed\r\n".length(), offset);
+        List<String[]> records = readInParallel(file, offset, 4);
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"1", "2"}, records.get(0));
+        assertArrayEquals(new String[]{"3", "4"}, records.get(1));
+    }
+
+    @Test
+    public void testInvalidRecordFailsAfterPreviousRecords() throws IOException {
+        File file = write("1,ok\n2,in\"valid\n3,ok\n");
+        try (ParallelCsvReader reader = new ParallelCsvReader(file, 0, StandardCharsets.UTF_8, ',', 2, 1024)) {
+            assertArrayEquals(new String[]{"1", "ok"}, reader.readRecord());
+            assertThrows(IOException.class, reader::readRecord);
+        }
+    }
+
+    @Test
+    public void testClosedReaderFails() throws IOException {
+        File file = write("1,2\n");
+        ParallelCsvReader reader = new ParallelCsvReader(file, 0, StandardCharsets.UTF_8, ',', 2);
+        reader.close();
+        assertThrows(IOException.class, reader::readRecord);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramPercentileAggregatorTest {
+
+    @Test
+    public void testPercentileOfAllValues() {
+        HistogramPercentileAggregator aggregator = new HistogramPercentileAggregator(90, 3);
+        for (int i = 1; i <= 1000; i++) {
+            aggregator.addValue(i);
+        }
+        assertEquals(1000, aggregator.getCount());
+        assertEquals(900, aggregator.getResult(), 0);
+        aggregator.reset();
+        assertEquals(0, aggregator.getCount());
+    }
+
+    @Test
+    public void testMergeMatchesSingleSeries() {
+        HistogramPercentileAggregator overall = new HistogramPercentileAggregator(99, 2);
+        HistogramPercentileAggregator first = new HistogramPercentileAggregator(99, 2);
+        HistogramPercentileAggregator second = new HistogramPercentileAggregator(99, 2);
+        for (int i = 0; i < 100_000; i++) {
+            double value = i * 7 % 50_000;
+            overall.addValue(value);
+            (i % 2 == 0 ? first : second).addValue(value);
+        }
+        first.merge(second);
+        assertEquals(overall.getCount(), first.getCount());
+        assertEquals(overall.getResult(), first.getResult(), 0);
+    }
+}
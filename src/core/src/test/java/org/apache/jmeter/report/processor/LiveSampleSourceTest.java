@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleException;
+import org.apache.jmeter.reporters.SampleOverflowPolicy;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.CSVSaveService;
+import org.junit.jupiter.api.Test;
+
+public class LiveSampleSourceTest extends JMeterTestCase {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final SampleSaveConfiguration saveConfig = new SampleSaveConfiguration();
+
+    private final File resultFile = new File("results.csv");
+
+    private SampleEvent createEvent(int i) {
+        SampleResult result = SampleResult.createTestSample(START + i, START + i + i % 100);
+        result.setSampleLabel("label " + (i % 7));
+        result.setResponseMessage("message, \"quoted\"\nline " + i);
+        result.setSuccessful(i % 5 != 0);
+        result.setSaveConfig(saveConfig);
+        return new SampleEvent(result, "Thread Group", "localhost");
+    }
+
+    private static class CollectingConsumer extends AbstractSampleConsumer {
+        final List<Sample> samples = new ArrayList<>();
+        private boolean stopped;
+
+        @Override
+        public void startConsuming() {
+            // Nothing to do
+        }
+
+        @Override
+        public void consume(Sample sample, int channel) {
+            samples.add(sample);
+        }
+
+        @Override
+        public void stopConsuming() {
+            stopped = true;
+        }
+    }
+
+    @Test
+    public void testProducesOfferedSamplesInOrder() throws Exception {
+        LiveSampleSource source = new LiveSampleSource(resultFile, saveConfig, 16, SampleOverflowPolicy.BLOCK);
+        source.setSampleContext(new SampleContext());
+        CollectingConsumer consumer = new CollectingConsumer();
+        source.addSampleConsumer(consumer);
+        CompletableFuture<Void> run = CompletableFuture.runAsync(source);
+
+        int count = 1000; // Much more than the queue size
+        for (int i = 0; i < count; i++) {
+            source.offer(createEvent(i));
+        }
+        source.finish();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertTrue(consumer.stopped, "consumers should be stopped");
+        assertEquals(count, source.getSampleCount());
+        assertEquals(count, consumer.samples.size());
+        for (int i = 0; i < count; i++) {
+            Sample sample = consumer.samples.get(i);
+            assertEquals(i, sample.getSampleRow());
+            assertEquals(createEvent(i).getResult().getTimeStamp(), sample.getTimestamp());
+            assertEquals(i % 100, sample.getElapsedTime());
+            assertEquals("label " + (i % 7), sample.getName());
+            assertEquals("message, \"quoted\"\nline " + i, sample.getResponseMessage());
+            assertEquals(i % 5 != 0, sample.getSuccess());
+        }
+        assertEquals(CSVSaveService.printableFieldNamesToString(saveConfig),
+                consumer.getConsumedMetadata(0).toString());
+    }
+
+    @Test
+    public void testFailingConsumerDoesNotBlockSamplingThreads() throws Exception {
+        LiveSampleSource source = new LiveSampleSource(resultFile, saveConfig, 16, SampleOverflowPolicy.BLOCK);
+        source.setSampleContext(new SampleContext());
+        source.addSampleConsumer(new CollectingConsumer() {
+            @Override
+            public void consume(Sample sample, int channel) {
+                throw new IllegalStateException("Failing consumer");
+            }
+        });
+        CompletableFuture<Void> run = CompletableFuture.runAsync(source);
+        for (int i = 0; i < 100; i++) {
+            source.offer(createEvent(i));
+        }
+        source.finish();
+        Exception e = assertThrows(Exception.class, () -> run.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SampleException, () -> "Unexpected failure " + e);
+    }
+
+    @Test
+    public void testFormatsWithTheGivenSaveConfiguration() throws Exception {
+        saveConfig.setSubresults(true);
+        LiveSampleSource source = new LiveSampleSource(resultFile, saveConfig, 16, SampleOverflowPolicy.BLOCK);
+        source.setSampleContext(new SampleContext());
+        CollectingConsumer consumer = new CollectingConsumer();
+        source.addSampleConsumer(consumer);
+        CompletableFuture<Void> run = CompletableFuture.runAsync(source);
+
+        SampleEvent event = createEvent(1);
+        event.getResult().addRawSubResult(SampleResult.createTestSample(START, START + 42));
+        // Another collector sets its own configuration, using another delimiter
+        SampleSaveConfiguration otherConfig = new SampleSaveConfiguration();
+        otherConfig.setDelimiter(";");
+        event.getResult().setSaveConfig(otherConfig);
+        source.offer(event);
+        source.finish();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, consumer.samples.size(), "sample and its sub-result should be produced");
+        assertEquals("label 1", consumer.samples.get(0).getName());
+        assertEquals(42, consumer.samples.get(1).getElapsedTime());
+    }
+
+    @Test
+    public void testDropPolicyDoesNotBlockSamplingThreads() throws Exception {
+        LiveSampleSource source = new LiveSampleSource(resultFile, saveConfig, 16, SampleOverflowPolicy.DROP);
+        source.setSampleContext(new SampleContext());
+        CountDownLatch consumerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseConsumer = new CountDownLatch(1);
+        CollectingConsumer consumer = new CollectingConsumer() {
+            @Override
+            public void consume(Sample sample, int channel) {
+                consumerBlocked.countDown();
+                try {
+                    releaseConsumer.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.consume(sample, channel);
+            }
+        };
+        source.addSampleConsumer(consumer);
+        CompletableFuture<Void> run = CompletableFuture.runAsync(source);
+
+        source.offer(createEvent(0));
+        assertTrue(consumerBlocked.await(10, TimeUnit.SECONDS), "consumer should get the first sample");
+        int count = 1000;
+        for (int i = 1; i < count; i++) {
+            // Would wait forever with BLOCK
+            source.offer(createEvent(i));
+        }
+        releaseConsumer.countDown();
+        source.finish();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertTrue(source.getDroppedCount() > 0, "samples should be dropped");
+        assertEquals(count, source.getDroppedCount() + source.getSampleCount());
+        assertEquals(source.getSampleCount(), consumer.samples.size());
+    }
+
+    @Test
+    public void testIntermediateResultsAreStoredPeriodically() throws Exception {
+        LiveSampleSource source = new LiveSampleSource(resultFile, saveConfig, 16, SampleOverflowPolicy.BLOCK);
+        SampleContext context = new SampleContext();
+        source.setSampleContext(context);
+        CollectingConsumer consumer = new CollectingConsumer() {
+            @Override
+            public void storeIntermediateResults() {
+                setDataToContext("count", samples.size());
+            }
+        };
+        source.addSampleConsumer(consumer);
+        BlockingQueue<SampleContext> intermediateResults = new LinkedBlockingQueue<>();
+        source.setIntermediateResultsHandler(1, intermediateResults::add);
+        CompletableFuture<Void> run = CompletableFuture.runAsync(source);
+
+        source.offer(createEvent(0));
+        SampleContext first = intermediateResults.poll(10, TimeUnit.SECONDS);
+        assertTrue(first != null, "intermediate results should be stored while the test runs");
+        assertFalse(first == context, "handler should get a copy of the context");
+        source.offer(createEvent(1));
+        source.offer(createEvent(2));
+        SampleContext last;
+        do {
+            last = intermediateResults.poll(10, TimeUnit.SECONDS);
+        } while (last != null && !Integer.valueOf(3).equals(last.getData().get("count")));
+        assertTrue(last != null, "intermediate results should include the samples produced since the previous ones");
+        source.finish();
+        run.get(10, TimeUnit.SECONDS);
+        assertTrue(consumer.stopped, "consumers should be stopped");
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.save.CSVSaveService;
+import org.junit.jupiter.api.Test;
+
+public class StatisticsSummaryConsumerTest extends JMeterTestCase {
+
+    private static final SampleMetadata METADATA = new SampleMetadata(',', CSVSaveService.TIME_STAMP,
+            CSVSaveService.CSV_ELAPSED, CSVSaveService.LABEL, CSVSaveService.RESPONSE_MESSAGE,
+            CSVSaveService.SUCCESSFUL, CSVSaveService.CSV_BYTES);
+
+    private static final String TRANSACTION_MESSAGE = "Number of samples in transaction : 2, number of failing samples : 0";
+
+    private static final int MEDIAN_COLUMN = 7;
+    private static final int PERCENTILE3_COLUMN = 10;
+
+    private long row;
+
+    private Sample sample(String label, long elapsed, boolean controller) {
+        return new Sample(row++, METADATA, "1000", Long.toString(elapsed), label,
+                controller ? TRANSACTION_MESSAGE : "OK", "true", "10");
+    }
+
+    private static double getOverallResult(SampleContext context, StatisticsSummaryConsumer consumer, int column) {
+        MapResultData result = (MapResultData) context.getData().get(consumer.getName());
+        MapResultData overall = (MapResultData) result.getResult(AbstractSummaryConsumer.RESULT_VALUE_OVERALL);
+        ListResultData data = (ListResultData) overall.getResult(AbstractSummaryConsumer.RESULT_VALUE_DATA);
+        return ((Number) ((ValueResultData) data.get(column)).getValue()).doubleValue();
+    }
+
+    @Test
+    public void testOverallPercentilesMergedFromLabels() {
+        StatisticsSummaryConsumer consumer = new StatisticsSummaryConsumer(true);
+        SampleContext context = new SampleContext();
+        consumer.setSampleContext(context);
+        consumer.setConsumedMetadata(METADATA, 0);
+        consumer.startConsuming();
+
+        HistogramPercentileAggregator expectedMedian = new HistogramPercentileAggregator(50);
+        HistogramPercentileAggregator expectedPercentile = new HistogramPercentileAggregator(99);
+        for (int i = 0; i < 10_000; i++) {
+            long elapsed = i * 37L % 5_000;
+            // "mixed" gets a Transaction Controller sample in the middle of the run
+            String label = i % 3 == 0 ? "first" : i % 3 == 1 ? "second" : "mixed";
+            consumer.consume(sample(label, elapsed, false), 0);
+            expectedMedian.addValue(elapsed);
+            expectedPercentile.addValue(elapsed);
+            if (i % 100 == 0) {
+                // Ignored by the overall row
+                consumer.consume(sample("transaction", 100_000, true), 0);
+            }
+            if (i == 5_000) {
+                consumer.consume(sample("mixed", 200_000, true), 0);
+            }
+        }
+        consumer.stopConsuming();
+
+        assertEquals(expectedMedian.getResult(), getOverallResult(context, consumer, MEDIAN_COLUMN), 0);
+        assertEquals(expectedPercentile.getResult(), getOverallResult(context, consumer, PERCENTILE3_COLUMN), 0);
+    }
+
+    @Test
+    public void testSameResultsWithAndWithoutHistograms() {
+        StatisticsSummaryConsumer windowConsumer = new StatisticsSummaryConsumer(false);
+        StatisticsSummaryConsumer histogramConsumer = new StatisticsSummaryConsumer(true);
+        SampleContext windowContext = new SampleContext();
+        SampleContext histogramContext = new SampleContext();
+        windowConsumer.setSampleContext(windowContext);
+        histogramConsumer.setSampleContext(histogramContext);
+        for (StatisticsSummaryConsumer consumer : new StatisticsSummaryConsumer[]{windowConsumer, histogramConsumer}) {
+            consumer.setConsumedMetadata(METADATA, 0);
+            consumer.startConsuming();
+            for (int i = 0; i < 1_000; i++) {
+                // Values below 1000 are exact with 3 significant digits
+                consumer.consume(sample(i % 2 == 0 ? "first" : "second", i, false), 0);
+            }
+            consumer.stopConsuming();
+        }
+        assertEquals(getOverallResult(windowContext, windowConsumer, MEDIAN_COLUMN),
+                getOverallResult(histogramContext, histogramConsumer, MEDIAN_COLUMN), 1);
+        assertEquals(getOverallResult(windowContext, windowConsumer, PERCENTILE3_COLUMN),
+                getOverallResult(histogramContext, histogramConsumer, PERCENTILE3_COLUMN), 1);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.reporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class AsyncSampleWriterTest extends JMeterTestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int SAMPLES_PER_PRODUCER = 10_000;
+
+    @ParameterizedTest
+    @EnumSource(SampleOverflowPolicy.class)
+    public void testEverySampleIsWrittenOrDroppedWhenClosedConcurrently(SampleOverflowPolicy policy)
+            throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            LongAdder written = new LongAdder();
+            LongAdder offered = new LongAdder();
+            AsyncSampleWriter writer = new AsyncSampleWriter("round-" + round,
+                    (event, config) -> written.increment(), () -> { }, 64, 16, policy);
+            CountDownLatch started = new CountDownLatch(PRODUCERS);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                Thread thread = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < SAMPLES_PER_PRODUCER; i++) {
+                        offered.increment();
+                        writer.write(null, null);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            started.await();
+            // Close while the producers are writing
+            writer.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(offered.sum(), written.sum() + writer.getDroppedCount(),
+                    () -> written.sum() + " written, " + writer.getDroppedCount() + " dropped");
+        }
+    }
+}
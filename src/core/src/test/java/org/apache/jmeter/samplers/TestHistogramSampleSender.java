@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TestHistogramSampleSender {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static class Collector implements RemoteSampleListener {
+        final List<SampleEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final List<String> ended = new ArrayList<>();
+        final List<String> batchThreads = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void testStarted() {
+        }
+
+        @Override
+        public void testStarted(String host) {
+        }
+
+        @Override
+        public void testEnded() {
+        }
+
+        @Override
+        public void testEnded(String host) {
+            ended.add(host);
+        }
+
+        @Override
+        public void processBatch(List<SampleEvent> samples) {
+            batchThreads.add(Thread.currentThread().getName());
+            events.addAll(samples);
+        }
+
+        @Override
+        public void sampleOccurred(SampleEvent e) {
+            events.add(e);
+        }
+
+        @Override
+        public void sampleStarted(SampleEvent e) {
+        }
+
+        @Override
+        public void sampleStopped(SampleEvent e) {
+        }
+    }
+
+    private static SampleEvent event(long stamp, long elapsed, boolean success) {
+        return event(stamp, elapsed, success, new String[0]);
+    }
+
+    private static SampleEvent event(long stamp, long elapsed, boolean success, String[] variables) {
+        SampleResult result = new SampleResult(stamp, elapsed);
+        result.setSampleLabel("Home page");
+        result.setThreadName("Thread Group 1-1");
+        result.setSuccessful(success);
+        result.setResponseCode(success ? "200" : "500");
+        result.setBytes(100L);
+        return new SampleEvent(result, "Thread Group", "worker-1", variables, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serialize(T object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    void samplesAreAggregatedByWindowAndKey() throws Exception {
+        Collector collector = new Collector();
+        HistogramSampleSender sender = new HistogramSampleSender(collector);
+        sender.readResolve();
+        for (int i = 0; i < 1000; i++) {
+            sender.sampleOccurred(event(START + i, i + 1L, i % 10 != 0));
+        }
+        // Closes the windows before the previous one
+        sender.sampleOccurred(event(START + 3000, 5, true));
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (collector.events.size() < 2) {
+                Thread.sleep(10);
+            }
+        });
+        assertEquals(2, collector.events.size(), "success and error aggregates of the first window");
+        assertEquals(List.of("HistogramSampleSender"), collector.batchThreads, "sent by the worker");
+        sender.testEnded("worker-1");
+        assertEquals(List.of("worker-1"), collector.ended);
+        assertEquals(3, collector.events.size());
+
+        List<SampleResult> samples = new ArrayList<>();
+        long bytes = 0;
+        for (SampleEvent event : collector.events) {
+            HistogramSampleResult aggregate = serialize((HistogramSampleResult) event.getResult());
+            aggregate.forEachSample(samples::add);
+        }
+        assertEquals(1001, samples.size());
+        long errors = 0;
+        List<Long> times = new ArrayList<>();
+        for (SampleResult sample : samples) {
+            bytes += sample.getBytesAsLong();
+            if (!sample.isSuccessful()) {
+                errors++;
+                assertEquals("500", sample.getResponseCode());
+            }
+            assertEquals("Home page", sample.getSampleLabel());
+            assertEquals(HistogramSampleResult.DATA_TYPE, sample.getDataType());
+            assertEquals("Thread Group (histogram)", sample.getThreadName());
+            assertTrue(sample.getTimeStamp() >= START && sample.getTimeStamp() <= START + 3000,
+                    "time stamp in the aggregated range");
+            times.add(sample.getTime());
+        }
+        assertEquals(100 * 1001L, bytes);
+        assertEquals(100, errors);
+        times.sort(null);
+        // Response times below 2000 are recorded exactly with 3 significant digits
+        assertEquals(500L, times.get(500).longValue());
+        assertEquals(1000L, times.get(1000).longValue());
+    }
+
+    @Test
+    void sampleVariablesAreKeptInTheKey() throws Exception {
+        Collector collector = new Collector();
+        HistogramSampleSender sender = new HistogramSampleSender(collector);
+        sender.readResolve();
+        for (int i = 0; i < 10; i++) {
+            sender.sampleOccurred(event(START + i, 10, true, new String[]{i % 2 == 0 ? "even" : "odd", null}));
+        }
+        sender.testEnded("worker-1");
+
+        Map<String, Long> counts = new HashMap<>();
+        for (SampleEvent event : collector.events) {
+            assertNull(event.getVarValue(1));
+            ((HistogramSampleResult) event.getResult())
+                    .forEachSample(sample -> counts.merge(event.getVarValue(0), 1L, Long::sum));
+        }
+        assertEquals(Map.of("even", 5L, "odd", 5L), counts);
+    }
+
+    @Test
+    void samplesAreAddedConcurrently() throws Exception {
+        Collector collector = new Collector();
+        HistogramSampleSender sender = new HistogramSampleSender(collector);
+        sender.readResolve();
+        int threads = 8;
+        int samplesPerThread = 10_000;
+        List<Thread> samplers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread sampler = new Thread(() -> {
+                for (int i = 0; i < samplesPerThread; i++) {
+                    // Spreads the samples over several windows, so that some are closed meanwhile
+                    sender.sampleOccurred(event(START + i / 2, i % 100 + 1L, true));
+                }
+            });
+            samplers.add(sampler);
+            sampler.start();
+        }
+        for (Thread sampler : samplers) {
+            sampler.join();
+        }
+        sender.testEnded("worker-1");
+
+        long count = 0;
+        long bytes = 0;
+        for (SampleEvent event : collector.events) {
+            HistogramSampleResult aggregate = serialize((HistogramSampleResult) event.getResult());
+            List<SampleResult> samples = new ArrayList<>();
+            aggregate.forEachSample(samples::add);
+            count += samples.size();
+            for (SampleResult sample : samples) {
+                bytes += sample.getBytesAsLong();
+            }
+        }
+        assertEquals((long) threads * samplesPerThread, count);
+        assertEquals(100L * threads * samplesPerThread, bytes);
+    }
+}
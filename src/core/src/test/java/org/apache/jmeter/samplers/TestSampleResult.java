@@ -381,4 +381,15 @@ class TestSampleResult implements JMeterSerialTest {
         Assertions.assertFalse(secondResult.markFile(null), "Expected false on first call of markFile with null");
         Assertions.assertTrue(secondResult.markFile(null), "Expected true on second call of markFile with null");
     }
+
+    @Test
+    void testMarkSeveralFiles() {
+        SampleResult result = new SampleResult();
+        Assertions.assertFalse(result.markFile("first.csv"), "Expected false on first call of markFile");
+        Assertions.assertFalse(result.markFile("second.csv"), "Expected false on first call of markFile for another file");
+        Assertions.assertFalse(result.markFile("third.csv"), "Expected false on first call of markFile for a third file");
+        Assertions.assertTrue(result.markFile("first.csv"), "Expected true on second call of markFile");
+        Assertions.assertTrue(result.markFile("second.csv"), "Expected true on second call of markFile for another file");
+        Assertions.assertTrue(result.markFile("third.csv"), "Expected true on second call of markFile for a third file");
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.samplers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestSampleRing {
+
+    @TempDir
+    Path directory;
+
+    private static List<SampleEvent> events(int frame) {
+        List<SampleEvent> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            SampleResult result = new SampleResult(1_700_000_000_000L + frame, 10 + i);
+            result.setSampleLabel("Request " + frame + "-" + i);
+            result.setSuccessful(i % 7 != 0);
+            events.add(new SampleEvent(result, "Thread Group", "worker-1", new String[0], false));
+        }
+        return events;
+    }
+
+    @Test
+    void samplesAreReadInOrderWhileTheRingWrapsAround() throws Exception {
+        Path file = SampleRingReceiver.ringFile(directory, "key");
+        // much smaller than the samples, so that the writer waits for the reader and the positions wrap around
+        SampleRing writer = SampleRing.create(file, 4096);
+        CompletableFuture<Boolean> written = CompletableFuture.supplyAsync(() -> {
+            try (writer) {
+                OutputStream out = new BufferedOutputStream(writer.getOutputStream(10_000), 1024);
+                SampleStreamCodec.Encoder encoder = new SampleStreamCodec.Encoder(out);
+                for (int frame = 0; frame < 200; frame++) {
+                    encoder.writeSamples(events(frame));
+                }
+                encoder.writeEnd();
+                return writer.awaitAcknowledge(10_000);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        int frames = 0;
+        try (SampleRing reader = SampleRing.open(file)) {
+            SampleStreamCodec.Decoder decoder =
+                    new SampleStreamCodec.Decoder(new BufferedInputStream(reader.getInputStream(10_000), 1024));
+            List<SampleEvent> events;
+            while ((events = decoder.readFrame()) != null) {
+                assertEquals(50, events.size(), "samples of frame " + frames);
+                for (int i = 0; i < events.size(); i++) {
+                    SampleResult result = events.get(i).getResult();
+                    assertEquals("Request " + frames + "-" + i, result.getSampleLabel());
+                    assertEquals(10 + i, result.getTime());
+                    assertEquals(i % 7 != 0, result.isSuccessful());
+                }
+                frames++;
+            }
+            reader.acknowledge();
+        }
+        assertEquals(200, frames, "frames");
+        assertTrue(written.get(10, TimeUnit.SECONDS), "the writer should see the acknowledgement");
+        assertFalse(Files.exists(file), "the ring should be deleted");
+    }
+
+    @Test
+    void readerSeesTheEndOfTheDataWhenTheWriterCloses() throws Exception {
+        Path file = SampleRingReceiver.ringFile(directory, "key");
+        try (SampleRing writer = SampleRing.create(file, 16); SampleRing reader = SampleRing.open(file)) {
+            writer.getOutputStream(1000).write(new byte[]{1, 2, 3});
+            writer.close();
+            InputStream in = reader.getInputStream(10_000);
+            byte[] data = new byte[8];
+            assertEquals(3, in.read(data, 0, data.length));
+            assertEquals(3, data[2]);
+            assertEquals(-1, in.read(data, 0, data.length));
+        }
+    }
+
+    @Test
+    void writerFailsWhenTheReaderHasClosed() throws Exception {
+        Path file = SampleRingReceiver.ringFile(directory, "key");
+        try (SampleRing writer = SampleRing.create(file, 16)) {
+            SampleRing.open(file).close();
+            OutputStream out = writer.getOutputStream(10_000);
+            assertThrows(IOException.class, () -> out.write(new byte[32]));
+            assertFalse(writer.awaitAcknowledge(0), "acknowledged");
+        }
+    }
+
+    @Test
+    void readerGivesUpWhenTheWriterIsSilent() throws Exception {
+        Path file = SampleRingReceiver.ringFile(directory, "key");
+        try (SampleRing writer = SampleRing.create(file, 16)) {
+            SampleRing reader = SampleRing.open(file);
+            InputStream in = reader.getInputStream(300);
+            long start = System.nanoTime();
+            IOException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IOException.class, () -> in.read(new byte[8], 0, 8)));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300), "waited for the timeout");
+            assertFalse(e instanceof EOFException, "the writer process is alive");
+            reader.close();
+            assertFalse(Files.exists(file), "the reader deletes the abandoned ring");
+        }
+    }
+
+    @Test
+    void heartbeatsKeepTheReaderWaiting() throws Exception {
+        Path file = SampleRingReceiver.ringFile(directory, "key");
+        try (SampleRing writer = SampleRing.create(file, 16); SampleRing reader = SampleRing.open(file)) {
+            CompletableFuture<Void> written = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 10; i++) {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                        writer.heartbeat();
+                    }
+                    writer.getOutputStream(1000).write(new byte[]{42});
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            InputStream in = reader.getInputStream(500);
+            assertEquals(42, assertTimeoutPreemptively(Duration.ofSeconds(10), () -> in.read()));
+            written.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void readerStopsWhenTheWriterProcessHasDied() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-version").redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS), "java -version should end");
+        Path file = SampleRingReceiver.ringFile(directory, "key");
+        try (SampleRing writer = SampleRing.create(file, 16, process.pid());
+             SampleRing reader = SampleRing.open(file)) {
+            InputStream in = reader.getInputStream(60_000);
+            assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(EOFException.class, () -> in.read(new byte[8], 0, 8)));
+        }
+    }
+
+    @Test
+    void defaultDirectoryIsPrivate() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"), "POSIX file system");
+        Path rings = directory.resolve("rings");
+        SampleRingReceiver.createPrivateDirectory(rings);
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(rings)));
+        // the existing directory is reused
+        SampleRingReceiver.createPrivateDirectory(rings);
+
+        Files.setPosixFilePermissions(rings, PosixFilePermissions.fromString("rwxrwxrwx"));
+        assertThrows(IOException.class, () -> SampleRingReceiver.createPrivateDirectory(rings));
+    }
+}
@@ -184,4 +184,13 @@ public class TestSampleSaveConfiguration extends JMeterTestCase {
         }
     }
 
+    @Test
+    public void testMightSaveResponseData() throws Exception {
+        SampleSaveConfiguration a = new SampleSaveConfiguration(false);
+        assertFalse(a.mightSaveResponseData());
+        a.setResponseData(true);
+        assertTrue(a.mightSaveResponseData());
+        assertTrue(new SampleSaveConfiguration(true).mightSaveResponseData());
+    }
+
  }
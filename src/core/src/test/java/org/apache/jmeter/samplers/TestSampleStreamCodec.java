@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.junit.jupiter.api.Test;
+
+class TestSampleStreamCodec {
+
+    private static SampleResult result(String label, boolean success) {
+        SampleResult result = new SampleResult(1_700_000_000_000L, 123);
+        result.setSampleLabel(label);
+        result.setThreadName("Thread Group 1-1");
+        result.setSuccessful(success);
+        result.setResponseCode(success ? "200" : "500");
+        result.setResponseMessage(success ? "OK" : "Internal Server Error");
+        result.setLatency(45);
+        result.setConnectTime(7);
+        result.setBytes(2048L);
+        result.setSentBytes(512);
+        result.setGroupThreads(10);
+        result.setAllThreads(20);
+        return result;
+    }
+
+    private static List<SampleEvent> roundTrip(List<SampleEvent> events, int frames) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SampleStreamCodec.Encoder encoder = new SampleStreamCodec.Encoder(bytes);
+        for (int i = 0; i < frames; i++) {
+            encoder.writeSamples(events);
+        }
+        encoder.writeEnd();
+        SampleStreamCodec.Decoder decoder = new SampleStreamCodec.Decoder(new ByteArrayInputStream(bytes.toByteArray()));
+        List<SampleEvent> decoded = null;
+        for (int i = 0; i < frames; i++) {
+            decoded = decoder.readFrame();
+        }
+        assertNull(decoder.readFrame(), "end frame");
+        return decoded;
+    }
+
+    @Test
+    void fieldsOfResultsAreKept() throws Exception {
+        SampleResult parent = result("Home page", false);
+        parent.setURL(new URL("https://jmeter.apache.org/index.html"));
+        parent.setDataType(SampleResult.TEXT);
+        parent.setContentType("text/html; charset=UTF-8");
+        parent.setDataEncoding("UTF-8");
+        parent.setSamplerData("GET https://jmeter.apache.org/index.html");
+        parent.setRequestHeaders("Accept: */*");
+        parent.setResponseHeaders("HTTP/1.1 500 Internal Server Error");
+        parent.setResponseData("Körper", "UTF-8");
+        AssertionResult assertion = new AssertionResult("Response Assertion");
+        assertion.setFailure(true);
+        assertion.setFailureMessage("Test failed: code expected to equal 200");
+        parent.addAssertionResult(assertion);
+        parent.storeSubResult(result("Home page-0", true), false);
+
+        SampleEvent event = new SampleEvent(parent, "Thread Group", "worker-1", new String[]{"a", null}, true);
+        SampleEvent decoded = roundTrip(List.of(event), 1).get(0);
+
+        assertEquals("Thread Group", decoded.getThreadGroup());
+        assertEquals("worker-1", decoded.getHostname());
+        assertTrue(decoded.isTransactionSampleEvent(), "isTransactionSampleEvent");
+        assertEquals("a", decoded.getVarValue(0));
+        assertNull(decoded.getVarValue(1));
+
+        SampleResult result = decoded.getResult();
+        assertEquals(parent.getTimeStamp(), result.getTimeStamp());
+        assertEquals(parent.getStartTime(), result.getStartTime());
+        assertEquals(parent.getEndTime(), result.getEndTime());
+        assertEquals(123, result.getTime());
+        assertEquals(45, result.getLatency());
+        assertEquals(7, result.getConnectTime());
+        assertEquals(parent.getBytesAsLong(), result.getBytesAsLong());
+        assertEquals(512, result.getSentBytes());
+        assertEquals(10, result.getGroupThreads());
+        assertEquals(20, result.getAllThreads());
+        assertFalse(result.isSuccessful(), "isSuccessful");
+        assertEquals("Home page", result.getSampleLabel());
+        assertEquals("Thread Group 1-1", result.getThreadName());
+        assertEquals("500", result.getResponseCode());
+        assertEquals("Internal Server Error", result.getResponseMessage());
+        assertEquals("https://jmeter.apache.org/index.html", result.getUrlAsString());
+        assertEquals("text/html; charset=UTF-8", result.getContentType());
+        assertEquals("UTF-8", result.getDataEncodingNoDefault());
+        assertEquals("GET https://jmeter.apache.org/index.html", result.getSamplerData());
+        assertEquals("Accept: */*", result.getRequestHeaders());
+        assertEquals("HTTP/1.1 500 Internal Server Error", result.getResponseHeaders());
+        assertArrayEquals("Körper".getBytes(StandardCharsets.UTF_8), result.getResponseData());
+
+        AssertionResult[] assertions = result.getAssertionResults();
+        assertEquals(1, assertions.length);
+        assertEquals("Response Assertion", assertions[0].getName());
+        assertTrue(assertions[0].isFailure(), "isFailure");
+        assertEquals("Test failed: code expected to equal 200", assertions[0].getFailureMessage());
+
+        SampleResult[] subResults = result.getSubResults();
+        assertEquals(1, subResults.length);
+        assertEquals("Home page-0", subResults[0].getSampleLabel());
+        assertTrue(subResults[0].isSuccessful(), "isSuccessful");
+    }
+
+    @Test
+    void repeatedStringsAreResolvedAcrossFrames() throws IOException {
+        SampleEvent[] events = new SampleEvent[50];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new SampleEvent(result("Request " + (i % 5), i % 2 == 0), "Thread Group", "worker-1",
+                    new String[0], false);
+        }
+        List<SampleEvent> decoded = roundTrip(Arrays.asList(events), 3);
+        assertEquals(events.length, decoded.size());
+        for (int i = 0; i < events.length; i++) {
+            assertEquals("Request " + (i % 5), decoded.get(i).getResult().getSampleLabel());
+            assertEquals(i % 2 == 0, decoded.get(i).getResult().isSuccessful());
+        }
+    }
+}
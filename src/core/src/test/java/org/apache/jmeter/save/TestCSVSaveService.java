@@ -17,12 +17,15 @@
 
 package org.apache.jmeter.save;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -182,4 +185,65 @@ public class TestCSVSaveService extends JMeterTestCase {
 
         assertEquals(RESULT, CSVSaveService.resultToDelimitedString(new SampleEvent(result,"")), "Result text has changed");
     }
+
+    @Test
+    public void testSaveSampleResultUsesGivenConfiguration() {
+        SampleResult result = SampleResult.createTestSample(1, 2);
+        result.setSampleLabel("label");
+        // Configuration set by another collector sharing the sample
+        SampleSaveConfiguration other = new SampleSaveConfiguration();
+        other.setDelimiter(";");
+        result.setSaveConfig(other);
+        SampleSaveConfiguration config = new SampleSaveConfiguration(false);
+        config.setTimestamp(true);
+        config.setLabel(true);
+        config.setDelimiter(",");
+
+        StringWriter sw = new StringWriter();
+        try (PrintWriter pw = new PrintWriter(sw)) {
+            CSVSaveService.saveSampleResult(new SampleEvent(result, ""), config, pw);
+        }
+        assertEquals("1,label" + System.lineSeparator(), sw.toString());
+    }
+
+    @Test
+    public void testTlsSessionResumedIsEmptyWithoutHandshake() {
+        SampleSaveConfiguration config = new SampleSaveConfiguration(false);
+        config.setLabel(true);
+        config.setTlsSessionResumed(true);
+        config.setDelimiter(",");
+        assertEquals("label,TLSSessionResumed", CSVSaveService.printableFieldNamesToString(config));
+        assertEquals(config, CSVSaveService.getSampleSaveConfiguration("label,TLSSessionResumed", "test.csv"));
+
+        SampleResult reused = new SampleResult();
+        reused.setSampleLabel("reused");
+        assertEquals("reused,", CSVSaveService.resultToDelimitedString(new SampleEvent(reused, ""), reused, config, ","));
+
+        SampleResult full = new SampleResult();
+        full.setSampleLabel("full");
+        full.setTlsHandshake(false);
+        assertEquals("full,false", CSVSaveService.resultToDelimitedString(new SampleEvent(full, ""), full, config, ","));
+
+        SampleResult resumed = new SampleResult();
+        resumed.setSampleLabel("resumed");
+        resumed.setTlsHandshake(true);
+        assertEquals("resumed,true", CSVSaveService.resultToDelimitedString(new SampleEvent(resumed, ""), resumed, config, ","));
+    }
+
+    @Test
+    public void testResultToColumnsMatchesTheParsedRow() throws IOException {
+        SampleSaveConfiguration config = new SampleSaveConfiguration();
+        config.setDelimiter(",");
+        SampleResult result = SampleResult.createTestSample(1, 2);
+        result.setSampleLabel("label, \"quoted\"");
+        result.setResponseMessage("line 1\r\nline 2");
+        result.setThreadName(null);
+        SampleEvent event = new SampleEvent(result, "");
+
+        String[] columns = CSVSaveService.resultToColumns(event, result, config);
+
+        String row = CSVSaveService.resultToDelimitedString(event, result, config, ",");
+        assertArrayEquals(CSVSaveService.csvSplitString(row, ','), columns);
+        assertEquals(CSVSaveService.printableFieldNamesToString(config).split(",").length, columns.length);
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class IndexedCsvFileTest {
+
+    @TempDir
+    File tempDir;
+
+    private File write(byte[] content) throws IOException {
+        File file = new File(tempDir, "data.csv");
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private List<String> readAll(String content, String charsetName, boolean quoted, int segmentSize)
+            throws IOException {
+        File file = write(content.getBytes(StandardCharsets.UTF_8));
+        List<String> records = new ArrayList<>();
+        try (IndexedCsvFile indexedFile = IndexedCsvFile.open(file, charsetName, quoted, segmentSize)) {
+            for (int i = 0; i < indexedFile.getRecordCount(); i++) {
+                records.add(indexedFile.getRecord(i));
+            }
+        }
+        return records;
+    }
+
+    // Small segments make records and line breaks span several mapped buffers
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 1 << 20})
+    public void testLineBreaks(int segmentSize) throws IOException {
+        assertEquals(List.of("a,b", "c,d", "", "e", "f"),
+                readAll("a,b\r\nc,d\n\ne\rf", null, false, segmentSize));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 1 << 20})
+    public void testQuotedLineBreaks(int segmentSize) throws IOException {
+        assertEquals(List.of("h", "\"x\ny\",z", "\"q\"\"\r\"", "last"),
+                readAll("h\n\"x\ny\",z\r\n\"q\"\"\r\"\nlast\n", null, true, segmentSize));
+    }
+
+    @Test
+    public void testQuotesIgnoredWhenNotQuoted() throws IOException {
+        assertEquals(List.of("h", "\"x", "y\",z"), readAll("h\n\"x\ny\",z\n", null, false, 1 << 20));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        assertEquals(List.of(), readAll("", null, false, 1 << 20));
+        assertEquals(List.of(""), readAll("\n", null, false, 1 << 20));
+    }
+
+    @Test
+    public void testUtf8BomIsSkipped() throws IOException {
+        assertEquals(List.of("ä,ö", "ü"), readAll("\uFEFFä,ö\nü", "", false, 1 << 20));
+    }
+
+    @Test
+    public void testCharset() throws IOException {
+        File file = write("é,ü\n".getBytes(StandardCharsets.ISO_8859_1));
+        try (IndexedCsvFile indexedFile = IndexedCsvFile.open(file, "ISO-8859-1", false)) {
+            assertEquals(1, indexedFile.getRecordCount());
+            assertEquals("é,ü", indexedFile.getRecord(0));
+        }
+    }
+
+    @Test
+    public void testUnsupportedCharset() throws IOException {
+        File file = write("a,b\n".getBytes(StandardCharsets.UTF_16));
+        assertNull(IndexedCsvFile.open(file, "UTF-16", false));
+        // UTF-16 byte order mark
+        assertNull(IndexedCsvFile.open(file, null, false));
+    }
+}
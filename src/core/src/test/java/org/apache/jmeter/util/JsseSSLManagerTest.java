@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+import org.apache.jmeter.util.JsseSSLManager.SessionCacheScope;
+import org.junit.jupiter.api.Test;
+
+public class JsseSSLManagerTest {
+
+    private static SSLContext getContextInOtherThread(JsseSSLManager manager) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(manager::getContext).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIterationScopeDropsSessionsOnReset() throws Exception {
+        JsseSSLManager manager = new JsseSSLManager(null, SessionCacheScope.ITERATION, 0, 0);
+        SSLContext context = manager.getContext();
+        assertSame(context, manager.getContext());
+        manager.resetContext();
+        assertNotSame(context, manager.getContext());
+    }
+
+    @Test
+    public void testThreadScopeKeepsSessionsAcrossIterations() throws Exception {
+        JsseSSLManager manager = new JsseSSLManager(null, SessionCacheScope.THREAD, 0, 0);
+        SSLContext context = manager.getContext();
+        manager.resetContext();
+        assertSame(context, manager.getContext());
+        assertNotSame(context, getContextInOtherThread(manager));
+    }
+
+    @Test
+    public void testSharedScopeUsesOneContextForAllThreads() throws Exception {
+        JsseSSLManager manager = new JsseSSLManager(null, SessionCacheScope.SHARED, 0, 0);
+        SSLContext context = manager.getContext();
+        manager.resetContext();
+        assertSame(context, manager.getContext());
+        assertSame(context, getContextInOtherThread(manager));
+    }
+
+    @Test
+    public void testTtlAndSizeConfigureTheClientSessionCache() throws Exception {
+        JsseSSLManager manager = new JsseSSLManager(null, SessionCacheScope.ITERATION, 120, 50);
+        SSLSessionContext sessionContext = manager.getContext().getClientSessionContext();
+        assertEquals(120, sessionContext.getSessionTimeout());
+        assertEquals(50, sessionContext.getSessionCacheSize());
+    }
+
+    @Test
+    public void testZeroTtlAndSizeKeepTheJvmDefaults() throws Exception {
+        SSLContext defaultContext = SSLContext.getInstance("TLS");
+        defaultContext.init(null, null, null);
+        SSLSessionContext expected = defaultContext.getClientSessionContext();
+        JsseSSLManager manager = new JsseSSLManager(null, SessionCacheScope.ITERATION, 0, 0);
+        SSLSessionContext sessionContext = manager.getContext().getClientSessionContext();
+        assertEquals(expected.getSessionTimeout(), sessionContext.getSessionTimeout());
+        assertEquals(expected.getSessionCacheSize(), sessionContext.getSessionCacheSize());
+    }
+
+    @Test
+    public void testSessionCacheScopeOf() {
+        assertEquals(SessionCacheScope.ITERATION, SessionCacheScope.of("iteration", false));
+        assertEquals(SessionCacheScope.THREAD, SessionCacheScope.of(" Thread ", false));
+        assertEquals(SessionCacheScope.SHARED, SessionCacheScope.of("shared", false));
+        assertEquals(SessionCacheScope.ITERATION, SessionCacheScope.of("unknown", false));
+        // https.sessioncontext.shared=true wins
+        assertEquals(SessionCacheScope.SHARED, SessionCacheScope.of("thread", true));
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.Assertions.assertArrayEquals
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
@@ -262,4 +263,68 @@ class FileServerTest : JMeterTestCase() {
             sut.readLine(directory)
         }
     }
+
+    @Test
+    fun `reading indexed lines loops to start once last line is read`() {
+        assertNull(sut.reserveIndexedFile(testFile, null, testFile, false, false))
+        assertTrue(sut.isIndexed(testFile), "isIndexed")
+        assertFilesOpen()
+        val firstPass = Array(4) { sut.readIndexedLine(testFile, true) }
+        assertEquals("a1,b1,c1,d1", firstPass[0])
+        assertEquals("a4,b4,c4,d4", firstPass[3])
+        val secondPass = Array(4) { sut.readIndexedLine(testFile, true) }
+        assertArrayEquals(firstPass, secondPass)
+    }
+
+    @Test
+    fun `indexed file returns null at EOF without recycle`() {
+        assertEquals("a1,b1,c1,d1", sut.reserveIndexedFile(testFile, "UTF-8", "alias", true, false))
+        assertEquals("a2,b2,c2,d2", sut.readIndexedLine("alias", false))
+        assertEquals("a3,b3,c3,d3", sut.readIndexedLine("alias", false))
+        assertEquals("a4,b4,c4,d4", sut.readIndexedLine("alias", false))
+        assertNull(sut.readIndexedLine("alias", false))
+    }
+
+    @Test
+    fun `aliases of an indexed file have their own position`() {
+        sut.reserveIndexedFile(testFile, null, "first", false, false)
+        sut.reserveIndexedFile(testFile, null, "second", false, false)
+        assertEquals("a1,b1,c1,d1", sut.readIndexedLine("first", true))
+        assertEquals("a2,b2,c2,d2", sut.readIndexedLine("first", true))
+        assertEquals("a1,b1,c1,d1", sut.readIndexedLine("second", true))
+    }
+
+    @Test
+    fun `closeFiles() prevents reading of indexed file`() {
+        sut.reserveIndexedFile(testFile, null, testFile, false, false)
+        sut.readIndexedLine(testFile, true)
+        sut.closeFiles()
+        assertThrows<IOException> {
+            sut.readIndexedLine(testFile, true)
+        }
+        assertNoFilesOpen()
+    }
+
+    @Test
+    fun `indexed file skips bom`() {
+        assertEquals("\"äöü\"", sut.reserveIndexedFile(bomFile, null, bomFile, true, true))
+    }
+
+    @Test
+    fun `non-existent filename to reserveIndexedFile will throw exception`() {
+        val missing = "no-such-file"
+        val ex = assertThrows<IllegalArgumentException> {
+            sut.reserveIndexedFile(missing, "UTF-8", "missing", true, false)
+        }
+        assertEquals("Could not read file header line for file $missing", ex.message) {
+            "ex.message"
+        }
+        assertFalse(sut.isIndexed("missing"), "isIndexed")
+    }
+
+    @Test
+    fun `file with an unsupported charset is reserved as a plain file`() {
+        sut.reserveIndexedFile(testFile, "UTF-16", testFile, false, false)
+        assertFalse(sut.isIndexed(testFile), "isIndexed")
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.collections;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+import org.apiguardian.api.API;
+
+/**
+ * Bounded, lock-free, multi-producer single-consumer ring buffer.
+ * <p>
+ * Any number of threads may call {@link #offer(Object)}, but {@link #poll()} and
+ * {@link #drain(Consumer, int)} must only be called from a single consumer thread.
+ * Each slot carries a sequence number, so producers claim slots with a single CAS
+ * and the consumer never needs to CAS at all.
+ *
+ * @param <E> type of the elements
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class MpscArrayQueue<E> {
+    private final int mask;
+    private final Object[] buffer;
+    /**
+     * For slot {@code i}: {@code sequence == index} means the slot is free for the producer of {@code index},
+     * {@code sequence == index + 1} means the element for {@code index} is published.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * @param requestedCapacity minimal capacity, rounded up to the next power of two
+     */
+    public MpscArrayQueue(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.buffer = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return the number of elements the queue can hold
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds an element if there is room for it. Safe to call from any thread.
+     *
+     * @param element element to add, must not be null
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        long index = producerIndex.get();
+        while (true) {
+            int slot = (int) index & mask;
+            long delta = sequences.get(slot) - index;
+            if (delta == 0) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    buffer[slot] = element;
+                    // Volatile write publishes the element to the consumer
+                    sequences.set(slot, index + 1);
+                    return true;
+                }
+                index = producerIndex.get();
+            } else if (delta < 0) {
+                // The slot still holds the element from the previous lap: the queue is full
+                return false;
+            } else {
+                // Another producer claimed this index
+                index = producerIndex.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called by the consumer thread.
+     *
+     * @return the oldest element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long index = consumerIndex.get();
+        int slot = (int) index & mask;
+        if (sequences.get(slot) != index + 1) {
+            return null;
+        }
+        E element = (E) buffer[slot];
+        buffer[slot] = null;
+        // Release the slot for the producer of the next lap
+        sequences.set(slot, index + mask + 1);
+        consumerIndex.lazySet(index + 1);
+        return element;
+    }
+
+    /**
+     * Removes up to {@code limit} elements and passes them to {@code consumer}.
+     * Must only be called by the consumer thread.
+     *
+     * @param consumer receives the removed elements in FIFO order
+     * @param limit maximum number of elements to remove
+     * @return number of removed elements
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int count = 0;
+        E element;
+        while (count < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return approximate number of elements in the queue
+     */
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * @return true if the queue looked empty at the time of the call
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
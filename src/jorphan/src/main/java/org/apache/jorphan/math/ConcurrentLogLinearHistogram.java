@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.math;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.apiguardian.api.API;
+
+/**
+ * Thread safe counterpart of {@link LogLinearHistogram}, which several threads can record
+ * values into without locking.
+ * <p>
+ * Counts are kept in atomic arrays, one per bucket width, allocated the first time a value
+ * of that width is recorded, so memory only depends on the precision and on the range of
+ * the recorded values. Minimum, maximum and sums are kept in striped accumulators.
+ * Recorded values are read with {@link #snapshotAndReset()}, which moves them to a
+ * {@link LogLinearHistogram}: values recorded meanwhile go either to this snapshot or to
+ * the next one, and are never lost.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class ConcurrentLogLinearHistogram {
+
+    private final LogLinearBuckets buckets;
+
+    /** Counts of the indexes sharing a bucket width, allocated on demand */
+    private final AtomicReferenceArray<AtomicLongArray> counts;
+
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAdder sumOfSquares = new DoubleAdder();
+
+    /**
+     * @param significantDigits number of significant decimal digits to keep, between 1 and 5
+     */
+    public ConcurrentLogLinearHistogram(int significantDigits) {
+        buckets = new LogLinearBuckets(significantDigits);
+        counts = new AtomicReferenceArray<>(
+                (buckets.countsIndex(Long.MAX_VALUE) >> buckets.subBucketHalfCountMagnitude()) + 1);
+    }
+
+    /**
+     * @return the number of significant decimal digits kept by this histogram
+     */
+    public int getSignificantDigits() {
+        return buckets.significantDigits();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value value to record
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records a value several times. Negative values are recorded as 0.
+     *
+     * @param value      value to record
+     * @param occurrences number of times the value is recorded
+     */
+    public void record(long value, long occurrences) {
+        if (occurrences <= 0) {
+            return;
+        }
+        long v = Math.max(0, value);
+        int index = buckets.countsIndex(v);
+        chunk(index >> buckets.subBucketHalfCountMagnitude())
+                .addAndGet(index & (buckets.subBucketHalfCount() - 1), occurrences);
+        min.accumulate(v);
+        max.accumulate(v);
+        sum.add((double) v * occurrences);
+        sumOfSquares.add((double) v * v * occurrences);
+    }
+
+    /**
+     * Moves the values recorded so far to a new histogram, and resets this one.
+     *
+     * @return histogram with the values recorded since the previous snapshot
+     */
+    public LogLinearHistogram snapshotAndReset() {
+        LogLinearHistogram snapshot = new LogLinearHistogram(buckets.significantDigits());
+        long exactMin = min.getThenReset();
+        long exactMax = max.getThenReset();
+        double exactSum = sum.sumThenReset();
+        double exactSumOfSquares = sumOfSquares.sumThenReset();
+        int halfCount = buckets.subBucketHalfCount();
+        for (int c = 0; c < counts.length(); c++) {
+            AtomicLongArray chunk = counts.get(c);
+            if (chunk == null) {
+                continue;
+            }
+            for (int i = 0; i < halfCount; i++) {
+                long occurrences = chunk.getAndSet(i, 0);
+                if (occurrences != 0) {
+                    long value = buckets.valueFromIndex((c << buckets.subBucketHalfCountMagnitude()) + i);
+                    snapshot.record(buckets.highestEquivalentValue(value), occurrences);
+                }
+            }
+        }
+        snapshot.restoreStatistics(exactMin, exactMax, exactSum, exactSumOfSquares);
+        return snapshot;
+    }
+
+    private AtomicLongArray chunk(int chunkIndex) {
+        AtomicLongArray chunk = counts.get(chunkIndex);
+        if (chunk == null) {
+            AtomicLongArray newChunk = new AtomicLongArray(buckets.subBucketHalfCount());
+            chunk = counts.compareAndExchange(chunkIndex, null, newChunk);
+            if (chunk == null) {
+                chunk = newChunk;
+            }
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.math;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apiguardian.api.API;
+
+/**
+ * StatCalculator for Long values which counts values in a {@link LogLinearHistogram}
+ * instead of keeping every distinct value.
+ * <p>
+ * Memory does not grow with the number or the spread of the values, and adding a value
+ * neither boxes it nor walks a tree. Count, sum, mean, standard deviation, minimum and
+ * maximum are exact; percentiles and distribution are exact up to the number of
+ * significant digits given to the constructor, values below {@code 2 * 10^significantDigits}
+ * being kept exactly.
+ * It is not threadsafe.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class HistogramStatCalculatorLong extends StatCalculatorLong {
+
+    private final LogLinearHistogram histogram;
+
+    private double sum = 0;
+
+    private double sumOfSquares = 0;
+
+    private long count = 0;
+
+    /**
+     * @param significantDigits number of significant decimal digits kept for percentiles, between 1 and 5
+     */
+    public HistogramStatCalculatorLong(int significantDigits) {
+        histogram = new LogLinearHistogram(significantDigits);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        histogram.reset();
+        sum = 0;
+        sumOfSquares = 0;
+        count = 0;
+    }
+
+    @Override
+    public void addAll(StatCalculator<Long> calc) {
+        if (calc instanceof HistogramStatCalculatorLong other
+                && other.histogram.getSignificantDigits() == histogram.getSignificantDigits()) {
+            histogram.add(other.histogram);
+            count += other.count;
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+            return;
+        }
+        for (Number[] entry : calc.getDistribution().values()) {
+            recordEach(entry[0].longValue(), entry[1].longValue());
+        }
+    }
+
+    @Override
+    void addEachValue(Long val, long sampleCount) {
+        recordEach(val.longValue(), sampleCount);
+    }
+
+    private void recordEach(long val, long sampleCount) {
+        count += sampleCount;
+        sum += (double) val * sampleCount;
+        sumOfSquares += (double) val * val * sampleCount;
+        histogram.record(val, sampleCount);
+    }
+
+    @Override
+    public void addValue(long val) {
+        recordAggregate(val, 1L);
+    }
+
+    @Override
+    public void addValue(long val, int sampleCount) {
+        recordAggregate(val, sampleCount);
+    }
+
+    @Override
+    public void addValue(Long val) {
+        recordAggregate(val.longValue(), 1L);
+    }
+
+    @Override
+    public void addValue(Long val, long sampleCount) {
+        recordAggregate(val.longValue(), sampleCount);
+    }
+
+    private void recordAggregate(long val, long sampleCount) {
+        count += sampleCount;
+        double currentVal = val;
+        sum += currentVal;
+        if (sampleCount > 1) {
+            // Same as StatCalculator: n samples of (val/n) each
+            sumOfSquares += currentVal * currentVal / sampleCount;
+            histogram.record(val / sampleCount, sampleCount);
+        } else {
+            sumOfSquares += currentVal * currentVal;
+            histogram.record(val, sampleCount);
+        }
+    }
+
+    @Override
+    public Long getPercentPoint(double percent) {
+        if (count <= 0) {
+            return 0L;
+        }
+        if (percent >= 1.0) {
+            return getMax();
+        }
+        return histogram.getValueAtRank(Math.round(count * percent));
+    }
+
+    @Override
+    public Map<Number, Number[]> getDistribution() {
+        Map<Number, Number[]> items = new HashMap<>();
+        histogram.forEachBucket((value, valueCount) -> items.put(value, new Number[]{value, valueCount}));
+        return items;
+    }
+
+    @Override
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = sum / count;
+        return Math.sqrt((sumOfSquares / count) - (mean * mean));
+    }
+
+    @Override
+    public Long getMin() {
+        return histogram.getCount() == 0 ? Long.MAX_VALUE : histogram.getMin();
+    }
+
+    @Override
+    public Long getMax() {
+        return histogram.getCount() == 0 ? Long.MIN_VALUE : histogram.getMax();
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public double getSum() {
+        return sum;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.math;
+
+import java.util.Arrays;
+
+import org.apiguardian.api.API;
+
+/**
+ * Histogram of non-negative long values with a fixed relative precision,
+ * in the spirit of HdrHistogram.
+ * <p>
+ * Values are counted in buckets whose width doubles at every power of two, each
+ * power of two being split in enough linear sub-buckets to keep the requested number
+ * of significant decimal digits. Memory only depends on the precision and on the
+ * magnitude of the largest value, never on the number of recorded values, and
+ * percentiles are exact up to that precision.
+ * Values below {@code 2 * 10^significantDigits} are recorded exactly.
+ * <p>
+ * Histograms with the same precision can be merged with {@link #add(LogLinearHistogram)}.
+ * This class is not thread safe.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class LogLinearHistogram {
+
+    private final LogLinearBuckets buckets;
+
+    /** Grown on demand up to the index of the largest recorded value */
+    private long[] counts = new long[0];
+
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double sum;
+    private double sumOfSquares;
+
+    /**
+     * @param significantDigits number of significant decimal digits to keep, between 1 and 5
+     */
+    public LogLinearHistogram(int significantDigits) {
+        this.buckets = new LogLinearBuckets(significantDigits);
+    }
+
+    /**
+     * @return the number of significant decimal digits kept by this histogram
+     */
+    public int getSignificantDigits() {
+        return buckets.significantDigits();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value value to record
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records a value several times. Negative values are recorded as 0.
+     *
+     * @param value      value to record
+     * @param occurrences number of times the value is recorded
+     */
+    public void record(long value, long occurrences) {
+        if (occurrences <= 0) {
+            return;
+        }
+        long v = Math.max(0, value);
+        int index = buckets.countsIndex(v);
+        ensureCapacity(index + 1);
+        counts[index] += occurrences;
+        count += occurrences;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+        sum += (double) v * occurrences;
+        sumOfSquares += (double) v * v * occurrences;
+    }
+
+    /**
+     * Adds all the values recorded by another histogram to this one.
+     *
+     * @param other histogram with the same number of significant digits
+     */
+    public void add(LogLinearHistogram other) {
+        if (other.getSignificantDigits() != getSignificantDigits()) {
+            throw new IllegalArgumentException("Cannot add a histogram with " + other.getSignificantDigits()
+                    + " significant digits to a histogram with " + getSignificantDigits());
+        }
+        if (other.count == 0) {
+            return;
+        }
+        ensureCapacity(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    /**
+     * Forgets all the recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        sum = 0;
+        sumOfSquares = 0;
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the smallest recorded value, or 0 if the histogram is empty
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return the largest recorded value, or 0 if the histogram is empty
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * @return the exact mean of the recorded values, or 0 if the histogram is empty
+     */
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @return the exact population standard deviation of the recorded values
+     */
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+    }
+
+    /**
+     * Gets the value below which the given percentage of recorded values fall.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return the largest value equivalent, within the precision of the histogram, to the value at the percentile,
+     * or 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        double p = Math.min(Math.max(percentile, 0), 100);
+        return getValueAtRank((long) Math.ceil(p / 100 * count));
+    }
+
+    /**
+     * Gets the value of the given rank once the recorded values are sorted.
+     *
+     * @param rank rank of the value, starting at 1. Ranks below 1 are treated as 1,
+     *             ranks above the number of recorded values as the last one
+     * @return the largest value equivalent, within the precision of the histogram, to the value of that rank,
+     * or 0 if the histogram is empty
+     */
+    public long getValueAtRank(long rank) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, rank);
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+            if (total >= target) {
+                return bucketValue(i);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Calls the consumer for each non-empty bucket, in increasing order of values.
+     *
+     * @param consumer receives the largest value equivalent to the values of the bucket
+     *                 and the number of values recorded in it
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        if (count == 0) {
+            return;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                consumer.accept(bucketValue(i), counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Receives the buckets of a histogram.
+     *
+     * @see #forEachBucket(BucketConsumer)
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        /**
+         * @param value value representing the bucket
+         * @param count number of values recorded in the bucket
+         */
+        void accept(long value, long count);
+    }
+
+    /**
+     * Replaces the statistics computed from the recorded values by exact ones.
+     * Used when the buckets were rebuilt from a {@link ConcurrentLogLinearHistogram},
+     * whose exact statistics may be off by a few concurrent values: bounds are
+     * kept within the first and the last buckets.
+     */
+    void restoreStatistics(long exactMin, long exactMax, double exactSum, double exactSumOfSquares) {
+        if (count == 0) {
+            return;
+        }
+        min = Math.min(Math.max(exactMin, buckets.lowestEquivalentValue(min)), min);
+        max = Math.min(Math.max(exactMax, buckets.lowestEquivalentValue(max)), max);
+        sum = exactSum;
+        sumOfSquares = exactSumOfSquares;
+    }
+
+    private long bucketValue(int index) {
+        long value = buckets.highestEquivalentValue(buckets.valueFromIndex(index));
+        return Math.min(Math.max(value, min), max);
+    }
+
+    private void ensureCapacity(int length) {
+        if (counts.length < length) {
+            // Grow by whole buckets to limit the number of copies
+            int newLength = Math.max(length, Math.min(counts.length + buckets.subBucketHalfCount(), Integer.MAX_VALUE - 8));
+            counts = Arrays.copyOf(counts, newLength);
+        }
+    }
+}
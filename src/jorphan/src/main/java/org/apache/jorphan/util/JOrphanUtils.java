@@ -25,6 +25,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HexFormat;
@@ -398,6 +400,25 @@ public final class JOrphanUtils {
         return startsWith(target, XML_PFX, 0);
     }
 
+    /**
+     * Checks whether text encoded with a charset can be split on the bytes of
+     * ASCII characters, such as quotes or line breaks, without decoding it:
+     * the charset must encode ASCII characters as single bytes that never appear
+     * inside the encoding of another character.
+     *
+     * @param charset the charset of the text
+     * @return true for UTF-8, US-ASCII, ISO-8859-* and windows-125* charsets
+     * @since 6.0
+     */
+    @API(since = "6.0", status = API.Status.EXPERIMENTAL)
+    public static boolean canSplitOnAsciiBytes(Charset charset) {
+        String name = charset.name();
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || name.startsWith("ISO-8859-")
+                || name.startsWith("windows-125");
+    }
+
     /**
      * Convert binary byte array to hex string.
      *
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ThreadFactory;
+
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates JDK virtual threads when the running JVM supports them.
+ * <p>
+ * JMeter is compiled for Java 17, so the virtual thread builder API
+ * ({@code Thread.ofVirtual()}, Java 21+) is looked up reflectively once.
+ * When it is not available, {@link #isSupported()} returns {@code false}
+ * and {@link #newThread(Runnable, String)} falls back to a platform thread.
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class VirtualThreads {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    private VirtualThreads() {
+        super();
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null); // $NON-NLS-1$
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); // $NON-NLS-1$
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder); // $NON-NLS-1$
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            log.debug("Virtual threads are not available in Java {}", System.getProperty("java.version")); // $NON-NLS-1$
+        } catch (InvocationTargetException e) {
+            // Java 19 and 20 throw UnsupportedOperationException unless --enable-preview is used
+            log.debug("Virtual threads are not enabled in this JVM", e.getCause());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Unable to initialize virtual thread factory", e);
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the running JVM can create virtual threads
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Returns a {@link ThreadFactory} that creates virtual threads, or platform threads
+     * if virtual threads are not supported by the running JVM.
+     * @return thread factory, never null
+     */
+    public static ThreadFactory factory() {
+        if (VIRTUAL_THREAD_FACTORY != null) {
+            return VIRTUAL_THREAD_FACTORY;
+        }
+        return Thread::new;
+    }
+
+    /**
+     * Creates (but does not start) a virtual thread, or a platform thread if virtual
+     * threads are not supported by the running JVM.
+     * @param task the task to run
+     * @param name the name of the thread
+     * @return new unstarted thread
+     */
+    public static Thread newThread(Runnable task, String name) {
+        Thread thread = factory().newThread(task);
+        thread.setName(name);
+        return thread;
+    }
+}
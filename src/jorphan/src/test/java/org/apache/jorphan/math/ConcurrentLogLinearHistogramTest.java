@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentLogLinearHistogramTest {
+
+    @Test
+    public void testSnapshotMatchesLogLinearHistogram() {
+        ConcurrentLogLinearHistogram concurrent = new ConcurrentLogLinearHistogram(2);
+        LogLinearHistogram expected = new LogLinearHistogram(2);
+        for (long i = 0; i < 50_000; i++) {
+            long value = i * 7919 % 120_000;
+            concurrent.record(value);
+            expected.record(value);
+        }
+        LogLinearHistogram snapshot = concurrent.snapshotAndReset();
+        assertEquals(expected.getCount(), snapshot.getCount());
+        assertEquals(expected.getMin(), snapshot.getMin());
+        assertEquals(expected.getMax(), snapshot.getMax());
+        assertEquals(expected.getMean(), snapshot.getMean(), 0.000001);
+        for (double percentile : new double[] {0, 50, 90, 99, 100}) {
+            assertEquals(expected.getValueAtPercentile(percentile), snapshot.getValueAtPercentile(percentile));
+        }
+        assertEquals(0, concurrent.snapshotAndReset().getCount());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws InterruptedException {
+        ConcurrentLogLinearHistogram histogram = new ConcurrentLogLinearHistogram(3);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LogLinearHistogram snapshot = histogram.snapshotAndReset();
+        assertEquals(80_000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(10_000, snapshot.getMax());
+    }
+
+    @Test
+    public void testRecordOccurrences() {
+        ConcurrentLogLinearHistogram concurrent = new ConcurrentLogLinearHistogram(3);
+        LogLinearHistogram expected = new LogLinearHistogram(3);
+        concurrent.record(150, 3);
+        concurrent.record(2_500_000, 2);
+        concurrent.record(42, 0);
+        expected.record(150, 3);
+        expected.record(2_500_000, 2);
+        LogLinearHistogram snapshot = concurrent.snapshotAndReset();
+        assertEquals(5, snapshot.getCount());
+        assertEquals(expected.getMean(), snapshot.getMean(), 0.000001);
+        assertEquals(expected.getValueAtPercentile(50), snapshot.getValueAtPercentile(50));
+        assertEquals(expected.getMax(), snapshot.getMax());
+    }
+}
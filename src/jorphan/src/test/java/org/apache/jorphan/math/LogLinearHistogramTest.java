@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LogLinearHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram(3);
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertEquals(500, histogram.getValueAtPercentile(50));
+        assertEquals(900, histogram.getValueAtPercentile(90));
+        assertEquals(990, histogram.getValueAtPercentile(99));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        LogLinearHistogram histogram = new LogLinearHistogram(2);
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (Math.abs(random.nextGaussian()) * 200_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[]{50, 90, 95, 99, 99.9}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(Math.abs(actual - expected) <= expected / 100,
+                    "percentile " + percentile + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    @Test
+    public void testAddMergesHistograms() {
+        LogLinearHistogram first = new LogLinearHistogram(3);
+        LogLinearHistogram second = new LogLinearHistogram(3);
+        LogLinearHistogram all = new LogLinearHistogram(3);
+        for (long i = 0; i < 5000; i++) {
+            (i % 2 == 0 ? first : second).record(i * 7);
+            all.record(i * 7);
+        }
+        first.add(second);
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMin(), first.getMin());
+        assertEquals(all.getMax(), first.getMax());
+        assertEquals(all.getMean(), first.getMean(), 1e-9);
+        for (double percentile : new double[]{0, 25, 50, 75, 90, 99, 100}) {
+            assertEquals(all.getValueAtPercentile(percentile), first.getValueAtPercentile(percentile));
+        }
+        assertThrows(IllegalArgumentException.class, () -> first.add(new LogLinearHistogram(2)));
+    }
+
+    @Test
+    public void testReset() {
+        LogLinearHistogram histogram = new LogLinearHistogram(3);
+        histogram.record(123_456, 3);
+        assertEquals(3, histogram.getCount());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestHistogramStatCalculator {
+
+    private HistogramStatCalculatorLong calc;
+
+    @BeforeEach
+    public void setUp() {
+        calc = new HistogramStatCalculatorLong(3);
+    }
+
+    @Test
+    public void testSameResultsAsExactCalculatorForSmallValues() {
+        StatCalculatorLong exact = new StatCalculatorLong();
+        assertEquals(exact.getMax(), calc.getMax());
+        assertEquals(exact.getMin(), calc.getMin());
+        long[] values = new long[] {
+            18L, 10L, 9L, 11L, 28L, 3L, 30L, 15L, 15L, 21L
+        };
+        for (long l : values) {
+            calc.addValue(l);
+            exact.addValue(l);
+        }
+        calc.addValue(60L, 3);
+        exact.addValue(60L, 3);
+        assertEquals(exact.getCount(), calc.getCount());
+        assertEquals(exact.getSum(), calc.getSum(), 0.000000000001);
+        assertEquals(exact.getMean(), calc.getMean(), 0.000000000001);
+        assertEquals(exact.getStandardDeviation(), calc.getStandardDeviation(), 0.000000000001);
+        assertEquals(exact.getMin(), calc.getMin());
+        assertEquals(exact.getMax(), calc.getMax());
+        assertEquals(exact.getMedian(), calc.getMedian());
+        assertEquals(exact.getPercentPoint(0.9), calc.getPercentPoint(0.9));
+        assertEquals(exact.getDistribution().keySet(), calc.getDistribution().keySet());
+    }
+
+    @Test
+    public void testPercentPointWithinPrecision() {
+        StatCalculatorLong exact = new StatCalculatorLong();
+        for (long i = 0; i < 100_000; i++) {
+            long value = i * 7919 % 1_000_000;
+            calc.addValue(value);
+            exact.addValue(value);
+        }
+        for (double percent : new double[] {0.5, 0.9, 0.95, 0.99}) {
+            long expected = exact.getPercentPoint(percent);
+            long actual = calc.getPercentPoint(percent);
+            assertTrue(Math.abs(actual - expected) <= expected / 1000,
+                    () -> "percent " + percent + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    @Test
+    public void testAddAll() {
+        calc.addValue(1L);
+        calc.addValue(2L);
+        calc.addValue(3L);
+        HistogramStatCalculatorLong calc2 = new HistogramStatCalculatorLong(3);
+        calc2.addValue(2L);
+        calc2.addValue(2L);
+        calc2.addValue(2L);
+        calc.addAll(calc2);
+        StatCalculatorLong exact = new StatCalculatorLong();
+        exact.addValue(2L);
+        calc.addAll(exact);
+        assertEquals(7, calc.getCount());
+        assertEquals(14.0, calc.getSum(), 0.000000000001);
+        assertEquals(Long.valueOf(2), calc.getMedian());
+        Map<Number, Number[]> map = calc.getDistribution();
+        assertEquals(5L, map.get(2L)[1]);
+    }
+
+    @Test
+    public void testClear() {
+        calc.addValue(5L);
+        calc.addBytes(10);
+        calc.clear();
+        assertEquals(0, calc.getCount());
+        assertEquals(0, calc.getTotalBytes());
+        assertEquals(Long.valueOf(0), calc.getMedian());
+        assertEquals(Long.MIN_VALUE, calc.getMax().longValue());
+    }
+}
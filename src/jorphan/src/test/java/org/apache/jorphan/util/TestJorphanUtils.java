@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Assertions;
@@ -405,4 +406,14 @@ public class TestJorphanUtils {
                 password.matches("[A-Za-z0-9]{20}"),
                 () -> "generateRandomAlphanumericPassword(20) should match pattern \"[A-Za-z0-9]{20}\", got " + password);
     }
+
+    @Test
+    public void testCanSplitOnAsciiBytes() {
+        assertTrue(JOrphanUtils.canSplitOnAsciiBytes(StandardCharsets.UTF_8));
+        assertTrue(JOrphanUtils.canSplitOnAsciiBytes(StandardCharsets.US_ASCII));
+        assertTrue(JOrphanUtils.canSplitOnAsciiBytes(StandardCharsets.ISO_8859_1));
+        assertTrue(JOrphanUtils.canSplitOnAsciiBytes(Charset.forName("windows-1252")));
+        assertFalse(JOrphanUtils.canSplitOnAsciiBytes(StandardCharsets.UTF_16));
+        assertFalse(JOrphanUtils.canSplitOnAsciiBytes(Charset.forName("Shift_JIS")));
+    }
 }
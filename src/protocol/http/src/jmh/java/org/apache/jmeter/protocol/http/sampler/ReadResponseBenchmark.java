@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.protocol.http.sampler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Allocations made to read the body of a response, with and without the lean mode
+ * ({@code sampleresult.lean_mode}) discarding it when nothing reads the response data.
+ * Compare {@code gc.alloc.rate.norm} (bytes per operation) reported by the GC profiler
+ * for {@code leanMode=false} (before) and {@code leanMode=true} (after).
+ */
+@Fork(value = 1, jvmArgsPrepend = {"-Xmx128m"})
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReadResponseBenchmark {
+    private static final byte[] RESPONSE = new byte[16 * 1024];
+
+    @Param({"false", "true"})
+    public boolean leanMode;
+
+    private HTTPSamplerBase sampler;
+
+    @Setup
+    public void setup() {
+        sampler = new HTTPSamplerProxy();
+        JMeterContextService.getContext().setResponseDataNeeded(!leanMode);
+    }
+
+    @Benchmark
+    public byte[] knownLength() throws IOException {
+        return sampler.readResponse(new SampleResult(), new ByteArrayInputStream(RESPONSE), RESPONSE.length);
+    }
+
+    @Benchmark
+    public byte[] unknownLength() throws IOException {
+        return sampler.readResponse(new SampleResult(), new ByteArrayInputStream(RESPONSE), -1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ReadResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .detectJvmArgs()
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.http.Header;
@@ -55,6 +56,13 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * Handles HTTP Caching.
+ * <p>
+ * The cache only keeps the validators (Last-Modified, ETag) and the expiration date of the responses.
+ * By default each thread has its own cache, like a browser. When the {@code cache_manager.scope} property
+ * is set to {@code shared}, all the threads use a single cache, like a proxy or a CDN in front of the users.
+ * Its size is then bounded by {@code cache_manager.shared.max_bytes} rather than by the number of entries,
+ * and it is only cleared when a test starts: the clear each iteration, controlled by thread group and
+ * max size settings of the elements are ignored.
  */
 public class CacheManager extends ConfigTestElement implements TestStateListener, TestIterationListener, Serializable {
 
@@ -69,10 +77,54 @@ public class CacheManager extends ConfigTestElement implements TestStateListener
     private static final String[] CACHEABLE_METHODS = JMeterUtils.getPropDefault("cacheable_methods", "GET").split("[ ,]");
     private static final String CONTROLLED_BY_THREAD = "CacheManager.controlledByThread";// $NON-NLS-1$
 
+    private static final String SCOPE_THREAD = "thread"; // $NON-NLS-1$
+    private static final String SCOPE_SHARED = "shared"; // $NON-NLS-1$
+
+    private static final String CACHE_SCOPE =
+            JMeterUtils.getPropDefault("cache_manager.scope", SCOPE_THREAD).trim().toLowerCase(Locale.ROOT); // $NON-NLS-1$
+
+    private static final long SHARED_CACHE_MAX_BYTES =
+            JMeterUtils.getPropDefault("cache_manager.shared.max_bytes", 64L * 1024 * 1024); // $NON-NLS-1$
+
+    /** Estimated size of a {@link CacheEntry} and of its map entry, without the strings */
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    /** Cache used by all the threads when the scope is shared, null otherwise */
+    private static final Cache<String, CacheEntry> SHARED_CACHE =
+            SCOPE_SHARED.equals(CACHE_SCOPE) ? createSharedCache(SHARED_CACHE_MAX_BYTES) : null;
+
     static {
         if (log.isInfoEnabled()) {
             log.info("Will only cache the following methods: {}", Arrays.toString(CACHEABLE_METHODS));
         }
+        if (!SCOPE_SHARED.equals(CACHE_SCOPE) && !SCOPE_THREAD.equals(CACHE_SCOPE)) {
+            log.warn("Unknown cache_manager.scope '{}', using '{}'", CACHE_SCOPE, SCOPE_THREAD);
+        }
+    }
+
+    /**
+     * @param maxBytes maximum memory used by the entries, as estimated by {@link #weigh(String, CacheEntry)}
+     * @return a cache for all the threads
+     */
+    static Cache<String, CacheEntry> createSharedCache(long maxBytes) {
+        log.info("Using a cache shared by all the threads, limited to {} bytes", maxBytes);
+        return Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(CacheManager::weigh)
+                .build();
+    }
+
+    /**
+     * Estimates the memory used by an entry, as Java strings use up to two bytes per char.
+     */
+    static int weigh(String url, CacheEntry entry) {
+        long chars = (long) url.length() + length(entry.getLastModified())
+                + length(entry.getEtag()) + length(entry.getVaryHeader());
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + 2 * chars);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
     }
     //+ JMX attributes, do not change values
     public static final String CLEAR = "clearEachIteration"; // $NON-NLS-1$
@@ -90,7 +142,18 @@ public class CacheManager extends ConfigTestElement implements TestStateListener
      * @since 3.0 */
     private transient Cache<String, CacheEntry> localCache;
 
+    /** Cache used by all the threads when the scope is shared, null otherwise */
+    private transient Cache<String, CacheEntry> sharedCache;
+
     public CacheManager() {
+        this(SHARED_CACHE);
+    }
+
+    /**
+     * @param sharedCache cache used by all the threads, or null to give each thread its own cache
+     */
+    CacheManager(Cache<String, CacheEntry> sharedCache) {
+        this.sharedCache = sharedCache;
         setProperty(new BooleanProperty(CLEAR, false));
         setProperty(new BooleanProperty(USE_EXPIRES, false));
         clearCache();
@@ -560,7 +623,10 @@ public class CacheManager extends ConfigTestElement implements TestStateListener
     }
 
     private Cache<String, CacheEntry> getCache() {
-        return localCache != null ? localCache : threadCache.get();
+        if (localCache != null) {
+            return localCache;
+        }
+        return sharedCache != null ? sharedCache : threadCache.get();
     }
 
     public boolean getClearEachIteration() {
@@ -601,6 +667,10 @@ public class CacheManager extends ConfigTestElement implements TestStateListener
     }
 
     private void clearCache() {
+        if (sharedCache != null) {
+            // the shared cache does not belong to a thread, it is cleared when the test starts
+            return;
+        }
         log.debug("Clear cache");
         // TODO: avoid re-creating the thread local every time, reset its contents instead
         threadCache = new InheritableThreadLocal<Cache<String, CacheEntry>>(){
@@ -625,6 +695,14 @@ public class CacheManager extends ConfigTestElement implements TestStateListener
 
     @Override
     public void testStarted() {
+        if (sharedCache != null) {
+            if (getClearEachIteration() || getControlledByThread() || getMaxSize() != DEFAULT_MAX_SIZE) {
+                log.warn("{} uses the cache shared by all the threads (cache_manager.scope=shared), its clear each"
+                        + " iteration, controlled by thread group and max size settings are ignored", getName());
+            }
+            log.debug("Clear shared cache");
+            sharedCache.invalidateAll();
+        }
     }
 
     @Override
@@ -633,6 +711,7 @@ public class CacheManager extends ConfigTestElement implements TestStateListener
 
     @Override
     public void testStarted(String host) {
+        testStarted();
     }
 
     @Override
@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.http.conn.DnsResolver;
 import org.apache.http.impl.conn.SystemDefaultDnsResolver;
@@ -39,6 +40,7 @@ import org.apache.jmeter.testelement.property.JMeterProperty;
 import org.apache.jmeter.testelement.property.NullProperty;
 import org.apache.jmeter.testelement.property.TestElementProperty;
 import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.util.JMeterUtils;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +61,13 @@ import org.xbill.DNS.Type;
  * custom resolver can be used. Custom resolver uses dnsjava library, and gives
  * ability to bypass both OS and JVM cache. It allows to use paradigm
  * "1 virtual user - 1 DNS cache" in performance tests.
+ * <p>
+ * When the {@code dnsCacheManager.shared} property is set, the lookups of the hosts
+ * which are not static are cached once for the whole JVM for the TTL of their records,
+ * and refreshed in the background before they expire.
+ * Each thread then gets the addresses in its own order, so that the threads are spread
+ * over all the addresses of a host. The shared entries expire with their TTL, the
+ * "Clear cache each iteration" option only applies to the static hosts.
  *
  * @since 2.12
  */
@@ -82,6 +91,15 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
 
     private static final boolean DEFAULT_IS_CUSTOM_RESOLVER = false;
 
+    private static final boolean SHARED_CACHE =
+            JMeterUtils.getPropDefault("dnsCacheManager.shared", false); // $NON-NLS-1$
+
+    private static final boolean ROTATE_PER_THREAD =
+            JMeterUtils.getPropDefault("dnsCacheManager.shared.rotate_per_thread", true); // $NON-NLS-1$
+
+    /** Warn only once that the shared entries are not cleared on each iteration */
+    private static final AtomicBoolean WARNED_SHARED_NOT_CLEARED = new AtomicBoolean();
+
     private final transient Cache lookupCache;
 
     private final transient SystemDefaultDnsResolver systemDefaultDnsResolver;
@@ -225,6 +243,9 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
      */
     @Override
     public InetAddress[] resolve(String host) throws UnknownHostException {
+        if (SHARED_CACHE && !isStaticHost(host)) {
+            return resolveShared(host);
+        }
         InetAddress[] result = cache.get(host);
         // cache may contain null.
         // A return value of null does not necessarily
@@ -248,6 +269,19 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
         }
     }
 
+    /**
+     * Resolves the host with the cache shared by all the threads
+     */
+    private InetAddress[] resolveShared(String host) throws UnknownHostException {
+        String key = (isCustomResolver() ? getServers().getStringValue() : "system") + " " + host; // $NON-NLS-1$
+        InetAddress[] addresses = SharedDnsCache.getInstance().resolve(key, host, this::lookup);
+        logCache("shared", host, addresses);
+        if (!ROTATE_PER_THREAD || addresses.length < 2) {
+            return addresses.clone();
+        }
+        return SharedDnsCache.rotate(addresses, JMeterContextService.getContext().getThreadNum());
+    }
+
     private static void logCache(String hitOrMiss, String host, InetAddress[] addresses) {
         if (log.isDebugEnabled()) {
             log.debug("Cache {} thread#{}: {} => {}", hitOrMiss, JMeterContextService.getContext().getThreadNum(), host,
@@ -326,8 +360,16 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
      * @return array of {@link InetAddress} or null if lookup did not return result
      */
     private InetAddress[] requestLookup(String host) throws UnknownHostException {
-        InetAddress[] addresses;
+        return lookup(host).addresses();
+    }
 
+    /**
+     * Sends DNS request via system or custom DNS resolver
+     *
+     * @param host Host to lookup
+     * @return addresses, null if lookup did not return result, and TTL of the records
+     */
+    private SharedDnsCache.Resolution lookup(String host) throws UnknownHostException {
         if (isCustomResolver()) {
             ExtendedResolver extendedResolver = getOrCreateResolver();
             if (extendedResolver == null) {
@@ -337,14 +379,15 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
                 return customRequestLookup(host);
             }
         }
-        addresses = systemDefaultDnsResolver.resolve(host);
+        InetAddress[] addresses = systemDefaultDnsResolver.resolve(host);
         logCache("miss (resolved with system resolver)", host, addresses);
 
-        return addresses;
+        return new SharedDnsCache.Resolution(addresses, SharedDnsCache.UNKNOWN_TTL);
     }
 
-    private InetAddress[] customRequestLookup(String host) throws UnknownHostException {
+    private SharedDnsCache.Resolution customRequestLookup(String host) throws UnknownHostException {
         InetAddress[] addresses = null;
+        long ttl = SharedDnsCache.UNKNOWN_TTL;
         try {
             Lookup lookup = new Lookup(host, Type.A);
             lookup.setCache(lookupCache);
@@ -359,6 +402,7 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
             addresses = new InetAddress[records.length];
             for (int i = 0; i < records.length; i++) {
                 addresses[i] = ((ARecord) records[i]).getAddress();
+                ttl = i == 0 ? records[i].getTTL() : Math.min(ttl, records[i].getTTL());
             }
         } catch (java.nio.channels.UnresolvedAddressException uae) {
             // Thrown when DNS server address itself couldn't be resolved
@@ -366,7 +410,7 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
         } catch (TextParseException tpe) { // NOSONAR Exception handled
             log.debug("Failed to create Lookup object for host:{}, error message:{}", host, tpe.toString());
         }
-        return addresses;
+        return new SharedDnsCache.Resolution(addresses, ttl);
     }
 
     /**
@@ -387,6 +431,10 @@ public class DNSCacheManager extends ConfigTestElement implements TestIterationL
     @Override
     public void testIterationStart(LoopIterationEvent event) {
         if (isClearEachIteration()) {
+            if (SHARED_CACHE && WARNED_SHARED_NOT_CLEARED.compareAndSet(false, true)) {
+                log.warn("DNS Cache Manager '{}' clears its cache on each iteration, but dnsCacheManager.shared=true:"
+                        + " the shared entries are only dropped once their TTL expires", getName());
+            }
             this.cache.clear();
         }
     }
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.protocol.http.control;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DNS cache shared by all the {@link DNSCacheManager} of the JVM, which honours the TTL of the records.
+ * <p>
+ * A lookup for a given host and set of DNS servers is run by a single thread, the other threads wait for its result.
+ * Once {@value #REFRESH_AHEAD_PERCENT}% of the TTL has elapsed, the next hit triggers a refresh in the background
+ * and keeps returning the cached addresses until it completes, so the samplers only wait for a lookup when an entry
+ * has expired without being used. Failed lookups are not cached.
+ */
+final class SharedDnsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedDnsCache.class);
+
+    /** TTL returned by resolvers which do not give it, like the system resolver */
+    static final long UNKNOWN_TTL = -1;
+
+    /** Percentage of the TTL after which a hit refreshes the entry in the background */
+    private static final int REFRESH_AHEAD_PERCENT = 80;
+
+    /** TTL (in seconds) used when the resolver does not give one */
+    private static final long DEFAULT_TTL_SECONDS =
+            JMeterUtils.getPropDefault("dnsCacheManager.shared.default_ttl", 60L); // $NON-NLS-1$
+
+    private static final SharedDnsCache INSTANCE = new SharedDnsCache();
+
+    /**
+     * Result of a lookup.
+     *
+     * @param addresses  resolved addresses
+     * @param ttlSeconds minimum TTL of the records, or {@link #UNKNOWN_TTL}
+     */
+    record Resolution(InetAddress[] addresses, long ttlSeconds) {
+    }
+
+    /** Lookup run on a cache miss or a refresh */
+    @FunctionalInterface
+    interface Loader {
+        Resolution load(String host) throws UnknownHostException;
+    }
+
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        private final long refreshAtNanos;
+        private final long expiresAtNanos;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(InetAddress[] addresses, long ttlSeconds, long now) {
+            this.addresses = addresses;
+            long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds == UNKNOWN_TTL ? DEFAULT_TTL_SECONDS : ttlSeconds);
+            this.refreshAtNanos = now + ttlNanos / 100 * REFRESH_AHEAD_PERCENT;
+            this.expiresAtNanos = now + ttlNanos;
+        }
+    }
+
+    private final ConcurrentMap<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    /** Source of {@link System#nanoTime()}, replaced by the tests */
+    private final LongSupplier nanoTime;
+
+    private SharedDnsCache() {
+        this(System::nanoTime);
+    }
+
+    SharedDnsCache(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        AtomicInteger threadNumber = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "DnsCacheRefresh-" + threadNumber.incrementAndGet()); //$NON-NLS-1$
+                    t.setDaemon(true);
+                    return t;
+                });
+        refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    static SharedDnsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached addresses of the host, looking them up if they are missing or expired.
+     *
+     * @param key    key of the host, which identifies the resolver too
+     * @param host   host to resolve
+     * @param loader lookup to run on a miss or a refresh
+     * @return the resolved addresses, shared between the callers: they must not be modified
+     * @throws UnknownHostException when the lookup fails
+     */
+    InetAddress[] resolve(String key, String host, Loader loader) throws UnknownHostException {
+        while (true) {
+            CompletableFuture<Entry> current = entries.get(key);
+            if (current == null || current.isCompletedExceptionally()) {
+                CompletableFuture<Entry> pending = new CompletableFuture<>();
+                boolean owner = current == null
+                        ? entries.putIfAbsent(key, pending) == null
+                        : entries.replace(key, current, pending);
+                if (owner) {
+                    return load(key, host, loader, pending).addresses;
+                }
+                continue; // another thread changed the entry
+            }
+            if (!current.isDone()) {
+                return await(current).addresses;
+            }
+            Entry entry = current.join();
+            long now = nanoTime.getAsLong();
+            if (now - entry.expiresAtNanos >= 0) {
+                // expired: take over the entry and load it again
+                CompletableFuture<Entry> pending = new CompletableFuture<>();
+                if (entries.replace(key, current, pending)) {
+                    return load(key, host, loader, pending).addresses;
+                }
+                continue;
+            }
+            if (now - entry.refreshAtNanos >= 0 && entry.refreshing.compareAndSet(false, true)) {
+                refreshInBackground(key, host, loader, current, entry);
+            }
+            return entry.addresses;
+        }
+    }
+
+    private Entry load(String key, String host, Loader loader, CompletableFuture<Entry> pending)
+            throws UnknownHostException {
+        try {
+            Resolution resolution = loader.load(host);
+            if (resolution.addresses() == null) {
+                throw new UnknownHostException("Failed to resolve host name: " + host);
+            }
+            Entry entry = new Entry(resolution.addresses(), resolution.ttlSeconds(), nanoTime.getAsLong());
+            pending.complete(entry);
+            return entry;
+        } catch (UnknownHostException | RuntimeException e) {
+            // do not cache failures, the waiting threads get the same error
+            entries.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> pending) throws UnknownHostException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException("Interrupted while waiting for DNS lookup");
+        } catch (CancellationException e) {
+            throw new UnknownHostException("DNS lookup cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UnknownHostException uhe) {
+                throw uhe;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void refreshInBackground(String key, String host, Loader loader,
+            CompletableFuture<Entry> current, Entry entry) {
+        refreshExecutor.execute(() -> {
+            try {
+                Resolution resolution = loader.load(host);
+                if (resolution.addresses() != null) {
+                    Entry refreshed = new Entry(resolution.addresses(), resolution.ttlSeconds(), nanoTime.getAsLong());
+                    entries.replace(key, current, CompletableFuture.completedFuture(refreshed));
+                    if (log.isDebugEnabled()) {
+                        log.debug("Refreshed {} => {}", key, Arrays.toString(resolution.addresses()));
+                    }
+                    return;
+                }
+            } catch (UnknownHostException | RuntimeException e) {
+                log.debug("Failed to refresh {}, keeping the cached addresses until they expire", key, e);
+            }
+            // let the next hit try again
+            entry.refreshing.set(false);
+        });
+    }
+
+    /**
+     * Gives each thread the addresses in a different order, as HttpClient tries them in order.
+     *
+     * @param addresses addresses of the host, which are not modified
+     * @param threadNum number of the thread
+     * @return the addresses, starting at the one of the thread
+     */
+    static InetAddress[] rotate(InetAddress[] addresses, int threadNum) {
+        InetAddress[] view = new InetAddress[addresses.length];
+        if (addresses.length == 0) {
+            return view;
+        }
+        int first = Math.floorMod(threadNum, addresses.length);
+        for (int i = 0; i < addresses.length; i++) {
+            view[i] = addresses[(first + i) % addresses.length];
+        }
+        return view;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    void clear() {
+        entries.clear();
+    }
+}
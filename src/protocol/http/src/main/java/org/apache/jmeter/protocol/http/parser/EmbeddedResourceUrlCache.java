@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.parser;
+
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache of the embedded resource URLs extracted from documents, shared by all the threads.
+ * <p>
+ * Documents are identified by a hash of their content, together with everything else the extraction
+ * depends on: parser, base URL, encoding and user agent. So a page downloaded by many threads
+ * is only parsed once, and concurrent requests for the same document wait for the first parse.
+ * <p>
+ * The number of cached documents is bounded by {@code httpsampler.embedded_resources_cache.size},
+ * least recently used documents are evicted first. {@code 0} disables the cache.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class EmbeddedResourceUrlCache {
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedResourceUrlCache.class);
+
+    private static final int CACHE_SIZE =
+            JMeterUtils.getPropDefault("httpsampler.embedded_resources_cache.size", 100); // $NON-NLS-1$
+
+    private static final Cache<DocumentKey, List<URL>> CACHE =
+            CACHE_SIZE > 0 ? Caffeine.newBuilder().maximumSize(CACHE_SIZE).build() : null;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256"); // $NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    record DocumentKey(String parser, String baseUrl, String encoding, String userAgent, byte[] digest) {
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DocumentKey that = (DocumentKey) o;
+            return Arrays.equals(digest, that.digest) && Objects.equals(baseUrl, that.baseUrl)
+                    && Objects.equals(parser, that.parser) && Objects.equals(encoding, that.encoding)
+                    && Objects.equals(userAgent, that.userAgent);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Arrays.hashCode(digest);
+            result = 31 * result + Objects.hashCode(baseUrl);
+            return result;
+        }
+    }
+
+    private EmbeddedResourceUrlCache() {
+    }
+
+    /**
+     * Returns the embedded resource URLs of a document, from the cache or extracted by the parser.
+     *
+     * @param parser    parser of the document
+     * @param userAgent User Agent
+     * @param data      content of the document
+     * @param baseUrl   base URL from which the document was obtained
+     * @param encoding  charset of the document
+     * @return an Iterator for the resource URLs
+     * @throws LinkExtractorParseException when the parser fails
+     */
+    public static Iterator<URL> getEmbeddedResourceURLs(LinkExtractorParser parser, String userAgent,
+            byte[] data, URL baseUrl, String encoding) throws LinkExtractorParseException {
+        if (CACHE == null) {
+            return parser.getEmbeddedResourceURLs(userAgent, data, baseUrl, encoding);
+        }
+        MessageDigest digest = DIGEST.get();
+        DocumentKey key = new DocumentKey(parser.getClass().getName(), String.valueOf(baseUrl),
+                encoding, userAgent, digest.digest(data));
+        boolean[] parsed = {false};
+        List<URL> urls;
+        try {
+            urls = CACHE.get(key, k -> {
+                parsed[0] = true;
+                try {
+                    return extract(parser, userAgent, data, baseUrl, encoding);
+                } catch (LinkExtractorParseException e) {
+                    throw new ParseFailure(e);
+                }
+            });
+        } catch (ParseFailure e) {
+            MISSES.increment();
+            throw e.getCause();
+        }
+        if (parsed[0]) {
+            MISSES.increment();
+        } else {
+            HITS.increment();
+        }
+        return urls.iterator();
+    }
+
+    private static List<URL> extract(LinkExtractorParser parser, String userAgent, byte[] data, URL baseUrl,
+            String encoding) throws LinkExtractorParseException {
+        Iterator<URL> iterator = parser.getEmbeddedResourceURLs(userAgent, data, baseUrl, encoding);
+        List<URL> urls = new ArrayList<>();
+        while (iterator.hasNext()) {
+            urls.add(iterator.next()); // null for malformed URLs, which are reported by the sampler
+        }
+        return Collections.unmodifiableList(urls);
+    }
+
+    /**
+     * @return number of documents whose URLs were found in the cache
+     */
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    /**
+     * @return number of documents that had to be parsed
+     */
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    /**
+     * Logs the statistics of the cache and empties it.
+     * Called at the end of the test.
+     */
+    public static void clear() {
+        if (CACHE == null) {
+            return;
+        }
+        long hits = HITS.sumThenReset();
+        long misses = MISSES.sumThenReset();
+        if (hits + misses > 0 && LOG.isInfoEnabled()) {
+            LOG.info("Embedded resources cache: {} hits, {} misses, {} documents cached",
+                    hits, misses, CACHE.estimatedSize());
+        }
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Carries the checked exception of the parser out of the cache loader
+     */
+    private static final class ParseFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParseFailure(LinkExtractorParseException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized LinkExtractorParseException getCause() {
+            return (LinkExtractorParseException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.protocol.http.sampler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.jmeter.util.JMeterUtils;
+
+/**
+ * Sends the content of the uploaded files when {@code httpsampler.streaming_upload} is set.
+ * <p>
+ * The file content is never loaded in memory as a whole, but it is still copied through user space:
+ * streams that can send a file by themselves ({@link FileSink}, for the Java HTTP client) get its path,
+ * the others (HttpClient4 and HttpURLConnection) get it chunk by chunk from {@link FileChannel#transferTo}.
+ */
+final class FileUploads {
+
+    /** Stream the uploaded files instead of copying them in memory */
+    static final boolean STREAMING_UPLOAD =
+            JMeterUtils.getPropDefault("httpsampler.streaming_upload", false); // $NON-NLS-1$
+
+    /**
+     * Output stream which sends files by itself, from their path.
+     */
+    interface FileSink {
+        /**
+         * Appends the content of the file to what has been written so far.
+         *
+         * @param file file to send
+         * @throws IOException if the file can not be read
+         */
+        void writeFile(Path file) throws IOException;
+    }
+
+    private FileUploads() {
+        super();
+    }
+
+    /**
+     * Writes the content of the file to the stream.
+     *
+     * @param file file to send
+     * @param out  stream to write to
+     * @throws IOException if the file can not be read or the stream written
+     */
+    static void writeFile(Path file, OutputStream out) throws IOException {
+        if (out instanceof FileSink sink) {
+            sink.writeFile(file);
+            return;
+        }
+        // The JDK copies the file through a small buffer, no buffer is kept per thread
+        // The target channel is not closed, as it would close the stream
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    break; // the file has been truncated
+                }
+                position += transferred;
+            }
+        }
+    }
+}
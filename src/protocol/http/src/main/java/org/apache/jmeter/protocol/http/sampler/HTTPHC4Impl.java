@@ -40,10 +40,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import javax.net.ssl.SSLSession;
 import javax.security.auth.Subject;
 
 import org.apache.http.Header;
@@ -149,6 +151,7 @@ import org.apache.jmeter.protocol.http.control.HeaderManager;
 import org.apache.jmeter.protocol.http.sampler.hc.LaxDeflateInputStream;
 import org.apache.jmeter.protocol.http.sampler.hc.LaxGZIPInputStream;
 import org.apache.jmeter.protocol.http.sampler.hc.LazyLayeredConnectionSocketFactory;
+import org.apache.jmeter.protocol.http.sampler.hc.SharedPoolingHttpClientConnectionManager;
 import org.apache.jmeter.protocol.http.util.ConversionUtils;
 import org.apache.jmeter.protocol.http.util.HTTPArgument;
 import org.apache.jmeter.protocol.http.util.HTTPConstants;
@@ -397,6 +400,7 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         @Override
         public void connect(ManagedHttpClientConnection conn, HttpHost host, InetSocketAddress localAddress,
                 int connectTimeout, SocketConfig socketConfig, HttpContext context) throws IOException {
+            long start = System.currentTimeMillis();
             try {
                 super.connect(conn, host, localAddress, connectTimeout, socketConfig, context);
             } finally {
@@ -404,9 +408,39 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
                         (SampleResult)context.getAttribute(HTTPHC4Impl.CONTEXT_ATTRIBUTE_SAMPLER_RESULT);
                 if (sample != null) {
                     sample.connectEnd();
+                    recordTlsSessionResumption(conn, start, sample);
                 }
             }
         }
+
+        @Override
+        public void upgrade(ManagedHttpClientConnection conn, HttpHost host, HttpContext context) throws IOException {
+            // TLS handshake through a proxy tunnel
+            long start = System.currentTimeMillis();
+            super.upgrade(conn, host, context);
+            SampleResult sample =
+                    (SampleResult)context.getAttribute(HTTPHC4Impl.CONTEXT_ATTRIBUTE_SAMPLER_RESULT);
+            if (sample != null) {
+                recordTlsSessionResumption(conn, start, sample);
+            }
+        }
+
+        /**
+         * Only called once a connection was opened or tunnelled, so the TLS handshake happened for this sample:
+         * the connections of the pool that are reused do not go through the operator.
+         * A resumed session, either by session ID or by session ticket, keeps the creation time
+         * of the session it was resumed from, whereas a full handshake creates a new session.
+         */
+        private static void recordTlsSessionResumption(ManagedHttpClientConnection conn, long start,
+                SampleResult sample) {
+            if (!conn.isOpen()) {
+                return;
+            }
+            SSLSession sslSession = conn.getSSLSession();
+            if (sslSession != null) {
+                sample.setTlsHandshake(sslSession.getCreationTime() < start);
+            }
+        }
     }
 
     /** retry count to be used (default 0); 0 = disable retries */
@@ -426,6 +460,26 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
     /** Preemptive Basic Auth */
     private static final boolean BASIC_AUTH_PREEMPTIVE = JMeterUtils.getPropDefault("httpclient4.auth.preemptive", true);
 
+    /** true if all threads share bounded connection pools instead of having their own connections */
+    private static final boolean SHARED_POOL = JMeterUtils.getPropDefault("httpclient4.shared_pool", false);
+
+    private static final int SHARED_POOL_MAX_TOTAL =
+            Math.max(1, JMeterUtils.getPropDefault("httpclient4.shared_pool.max_total", 200));
+
+    private static final int SHARED_POOL_MAX_PER_ROUTE =
+            Math.max(1, JMeterUtils.getPropDefault("httpclient4.shared_pool.max_per_route", SHARED_POOL_MAX_TOTAL));
+
+    /** Number of independent pools the connections of a shared pool are split into, to reduce lock contention */
+    private static final int SHARED_POOL_STRIPES = Math.min(SHARED_POOL_MAX_TOTAL,
+            Math.max(1, JMeterUtils.getPropDefault("httpclient4.shared_pool.stripes", 4)));
+
+    /** Maximum time to wait for a connection of a shared pool (default 0 = wait indefinitely) */
+    private static final int SHARED_POOL_LEASE_TIMEOUT =
+            JMeterUtils.getPropDefault("httpclient4.shared_pool.lease_timeout", 0);
+
+    /** Connections of a shared pool belong to no user, so any thread can lease them */
+    private static final String SHARED_POOL_USER_TOKEN = "__jmeter.shared_pool__"; //$NON-NLS-1$
+
     private static final Pattern PORT_PATTERN = Pattern.compile("\\d+"); // only used in .matches(), no need for anchors
 
     @SuppressWarnings("UnnecessaryAnonymousClass")
@@ -524,6 +578,11 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         }
     };
 
+    /**
+     * Stripes of HttpClient instances shared by all threads per HttpClientKey, used if httpclient4.shared_pool=true
+     */
+    private static final Map<HttpClientKey, HttpClientState[]> SHARED_HTTPCLIENTS = new ConcurrentHashMap<>();
+
     /**
      * CONNECTION_SOCKET_FACTORY changes if we want to simulate Slow connection
      */
@@ -533,6 +592,10 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
 
     static {
         log.info("HTTP request retry count = {}", RETRY_COUNT);
+        if (SHARED_POOL) {
+            log.info("Using shared connection pools: max total = {}, max per route = {}, stripes = {}",
+                    SHARED_POOL_MAX_TOTAL, SHARED_POOL_MAX_PER_ROUTE, SHARED_POOL_STRIPES);
+        }
 
         // Set up HTTP scheme override if necessary
         if (CPS_HTTP > 0) {
@@ -640,6 +703,7 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
             // perform the sample
             httpResponse =
                     executeRequest(httpClient, httpRequest, localContext, url);
+            recordLeaseWaitTime(res);
             saveProxyAuth(clientState, localContext);
             if (log.isDebugEnabled()) {
                 log.debug("Headers in request before:{}", Arrays.asList(httpRequest.getAllHeaders()));
@@ -736,6 +800,7 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
             if (res.getEndTime() == 0) {
                 res.sampleEnd();
             }
+            recordLeaseWaitTime(res);
            // pick up headers if failed to execute the request
             if (res.getRequestHeaders() != null) {
                 log.debug("Overwriting request old headers: {}", res.getRequestHeaders());
@@ -758,6 +823,16 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         return res;
     }
 
+    /**
+     * Save in the result the time spent waiting for a connection of the shared pool
+     * @param res {@link HTTPSampleResult}
+     */
+    private static void recordLeaseWaitTime(HTTPSampleResult res) {
+        if (SHARED_POOL) {
+            res.setLeaseWaitTime(SharedPoolingHttpClientConnectionManager.getAndResetLeaseWaitTime());
+        }
+    }
+
     /**
      * Associate Proxy state to thread
      * @param clientState {@link HttpClientState}
@@ -847,6 +922,10 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
      * @param localContext {@link HttpContext}
      */
     private static void setupClientContextBeforeSample(JMeterVariables jMeterVariables, HttpContext localContext) {
+        if (SHARED_POOL) {
+            localContext.setAttribute(HttpClientContext.USER_TOKEN, SHARED_POOL_USER_TOKEN);
+            return;
+        }
         Object userToken = null;
         // During recording JMeterContextService.getContext().getVariables() is null
         if(jMeterVariables != null) {
@@ -1066,22 +1145,18 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         setupProxyAuthState(clientState, clientContext);
         resetStateIfNeeded(clientState, jMeterVariables, clientContext, mapHttpClientPerHttpClientKey);
 
-        if (httpClient == null) { // One-time init for this client
-            DnsResolver resolver = this.testElement.getDNSResolver();
-            if (resolver == null) {
-                resolver = SystemDefaultDnsResolver.INSTANCE;
-            }
-            Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create().
-                    register("https", new LazyLayeredConnectionSocketFactory()).
-                    register("http", CONNECTION_SOCKET_FACTORY).
-                    build();
+        if (httpClient == null && SHARED_POOL) {
+            clientState = getSharedClientState(key);
+            mapHttpClientPerHttpClientKey.put(key, clientState);
+        } else if (httpClient == null) { // One-time init for this client
+            DnsResolver resolver = getDnsResolver();
 
             // Modern browsers use more connections per host than the current httpclient default (2)
             // when using parallel download the httpclient and connection manager are shared by the downloads threads
             // to be realistic JMeter must set an higher value to DefaultMaxPerRoute
             PoolingHttpClientConnectionManager pHCCM =
                     new PoolingHttpClientConnectionManager(
-                            new JMeterDefaultHttpClientConnectionOperator(registry, null, resolver),
+                            createConnectionOperator(resolver),
                             null, TIME_TO_LIVE, TimeUnit.MILLISECONDS);
             pHCCM.setValidateAfterInactivity(VALIDITY_AFTER_INACTIVITY_TIMEOUT);
 
@@ -1094,66 +1169,7 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
                 }
             }
 
-            CookieSpecProvider cookieSpecProvider = new IgnoreSpecProvider();
-            Lookup<CookieSpecProvider> cookieSpecRegistry = RegistryBuilder.<CookieSpecProvider>create()
-                    .register(CookieSpecs.IGNORE_COOKIES, cookieSpecProvider)
-                    .build();
-
-            HttpClientBuilder builder = HttpClients.custom().setConnectionManager(pHCCM).
-                    setSchemePortResolver(new DefaultSchemePortResolver()).
-                    setDnsResolver(resolver).
-                    setRequestExecutor(REQUEST_EXECUTOR).
-                    setSSLSocketFactory(new LazyLayeredConnectionSocketFactory()).
-                    setDefaultCookieSpecRegistry(cookieSpecRegistry).
-                    setDefaultSocketConfig(SocketConfig.DEFAULT).
-                    setRedirectStrategy(new LaxRedirectStrategy()).
-                    setConnectionTimeToLive(TIME_TO_LIVE, TimeUnit.MILLISECONDS).
-                    setRetryHandler(new StandardHttpRequestRetryHandler(RETRY_COUNT, REQUEST_SENT_RETRY_ENABLED)).
-                    setConnectionReuseStrategy(DefaultClientConnectionReuseStrategy.INSTANCE).
-                    setProxyAuthenticationStrategy(getProxyAuthStrategy());
-            if(DISABLE_DEFAULT_UA) {
-                builder.disableDefaultUserAgent();
-            }
-            Lookup<AuthSchemeProvider> authSchemeRegistry =
-                    RegistryBuilder.<AuthSchemeProvider>create()
-                        .register(AuthSchemes.BASIC, new BasicSchemeFactory())
-                        .register(AuthSchemes.DIGEST, new DigestSchemeFactory())
-                        .register(AuthSchemes.NTLM, new NTLMSchemeFactory())
-                        .register(AuthSchemes.SPNEGO, new DynamicSPNegoSchemeFactory(
-                                AuthManager.STRIP_PORT, AuthManager.USE_CANONICAL_HOST_NAME))
-                        .register(AuthSchemes.KERBEROS, new DynamicKerberosSchemeFactory(
-                                AuthManager.STRIP_PORT, AuthManager.USE_CANONICAL_HOST_NAME))
-                        .build();
-            builder.setDefaultAuthSchemeRegistry(authSchemeRegistry);
-
-            if (IDLE_TIMEOUT > 0) {
-                builder.setKeepAliveStrategy(IDLE_STRATEGY);
-            }
-
-            // Set up proxy details
-            AuthScope proxyAuthScope = null;
-            NTCredentials proxyCredentials = null;
-            if (key.hasProxy) {
-                HttpHost proxy = new HttpHost(key.proxyHost, key.proxyPort, key.proxyScheme);
-                builder.setProxy(proxy);
-
-                CredentialsProvider credsProvider = new BasicCredentialsProvider();
-                if (!key.proxyUser.isEmpty()) {
-                    proxyAuthScope = new AuthScope(key.proxyHost, key.proxyPort);
-                    proxyCredentials = new NTCredentials(key.proxyUser, key.proxyPass, LOCALHOST, PROXY_DOMAIN);
-                    credsProvider.setCredentials(
-                            proxyAuthScope,
-                            proxyCredentials);
-                }
-                builder.setDefaultCredentialsProvider(credsProvider);
-            }
-            builder.disableContentCompression().addInterceptorLast(RESPONSE_CONTENT_ENCODING);
-            if(BASIC_AUTH_PREEMPTIVE) {
-                builder.addInterceptorFirst(PREEMPTIVE_AUTH_INTERCEPTOR);
-            } else {
-                builder.setDefaultCredentialsProvider(new ManagedCredentialsProvider(getAuthManager(), proxyAuthScope, proxyCredentials));
-            }
-            httpClient = builder.build();
+            httpClient = createHttpClient(key, resolver, pHCCM);
             if (log.isDebugEnabled()) {
                 log.debug("Created new HttpClient: @{} {}", System.identityHashCode(httpClient), key);
             }
@@ -1171,6 +1187,130 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         return clientState;
     }
 
+    private DnsResolver getDnsResolver() {
+        DnsResolver resolver = this.testElement.getDNSResolver();
+        if (resolver == null) {
+            resolver = SystemDefaultDnsResolver.INSTANCE;
+        }
+        return resolver;
+    }
+
+    private static JMeterDefaultHttpClientConnectionOperator createConnectionOperator(DnsResolver resolver) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create().
+                register("https", new LazyLayeredConnectionSocketFactory()).
+                register("http", CONNECTION_SOCKET_FACTORY).
+                build();
+        return new JMeterDefaultHttpClientConnectionOperator(registry, null, resolver);
+    }
+
+    /**
+     * Get the state of the shared HttpClient the current thread uses for key.
+     * The connections are shared, but each thread gets its own state to keep its proxy authentication.
+     * @param key {@link HttpClientKey}
+     * @return {@link HttpClientState}
+     */
+    private HttpClientState getSharedClientState(HttpClientKey key) {
+        HttpClientState[] stripes = SHARED_HTTPCLIENTS.computeIfAbsent(key, this::createSharedClients);
+        HttpClientState stripe =
+                stripes[Math.floorMod(JMeterContextService.getContext().getThreadNum(), stripes.length)];
+        return new HttpClientState(stripe.getClient(), stripe.getConnectionManager());
+    }
+
+    private HttpClientState[] createSharedClients(HttpClientKey key) {
+        DnsResolver resolver = getDnsResolver();
+        HttpClientState[] stripes = new HttpClientState[SHARED_POOL_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            // Spread the connections of the pool over the stripes, the first ones get the remainder
+            int maxTotal = SHARED_POOL_MAX_TOTAL / stripes.length
+                    + (i < SHARED_POOL_MAX_TOTAL % stripes.length ? 1 : 0);
+            int maxPerRoute = Math.max(1, (SHARED_POOL_MAX_PER_ROUTE + stripes.length - 1) / stripes.length);
+            SharedPoolingHttpClientConnectionManager connectionManager =
+                    new SharedPoolingHttpClientConnectionManager(createConnectionOperator(resolver),
+                            TIME_TO_LIVE, TimeUnit.MILLISECONDS, maxTotal, maxPerRoute);
+            connectionManager.setValidateAfterInactivity(VALIDITY_AFTER_INACTIVITY_TIMEOUT);
+            stripes[i] = new HttpClientState(createHttpClient(key, resolver, connectionManager), connectionManager);
+        }
+        log.debug("Created {} shared HttpClient stripes for {}", stripes.length, key);
+        return stripes;
+    }
+
+    /**
+     * Close the connections of the shared pools, called at the end of the test.
+     */
+    static void closeSharedConnections() {
+        for (HttpClientState[] stripes : SHARED_HTTPCLIENTS.values()) {
+            for (HttpClientState stripe : stripes) {
+                JOrphanUtils.closeQuietly(stripe.getClient());
+                JOrphanUtils.closeQuietly(stripe.getConnectionManager());
+            }
+        }
+        SHARED_HTTPCLIENTS.clear();
+    }
+
+    private CloseableHttpClient createHttpClient(HttpClientKey key, DnsResolver resolver,
+            PoolingHttpClientConnectionManager pHCCM) {
+        CookieSpecProvider cookieSpecProvider = new IgnoreSpecProvider();
+        Lookup<CookieSpecProvider> cookieSpecRegistry = RegistryBuilder.<CookieSpecProvider>create()
+                .register(CookieSpecs.IGNORE_COOKIES, cookieSpecProvider)
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom().setConnectionManager(pHCCM).
+                setSchemePortResolver(new DefaultSchemePortResolver()).
+                setDnsResolver(resolver).
+                setRequestExecutor(REQUEST_EXECUTOR).
+                setSSLSocketFactory(new LazyLayeredConnectionSocketFactory()).
+                setDefaultCookieSpecRegistry(cookieSpecRegistry).
+                setDefaultSocketConfig(SocketConfig.DEFAULT).
+                setRedirectStrategy(new LaxRedirectStrategy()).
+                setConnectionTimeToLive(TIME_TO_LIVE, TimeUnit.MILLISECONDS).
+                setRetryHandler(new StandardHttpRequestRetryHandler(RETRY_COUNT, REQUEST_SENT_RETRY_ENABLED)).
+                setConnectionReuseStrategy(DefaultClientConnectionReuseStrategy.INSTANCE).
+                setProxyAuthenticationStrategy(getProxyAuthStrategy());
+        if(DISABLE_DEFAULT_UA) {
+            builder.disableDefaultUserAgent();
+        }
+        Lookup<AuthSchemeProvider> authSchemeRegistry =
+                RegistryBuilder.<AuthSchemeProvider>create()
+                    .register(AuthSchemes.BASIC, new BasicSchemeFactory())
+                    .register(AuthSchemes.DIGEST, new DigestSchemeFactory())
+                    .register(AuthSchemes.NTLM, new NTLMSchemeFactory())
+                    .register(AuthSchemes.SPNEGO, new DynamicSPNegoSchemeFactory(
+                            AuthManager.STRIP_PORT, AuthManager.USE_CANONICAL_HOST_NAME))
+                    .register(AuthSchemes.KERBEROS, new DynamicKerberosSchemeFactory(
+                            AuthManager.STRIP_PORT, AuthManager.USE_CANONICAL_HOST_NAME))
+                    .build();
+        builder.setDefaultAuthSchemeRegistry(authSchemeRegistry);
+
+        if (IDLE_TIMEOUT > 0) {
+            builder.setKeepAliveStrategy(IDLE_STRATEGY);
+        }
+
+        // Set up proxy details
+        AuthScope proxyAuthScope = null;
+        NTCredentials proxyCredentials = null;
+        if (key.hasProxy) {
+            HttpHost proxy = new HttpHost(key.proxyHost, key.proxyPort, key.proxyScheme);
+            builder.setProxy(proxy);
+
+            CredentialsProvider credsProvider = new BasicCredentialsProvider();
+            if (!key.proxyUser.isEmpty()) {
+                proxyAuthScope = new AuthScope(key.proxyHost, key.proxyPort);
+                proxyCredentials = new NTCredentials(key.proxyUser, key.proxyPass, LOCALHOST, PROXY_DOMAIN);
+                credsProvider.setCredentials(
+                        proxyAuthScope,
+                        proxyCredentials);
+            }
+            builder.setDefaultCredentialsProvider(credsProvider);
+        }
+        builder.disableContentCompression().addInterceptorLast(RESPONSE_CONTENT_ENCODING);
+        if(BASIC_AUTH_PREEMPTIVE) {
+            builder.addInterceptorFirst(PREEMPTIVE_AUTH_INTERCEPTOR);
+        } else {
+            builder.setDefaultCredentialsProvider(new ManagedCredentialsProvider(getAuthManager(), proxyAuthScope, proxyCredentials));
+        }
+        return builder.build();
+    }
+
     protected AuthenticationStrategy getProxyAuthStrategy() {
         return ProxyAuthenticationStrategy.INSTANCE;
     }
@@ -1237,6 +1377,10 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
      */
     private static void closeCurrentConnections(
             Map<HttpClientKey, ? extends HttpClientState> mapHttpClientPerHttpClientKey) {
+        if (SHARED_POOL) {
+            // The connections are used by the other threads too
+            return;
+        }
         for (HttpClientState clientState :
                 mapHttpClientPerHttpClientKey.values()) {
             PoolingHttpClientConnectionManager poolingHttpClientConnectionManager = clientState.getConnectionManager();
@@ -1282,6 +1426,10 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
             rCB.setConnectTimeout(cto);
         }
 
+        if (SHARED_POOL && SHARED_POOL_LEASE_TIMEOUT > 0) {
+            rCB.setConnectionRequestTimeout(SHARED_POOL_LEASE_TIMEOUT);
+        }
+
         rCB.setRedirectsEnabled(getAutoRedirects());
         rCB.setMaxRedirects(HTTPSamplerBase.MAX_REDIRECTS);
         httpRequest.setConfig(rCB.build());
@@ -1513,12 +1661,37 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         public void writeTo(final OutputStream out) throws IOException {
             if (hideFileData) {
                 out.write(CONTENTS_OMITTED);
+            } else if (FileUploads.STREAMING_UPLOAD) {
+                FileUploads.writeFile(getFile().toPath(), out);
             } else {
                 super.writeTo(out);
             }
         }
     }
 
+    // File entity which streams its content without copying it in memory
+    private static class StreamingFileEntity extends FileEntity {
+        private StreamingFileEntity(File file, ContentType contentType) {
+            super(file, contentType);
+        }
+
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            FileUploads.writeFile(file.toPath(), out);
+            out.flush();
+        }
+    }
+
+    private static FileEntity createFileEntity(File file, ContentType contentType) {
+        return createFileEntity(file, contentType, FileUploads.STREAMING_UPLOAD);
+    }
+
+    static FileEntity createFileEntity(File file, ContentType contentType, boolean streamingUpload) {
+        return streamingUpload
+                ? new StreamingFileEntity(file, contentType)
+                : new FileEntity(file, contentType);
+    }
+
     /**
      * @param entityEnclosingRequest {@link HttpEntityEnclosingRequestBase}
      * @return String body sent if computable
@@ -1615,7 +1788,7 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
                         entityEnclosingRequest.setHeader(HTTPConstants.HEADER_CONTENT_TYPE, HTTPConstants.APPLICATION_X_WWW_FORM_URLENCODED);
                     }
                 }
-                FileEntity fileRequestEntity = new FileEntity(FileServer.getFileServer().getResolvedFile(file.getPath()), (ContentType) null);
+                FileEntity fileRequestEntity = createFileEntity(FileServer.getFileServer().getResolvedFile(file.getPath()), null);
                 entityEnclosingRequest.setEntity(fileRequestEntity);
 
                 // We just add placeholder text for file content
@@ -1738,7 +1911,7 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
 
             // If getSendFileAsPostBody returned true, it's sure that file is not null
             File reservedFile = FileServer.getFileServer().getResolvedFile(files[0].getPath());
-            FileEntity fileRequestEntity = new FileEntity(reservedFile); // no need for content-type here
+            FileEntity fileRequestEntity = createFileEntity(reservedFile, null); // no need for content-type here
             entity.setEntity(fileRequestEntity);
         }
         // If none of the arguments have a name specified, we
@@ -1768,15 +1941,28 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         if(hasEntityBody) {
             // If the request entity is repeatable, we can send it first to
             // our own stream, so we can return it
-            final HttpEntity entityEntry = entity.getEntity();
-            // Buffer to hold the entity body
-            StringBuilder entityBody = new StringBuilder(65);
-            writeEntityToSB(entityBody, entityEntry, EMPTY_FILE_BODIES, charset);
-            return entityBody.toString();
+            return getEntityBody(entity.getEntity(), charset);
         }
         return ""; // may be the empty string
     }
 
+    /**
+     * @param entityEntry entity sent as the body of the request
+     * @param charset     charset of the body
+     * @return the body to show in the request data, a placeholder for the files streamed by {@link FileUploads}
+     * @throws IOException if the entity can not be written
+     */
+    static String getEntityBody(HttpEntity entityEntry, String charset) throws IOException {
+        if (entityEntry instanceof StreamingFileEntity) {
+            // do not read the file only to show it
+            return "<actual file content, not shown here>"; // $NON-NLS-1$
+        }
+        // Buffer to hold the entity body
+        StringBuilder entityBody = new StringBuilder(65);
+        writeEntityToSB(entityBody, entityEntry, EMPTY_FILE_BODIES, charset);
+        return entityBody.toString();
+    }
+
     /**
      * Create UrlEncodedFormEntity from parameters
      * @param urlContentEncoding Content encoding may be null or empty
@@ -1849,9 +2035,11 @@ public class HTTPHC4Impl extends HTTPHCAbstractImpl {
         Map<HttpClientKey, HttpClientState>
             mapHttpClientPerHttpClientKey = HTTPCLIENTS_CACHE_PER_THREAD_AND_HTTPCLIENTKEY.get();
         if (mapHttpClientPerHttpClientKey != null ) {
-            for (HttpClientState clientState : mapHttpClientPerHttpClientKey.values() ) {
-                JOrphanUtils.closeQuietly(clientState.getClient());
-                JOrphanUtils.closeQuietly(clientState.getConnectionManager());
+            if (!SHARED_POOL) { // shared clients are closed at the end of the test
+                for (HttpClientState clientState : mapHttpClientPerHttpClientKey.values() ) {
+                    JOrphanUtils.closeQuietly(clientState.getClient());
+                    JOrphanUtils.closeQuietly(clientState.getConnectionManager());
+                }
             }
             mapHttpClientPerHttpClientKey.clear();
         }
@@ -0,0 +1,666 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.sampler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.Method;
+import java.net.Authenticator;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.jmeter.protocol.http.control.CacheManager;
+import org.apache.jmeter.protocol.http.control.CookieManager;
+import org.apache.jmeter.protocol.http.sampler.hc.LaxDeflateInputStream;
+import org.apache.jmeter.protocol.http.sampler.hc.LaxGZIPInputStream;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jmeter.util.JsseSSLManager;
+import org.apache.jmeter.util.SSLManager;
+import org.apache.jorphan.io.CountingInputStream;
+import org.apache.jorphan.util.JOrphanUtils;
+import org.apache.jorphan.util.StringUtilities;
+import org.brotli.dec.BrotliInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP Sampler implementation based on the {@link HttpClient} shipped with the JDK.
+ * <p>
+ * Requests are sent asynchronously over clients that are shared by all threads of the test,
+ * so HTTP/2 requests of several threads are multiplexed as streams over the same connection.
+ * A new client (and thus a new connection per origin) is opened when all the clients of an origin
+ * already carry {@code httpjavaclient.max_concurrent_streams} requests.
+ * <p>
+ * Plain text {@code http} URLs are upgraded to HTTP/2 (h2c) unless {@code httpjavaclient.h2c}
+ * is set to {@code false}.
+ *
+ * @since 6.0
+ */
+public class HTTPJavaClientImpl extends HTTPAbstractImpl {
+
+    private static final Logger log = LoggerFactory.getLogger(HTTPJavaClientImpl.class);
+
+    private static final HttpClient.Version HTTP_VERSION =
+            parseVersion(JMeterUtils.getPropDefault("httpjavaclient.version", "HTTP_2")); // $NON-NLS-1$
+
+    private static final boolean H2C =
+            JMeterUtils.getPropDefault("httpjavaclient.h2c", true); // $NON-NLS-1$
+
+    private static final int MAX_CONCURRENT_STREAMS =
+            Math.max(1, JMeterUtils.getPropDefault("httpjavaclient.max_concurrent_streams", 100)); // $NON-NLS-1$
+
+    private static final boolean VERIFY_HOSTNAME =
+            JMeterUtils.getPropDefault("httpjavaclient.verify_hostname", false); // $NON-NLS-1$
+
+    /** System property of the JDK client, read once when the first client of the JVM is created */
+    static final String DISABLE_HOSTNAME_VERIFICATION =
+            "jdk.internal.httpclient.disableHostnameVerification"; // $NON-NLS-1$
+
+    /**
+     * Headers the JDK client computes itself and refuses to get from the caller.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade"); // $NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$ $NON-NLS-5$
+
+    /** {@code HttpClient.Builder#localAddress(InetAddress)} is only available since Java 19 */
+    private static final Method LOCAL_ADDRESS = findLocalAddressMethod();
+
+    private static final ReentrantLock CLIENTS_LOCK = new ReentrantLock();
+
+    private static final Map<ClientKey, List<PooledClient>> CLIENTS = new HashMap<>();
+
+    /** Whether {@link #disableHostnameVerification(boolean)} was called; guarded by CLIENTS_LOCK */
+    private static boolean hostnameVerificationConfigured;
+
+    static {
+        log.info("HTTP version = {}, h2c = {}, max concurrent streams = {}, verify hostname = {}",
+                HTTP_VERSION, H2C, MAX_CONCURRENT_STREAMS, VERIFY_HOSTNAME);
+    }
+
+    /**
+     * Everything that is configured on the client rather than on the request.
+     */
+    private record ClientKey(String origin, boolean followRedirects, int connectTimeout,
+            String proxyHost, int proxyPort, String proxyUser, String proxyPass,
+            InetAddress localAddress, SSLContext sslContext) {
+    }
+
+    private static final class PooledClient {
+        private final HttpClient client;
+        private int inFlight;
+
+        private PooledClient(HttpClient client) {
+            this.client = client;
+        }
+    }
+
+    private volatile CompletableFuture<HttpResponse<InputStream>> pendingResponse;
+
+    private volatile InputStream pendingBody;
+
+    protected HTTPJavaClientImpl(HTTPSamplerBase base) {
+        super(base);
+    }
+
+    private static HttpClient.Version parseVersion(String version) {
+        try {
+            return HttpClient.Version.valueOf(version.trim());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unsupported HTTP version {}, falling back to {}", version, HttpClient.Version.HTTP_2);
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+
+    private static Method findLocalAddressMethod() {
+        try {
+            return HttpClient.Builder.class.getMethod("localAddress", InetAddress.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The JDK client checks the host name of the server against its certificate even with the
+     * trusting {@link SSLContext} of JMeter, while the HttpClient4 implementation does not.
+     * It can only be turned off for the whole JVM: the client overrides the endpoint identification algorithm
+     * of the {@link javax.net.ssl.SSLParameters} it is given unless the system property is set.
+     * So the property is only set when this implementation creates its first client and the user did not set it,
+     * and it is ignored if another component of the JVM already opened an HTTPS connection with a JDK client.
+     *
+     * @param verifyHostname value of {@code httpjavaclient.verify_hostname}
+     * @return true if the host names are not verified
+     */
+    static boolean disableHostnameVerification(boolean verifyHostname) {
+        if (!verifyHostname && System.getProperty(DISABLE_HOSTNAME_VERIFICATION) == null) {
+            System.setProperty(DISABLE_HOSTNAME_VERIFICATION, "true"); // $NON-NLS-1$
+        }
+        String value = System.getProperty(DISABLE_HOSTNAME_VERIFICATION);
+        // The JDK treats an empty value as true
+        boolean disabled = value != null && (value.isEmpty() || Boolean.parseBoolean(value));
+        if (disabled == verifyHostname) {
+            log.warn("{}={} overrides httpjavaclient.verify_hostname={}",
+                    DISABLE_HOSTNAME_VERIFICATION, value, verifyHostname);
+        }
+        return disabled;
+    }
+
+    /**
+     * Drops the clients created during the test, so their connections are released.
+     */
+    static void clearClients() {
+        CLIENTS_LOCK.lock();
+        try {
+            CLIENTS.clear();
+        } finally {
+            CLIENTS_LOCK.unlock();
+        }
+    }
+
+    private ClientKey createClientKey(URL url) throws IOException {
+        SSLContext sslContext = null;
+        if (HTTPConstants.PROTOCOL_HTTPS.equalsIgnoreCase(url.getProtocol())) {
+            try {
+                sslContext = ((JsseSSLManager) SSLManager.getInstance()).getContext();
+            } catch (Exception e) {
+                log.warn("Problem creating the SSLManager: ", e);
+            }
+        }
+        InetAddress localAddress = getIpSourceAddress();
+        if (localAddress != null && LOCAL_ADDRESS == null) {
+            log.warn("Source address {} is ignored, it requires Java 19 or later", localAddress);
+            localAddress = null;
+        }
+        String origin = url.getProtocol() + "://" + url.getAuthority(); // $NON-NLS-1$
+        return new ClientKey(origin.toLowerCase(Locale.ROOT), getAutoRedirects(), getConnectTimeout(),
+                getProxyHost(), getProxyPortInt(), getProxyUser(), getProxyPass(),
+                localAddress, sslContext);
+    }
+
+    private static PooledClient acquireClient(ClientKey key) {
+        CLIENTS_LOCK.lock();
+        try {
+            List<PooledClient> clients = CLIENTS.computeIfAbsent(key, k -> new ArrayList<>());
+            for (PooledClient pooled : clients) {
+                if (pooled.inFlight < MAX_CONCURRENT_STREAMS) {
+                    pooled.inFlight++;
+                    return pooled;
+                }
+            }
+            if (!hostnameVerificationConfigured) {
+                disableHostnameVerification(VERIFY_HOSTNAME);
+                hostnameVerificationConfigured = true;
+            }
+            PooledClient pooled = new PooledClient(createClient(key));
+            pooled.inFlight++;
+            clients.add(pooled);
+            log.debug("Created client #{} for {}", clients.size(), key.origin());
+            return pooled;
+        } finally {
+            CLIENTS_LOCK.unlock();
+        }
+    }
+
+    private static void releaseClient(PooledClient pooled) {
+        CLIENTS_LOCK.lock();
+        try {
+            pooled.inFlight--;
+        } finally {
+            CLIENTS_LOCK.unlock();
+        }
+    }
+
+    private static HttpClient createClient(ClientKey key) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HTTP_VERSION)
+                .followRedirects(key.followRedirects() ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER);
+        if (key.connectTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(key.connectTimeout()));
+        }
+        if (!key.proxyHost().isEmpty() && key.proxyPort() > 0) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(key.proxyHost(), key.proxyPort())));
+            if (!key.proxyUser().isEmpty()) {
+                builder.authenticator(new ProxyAuthenticator(key.proxyUser(), key.proxyPass()));
+            }
+        } else {
+            builder.proxy(ProxySelector.getDefault());
+        }
+        if (key.sslContext() != null) {
+            builder.sslContext(key.sslContext());
+        }
+        if (key.localAddress() != null) {
+            try {
+                LOCAL_ADDRESS.invoke(builder, key.localAddress());
+            } catch (ReflectiveOperationException e) {
+                log.warn("Could not set source address {}", key.localAddress(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static final class ProxyAuthenticator extends Authenticator {
+        private final String user;
+        private final String password;
+
+        private ProxyAuthenticator(String user, String password) {
+            this.user = user;
+            this.password = password;
+        }
+
+        @Override
+        protected PasswordAuthentication getPasswordAuthentication() {
+            if (getRequestorType() == RequestorType.PROXY) {
+                return new PasswordAuthentication(user, password.toCharArray());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Collects the request headers and body through the {@link HttpURLConnection} API,
+     * so the writers and managers shared with {@link HTTPJavaImpl} can be reused.
+     * Once the response is received, it exposes the response headers to {@link CacheManager}.
+     */
+    private static final class RequestCapture extends HttpURLConnection {
+        private RequestBody body;
+        private HttpHeaders responseHeaders;
+
+        private RequestCapture(URL url, String method) {
+            super(url);
+            // bypass the method check of setRequestMethod, PATCH and others are fine for HttpClient
+            this.method = method;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            if (body == null) {
+                body = new RequestBody();
+            }
+            return body;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            if (responseHeaders == null) {
+                return null;
+            }
+            List<String> values = responseHeaders.allValues(name);
+            return values.isEmpty() ? null : values.get(values.size() - 1);
+        }
+
+        @Override
+        public void connect() {
+            // NOOP: the request is sent by HttpClient
+        }
+
+        @Override
+        public void disconnect() {
+            // NOOP: the request is sent by HttpClient
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+
+    /**
+     * Request body written by the writers, which keeps the uploaded files as references to be sent
+     * by {@link HttpRequest.BodyPublishers#ofFile(Path)}, rather than copying their content.
+     */
+    static final class RequestBody extends ByteArrayOutputStream implements FileUploads.FileSink {
+        private final List<HttpRequest.BodyPublisher> parts = new ArrayList<>();
+
+        @Override
+        public void writeFile(Path file) throws IOException {
+            addWrittenBytes();
+            parts.add(HttpRequest.BodyPublishers.ofFile(file));
+        }
+
+        private void addWrittenBytes() {
+            if (size() > 0) {
+                parts.add(HttpRequest.BodyPublishers.ofByteArray(toByteArray()));
+                reset();
+            }
+        }
+
+        HttpRequest.BodyPublisher toBodyPublisher() {
+            addWrittenBytes();
+            if (parts.isEmpty()) {
+                return HttpRequest.BodyPublishers.noBody();
+            }
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            return HttpRequest.BodyPublishers.concat(parts.toArray(new HttpRequest.BodyPublisher[0]));
+        }
+    }
+
+    /**
+     * Samples the URL passed in and stores the result in
+     * <code>HTTPSampleResult</code>, following redirects and downloading
+     * page resources as appropriate.
+     * <p>
+     * When getting a redirect target, redirects are not followed and resources
+     * are not downloaded. The caller will take care of this.
+     *
+     * @param url
+     *            URL to sample
+     * @param method
+     *            HTTP method: GET, POST,...
+     * @param areFollowingRedirect
+     *            whether we're getting a redirect target
+     * @param frameDepth
+     *            Depth of this target in the frame structure. Used only to
+     *            prevent infinite recursion.
+     * @return results of the sampling
+     */
+    @Override
+    protected HTTPSampleResult sample(URL url, String method, boolean areFollowingRedirect, int frameDepth) {
+        if (log.isDebugEnabled()) {
+            log.debug("Start : sample {}, method {}, followingRedirect {}, depth {}",
+                    url, method, areFollowingRedirect, frameDepth);
+        }
+
+        HTTPSampleResult res = new HTTPSampleResult();
+        configureSampleLabel(res, url);
+        res.setURL(url);
+        res.setHTTPMethod(method);
+
+        res.sampleStart();
+
+        // Check cache for an entry with an Expires header in the future
+        final CacheManager cacheManager = getCacheManager();
+        if (cacheManager != null && HTTPConstants.GET.equalsIgnoreCase(method)
+                && cacheManager.inCache(url, HTTPJavaImpl.getHeaders(getHeaderManager()))) {
+            return updateSampleResultForResourceInCache(res);
+        }
+
+        PooledClient pooled = null;
+        try {
+            RequestCapture capture = new RequestCapture(url, method);
+            HttpRequest request = setupRequest(url, method, capture, res);
+            pooled = acquireClient(createClientKey(url));
+            HttpResponse<InputStream> response = send(pooled.client, request);
+
+            long contentLength = response.headers().firstValueAsLong(HTTPConstants.HEADER_CONTENT_LENGTH).orElse(0L);
+            CountingInputStream instream = new CountingInputStream(response.body());
+            pendingBody = instream;
+            String contentEncoding = response.headers().firstValue(HTTPConstants.HEADER_CONTENT_ENCODING).orElse(null);
+            String ct = response.headers().firstValue(HTTPConstants.HEADER_CONTENT_TYPE).orElse(null);
+            if (ct != null) {
+                res.setContentType(ct);// e.g. text/html; charset=ISO-8859-1
+                res.setEncodingAndType(ct);
+            }
+            // N.B. this closes 'in'
+            byte[] responseData = readResponse(res, decode(contentEncoding, instream), contentLength);
+            res.setBodySize(instream.getBytesRead());
+            res.sampleEnd();
+            // Done with the sampling proper.
+
+            res.setResponseData(responseData);
+            int statusCode = response.statusCode();
+            res.setResponseCode(Integer.toString(statusCode));
+            res.setSuccessful(isSuccessCode(statusCode));
+            String reason = EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, Locale.ENGLISH);
+            res.setResponseMessage(reason == null ? "" : reason);
+
+            String responseHeaders = getResponseHeaders(response, res.getResponseMessage());
+            res.setResponseHeaders(responseHeaders);
+            if (res.isRedirect()) {
+                res.setRedirectLocation(response.headers().firstValue(HTTPConstants.HEADER_LOCATION).orElse(null));
+            }
+
+            // record headers size to allow HTTPSampleResult.getBytes() with different options
+            res.setHeadersSize(
+                    responseHeaders.length()
+                            + StringUtilities.count(responseHeaders, '\n')
+                            + 2); // add 2 for a '\r\n' at end of headers (before data)
+
+            // If we redirected automatically, the URL may have changed
+            if (getAutoRedirects()) {
+                res.setURL(response.uri().toURL());
+            }
+
+            // Store any cookies received in the cookie manager:
+            saveCookies(response, url, getCookieManager());
+
+            // Save cache information
+            if (cacheManager != null) {
+                capture.responseHeaders = response.headers();
+                cacheManager.saveDetails(capture, res);
+            }
+
+            res = resultProcessing(areFollowingRedirect, frameDepth, res);
+
+            log.debug("End : sample");
+            return res;
+        } catch (IOException | IllegalArgumentException e) {
+            if (res.getEndTime() == 0) {
+                res.sampleEnd();
+            }
+            return errorResult(e, res);
+        } finally {
+            pendingResponse = null;
+            JOrphanUtils.closeQuietly(pendingBody);
+            pendingBody = null;
+            if (pooled != null) {
+                releaseClient(pooled);
+            }
+        }
+    }
+
+    /**
+     * Builds the request, and saves the request information into the sample result.
+     */
+    private HttpRequest setupRequest(URL url, String method, RequestCapture capture, HTTPSampleResult res)
+            throws IOException {
+        HTTPJavaImpl.setConnectionHeaders(capture, url, getHeaderManager(), getCacheManager());
+        String cookies = HTTPJavaImpl.setConnectionCookie(capture, url, getCookieManager());
+        // Unlike the JDK connection, the capture does not hide the Authorization header,
+        // so it is reported and sent along with the other request properties
+        HTTPJavaImpl.setConnectionAuthorization(capture, url, getAuthManager());
+        Map<String, String> securityHeaders = Collections.emptyMap();
+
+        PostWriter postOrPutWriter = null;
+        if (method.equals(HTTPConstants.POST)) {
+            postOrPutWriter = new PostWriter();
+        } else if (method.equals(HTTPConstants.PUT) || method.equals(HTTPConstants.PATCH)
+                || method.equals(HTTPConstants.DELETE)) {
+            postOrPutWriter = new PutWriter();
+        }
+        if (postOrPutWriter != null) {
+            postOrPutWriter.setHeaders(capture, testElement);
+            res.setQueryString(postOrPutWriter.sendPostData(capture, testElement));
+        }
+
+        res.setRequestHeaders(HTTPJavaImpl.getAllHeadersExceptCookie(capture, securityHeaders));
+        if (StringUtilities.isNotEmpty(cookies)) {
+            res.setCookies(cookies);
+        } else {
+            // During recording Cookie Manager doesn't handle cookies
+            res.setCookies(HTTPJavaImpl.getOnlyCookieFromHeaders(capture, securityHeaders));
+        }
+
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL " + url, e);
+        }
+        for (Map.Entry<String, List<String>> entry : capture.getRequestProperties().entrySet()) {
+            String name = entry.getKey();
+            if (name == null || RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                log.debug("Header {} is computed by HttpClient, ignoring {}", name, entry.getValue());
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                builder.header(name, value);
+            }
+        }
+        int rto = getResponseTimeout();
+        if (rto > 0) {
+            builder.timeout(Duration.ofMillis(rto));
+        }
+        if (HTTP_VERSION == HttpClient.Version.HTTP_2 && !H2C
+                && HTTPConstants.PROTOCOL_HTTP.equalsIgnoreCase(url.getProtocol())) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        HttpRequest.BodyPublisher body = capture.body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : capture.body.toBodyPublisher();
+        return builder.method(method, body).build();
+    }
+
+    private HttpResponse<InputStream> send(HttpClient client, HttpRequest request) throws IOException {
+        CompletableFuture<HttpResponse<InputStream>> future =
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        pendingResponse = future;
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the response", e);
+        } catch (CancellationException e) {
+            throw new IOException("Request was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Decompresses the response body according to its Content-Encoding.
+     * Empty bodies (HEAD, 204, 304, ...) are returned as is, since they have no compression header.
+     */
+    private static InputStream decode(String contentEncoding, InputStream in) throws IOException {
+        if (contentEncoding == null) {
+            return in;
+        }
+        PushbackInputStream peek = new PushbackInputStream(in, 1);
+        int first = peek.read();
+        if (first == -1) {
+            return peek;
+        }
+        peek.unread(first);
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case HTTPConstants.ENCODING_GZIP, "x-gzip" -> new LaxGZIPInputStream(peek, false); // $NON-NLS-1$
+            case HTTPConstants.ENCODING_DEFLATE -> new LaxDeflateInputStream(peek, false);
+            case HTTPConstants.ENCODING_BROTLI -> new BrotliInputStream(peek);
+            default -> peek;
+        };
+    }
+
+    /**
+     * Gets the response headers, one per line, preceded by the status line.
+     * HTTP/2 header names are lower case on the wire, they are reported in their usual
+     * case, so extractors and assertions written for HTTP/1.1 keep working.
+     */
+    private static String getResponseHeaders(HttpResponse<?> response, String reason) {
+        boolean http2 = response.version() == HttpClient.Version.HTTP_2;
+        StringBuilder headerBuf = new StringBuilder();
+        headerBuf.append(http2 ? "HTTP/2" : HTTPConstants.HTTP_1_1) // $NON-NLS-1$
+                .append(' ').append(response.statusCode());
+        if (!reason.isEmpty()) {
+            headerBuf.append(' ').append(reason);
+        }
+        headerBuf.append('\n');
+        for (Map.Entry<String, List<String>> entry : response.headers().map().entrySet()) {
+            String name = entry.getKey();
+            if (name.startsWith(":")) { // $NON-NLS-1$
+                continue; // HTTP/2 pseudo-header
+            }
+            if (http2) {
+                name = toHeaderCase(name);
+            }
+            for (String value : entry.getValue()) {
+                headerBuf.append(name).append(": ").append(value).append('\n'); // $NON-NLS-1$
+            }
+        }
+        return headerBuf.toString();
+    }
+
+    private static String toHeaderCase(String name) {
+        char[] chars = name.toCharArray();
+        boolean upper = true;
+        for (int i = 0; i < chars.length; i++) {
+            if (upper) {
+                chars[i] = Character.toUpperCase(chars[i]);
+            }
+            upper = chars[i] == '-';
+        }
+        return new String(chars);
+    }
+
+    private static void saveCookies(HttpResponse<?> response, URL u, CookieManager cookieManager) {
+        if (cookieManager != null) {
+            for (String cookie : response.headers().allValues(HTTPConstants.HEADER_SET_COOKIE)) {
+                cookieManager.addCookieFromHeader(cookie, u);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean interrupt() {
+        CompletableFuture<HttpResponse<InputStream>> future = pendingResponse;
+        InputStream body = pendingBody;
+        pendingResponse = null;
+        pendingBody = null;
+        if (future != null) {
+            future.cancel(true);
+        }
+        JOrphanUtils.closeQuietly(body);
+        return future != null || body != null;
+    }
+}
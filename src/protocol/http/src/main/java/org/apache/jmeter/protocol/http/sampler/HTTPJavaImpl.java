@@ -337,7 +337,7 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
      *            the <code>CookieManager</code> containing all the cookies
      *            for this <code>UrlConfig</code>
      */
-    private static String setConnectionCookie(HttpURLConnection conn, URL u, CookieManager cookieManager) {
+    static String setConnectionCookie(HttpURLConnection conn, URL u, CookieManager cookieManager) {
         String cookieHeader = null;
         if (cookieManager != null) {
             cookieHeader = cookieManager.getCookieHeaderForURL(u);
@@ -362,7 +362,7 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
      *            for this <code>UrlConfig</code>
      * @param cacheManager the CacheManager (may be null)
      */
-    private static void setConnectionHeaders(HttpURLConnection conn, URL u,
+    static void setConnectionHeaders(HttpURLConnection conn, URL u,
             HeaderManager headerManager, CacheManager cacheManager) {
         // Add all the headers from the HeaderManager
         Header[] arrayOfHeaders = null;
@@ -394,7 +394,7 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
      * @param securityHeaders Map of security Header
      * @return the headers as a string
      */
-    private static String getOnlyCookieFromHeaders(HttpURLConnection conn, Map<String, String> securityHeaders) {
+    static String getOnlyCookieFromHeaders(HttpURLConnection conn, Map<String, String> securityHeaders) {
         String cookieHeader= getFromConnectionHeaders(conn, securityHeaders, ONLY_COOKIE, false).trim();
         if(!cookieHeader.isEmpty()) {
             return cookieHeader.substring(HTTPConstants.HEADER_COOKIE_IN_REQUEST.length()).trim();
@@ -411,7 +411,7 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
      * @param securityHeaders Map of security Header
      * @return the headers as a string
      */
-    private static String getAllHeadersExceptCookie(HttpURLConnection conn, Map<String, String> securityHeaders) {
+    static String getAllHeadersExceptCookie(HttpURLConnection conn, Map<String, String> securityHeaders) {
         return getFromConnectionHeaders(conn, securityHeaders, ALL_EXCEPT_COOKIE, true);
     }
 
@@ -466,7 +466,7 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
      *            this <code>UrlConfig</code>
      * @return String Authorization header value or null if not set
      */
-    private static Map<String, String> setConnectionAuthorization(HttpURLConnection conn, URL u, AuthManager authManager) {
+    static Map<String, String> setConnectionAuthorization(HttpURLConnection conn, URL u, AuthManager authManager) {
         if (authManager != null) {
             Authorization auth = authManager.getAuthForURL(u);
             if (auth != null) {
@@ -565,6 +565,12 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
                 res.setQueryString(putBody);
             }
             // Request sent. Now get the response:
+            // The encoding is set before reading, for the consumers of the response stream
+            String ct = conn.getContentType();
+            if (ct != null){
+                res.setContentType(ct);// e.g. text/html; charset=ISO-8859-1
+                res.setEncodingAndType(ct);
+            }
             byte[] responseData = readResponse(conn, res);
 
             res.sampleEnd();
@@ -605,12 +611,6 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
             }
             res.setResponseMessage(respMsg);
 
-            String ct = conn.getContentType();
-            if (ct != null){
-                res.setContentType(ct);// e.g. text/html; charset=ISO-8859-1
-                res.setEncodingAndType(ct);
-            }
-
             String responseHeaders = getResponseHeaders(conn);
             res.setResponseHeaders(responseHeaders);
             if (res.isRedirect()) {
@@ -668,7 +668,7 @@ public class HTTPJavaImpl extends HTTPAbstractImpl {
         }
     }
 
-    private static Header[] getHeaders(HeaderManager headerManager) {
+    static Header[] getHeaders(HeaderManager headerManager) {
         if (headerManager != null) {
             final CollectionProperty headers = headerManager.getHeaders();
             if (headers != null) {
@@ -59,6 +59,9 @@ public class HTTPSampleResult extends SampleResult {
 
     private String queryString = ""; // never null
 
+    /** Time spent waiting for a connection of a shared pool, in milliseconds */
+    private long leaseWaitTime;
+
     private static final String HTTP_NO_CONTENT_CODE = Integer.toString(HttpURLConnection.HTTP_NO_CONTENT);
     private static final String HTTP_NO_CONTENT_MSG = "No Content"; // $NON-NLS-1$
 
@@ -83,6 +86,7 @@ public class HTTPSampleResult extends SampleResult {
         cookies=res.cookies;
         queryString=res.queryString;
         redirectLocation=res.redirectLocation;
+        leaseWaitTime=res.leaseWaitTime;
     }
 
     public void setHTTPMethod(String method) {
@@ -101,6 +105,26 @@ public class HTTPSampleResult extends SampleResult {
         return redirectLocation;
     }
 
+    /**
+     * Set the time spent waiting for a connection, when connections are leased from
+     * a pool shared by all threads (see {@code httpclient4.shared_pool}).
+     *
+     * @param leaseWaitTime wait time in milliseconds
+     * @since 6.0
+     */
+    public void setLeaseWaitTime(long leaseWaitTime) {
+        this.leaseWaitTime = leaseWaitTime;
+    }
+
+    /**
+     * @return the time spent waiting for a connection of a shared pool in milliseconds,
+     *         0 when the connections are not shared
+     * @since 6.0
+     */
+    public long getLeaseWaitTime() {
+        return leaseWaitTime;
+    }
+
     /**
      * Determine whether this result is a redirect.
      *
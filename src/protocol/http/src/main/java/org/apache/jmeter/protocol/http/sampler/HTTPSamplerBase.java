@@ -43,7 +43,6 @@ import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.regex.PatternSyntaxException;
 
-import org.apache.jmeter.config.Argument;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.config.KeystoreConfig;
@@ -56,6 +55,7 @@ import org.apache.jmeter.protocol.http.control.CookieManager;
 import org.apache.jmeter.protocol.http.control.DNSCacheManager;
 import org.apache.jmeter.protocol.http.control.HeaderManager;
 import org.apache.jmeter.protocol.http.parser.BaseParser;
+import org.apache.jmeter.protocol.http.parser.EmbeddedResourceUrlCache;
 import org.apache.jmeter.protocol.http.parser.LinkExtractorParseException;
 import org.apache.jmeter.protocol.http.parser.LinkExtractorParser;
 import org.apache.jmeter.protocol.http.sampler.ResourcesDownloader.AsynSamplerResultHolder;
@@ -69,6 +69,7 @@ import org.apache.jmeter.protocol.http.util.HTTPFileArgs;
 import org.apache.jmeter.report.utils.MetricUtils;
 import org.apache.jmeter.samplers.AbstractSampler;
 import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.ResponseStreamConsumer;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.TestIterationListener;
@@ -200,6 +201,13 @@ public abstract class HTTPSamplerBase extends AbstractSampler
     private static final int MAX_BYTES_TO_STORE_PER_REQUEST =
             JMeterUtils.getPropDefault("httpsampler.max_bytes_to_store_per_request", 0); // $NON-NLS-1$ // default value: 0 don't truncate
 
+    /** true if the response bodies are piped through the {@link ResponseStreamConsumer}s and only a prefix is stored */
+    private static final boolean STREAMING_RESPONSE =
+            JMeterUtils.getPropDefault("httpsampler.streaming_response", false); // $NON-NLS-1$
+
+    private static final int STREAMING_MAX_STORED_BYTES =
+            JMeterUtils.getPropDefault("httpsampler.streaming_response.max_stored_bytes", 65536); // $NON-NLS-1$ // 0 don't truncate
+
     private static final int MAX_BUFFER_SIZE =
             JMeterUtils.getPropDefault("httpsampler.max_buffer_size", 65 * 1024); // $NON-NLS-1$
 
@@ -209,6 +217,10 @@ public abstract class HTTPSamplerBase extends AbstractSampler
     private static final boolean IGNORE_EMBEDDED_RESOURCES_DATA =
             JMeterUtils.getPropDefault("httpsampler.embedded_resources_use_md5", false); // $NON-NLS-1$ // default value: false
 
+    /** true if each thread reuses the encoded arguments and the URL of its previous request when they did not change */
+    private static final boolean USE_REQUEST_TEMPLATE =
+            JMeterUtils.getPropDefault("httpsampler.request_template", true); // $NON-NLS-1$
+
     @SuppressWarnings("EnumOrdinal")
     public static final int SOURCE_TYPE_DEFAULT = HTTPSamplerBase.SourceType.HOSTNAME.ordinal();
 
@@ -318,6 +330,25 @@ public abstract class HTTPSamplerBase extends AbstractSampler
     private static final boolean USE_JAVA_REGEX = !JMeterUtils.getPropDefault(
             "jmeter.regex.engine", "oro").equalsIgnoreCase("oro");
 
+    /** Returned by {@link #readResponse(SampleResult, InputStream, long)} when the body is not stored */
+    private static final byte[] NO_RESPONSE_DATA = new byte[0];
+
+    // A sampler is only used by one thread at a time, parallel downloads use clones
+    /** Buffer reused by {@link #readResponse(SampleResult, InputStream, long)} for every response */
+    private transient byte[] readBuffer;
+
+    /** Digest reused by {@link #readResponse(SampleResult, InputStream, long)} when the MD5 option is set */
+    private transient MessageDigest md5Digest;
+
+    /**
+     * true while the response read by {@link #readResponse(SampleResult, InputStream, long)} will be
+     * a sub-result (redirect or embedded resource), set by {@link HTTPSamplerProxy}
+     */
+    transient boolean samplingSubResult;
+
+    /** Query string and URL of the previous request of the thread, set by {@link #threadStarted()} */
+    private transient RequestTemplate requestTemplate;
+
     static {
         String[] parsers = JOrphanUtils.split(RESPONSE_PARSERS, " " , true);// returns empty array for null
         for (final String parser : parsers) {
@@ -1090,10 +1121,11 @@ public abstract class HTTPSamplerBase extends AbstractSampler
      */
     public URL getUrl() throws MalformedURLException {
         String path = this.getPath();
+        RequestTemplate template = requestTemplate;
         // Hack to allow entire URL to be provided in host field
         if (path.startsWith(HTTP_PREFIX)
                 || path.startsWith(HTTPS_PREFIX)) {
-            return new URL(path);
+            return template != null ? template.getUrl(path) : new URL(path);
         }
         String domain = getDomain();
         String protocol = getProtocol();
@@ -1128,9 +1160,13 @@ public abstract class HTTPSamplerBase extends AbstractSampler
         }
         // If default port for protocol is used, we do not include port in URL
         if (isProtocolDefaultPort()) {
-            return new URL(protocol, domain, pathAndQuery.toString());
+            return template != null
+                    ? template.getUrl(protocol, domain, -1, pathAndQuery.toString())
+                    : new URL(protocol, domain, pathAndQuery.toString());
         }
-        return new URL(protocol, domain, getPort(), pathAndQuery.toString());
+        return template != null
+                ? template.getUrl(protocol, domain, getPort(), pathAndQuery.toString())
+                : new URL(protocol, domain, getPort(), pathAndQuery.toString());
     }
 
     /**
@@ -1165,48 +1201,9 @@ public abstract class HTTPSamplerBase extends AbstractSampler
             // We use the encoding which should be used according to the HTTP spec, which is UTF-8
             lContentEncoding = EncoderCache.URL_ARGUMENT_ENCODING;
         }
-
-        StringBuilder buf = new StringBuilder(args.getArgumentCount() * 15);
-        boolean first = true;
-        while (iter.hasNext()) {
-            HTTPArgument item = null;
-            /*
-             * N.B. Revision 323346 introduced the ClassCast check, but then used iter.next()
-             * to fetch the item to be cast, thus skipping the element that did not cast.
-             * Reverted to work more like the original code, but with the check in place.
-             * Added a warning message so can track whether it is necessary
-             */
-            Object objectValue = iter.next().getObjectValue();
-            try {
-                item = (HTTPArgument) objectValue;
-            } catch (ClassCastException e) { // NOSONAR
-                log.warn("Unexpected argument type: {} cannot be cast to HTTPArgument", objectValue.getClass().getName());
-                item = new HTTPArgument((Argument) objectValue);
-            }
-            final String encodedName = item.getEncodedName();
-            if (encodedName.isEmpty()) {
-                continue; // Skip parameters with a blank name (allows use of optional variables in parameter lists)
-            }
-            if (!first) {
-                buf.append(QRY_SEP);
-            } else {
-                first = false;
-            }
-            buf.append(encodedName);
-            if (item.getMetaData() == null) {
-                buf.append(ARG_VAL_SEP);
-            } else {
-                buf.append(item.getMetaData());
-            }
-
-            // Encode the parameter value in the specified content encoding
-            try {
-                buf.append(item.getEncodedValue(lContentEncoding));
-            } catch(UnsupportedEncodingException e) { // NOSONAR
-                log.warn("Unable to encode parameter in encoding {}, parameter value not included in query string", lContentEncoding );
-            }
-        }
-        return buf.toString();
+        // Without template, a new one encodes all the arguments
+        RequestTemplate template = requestTemplate != null ? requestTemplate : new RequestTemplate();
+        return template.getQueryString(args, lContentEncoding);
     }
 
     // Mark Walsh 2002-08-03, modified to also parse a parameter name value
@@ -1359,7 +1356,8 @@ public abstract class HTTPSamplerBase extends AbstractSampler
                 final LinkExtractorParser parser = getParser(res);
                 if (parser != null) {
                     String userAgent = getUserAgent(res);
-                    urls = parser.getEmbeddedResourceURLs(userAgent, responseData, res.getURL(), res.getDataEncodingWithDefault());
+                    urls = EmbeddedResourceUrlCache.getEmbeddedResourceURLs(
+                            parser, userAgent, responseData, res.getURL(), res.getDataEncodingWithDefault());
                 }
             }
         } catch (LinkExtractorParseException e) {
@@ -1611,6 +1609,9 @@ public abstract class HTTPSamplerBase extends AbstractSampler
         if (isConcurrentDwn()) {
             ResourcesDownloader.getInstance().shrink();
         }
+        HTTPJavaClientImpl.clearClients();
+        HTTPHC4Impl.closeSharedConnections();
+        EmbeddedResourceUrlCache.clear();
     }
 
     /**
@@ -1905,10 +1906,14 @@ public abstract class HTTPSamplerBase extends AbstractSampler
     // (previously these were implemented in all TestElements)
     @Override
     public void threadStarted() {
+        if (USE_REQUEST_TEMPLATE) {
+            requestTemplate = new RequestTemplate();
+        }
     }
 
     @Override
     public void threadFinished() {
+        requestTemplate = null;
     }
 
     @Override
@@ -1921,6 +1926,14 @@ public abstract class HTTPSamplerBase extends AbstractSampler
      * <p>
      * For the MD5 case, the result byte count is set to the size of the original response.
      * <p>
+     * In streaming mode ({@code httpsampler.streaming_response=true}), the body is also piped through the
+     * {@link ResponseStreamConsumer}s of the current sampler, and only its first
+     * {@code httpsampler.streaming_response.max_stored_bytes} bytes are stored.
+     * <p>
+     * In lean mode ({@code sampleresult.lean_mode=true}), the body is only counted when nothing
+     * reads the response data of the sample, see {@link JMeterContext#isResponseDataNeeded()},
+     * unless embedded resources have to be parsed from it.
+     * <p>
      * Closes the inputStream
      *
      * @param sampleResult sample to store information about the response into
@@ -1933,16 +1946,25 @@ public abstract class HTTPSamplerBase extends AbstractSampler
 
         DirectAccessByteArrayOutputStream w = null;
         try (Closeable ignore = in) { // NOSONAR No try with resource as performance is critical here
-            byte[] readBuffer = new byte[8192]; // 8kB is the (max) size to have the latency ('the first packet')
+            if (readBuffer == null) {
+                readBuffer = new byte[8192]; // 8kB is the (max) size to have the latency ('the first packet')
+            }
             int bufferSize = 32;// Enough for MD5
+            long maxBytesToStore = STREAMING_RESPONSE ? STREAMING_MAX_STORED_BYTES : MAX_BYTES_TO_STORE_PER_REQUEST;
 
             MessageDigest md = null;
             boolean knownResponseLength = length > 0;// may also happen if long value > int.max
             if (useMD5()) {
-                try {
-                    md = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
-                } catch (NoSuchAlgorithmException e) {
-                    log.error("Should not happen - could not find MD5 digest", e);
+                if (md5Digest == null) {
+                    try {
+                        md5Digest = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+                    } catch (NoSuchAlgorithmException e) {
+                        log.error("Should not happen - could not find MD5 digest", e);
+                    }
+                }
+                md = md5Digest;
+                if (md != null) {
+                    md.reset(); // in case the previous response could not be read completely
                 }
             } else {
                 if (!knownResponseLength) {
@@ -1950,8 +1972,13 @@ public abstract class HTTPSamplerBase extends AbstractSampler
                 } else {
                     bufferSize = (int) Math.min(MAX_BUFFER_SIZE, length);
                 }
+                if (STREAMING_RESPONSE && maxBytesToStore > 0) {
+                    bufferSize = (int) Math.min(bufferSize, maxBytesToStore);
+                }
             }
-
+            boolean discardBody = md == null && !isImageParser()
+                    && !JMeterContextService.getContext().isResponseDataNeeded();
+            List<ResponseStreamConsumer> consumers = startResponseStreamConsumers(sampleResult);
 
             int bytesReadInBuffer = 0;
             long totalBytes = 0;
@@ -1961,35 +1988,44 @@ public abstract class HTTPSamplerBase extends AbstractSampler
                 if (first) {
                     sampleResult.latencyEnd();
                     first = false;
-                    if (md == null) {
+                    if (md == null && !discardBody) {
                         w = new DirectAccessByteArrayOutputStream(knownResponseLength ? bufferSize : 8192);
                     }
                 }
 
                 if (md == null) {
-                    if(storeInBOS) {
-                        if(MAX_BYTES_TO_STORE_PER_REQUEST <= 0 ||
-                                (totalBytes+bytesReadInBuffer<=MAX_BYTES_TO_STORE_PER_REQUEST) ||
+                    if(storeInBOS && !discardBody) {
+                        if(maxBytesToStore <= 0 ||
+                                (totalBytes+bytesReadInBuffer<=maxBytesToStore) ||
                                 JMeterContextService.getContext().isRecording()) {
                             w.write(readBuffer, 0, bytesReadInBuffer);
                         } else {
-                            log.debug("Big response, truncating it to {} bytes", MAX_BYTES_TO_STORE_PER_REQUEST);
-                            w.write(readBuffer, 0, (int)(MAX_BYTES_TO_STORE_PER_REQUEST-totalBytes));
+                            log.debug("Big response, truncating it to {} bytes", maxBytesToStore);
+                            w.write(readBuffer, 0, (int)(maxBytesToStore-totalBytes));
                             storeInBOS = false;
                         }
                     }
                 } else {
                     md.update(readBuffer, 0, bytesReadInBuffer);
                 }
+                for (ResponseStreamConsumer consumer : consumers) {
+                    consumer.consume(sampleResult, readBuffer, 0, bytesReadInBuffer);
+                }
                 totalBytes += bytesReadInBuffer;
             }
+            for (ResponseStreamConsumer consumer : consumers) {
+                consumer.end(sampleResult);
+            }
 
             if (first) { // Bug 46838 - if there was no data, still need to set latency
                 sampleResult.latencyEnd();
                 return new byte[0];
             }
 
-            if (md == null) {
+            if (discardBody) {
+                // The sampler sets the body size from the bytes received
+                return NO_RESPONSE_DATA;
+            } else if (md == null) {
                 return w.toByteArray();
             } else {
                 byte[] md5Result = md.digest();
@@ -2002,6 +2038,27 @@ public abstract class HTTPSamplerBase extends AbstractSampler
         }
     }
 
+    /**
+     * @param sampleResult result of the response about to be read
+     * @return the consumers of the current sampler that want the body of the response
+     */
+    private List<ResponseStreamConsumer> startResponseStreamConsumers(SampleResult sampleResult) {
+        if (!STREAMING_RESPONSE) {
+            return Collections.emptyList();
+        }
+        List<ResponseStreamConsumer> registered = JMeterContextService.getContext().getResponseStreamConsumers();
+        if (registered.isEmpty()) {
+            return registered;
+        }
+        List<ResponseStreamConsumer> started = new ArrayList<>(registered.size());
+        for (ResponseStreamConsumer consumer : registered) {
+            if (consumer.start(sampleResult, samplingSubResult)) {
+                started.add(consumer);
+            }
+        }
+        return started;
+    }
+
     /**
      * JMeter 2.3.1 and earlier only had fields for one file on the GUI:
      * <ul>
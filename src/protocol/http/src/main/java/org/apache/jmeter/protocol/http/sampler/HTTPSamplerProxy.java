@@ -63,7 +63,13 @@ public final class HTTPSamplerProxy extends HTTPSamplerBase implements Interrupt
                 return errorResult(ex, new HTTPSampleResult());
             }
         }
-        return impl.sample(u, method, areFollowingRedirect, depth);
+        boolean wasSamplingSubResult = samplingSubResult;
+        samplingSubResult = areFollowingRedirect || depth > 0;
+        try {
+            return impl.sample(u, method, areFollowingRedirect, depth);
+        } finally {
+            samplingSubResult = wasSamplingSubResult;
+        }
     }
 
     // N.B. It's not possible to forward threadStarted() to the implementation class.
@@ -71,6 +77,7 @@ public final class HTTPSamplerProxy extends HTTPSamplerBase implements Interrupt
 
     @Override
     public void threadFinished(){
+        super.threadFinished();
         if (impl != null){
             impl.threadFinished(); // Forward to sampler
         }
@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.net.HttpURLConnection;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -235,6 +236,7 @@ public class PostWriter {
 
             // Set the content length
             connection.setRequestProperty(HTTPConstants.HEADER_CONTENT_LENGTH, Long.toString(contentLength));
+            setStreamingMode(connection, contentLength);
 
             // Make the connection ready for sending post data
             connection.setDoOutput(true);
@@ -319,12 +321,30 @@ public class PostWriter {
 
             // Set the content length
             connection.setRequestProperty(HTTPConstants.HEADER_CONTENT_LENGTH, Long.toString(contentLength));
+            setStreamingMode(connection, contentLength);
 
             // Make the connection ready for sending post data
             connection.setDoOutput(true);
         }
     }
 
+    /**
+     * Lets the connection send the body while it is written, instead of keeping all of it in memory
+     * to compute its length, when the files are uploaded without copying them in memory.
+     *
+     * @param connection    connection to send the body with
+     * @param contentLength length of the body
+     */
+    static void setStreamingMode(URLConnection connection, long contentLength) {
+        setStreamingMode(connection, contentLength, FileUploads.STREAMING_UPLOAD);
+    }
+
+    static void setStreamingMode(URLConnection connection, long contentLength, boolean streamingUpload) {
+        if (streamingUpload && connection instanceof HttpURLConnection httpConnection) {
+            httpConnection.setFixedLengthStreamingMode(contentLength);
+        }
+    }
+
     /**
      * Get the boundary string, used to separate multiparts
      *
@@ -371,6 +391,10 @@ public class PostWriter {
      * @throws IOException
      */
     private static void writeFileToStream(String filename, OutputStream out) throws IOException {
+        if (FileUploads.STREAMING_UPLOAD) {
+            FileUploads.writeFile(Path.of(filename), out);
+            return;
+        }
         byte[] buf = new byte[1024];
         // 1k - the previous 100k made no sense (there's tons of buffers
         // elsewhere in the chain) and it caused OOM when many concurrent
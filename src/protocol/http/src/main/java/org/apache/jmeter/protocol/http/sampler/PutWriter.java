@@ -101,6 +101,7 @@ public class PutWriter extends PostWriter {
         if(hasPutBody) {
             // Set the content length
             connection.setRequestProperty(HTTPConstants.HEADER_CONTENT_LENGTH, Long.toString(contentLength));
+            setStreamingMode(connection, contentLength);
 
             // Make the connection ready for sending post data
             connection.setDoOutput(true);
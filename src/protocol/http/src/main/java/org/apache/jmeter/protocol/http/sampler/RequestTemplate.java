@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.protocol.http.sampler;
+
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.jmeter.config.Argument;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.protocol.http.util.EncoderCache;
+import org.apache.jmeter.protocol.http.util.HTTPArgument;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Query string and URL built by a sampler for its previous request.
+ * <p>
+ * A thread usually sends the same values for most of the fields of a sampler on each iteration.
+ * The template keeps the encoded form of each argument, and only encodes again the arguments whose
+ * name or value changed, for instance because they contain a function. Likewise, the URL is only parsed
+ * again when one of its parts changed. As the values are compared on each request, the changes made by
+ * config elements, pre-processors or scripts are taken into account.
+ * <p>
+ * A template belongs to the sampler of a thread, it is not thread-safe. It is also the only code path
+ * building the query string of the samplers: without template, a new one is used for each request.
+ */
+final class RequestTemplate {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTemplate.class);
+
+    private static final String ARG_VAL_SEP = "="; // $NON-NLS-1$
+
+    private static final char QRY_SEP = '&'; // $NON-NLS-1$
+
+    /** Names are encoded according to the HTTP spec, whatever the encoding of the values */
+    private static final Charset NAME_ENCODING = Charset.forName(EncoderCache.URL_ARGUMENT_ENCODING);
+
+    private String encoding;
+    private int count;
+    private String[] names = new String[0];
+    private String[] values = new String[0];
+    private String[] metaData = new String[0];
+    private boolean[] alwaysEncoded = new boolean[0];
+    /** name, separator and value of each argument, null for the arguments without name */
+    private String[] parts = new String[0];
+    private String queryString = ""; // $NON-NLS-1$
+
+    private String urlProtocol;
+    private String urlDomain;
+    private int urlPort;
+    private String urlFile;
+    private URL url;
+
+    /**
+     * Returns the query string built from the enabled arguments, encoding only the ones which changed
+     * since the previous call. Each argument name and value is read once, so functions are evaluated
+     * as many times as without template.
+     *
+     * @param args            arguments of the sampler
+     * @param contentEncoding encoding of the values
+     * @return the query string
+     */
+    String getQueryString(Arguments args, String contentEncoding) {
+        boolean encodeAll = !contentEncoding.equals(encoding);
+        encoding = contentEncoding;
+        boolean changed = encodeAll;
+        int i = 0;
+        for (JMeterProperty property : args.getEnabledArguments()) {
+            HTTPArgument item = asHTTPArgument(property.getObjectValue());
+            String name = item.getName();
+            String value = item.getValue();
+            String meta = item.getMetaData();
+            boolean encoded = item.isAlwaysEncoded();
+            if (!encodeAll && i < count && encoded == alwaysEncoded[i]
+                    && Objects.equals(name, names[i])
+                    && Objects.equals(value, values[i])
+                    && Objects.equals(meta, metaData[i])) {
+                i++;
+                continue;
+            }
+            if (i == names.length) {
+                grow();
+            }
+            names[i] = name;
+            values[i] = value;
+            metaData[i] = meta;
+            alwaysEncoded[i] = encoded;
+            parts[i] = encode(name, value, meta, encoded, contentEncoding);
+            changed = true;
+            i++;
+        }
+        if (i != count) {
+            changed = true;
+            count = i;
+        }
+        if (changed) {
+            queryString = join();
+        }
+        return queryString;
+    }
+
+    private static HTTPArgument asHTTPArgument(Object objectValue) {
+        // Arguments added by scripts or old test plans may not have been converted to HTTPArgument
+        if (objectValue instanceof HTTPArgument httpArgument) {
+            return httpArgument;
+        }
+        log.warn("Unexpected argument type: {} cannot be cast to HTTPArgument", objectValue.getClass().getName());
+        return new HTTPArgument((Argument) objectValue);
+    }
+
+    private void grow() {
+        int length = Math.max(4, names.length * 2);
+        names = Arrays.copyOf(names, length);
+        values = Arrays.copyOf(values, length);
+        metaData = Arrays.copyOf(metaData, length);
+        alwaysEncoded = Arrays.copyOf(alwaysEncoded, length);
+        parts = Arrays.copyOf(parts, length);
+    }
+
+    private static String encode(String name, String value, String meta, boolean encoded, String contentEncoding) {
+        String encodedName = encoded ? URLEncoder.encode(name, NAME_ENCODING) : name;
+        if (encodedName.isEmpty()) {
+            return null; // Skip parameters with a blank name (allows use of optional variables in parameter lists)
+        }
+        StringBuilder part = new StringBuilder(encodedName.length() + value.length() + 1);
+        part.append(encodedName).append(meta == null ? ARG_VAL_SEP : meta);
+        try {
+            part.append(encoded ? URLEncoder.encode(value, contentEncoding) : value);
+        } catch (UnsupportedEncodingException e) { // NOSONAR
+            log.warn("Unable to encode parameter in encoding {}, parameter value not included in query string", contentEncoding);
+        }
+        return part.toString();
+    }
+
+    private String join() {
+        StringBuilder buf = new StringBuilder(count * 15);
+        for (int i = 0; i < count; i++) {
+            String part = parts[i];
+            if (part == null) {
+                continue;
+            }
+            if (buf.length() > 0) {
+                buf.append(QRY_SEP);
+            }
+            buf.append(part);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Returns the URL built from the given parts, reusing the previous one if they did not change.
+     *
+     * @param protocol protocol of the URL
+     * @param domain   host of the URL
+     * @param port     port of the URL, -1 for the default port of the protocol
+     * @param file     path and query string of the URL
+     * @return the URL
+     * @throws MalformedURLException if the URL is malformed
+     */
+    URL getUrl(String protocol, String domain, int port, String file) throws MalformedURLException {
+        if (url != null && port == urlPort && file.equals(urlFile)
+                && Objects.equals(protocol, urlProtocol) && Objects.equals(domain, urlDomain)) {
+            return url;
+        }
+        URL newUrl = new URL(protocol, domain, port, file);
+        urlProtocol = protocol;
+        urlDomain = domain;
+        urlPort = port;
+        urlFile = file;
+        url = newUrl;
+        return newUrl;
+    }
+
+    /**
+     * Returns the URL parsed from the given specification, reusing the previous one if it did not change.
+     *
+     * @param spec full URL
+     * @return the URL
+     * @throws MalformedURLException if the URL is malformed
+     */
+    URL getUrl(String spec) throws MalformedURLException {
+        if (url != null && urlProtocol == null && spec.equals(urlFile)) {
+            return url;
+        }
+        URL newUrl = new URL(spec);
+        urlProtocol = null;
+        urlDomain = null;
+        urlPort = -1;
+        urlFile = spec;
+        url = newUrl;
+        return newUrl;
+    }
+}
@@ -22,14 +22,19 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.jmeter.testelement.property.CollectionProperty;
 import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.util.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,12 +62,12 @@ import org.slf4j.LoggerFactory;
  * the Future list only contains task that have been scheduled in the threadpool.<br>
  * The status of those futures are either done or cancelled<br>
  * <br>
- *
- *  Future enhancements:
- *  <ul>
- *  <li>this implementation should be replaced with a NIO async download
- *   in order to reduce the number of threads needed</li>
- *  </ul>
+ * When {@code httpsampler.parallel_download.virtual_threads} is set and the JVM supports it,
+ * each download runs on its own virtual thread instead of a pooled platform thread.<br>
+ * {@code httpsampler.parallel_download.max_concurrent} bounds the number of downloads
+ * running at the same time for all the samplers; the sampler threads wait for a free slot
+ * before scheduling a download. The resources of a frame are downloaded under the slot of the frame,
+ * as waiting for another slot while holding one could deadlock.
  * @since 3.0
  */
 public class ResourcesDownloader {
@@ -73,23 +78,60 @@ public class ResourcesDownloader {
     private static final long THREAD_KEEP_ALIVE_TIME =
             JMeterUtils.getPropDefault("httpsampler.parallel_download_thread_keepalive_inseconds", 60L);
 
+    /** run each download on a virtual thread rather than on the platform thread pool */
+    private static final boolean USE_VIRTUAL_THREADS =
+            JMeterUtils.getPropDefault("httpsampler.parallel_download.virtual_threads", false);
+
+    /** maximum number of downloads running at the same time for all the samplers, 0 means no limit */
+    private static final int MAX_CONCURRENT_DOWNLOADS =
+            JMeterUtils.getPropDefault("httpsampler.parallel_download.max_concurrent", 0);
+
     private static final int MIN_POOL_SIZE = 1;
     private static final int MAX_POOL_SIZE = Integer.MAX_VALUE;
 
-    private static final ResourcesDownloader INSTANCE = new ResourcesDownloader();
+    /** true in the threads running a download which holds a permit */
+    private static final ThreadLocal<Boolean> HOLDS_PERMIT = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private static final ResourcesDownloader INSTANCE =
+            new ResourcesDownloader(USE_VIRTUAL_THREADS, MAX_CONCURRENT_DOWNLOADS);
 
     public static ResourcesDownloader getInstance() {
         return INSTANCE;
     }
 
+    /** null when the downloads run on virtual threads */
     private ThreadPoolExecutor concurrentExecutor = null;
 
-    private ResourcesDownloader() {
-        init();
+    private Executor executor = null;
+
+    /** null when the number of concurrent downloads is not limited */
+    private Semaphore downloadPermits = null;
+
+    /**
+     * @param useVirtualThreads      run each download on a virtual thread when the JVM supports it
+     * @param maxConcurrentDownloads maximum number of downloads running at the same time, 0 means no limit
+     */
+    ResourcesDownloader(boolean useVirtualThreads, int maxConcurrentDownloads) {
+        init(useVirtualThreads, maxConcurrentDownloads);
     }
 
-    private void init() {
-        LOG.info("Creating ResourcesDownloader with keepalive_inseconds : {}", THREAD_KEEP_ALIVE_TIME);
+    private void init(boolean useVirtualThreads, int maxConcurrentDownloads) {
+        if (maxConcurrentDownloads > 0) {
+            downloadPermits = new Semaphore(maxConcurrentDownloads, true);
+        }
+        if (useVirtualThreads) {
+            if (VirtualThreads.isSupported()) {
+                LOG.info("Creating ResourcesDownloader with virtual threads, max_concurrent : {}",
+                        maxConcurrentDownloads);
+                AtomicLong threadNumber = new AtomicLong();
+                executor = r -> VirtualThreads.newThread(r, "ResDownload-" + threadNumber.incrementAndGet()).start(); //$NON-NLS-1$
+                return;
+            }
+            LOG.warn("Virtual threads are not supported by Java {}, embedded resources will be downloaded"
+                    + " with platform threads", System.getProperty("java.version")); // $NON-NLS-1$
+        }
+        LOG.info("Creating ResourcesDownloader with keepalive_inseconds : {}, max_concurrent : {}",
+                THREAD_KEEP_ALIVE_TIME, maxConcurrentDownloads);
         concurrentExecutor = new ThreadPoolExecutor(
                 MIN_POOL_SIZE, MAX_POOL_SIZE, THREAD_KEEP_ALIVE_TIME, TimeUnit.SECONDS,
                 new SynchronousQueue<>(),
@@ -100,6 +142,7 @@ public class ResourcesDownloader {
                     return t;
                 }) {
         };
+        executor = concurrentExecutor;
     }
 
     /**
@@ -107,7 +150,7 @@ public class ResourcesDownloader {
      * it should be called at the end of a test
      */
     public void shrink() {
-        if (concurrentExecutor.getPoolSize() <= MIN_POOL_SIZE) {
+        if (concurrentExecutor == null || concurrentExecutor.getPoolSize() <= MIN_POOL_SIZE) {
             return;
         }
         // drain the queue
@@ -151,37 +194,38 @@ public class ResourcesDownloader {
             return submittedTasks;
         }
 
-        // restore MaximumPoolSize original value
-        concurrentExecutor.setMaximumPoolSize(MAX_POOL_SIZE);
+        if (concurrentExecutor != null) {
+            // restore MaximumPoolSize original value
+            concurrentExecutor.setMaximumPoolSize(MAX_POOL_SIZE);
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("PoolSize={} LargestPoolSize={}",
-                    concurrentExecutor.getPoolSize(), concurrentExecutor.getLargestPoolSize());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("PoolSize={} LargestPoolSize={}",
+                        concurrentExecutor.getPoolSize(), concurrentExecutor.getLargestPoolSize());
+            }
         }
 
         CompletionService<AsynSamplerResultHolder> completionService =
-                new ExecutorCompletionService<>(concurrentExecutor);
+                new ExecutorCompletionService<>(executor);
+        List<PermitTask> permitTasks = new ArrayList<>();
         int remainingTasksToTake = list.size();
 
         try {
             // push the task in the threadpool until <maxConcurrentDownloads> is reached
             int i = 0;
             for (i = 0; i < Math.min(maxConcurrentDownloads, list.size()); i++) {
-                Callable<AsynSamplerResultHolder> task = list.get(i);
-                submittedTasks.add(completionService.submit(task));
+                submittedTasks.add(submit(completionService, list.get(i), permitTasks));
             }
 
             // push the remaining tasks but ensure we use at most <maxConcurrentDownloads> threads
             // wait for a previous download to finish before submitting a new one
             for (; i < list.size(); i++) {
-                Callable<AsynSamplerResultHolder> task = list.get(i);
                 try {
                     completionService.take().get();
                 } catch (ExecutionException e) {
                     throw new RuntimeException("Task execution failed", e.getCause());
                 }
                 remainingTasksToTake--;
-                submittedTasks.add(completionService.submit(task));
+                submittedTasks.add(submit(completionService, list.get(i), permitTasks));
             }
 
             // all the resources downloads are in the thread pool queue
@@ -203,12 +247,94 @@ public class ResourcesDownloader {
                         future.cancel(true);
                     }
                 }
+                // the permits of the cancelled tasks which never started would be lost otherwise
+                for (PermitTask permitTask : permitTasks) {
+                    permitTask.releaseIfNotStarted();
+                }
             }
         }
 
         return submittedTasks;
     }
 
+    /**
+     * Waits for a free download slot when the number of concurrent downloads is limited, then submits the task.
+     * The slot is released when the task completes.
+     * Nested downloads, for instance the resources of a frame, use the slot of the download running them.
+     */
+    private Future<AsynSamplerResultHolder> submit(CompletionService<AsynSamplerResultHolder> completionService,
+            Callable<AsynSamplerResultHolder> task, List<PermitTask> permitTasks) throws InterruptedException {
+        if (downloadPermits == null) {
+            return completionService.submit(task);
+        }
+        if (HOLDS_PERMIT.get()) {
+            return completionService.submit(() -> callHoldingPermit(task));
+        }
+        downloadPermits.acquire();
+        PermitTask permitTask = new PermitTask(task, downloadPermits);
+        try {
+            Future<AsynSamplerResultHolder> future = completionService.submit(permitTask);
+            permitTasks.add(permitTask);
+            return future;
+        } catch (RuntimeException | Error e) { // NOSONAR the permit is released whatever happened
+            permitTask.releaseIfNotStarted();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a download under the permit of the download which scheduled it, or of its own.
+     */
+    private static AsynSamplerResultHolder callHoldingPermit(Callable<AsynSamplerResultHolder> task) throws Exception {
+        HOLDS_PERMIT.set(Boolean.TRUE);
+        try {
+            return task.call();
+        } finally {
+            HOLDS_PERMIT.remove();
+        }
+    }
+
+    /**
+     * @return number of downloads which can start without waiting, or -1 when it is not limited
+     */
+    int getAvailablePermits() {
+        return downloadPermits == null ? -1 : downloadPermits.availablePermits();
+    }
+
+    /**
+     * Task holding a download permit, which it releases exactly once: when it completes,
+     * or when it is cancelled before having started.
+     */
+    private static final class PermitTask implements Callable<AsynSamplerResultHolder> {
+        private final Callable<AsynSamplerResultHolder> task;
+        private final Semaphore permits;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        PermitTask(Callable<AsynSamplerResultHolder> task, Semaphore permits) {
+            this.task = task;
+            this.permits = permits;
+        }
+
+        @Override
+        public AsynSamplerResultHolder call() throws Exception {
+            if (!started.compareAndSet(false, true)) {
+                // permit already released by releaseIfNotStarted
+                throw new InterruptedException("Download cancelled before it started");
+            }
+            try {
+                return callHoldingPermit(task);
+            } finally {
+                permits.release();
+            }
+        }
+
+        void releaseIfNotStarted() {
+            if (started.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
     /**
      * Holder of AsynSampler result
      */
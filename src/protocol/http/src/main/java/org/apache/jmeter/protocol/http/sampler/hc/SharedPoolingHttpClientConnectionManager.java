@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.sampler.hc;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionOperator;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apiguardian.api.API;
+
+/**
+ * Connection manager shared by several threads, which leases its connections in
+ * the order they were requested.
+ * <p>
+ * The pool of HttpClient wakes up all the waiting threads when a connection is released,
+ * so under contention some threads can wait much longer than others.
+ * This manager queues the requests on a fair semaphore that holds one permit per connection,
+ * and keeps, for each thread, the time spent waiting for its last leases.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class SharedPoolingHttpClientConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private static final ThreadLocal<long[]> LEASE_WAIT_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Semaphore permits;
+
+    /**
+     * @param operator    operator used to open the connections
+     * @param timeToLive  maximum time to live of the connections, or a negative value for no limit
+     * @param unit        unit of {@code timeToLive}
+     * @param maxTotal    maximum number of connections
+     * @param maxPerRoute maximum number of connections per route
+     */
+    public SharedPoolingHttpClientConnectionManager(HttpClientConnectionOperator operator,
+            long timeToLive, TimeUnit unit, int maxTotal, int maxPerRoute) {
+        super(operator, null, timeToLive, unit);
+        setMaxTotal(maxTotal);
+        setDefaultMaxPerRoute(Math.min(maxPerRoute, maxTotal));
+        this.permits = new Semaphore(maxTotal, true);
+    }
+
+    /**
+     * Returns the time the current thread waited for connections since the previous call.
+     *
+     * @return wait time in milliseconds
+     */
+    public static long getAndResetLeaseWaitTime() {
+        long[] wait = LEASE_WAIT_NANOS.get();
+        long nanos = wait[0];
+        wait[0] = 0;
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest poolRequest = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return lease(poolRequest, start, timeout, unit);
+                } finally {
+                    LEASE_WAIT_NANOS.get()[0] += System.nanoTime() - start;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return poolRequest.cancel();
+            }
+        };
+    }
+
+    private HttpClientConnection lease(ConnectionRequest poolRequest, long start, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+        if (timeout > 0) {
+            if (!permits.tryAcquire(timeout, unit)) {
+                throw new ConnectionPoolTimeoutException("Timeout waiting for connection from shared pool");
+            }
+        } else {
+            permits.acquire();
+        }
+        boolean leased = false;
+        try {
+            long remaining = 0;
+            if (timeout > 0) {
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                remaining = Math.max(1, unit.toMillis(timeout) - elapsed);
+            }
+            HttpClientConnection connection = poolRequest.get(remaining, TimeUnit.MILLISECONDS);
+            leased = true;
+            return connection;
+        } finally {
+            if (!leased) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection managedConn, Object state,
+            long keepalive, TimeUnit unit) {
+        try {
+            super.releaseConnection(managedConn, state, keepalive, unit);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URL;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.http.Header;
+import org.apache.jmeter.protocol.http.control.CacheManager.CacheEntry;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Test {@link CacheManager} with {@code cache_manager.scope=shared}
+ */
+public class TestCacheManagerSharedScope {
+    private static final String SAME_USER = "__jmv_SAME_USER";
+    private static final String URL_PREFIX = "http://localhost/resource";
+    private static final Header[] NO_HEADERS = new Header[0];
+
+    private Cache<String, CacheEntry> sharedCache;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        sharedCache = CacheManager.createSharedCache(64 * 1024);
+        cacheManager = new CacheManager(sharedCache);
+        cacheManager.setUseExpires(true);
+        JMeterVariables vars = new JMeterVariables();
+        // A new user starts on each iteration
+        vars.putObject(SAME_USER, false);
+        JMeterContextService.getContext().setVariables(vars);
+        cacheManager.testIterationStart(null);
+    }
+
+    @SuppressWarnings("JavaUtilDate")
+    private void cache(String url) {
+        sharedCache.put(url, new CacheEntry(null, new Date(System.currentTimeMillis() + 60_000), "etag", null));
+    }
+
+    private static boolean inCache(CacheManager manager, String url) throws Exception {
+        return manager.inCache(new URL(url), NO_HEADERS);
+    }
+
+    private static boolean inCacheInOtherThread(CacheManager manager, String url) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> inCache(manager, url)).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEntriesAreSharedByAllThreads() throws Exception {
+        cache(URL_PREFIX);
+        assertTrue(inCache(cacheManager, URL_PREFIX));
+        assertTrue(inCacheInOtherThread(cacheManager, URL_PREFIX));
+        // Each thread runs a clone of the element
+        CacheManager clone = new CacheManager(sharedCache);
+        clone.setUseExpires(true);
+        clone.testIterationStart(null);
+        assertTrue(inCacheInOtherThread(clone, URL_PREFIX));
+    }
+
+    @Test
+    public void testThreadScopeDoesNotShareEntries() throws Exception {
+        CacheManager threadScoped = new CacheManager(null);
+        threadScoped.setUseExpires(true);
+        threadScoped.testIterationStart(null);
+        cache(URL_PREFIX);
+        assertFalse(inCache(threadScoped, URL_PREFIX));
+    }
+
+    @Test
+    public void testWeighCountsTheStringsAndTheOverhead() {
+        CacheEntry entry = new CacheEntry("Thu, 01 Jan 1970 00:00:00 GMT", null, "0xCAFE", "Accept");
+        int chars = URL_PREFIX.length() + "Thu, 01 Jan 1970 00:00:00 GMT".length() + "0xCAFE".length()
+                + "Accept".length();
+        int withoutStrings = CacheManager.weigh("", new CacheEntry(null, null, null, null));
+        assertEquals(withoutStrings + 2 * chars, CacheManager.weigh(URL_PREFIX, entry));
+    }
+
+    @Test
+    public void testSizeIsBoundedByTheEstimatedBytes() {
+        Cache<String, CacheEntry> smallCache = CacheManager.createSharedCache(1000);
+        int weight = 0;
+        for (int i = 0; i < 100; i++) {
+            String url = URL_PREFIX + i;
+            CacheEntry entry = new CacheEntry(null, null, "etag" + i, null);
+            weight = CacheManager.weigh(url, entry);
+            smallCache.put(url, entry);
+        }
+        smallCache.cleanUp();
+        long maxEntries = 1000 / weight;
+        assertTrue(smallCache.estimatedSize() <= maxEntries,
+                () -> "expected at most " + maxEntries + " entries, got " + smallCache.estimatedSize());
+        long weightedSize = smallCache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weightedSize <= 1000, () -> "weighted size " + weightedSize);
+    }
+
+    @Test
+    public void testSharedCacheIsClearedWhenTheTestStarts() throws Exception {
+        cache(URL_PREFIX);
+        cacheManager.testStarted();
+        assertFalse(inCache(cacheManager, URL_PREFIX));
+        assertEquals(0, sharedCache.estimatedSize());
+    }
+
+    @Test
+    public void testClearEachIterationIsIgnored() throws Exception {
+        cacheManager.setClearEachIteration(true);
+        cache(URL_PREFIX);
+        cacheManager.testIterationStart(null);
+        assertTrue(inCache(cacheManager, URL_PREFIX));
+    }
+
+    @Test
+    public void testControlledByThreadIsIgnored() throws Exception {
+        cacheManager.setControlledByThread(true);
+        cache(URL_PREFIX);
+        // __jmv_SAME_USER is false: a thread scoped cache would be cleared
+        cacheManager.testIterationStart(null);
+        assertTrue(inCache(cacheManager, URL_PREFIX));
+    }
+
+    @Test
+    public void testMaxSizeIsIgnored() throws Exception {
+        cacheManager.setMaxSize(1);
+        cacheManager.testIterationStart(null);
+        for (int i = 0; i < 10; i++) {
+            cache(URL_PREFIX + i);
+        }
+        sharedCache.cleanUp();
+        assertEquals(10, sharedCache.estimatedSize());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(inCache(cacheManager, URL_PREFIX + i));
+        }
+    }
+}
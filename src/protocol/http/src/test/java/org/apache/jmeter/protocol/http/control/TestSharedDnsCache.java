@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jmeter.protocol.http.control;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TestSharedDnsCache {
+
+    private final SharedDnsCache cache = SharedDnsCache.getInstance();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private static InetAddress[] addresses(String... literals) throws UnknownHostException {
+        InetAddress[] result = new InetAddress[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            result[i] = InetAddress.getByName(literals[i]);
+        }
+        return result;
+    }
+
+    private SharedDnsCache.Loader loader(long ttl, String... literals) {
+        return host -> {
+            lookups.incrementAndGet();
+            return new SharedDnsCache.Resolution(addresses(literals), ttl);
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.clear();
+    }
+
+    @Test
+    public void testLookupIsCachedForTheTtl() throws Exception {
+        SharedDnsCache.Loader loader = loader(300, "10.0.0.1", "10.0.0.2");
+        assertArrayEquals(addresses("10.0.0.1", "10.0.0.2"), cache.resolve("a example.com", "example.com", loader));
+        assertArrayEquals(addresses("10.0.0.1", "10.0.0.2"), cache.resolve("a example.com", "example.com", loader));
+        assertEquals(1, lookups.get());
+        cache.resolve("b example.com", "example.com", loader);
+        assertEquals(2, lookups.get(), "other resolvers have their own entries");
+    }
+
+    @Test
+    public void testExpiredLookupIsRunAgain() throws Exception {
+        SharedDnsCache.Loader loader = loader(0, "10.0.0.1");
+        cache.resolve("example.com", "example.com", loader);
+        cache.resolve("example.com", "example.com", loader);
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testFailureIsNotCached() throws Exception {
+        SharedDnsCache.Loader failing = host -> {
+            lookups.incrementAndGet();
+            throw new UnknownHostException(host);
+        };
+        assertThrows(UnknownHostException.class, () -> cache.resolve("example.com", "example.com", failing));
+        assertThrows(UnknownHostException.class, () -> cache.resolve("example.com", "example.com", failing));
+        assertEquals(2, lookups.get());
+        cache.resolve("example.com", "example.com", loader(300, "10.0.0.1"));
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testConcurrentMissesRunOneLookup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SharedDnsCache.Loader slow = host -> {
+            lookups.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new SharedDnsCache.Resolution(addresses("10.0.0.1"), 300);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<InetAddress[]>[] results = new Future[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = executor.submit(() -> cache.resolve("example.com", "example.com", slow));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<InetAddress[]> result : results) {
+                assertArrayEquals(addresses("10.0.0.1"), result.get());
+            }
+            assertEquals(1, lookups.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBackgroundRefreshReplacesTheEntry() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        SharedDnsCache clockedCache = new SharedDnsCache(clock::get);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        SharedDnsCache.Loader loader = host -> {
+            if (calls.incrementAndGet() == 1) {
+                return new SharedDnsCache.Resolution(addresses("10.0.0.1"), 100);
+            }
+            refreshed.countDown();
+            return new SharedDnsCache.Resolution(addresses("10.0.0.2"), 100);
+        };
+        InetAddress[] first = clockedCache.resolve("example.com", "example.com", loader);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(79));
+        assertSame(first, clockedCache.resolve("example.com", "example.com", loader), "no refresh before 80% of the TTL");
+        assertEquals(1, calls.get());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        // The hit which triggers the refresh still gets the cached addresses
+        assertSame(first, clockedCache.resolve("example.com", "example.com", loader));
+        assertTrue(refreshed.await(10, TimeUnit.SECONDS), "the entry should be refreshed in the background");
+        InetAddress[] current = first;
+        for (int i = 0; i < 100 && current == first; i++) {
+            Thread.sleep(10);
+            current = clockedCache.resolve("example.com", "example.com", loader);
+        }
+        assertNotSame(first, current);
+        assertArrayEquals(addresses("10.0.0.2"), current);
+        assertEquals(2, calls.get(), "the refreshed entry is not refreshed again before 80% of its TTL");
+    }
+
+    @Test
+    public void testRotateGivesEachThreadItsFirstAddress() throws Exception {
+        InetAddress[] shared = addresses("10.0.0.1", "10.0.0.2", "10.0.0.3");
+        assertArrayEquals(addresses("10.0.0.1", "10.0.0.2", "10.0.0.3"), SharedDnsCache.rotate(shared, 0));
+        assertArrayEquals(addresses("10.0.0.2", "10.0.0.3", "10.0.0.1"), SharedDnsCache.rotate(shared, 1));
+        assertArrayEquals(addresses("10.0.0.3", "10.0.0.1", "10.0.0.2"), SharedDnsCache.rotate(shared, 2));
+        assertArrayEquals(addresses("10.0.0.1", "10.0.0.2", "10.0.0.3"), SharedDnsCache.rotate(shared, 3));
+        assertArrayEquals(addresses("10.0.0.1", "10.0.0.2", "10.0.0.3"), shared, "the cached addresses are not modified");
+        assertEquals(0, SharedDnsCache.rotate(new InetAddress[0], 5).length);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TestEmbeddedResourceUrlCache {
+
+    /**
+     * Parser which counts its calls and returns the lines of the document as URLs
+     */
+    private static class CountingParser implements LinkExtractorParser {
+        private int calls;
+        private boolean fail;
+
+        @Override
+        public Iterator<URL> getEmbeddedResourceURLs(String userAgent, byte[] responseData, URL baseUrl,
+                String encoding) throws LinkExtractorParseException {
+            calls++;
+            if (fail) {
+                throw new LinkExtractorParseException(new IllegalStateException("Test"));
+            }
+            URLCollection urls = new URLCollection(new ArrayList<>());
+            for (String line : new String(responseData, StandardCharsets.UTF_8).split("\n")) {
+                urls.addURL(line, baseUrl);
+            }
+            return urls.iterator();
+        }
+
+        @Override
+        public boolean isReusable() {
+            return true;
+        }
+    }
+
+    private static List<String> extract(LinkExtractorParser parser, String document, String baseUrl)
+            throws Exception {
+        List<String> urls = new ArrayList<>();
+        EmbeddedResourceUrlCache.getEmbeddedResourceURLs(parser, "JMeter",
+                document.getBytes(StandardCharsets.UTF_8), new URL(baseUrl), "UTF-8")
+                .forEachRemaining(url -> urls.add(url.toString()));
+        return urls;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        EmbeddedResourceUrlCache.clear();
+    }
+
+    @Test
+    public void testSameDocumentIsParsedOnce() throws Exception {
+        CountingParser parser = new CountingParser();
+        List<String> expected = List.of("http://example.com/a.png", "http://example.com/b.css");
+        assertEquals(expected, extract(parser, "a.png\nb.css", "http://example.com/index.html"));
+        assertEquals(expected, extract(parser, "a.png\nb.css", "http://example.com/index.html"));
+        assertEquals(1, parser.calls);
+        assertEquals(1, EmbeddedResourceUrlCache.getHitCount());
+        assertEquals(1, EmbeddedResourceUrlCache.getMissCount());
+    }
+
+    @Test
+    public void testOtherContentOrBaseUrlIsParsedAgain() throws Exception {
+        CountingParser parser = new CountingParser();
+        extract(parser, "a.png", "http://example.com/index.html");
+        extract(parser, "b.png", "http://example.com/index.html");
+        assertEquals(List.of("http://example.org/a.png"), extract(parser, "a.png", "http://example.org/index.html"));
+        assertEquals(3, parser.calls);
+        assertEquals(0, EmbeddedResourceUrlCache.getHitCount());
+    }
+
+    @Test
+    public void testParseErrorIsNotCached() throws Exception {
+        CountingParser parser = new CountingParser();
+        parser.fail = true;
+        assertThrows(LinkExtractorParseException.class,
+                () -> extract(parser, "a.png", "http://example.com/index.html"));
+        parser.fail = false;
+        assertEquals(List.of("http://example.com/a.png"), extract(parser, "a.png", "http://example.com/index.html"));
+        assertEquals(2, parser.calls);
+    }
+}
@@ -19,6 +19,9 @@ package org.apache.jmeter.protocol.http.sampler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.net.URLConnection;
 
 import org.apache.jmeter.config.Arguments;
@@ -29,6 +32,29 @@ import org.junit.jupiter.api.Test;
 
 public class PutWriterTest {
 
+    private static final class StreamingConnection extends HttpURLConnection {
+        private StreamingConnection() throws MalformedURLException {
+            super(new URL("http://localhost"));
+        }
+
+        private long getFixedContentLength() {
+            return fixedContentLengthLong;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+
     @Test
     public void testSetHeadersWithNoParams() throws Exception {
         URLConnection uc = new NullURLConnection();
@@ -53,4 +79,18 @@ public class PutWriterTest {
         pw.setHeaders(uc, sampler);
         assertEquals("mime2", uc.getRequestProperty(HTTPConstants.HEADER_CONTENT_TYPE));
     }
+
+    @Test
+    public void testStreamingUploadSendsTheBodyWhileItIsWritten() throws Exception {
+        StreamingConnection connection = new StreamingConnection();
+        PostWriter.setStreamingMode(connection, 1234, true);
+        assertEquals(1234, connection.getFixedContentLength());
+    }
+
+    @Test
+    public void testBodyIsBufferedWithoutStreamingUpload() throws Exception {
+        StreamingConnection connection = new StreamingConnection();
+        PostWriter.setStreamingMode(connection, 1234, false);
+        assertEquals(-1, connection.getFixedContentLength());
+    }
 }
@@ -19,11 +19,16 @@ package org.apache.jmeter.protocol.http.sampler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.FileEntity;
 import org.apache.jmeter.protocol.http.control.gui.HttpTestSampleGui;
 import org.apache.jmeter.protocol.http.util.HTTPArgument;
 import org.apache.jmeter.protocol.http.util.HTTPConstants;
@@ -34,6 +39,7 @@ import org.apache.jmeter.threads.JMeterVariables;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
@@ -137,4 +143,27 @@ public class TestHTTPHC4Impl {
         hc.notifyFirstSampleAfterLoopRestart();
         Assertions.assertTrue(HTTPHC4Impl.resetStateOnThreadGroupIteration.get(), "Users are different, the state should be reset");
     }
+
+    @Test
+    void testStreamedFileIsNotShownInRequestData(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("upload.txt"), "file content".getBytes(StandardCharsets.UTF_8));
+        FileEntity streamed = HTTPHC4Impl.createFileEntity(file.toFile(), null, true);
+        assertEquals("<actual file content, not shown here>", HTTPHC4Impl.getEntityBody(streamed, "UTF-8"));
+        FileEntity buffered = HTTPHC4Impl.createFileEntity(file.toFile(), null, false);
+        assertEquals("file content", HTTPHC4Impl.getEntityBody(buffered, "UTF-8"));
+    }
+
+    @Test
+    void testStreamedFileSendsItsContent(@TempDir Path dir) throws Exception {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = Files.write(dir.resolve("upload.bin"), content);
+        FileEntity streamed = HTTPHC4Impl.createFileEntity(file.toFile(), null, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamed.writeTo(out);
+        Assertions.assertArrayEquals(content, out.toByteArray());
+        assertEquals(content.length, streamed.getContentLength());
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.sampler;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.protocol.http.control.Header;
+import org.apache.jmeter.protocol.http.control.HeaderManager;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+
+public class TestHTTPJavaClientImpl {
+
+    private WireMockServer server;
+
+    @BeforeEach
+    public void startServer() {
+        server = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop();
+        HTTPJavaClientImpl.clearClients();
+    }
+
+    private static byte[] publishedBytes(HttpRequest.BodyPublisher publisher) throws Exception {
+        CompletableFuture<byte[]> done = new CompletableFuture<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.write(bytes, 0, bytes.length);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(out.toByteArray());
+            }
+        });
+        return done.get(10, TimeUnit.SECONDS);
+    }
+
+    private static HTTPSamplerBase createSampler() {
+        return HTTPSamplerFactory.newInstance(HTTPSamplerFactory.IMPL_JAVA_HTTP_CLIENT);
+    }
+
+    @Test
+    public void testGetStoresResponse() throws Exception {
+        server.stubFor(get(urlPathEqualTo("/page")).willReturn(
+                aResponse().withStatus(200).withHeader("X-Served-By", "mock").withBody("hello")));
+        HTTPSamplerBase sampler = createSampler();
+
+        HTTPSampleResult res = sampler.sample(new URL(server.url("/page")), HTTPConstants.GET, false, 0);
+
+        assertEquals("200", res.getResponseCode());
+        assertTrue(res.isSuccessful());
+        assertEquals("hello", new String(res.getResponseData(), StandardCharsets.UTF_8));
+        assertEquals(5, res.getBodySizeAsLong());
+        assertTrue(res.getResponseHeaders().contains("X-Served-By: mock"), res.getResponseHeaders());
+    }
+
+    @Test
+    public void testPostSendsArguments() throws Exception {
+        server.stubFor(post(urlPathEqualTo("/form")).willReturn(aResponse().withStatus(201)));
+        HTTPSamplerBase sampler = createSampler();
+        sampler.setMethod(HTTPConstants.POST);
+        sampler.addArgument("name", "value");
+
+        HTTPSampleResult res = sampler.sample(new URL(server.url("/form")), HTTPConstants.POST, false, 0);
+
+        assertEquals("201", res.getResponseCode());
+        server.verify(postRequestedFor(urlPathEqualTo("/form")).withRequestBody(equalTo("name=value")));
+    }
+
+    @Test
+    public void testRestrictedHeadersAreNotSent() throws Exception {
+        server.stubFor(get(urlPathEqualTo("/headers")).willReturn(aResponse().withStatus(200)));
+        HTTPSamplerBase sampler = createSampler();
+        HeaderManager headerManager = new HeaderManager();
+        headerManager.add(new Header("Expect", "100-continue"));
+        headerManager.add(new Header("X-Custom", "custom"));
+        sampler.setHeaderManager(headerManager);
+
+        HTTPSampleResult res = sampler.sample(new URL(server.url("/headers")), HTTPConstants.GET, false, 0);
+
+        // The JDK client rejects the whole request when it gets a restricted header
+        assertEquals("200", res.getResponseCode());
+        server.verify(getRequestedFor(urlPathEqualTo("/headers"))
+                .withHeader("X-Custom", equalTo("custom"))
+                .withHeader("Expect", absent()));
+    }
+
+    @Test
+    public void testHostnameVerificationIsDisabledByDefault() throws Exception {
+        server.stubFor(get(urlPathEqualTo("/page")).willReturn(aResponse().withStatus(200)));
+        // The first client sets the system property, like HC4 which does not verify host names
+        createSampler().sample(new URL(server.url("/page")), HTTPConstants.GET, false, 0);
+        assertEquals("true", System.getProperty(HTTPJavaClientImpl.DISABLE_HOSTNAME_VERIFICATION));
+        assertTrue(HTTPJavaClientImpl.disableHostnameVerification(false));
+    }
+
+    @Test
+    public void testRequestBodySendsFilesFromTheirPath(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("upload.txt"), "file content".getBytes(StandardCharsets.UTF_8));
+        HTTPJavaClientImpl.RequestBody body = new HTTPJavaClientImpl.RequestBody();
+        body.write("head-".getBytes(StandardCharsets.UTF_8));
+        FileUploads.writeFile(file, body);
+        body.write("-tail".getBytes(StandardCharsets.UTF_8));
+        // The file content is not copied in the buffer
+        assertEquals(5, body.size());
+
+        HttpRequest.BodyPublisher publisher = body.toBodyPublisher();
+
+        assertEquals(5 + 12 + 5, publisher.contentLength());
+        assertEquals("head-file content-tail", new String(publishedBytes(publisher), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmptyRequestBodyHasNoContent() throws Exception {
+        HttpRequest.BodyPublisher publisher = new HTTPJavaClientImpl.RequestBody().toBodyPublisher();
+        assertEquals(0, publisher.contentLength());
+        assertEquals(0, publishedBytes(publisher).length);
+    }
+}
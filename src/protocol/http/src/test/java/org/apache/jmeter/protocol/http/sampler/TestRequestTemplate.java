@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.sampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URL;
+
+import org.apache.jmeter.config.Argument;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.protocol.http.util.HTTPArgument;
+import org.junit.jupiter.api.Test;
+
+class TestRequestTemplate {
+
+    private static Arguments arguments(HTTPArgument... items) {
+        Arguments args = new Arguments();
+        for (HTTPArgument item : items) {
+            args.addArgument(item);
+        }
+        return args;
+    }
+
+    @Test
+    void queryStringIsReusedWhenArgumentsDidNotChange() {
+        RequestTemplate template = new RequestTemplate();
+        Arguments args = arguments(new HTTPArgument("a b", "1&2"), new HTTPArgument("c", "d", true));
+        String first = template.getQueryString(args, "UTF-8");
+        assertEquals("a+b=1%262&c=d", first);
+        assertSame(first, template.getQueryString(args, "UTF-8"));
+    }
+
+    @Test
+    void changedArgumentsAreEncodedAgain() {
+        RequestTemplate template = new RequestTemplate();
+        HTTPArgument changing = new HTTPArgument("b", "x");
+        Arguments args = arguments(new HTTPArgument("a", "1"), changing);
+        assertEquals("a=1&b=x", template.getQueryString(args, "UTF-8"));
+        changing.setValue("y z");
+        assertEquals("a=1&b=y+z", template.getQueryString(args, "UTF-8"));
+        args.removeArgument(1);
+        assertEquals("a=1", template.getQueryString(args, "UTF-8"));
+        args.addArgument(new HTTPArgument("", "skipped"));
+        args.addArgument(new HTTPArgument("é", "é"));
+        assertEquals("a=1&%C3%A9=%E9", template.getQueryString(args, "ISO-8859-1"));
+    }
+
+    @Test
+    void argumentsAreEncodedLikeHTTPArgument() throws Exception {
+        HTTPArgument encoded = new HTTPArgument("n a&m", "v=a/l ü");
+        HTTPArgument notEncoded = new HTTPArgument("raw name", "raw value");
+        notEncoded.setAlwaysEncoded(false);
+        Arguments args = arguments(encoded, notEncoded);
+        assertEquals(encoded.getEncodedName() + "=" + encoded.getEncodedValue("UTF-8")
+                        + "&" + notEncoded.getEncodedName() + "=" + notEncoded.getEncodedValue("UTF-8"),
+                new RequestTemplate().getQueryString(args, "UTF-8"));
+    }
+
+    @Test
+    void plainArgumentsAreConverted() {
+        Arguments args = new Arguments();
+        args.addArgument(new Argument("a b", "c d"));
+        assertEquals("a+b=c+d", new RequestTemplate().getQueryString(args, "UTF-8"));
+    }
+
+    @Test
+    void valueIsLeftOutWhenTheEncodingIsNotSupported() {
+        Arguments args = arguments(new HTTPArgument("a", "1"));
+        assertEquals("a=", new RequestTemplate().getQueryString(args, "no-such-encoding"));
+    }
+
+    @Test
+    void urlIsReusedWhenPartsDidNotChange() throws Exception {
+        RequestTemplate template = new RequestTemplate();
+        URL url = template.getUrl("http", "localhost", -1, "/index.html?a=1");
+        assertEquals("http://localhost/index.html?a=1", url.toString());
+        assertSame(url, template.getUrl("http", "localhost", -1, "/index.html?a=1"));
+        URL other = template.getUrl("http", "localhost", 8080, "/index.html?a=1");
+        assertEquals("http://localhost:8080/index.html?a=1", other.toString());
+        assertNotSame(other, template.getUrl("https://localhost/index.html"));
+        assertSame(template.getUrl("https://localhost/index.html"), template.getUrl("https://localhost/index.html"));
+    }
+}
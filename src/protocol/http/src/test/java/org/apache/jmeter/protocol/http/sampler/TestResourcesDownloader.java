@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.sampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.jmeter.protocol.http.sampler.ResourcesDownloader.AsynSamplerResultHolder;
+import org.apache.jorphan.util.VirtualThreads;
+import org.junit.jupiter.api.Test;
+
+public class TestResourcesDownloader {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static AsynSamplerResultHolder holder() {
+        return new AsynSamplerResultHolder(new HTTPSampleResult(), null);
+    }
+
+    private static void awaitPermits(ResourcesDownloader downloader, int expected) throws InterruptedException {
+        while (downloader.getAvailablePermits() != expected) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testConcurrentDownloadsAreLimited() throws Exception {
+        ResourcesDownloader downloader = new ResourcesDownloader(false, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<AsynSamplerResultHolder>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return holder();
+            });
+        }
+
+        List<Future<AsynSamplerResultHolder>> futures = assertTimeoutPreemptively(TIMEOUT,
+                () -> downloader.invokeAllAndAwaitTermination(8, tasks));
+
+        assertEquals(8, futures.size());
+        assertTrue(maxRunning.get() <= 2, () -> "at most 2 downloads should run at once, got " + maxRunning);
+        awaitPermits(downloader, 2);
+    }
+
+    @Test
+    public void testCancelledDownloadsReleaseTheirPermits() throws Exception {
+        ResourcesDownloader downloader = new ResourcesDownloader(false, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        Callable<AsynSamplerResultHolder> blocking = () -> {
+            started.countDown();
+            new CountDownLatch(1).await();
+            return holder();
+        };
+        List<Callable<AsynSamplerResultHolder>> tasks = List.of(blocking, blocking, blocking);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread sampler = new Thread(() -> {
+            try {
+                downloader.invokeAllAndAwaitTermination(3, tasks);
+            } catch (Throwable e) { // NOSONAR the test checks the failure
+                failure.set(e);
+            }
+        });
+        sampler.start();
+        started.await();
+        // The sampler waits for a permit to schedule the second download, as when the test is stopped
+        sampler.interrupt();
+        sampler.join(TIMEOUT.toMillis());
+
+        assertTrue(failure.get() instanceof InterruptedException, () -> "got " + failure.get());
+        assertTimeoutPreemptively(TIMEOUT, () -> awaitPermits(downloader, 1));
+    }
+
+    @Test
+    public void testNestedDownloadsDoNotWaitForAPermit() throws Exception {
+        ResourcesDownloader downloader = new ResourcesDownloader(false, 1);
+        AtomicInteger downloads = new AtomicInteger();
+        Callable<AsynSamplerResultHolder> resource = () -> {
+            downloads.incrementAndGet();
+            return holder();
+        };
+        // A frame downloads its own resources while it holds the only permit
+        Callable<AsynSamplerResultHolder> innerFrame = () -> {
+            downloader.invokeAllAndAwaitTermination(2, List.of(resource, resource));
+            return holder();
+        };
+        Callable<AsynSamplerResultHolder> frame = () -> {
+            downloader.invokeAllAndAwaitTermination(2, List.of(resource, innerFrame));
+            return holder();
+        };
+
+        assertTimeoutPreemptively(TIMEOUT,
+                () -> downloader.invokeAllAndAwaitTermination(1, Collections.singletonList(frame)));
+
+        assertEquals(3, downloads.get());
+        awaitPermits(downloader, 1);
+    }
+
+    @Test
+    public void testFailedDownloadReleasesItsPermit() throws Exception {
+        ResourcesDownloader downloader = new ResourcesDownloader(false, 1);
+        Callable<AsynSamplerResultHolder> failing = () -> {
+            throw new IllegalStateException("download failed");
+        };
+
+        assertThrows(RuntimeException.class,
+                () -> downloader.invokeAllAndAwaitTermination(1, List.of(failing, failing)));
+
+        assertTimeoutPreemptively(TIMEOUT, () -> awaitPermits(downloader, 1));
+    }
+
+    @Test
+    public void testDownloadsRunOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads are not supported by this JVM");
+        ResourcesDownloader downloader = new ResourcesDownloader(true, 0);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        Callable<AsynSamplerResultHolder> task = () -> {
+            thread.set(Thread.currentThread());
+            return holder();
+        };
+
+        downloader.invokeAllAndAwaitTermination(1, Collections.singletonList(task));
+
+        assertTrue(thread.get().getName().startsWith("ResDownload-"), thread.get().getName());
+        // Thread.isVirtual() is not available in Java 17
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread.get()));
+        assertEquals(-1, downloader.getAvailablePermits());
+    }
+}
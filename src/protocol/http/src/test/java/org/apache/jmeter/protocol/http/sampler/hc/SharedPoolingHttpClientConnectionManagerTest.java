@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.protocol.http.sampler.hc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.conn.DefaultHttpClientConnectionOperator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SharedPoolingHttpClientConnectionManagerTest {
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 8080));
+    private static final HttpRoute OTHER_ROUTE = new HttpRoute(new HttpHost("localhost", 8081));
+
+    private SharedPoolingHttpClientConnectionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new SharedPoolingHttpClientConnectionManager(
+                new DefaultHttpClientConnectionOperator(
+                        RegistryBuilder.<ConnectionSocketFactory>create()
+                                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                                .build(),
+                        null, null),
+                -1, TimeUnit.MILLISECONDS, 2, 1);
+        SharedPoolingHttpClientConnectionManager.getAndResetLeaseWaitTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    private HttpClientConnection lease(HttpRoute route, long timeout) throws Exception {
+        return manager.requestConnection(route, null).get(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void leaseTimesOutWhenPoolIsExhausted() throws Exception {
+        assertNotNull(lease(ROUTE, 100));
+        assertNotNull(lease(OTHER_ROUTE, 100));
+        assertThrows(ConnectionPoolTimeoutException.class, () -> lease(ROUTE, 50));
+        assertTrue(SharedPoolingHttpClientConnectionManager.getAndResetLeaseWaitTime() >= 50,
+                "the wait for the connection should be recorded");
+        assertEquals(0, SharedPoolingHttpClientConnectionManager.getAndResetLeaseWaitTime(),
+                "wait time is reset once read");
+    }
+
+    @Test
+    void perRouteLimitIsEnforced() throws Exception {
+        assertNotNull(lease(ROUTE, 100));
+        assertThrows(ConnectionPoolTimeoutException.class, () -> lease(ROUTE, 50));
+        // The failed lease must give its permit back
+        assertNotNull(lease(OTHER_ROUTE, 100));
+    }
+
+    @Test
+    void releasedConnectionCanBeLeasedAgain() throws Exception {
+        HttpClientConnection first = lease(ROUTE, 100);
+        assertNotNull(lease(OTHER_ROUTE, 100));
+        manager.releaseConnection(first, null, 0, TimeUnit.MILLISECONDS);
+        assertNotNull(lease(ROUTE, 100));
+    }
+}
@@ -215,8 +215,9 @@ class DNSCacheManagerTest {
         server: WireMockServer
     ) {
         assumeTrue(
-            httpImplementation != HTTPSamplerFactory.IMPL_JAVA,
-            "Java implementation does not support custom DNS resolver yet"
+            httpImplementation != HTTPSamplerFactory.IMPL_JAVA &&
+                httpImplementation != HTTPSamplerFactory.IMPL_JAVA_HTTP_CLIENT,
+            "Java implementations do not support custom DNS resolver yet"
         )
 
         // Set up WireMock to respond to requests